@@ -2,6 +2,8 @@ import com.google.cloud.tools.jib.gradle.BuildDockerTask
 import com.google.cloud.tools.jib.gradle.BuildImageTask
 import com.google.cloud.tools.jib.gradle.BuildTarTask
 import com.google.cloud.tools.jib.gradle.JibExtension
+import org.springframework.boot.gradle.tasks.aot.ProcessAot
+import org.springframework.boot.gradle.tasks.bundling.BootBuildImage
 
 plugins {
     java
@@ -12,6 +14,8 @@ plugins {
     alias(libs.plugins.freefair.lombok)
     alias(libs.plugins.versions)
     alias(libs.plugins.jib)
+    alias(libs.plugins.jmh)
+    alias(libs.plugins.graalvm.native)
 }
 
 group = "de.gematik.zeta"
@@ -36,15 +40,25 @@ repositories {
     mavenCentral()
 }
 
+// Load generators in src/loadtest, run against the application started in-process
+val loadtest: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+configurations[loadtest.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadtest.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.springframework.boot:spring-boot-starter-security")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
+    implementation("org.hibernate.orm:hibernate-micrometer")
     implementation("org.springframework.boot:spring-boot-starter-actuator")
     implementation("io.micrometer:micrometer-registry-prometheus")
     implementation("org.springframework.boot:spring-boot-starter-websocket")
     implementation("org.springframework:spring-websocket")
     implementation("org.springframework.boot:spring-boot-starter-json")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-yaml")
     implementation(libs.springdoc)
     implementation(libs.springwolfstomp)
     implementation(libs.springwolfstompbinding)
@@ -61,6 +75,29 @@ dependencies {
     runtimeOnly("com.h2database:h2")
 
     testImplementation("org.springframework.boot:spring-boot-starter-test")
+
+    jmhRuntimeOnly("com.h2database:h2")
+
+    "loadtestImplementation"(libs.hdrhistogram)
+}
+
+// API documents generated from the running application; served by the static-api-docs profile.
+// ApiDocsDriftTest fails the build when docs/ drifts from the code: ./gradlew updateApiDocs refreshes docs/.
+tasks.processResources {
+    from("docs") {
+        include("swagger-api-docs.json", "async-api-docs.yml")
+        into("api-docs")
+    }
+}
+
+tasks.register<Test>("updateApiDocs") {
+    group = "documentation"
+    description = "Regenerates docs/swagger-api-docs.json and docs/async-api-docs.yml from the application."
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    filter { includeTestsMatching("*.ApiDocsDriftTest") }
+    systemProperty("apiDocs.update", "true")
+    outputs.upToDateWhen { false }
 }
 
 checkstyle {
@@ -70,6 +107,70 @@ checkstyle {
     maxWarnings = 0
 }
 
+// Sources generated by Spring AOT are not held to the code style
+tasks.withType<Checkstyle>().matching { it.name.startsWith("checkstyleAot") }.configureEach {
+    enabled = false
+}
+
+// Benchmarks in src/jmh: ./gradlew jmh [-PjmhIncludes=<regex>]
+// Allocation rates come from the gc profiler, results are written as JSON for comparison across releases.
+jmh {
+    jmhVersion = libs.versions.jmh.asProvider().get()
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("results/jmh/results.json")
+    warmupIterations = 3
+    iterations = 5
+    fork = 1
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes = listOf(it) }
+}
+
+// HTTP load test: ./gradlew loadTest [-Ploadtest.rates=50,100,200 -Ploadtest.durationSeconds=30 ...]
+// Every -Ploadtest.* property is passed to the generator; the report is written to build/reports/loadtest/http.
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Runs the open-model HTTP load test against the application on a random port."
+    classpath = loadtest.runtimeClasspath
+    mainClass = "de.gematik.zeta.testfachdienst.loadtest.HttpLoadTest"
+    workingDir = projectDir
+    systemProperty("loadtest.version", project.version.toString())
+    providers.gradlePropertiesPrefixedBy("loadtest.").get().forEach { (key, value) -> systemProperty(key, value) }
+}
+
+// STOMP load test: ./gradlew stompLoadTest [-Ploadtest.sessions=2000 -Ploadtest.rates=10,50,100 ...]
+// The application runs in a separate JVM so its heap per session can be measured; report in build/reports/loadtest/stomp.
+tasks.register<JavaExec>("stompLoadTest") {
+    group = "verification"
+    description = "Runs the STOMP broadcast load test with many concurrent WebSocket sessions."
+    classpath = loadtest.runtimeClasspath
+    mainClass = "de.gematik.zeta.testfachdienst.loadtest.StompLoadTest"
+    workingDir = projectDir
+    systemProperty("loadtest.version", project.version.toString())
+    providers.gradlePropertiesPrefixedBy("loadtest.").get().forEach { (key, value) -> systemProperty(key, value) }
+}
+
+// Startup comparison: ./gradlew startupComparison [-Ploadtest.variants=jvm,native -Ploadtest.runs=5]
+// Starts the boot jar and the native executable, records time to readiness and RSS; report in build/reports/startup.
+tasks.register<JavaExec>("startupComparison") {
+    group = "verification"
+    description = "Compares time to readiness and resident memory of the JVM and native variants."
+    classpath = loadtest.runtimeClasspath
+    mainClass = "de.gematik.zeta.testfachdienst.loadtest.StartupComparison"
+    workingDir = projectDir
+    val variants = providers.gradleProperty("loadtest.variants").getOrElse("jvm,native").split(",").map { it.trim() }
+    dependsOn(tasks.bootJar)
+    if ("native" in variants) {
+        dependsOn("nativeCompile")
+    }
+    systemProperty("loadtest.version", project.version.toString())
+    systemProperty("loadtest.jar", tasks.bootJar.get().archiveFile.get().asFile.absolutePath)
+    systemProperty(
+        "loadtest.nativeExecutable",
+        layout.buildDirectory.file("native/nativeCompile/${project.name}").get().asFile.absolutePath,
+    )
+    providers.gradlePropertiesPrefixedBy("loadtest.").get().forEach { (key, value) -> systemProperty(key, value) }
+}
+
 jacoco {
     toolVersion = libs.versions.jacoco.get()
 }
@@ -85,6 +186,9 @@ tasks.withType<Test>().configureEach {
     useJUnitPlatform()
     jvmArgs("-XX:+EnableDynamicAgentLoading")
     jvmArgs("-Xshare:off")
+}
+
+tasks.test {
     finalizedBy(tasks.jacocoTestReport)
 }
 
@@ -97,22 +201,99 @@ tasks.jacocoTestReport {
     }
 }
 
+// Profiles and bean-selecting properties fixed at build time, used by Spring AOT and the CDS training run:
+// -PaotProfiles=in-memory -PaotArgs="--management.server.port=8081"
+val aotArguments =
+    listOfNotNull(providers.gradleProperty("aotProfiles").orNull?.let { "--spring.profiles.active=$it" }) +
+        providers.gradleProperty("aotArgs").getOrElse("").split(" ").filter { it.isNotBlank() }
+
+// CDS archive in the Jib image (needs Docker): ./gradlew jibDockerBuild -Pcds [-PaotProfiles=... -PaotArgs=...]
+// The image is built once as tar, started with -XX:ArchiveClassesAtExit until the context is refreshed, and the
+// archive is added to the final image. The archive is only valid for the JDK of the base image and the exact jars
+// of the image, so the training run happens in the image itself.
+val cds = providers.gradleProperty("cds").isPresent
+val cdsDirectory = layout.buildDirectory.dir("cds")
+val cdsArchive = "/app/cds/application.jsa"
+val jibImage = "your-docker-registry.example.org/zeta/testing/testfachdienst"
+val jibJvmFlags =
+    listOf(
+        "-XX:+UseContainerSupport",
+        "-XX:MaxRAMPercentage=75.0",
+        "-XX:+ExitOnOutOfMemoryError",
+    )
+val cdsTrainingContainer = "testfachdienst-cds-training"
+
+if (cds) {
+    // Spring AOT initializers are used by the image, so the plain jar Jib packages must contain them
+    tasks.jar {
+        from(sourceSets["aot"].output)
+    }
+}
+
+tasks.register<Exec>("cdsLoadTrainingImage") {
+    group = "build"
+    description = "Loads the image built by jibBuildTar into Docker for the CDS training run."
+    dependsOn("jibBuildTar")
+    commandLine("docker", "load", "--input", layout.buildDirectory.file("jib-image.tar").get().asFile.absolutePath)
+}
+
+tasks.register<Exec>("cdsTrainingRun") {
+    group = "build"
+    description = "Starts the image until the application context is refreshed and dumps the loaded classes."
+    dependsOn("cdsLoadTrainingImage")
+    finalizedBy("cdsRemoveTrainingContainer")
+    commandLine(
+        listOf("docker", "run", "--name", cdsTrainingContainer, "--entrypoint", "java", "$jibImage:${project.version}") +
+            jibJvmFlags +
+            listOf(
+                "-XX:ArchiveClassesAtExit=/tmp/application.jsa",
+                "-Dspring.aot.enabled=true",
+                "-Dspring.context.exit=onRefresh",
+                "-cp",
+                "@/app/jib-classpath-file",
+                "de.gematik.zeta.testfachdienst.TestfachdienstApplication",
+            ) + aotArguments,
+    )
+}
+
+tasks.register<Exec>("cdsCopyArchive") {
+    group = "build"
+    description = "Copies the CDS archive of the training run to build/cds."
+    dependsOn("cdsTrainingRun")
+    val target = cdsDirectory.get().asFile
+    doFirst { target.mkdirs() }
+    commandLine("docker", "cp", "$cdsTrainingContainer:/tmp/application.jsa", target.resolve("application.jsa").absolutePath)
+}
+
+tasks.register<Exec>("cdsRemoveTrainingContainer") {
+    group = "build"
+    description = "Removes the container of the CDS training run."
+    isIgnoreExitValue = true
+    commandLine("docker", "rm", "--force", cdsTrainingContainer)
+}
+
+if (cds) {
+    listOf("jib", "jibDockerBuild").forEach { tasks.named(it) { dependsOn("cdsCopyArchive") } }
+    tasks.named("cdsRemoveTrainingContainer") { mustRunAfter("cdsCopyArchive") }
+}
+
 extensions.configure<JibExtension>("jib") {
     from {
         image = "gcr.io/distroless/java21-debian12"
     }
     to {
-        image = "your-docker-registry.example.org/zeta/testing/testfachdienst"
+        image = jibImage
         tags = setOf(project.version.toString(), "latest")
     }
     container {
-        containerizingMode = "exploded"
+        // CDS only archives classes loaded from jars
+        containerizingMode = if (cds) "packaged" else "exploded"
         jvmFlags =
-            listOf(
-                "-XX:+UseContainerSupport",
-                "-XX:MaxRAMPercentage=75.0",
-                "-XX:+ExitOnOutOfMemoryError",
-            )
+            if (cds) {
+                jibJvmFlags + listOf("-XX:SharedArchiveFile=$cdsArchive", "-Dspring.aot.enabled=true")
+            } else {
+                jibJvmFlags
+            }
         ports = listOf("8080", "8081")
         user = "65532:65532"
         creationTime = "USE_CURRENT_TIMESTAMP"
@@ -123,6 +304,37 @@ extensions.configure<JibExtension>("jib") {
                 "org.opencontainers.image.version" to project.version.toString(),
             )
     }
+    if (cds) {
+        extraDirectories {
+            paths {
+                path {
+                    setFrom(cdsDirectory.get().asFile.toPath())
+                    into = "/app/cds"
+                }
+            }
+        }
+    }
+}
+
+// Native image: ./gradlew nativeCompile (local GraalVM 21) or ./gradlew bootBuildImage (container, no local GraalVM).
+// Spring AOT fixes the bean graph at build time, so profiles that select beans (storage engine, read replica)
+// have to be chosen for the build: -PaotProfiles=in-memory
+graalvmNative {
+    binaries {
+        named("main") {
+            imageName = project.name
+            buildArgs.add("--enable-monitoring=jfr,heapdump")
+        }
+    }
+}
+
+tasks.named<ProcessAot>("processAot") {
+    args(aotArguments)
+}
+
+tasks.named<BootBuildImage>("bootBuildImage") {
+    imageName = "your-docker-registry.example.org/zeta/testing/testfachdienst-native:${project.version}"
+    environment.put("BP_NATIVE_IMAGE_BUILD_ARGUMENTS", "--enable-monitoring=jfr,heapdump")
 }
 
 tasks.withType<BuildDockerTask>().configureEach {
@@ -0,0 +1,177 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Struct;
+import com.google.protobuf.Value;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Serialization cost of a single {@link Erezept} as JSON, with the object mapper configured the
+ * way the application configures it, and as protobuf message.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ErezeptSerializationBenchmark {
+
+  private ConfigurableApplicationContext context;
+  private ObjectMapper objectMapper;
+  private Erezept prescription;
+  private byte[] json;
+  private byte[] protobuf;
+
+  /**
+   * Build the application object mapper from Spring Boot's Jackson auto-configuration and the
+   * application properties, and prepare the payloads.
+   *
+   * @throws IOException if the sample cannot be serialized
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    context = new SpringApplicationBuilder(JacksonAutoConfiguration.class)
+        .web(WebApplicationType.NONE)
+        .properties("spring.main.banner-mode=off", "logging.config=classpath:logback.xml", "logging.level.root=WARN")
+        .run();
+    objectMapper = context.getBean(ObjectMapper.class);
+    prescription = Erezept.builder()
+        .id(123L)
+        .medicationName("Ibuprofen 400 mg")
+        .dosage("1 tablet, 3x daily after meals")
+        .issuedAt(OffsetDateTime.of(2025, 9, 22, 10, 30, 0, 0, ZoneOffset.UTC))
+        .expiresAt(OffsetDateTime.of(2025, 12, 31, 23, 59, 59, 0, ZoneOffset.UTC))
+        .status(ErezeptStatus.SIGNED)
+        .patientId("PAT-123456")
+        .practitionerId("PRAC-98765")
+        .prescriptionId("RX-2025-000123")
+        .build();
+    json = objectMapper.writeValueAsBytes(prescription);
+    protobuf = toStruct(prescription).toByteArray();
+  }
+
+  /**
+   * Close the Spring context.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  /**
+   * Serialize a prescription to JSON.
+   *
+   * @return JSON bytes
+   * @throws IOException if serialization fails
+   */
+  @Benchmark
+  public byte[] jsonSerialize() throws IOException {
+    return objectMapper.writeValueAsBytes(prescription);
+  }
+
+  /**
+   * Deserialize a prescription from JSON.
+   *
+   * @return parsed prescription
+   * @throws IOException if parsing fails
+   */
+  @Benchmark
+  public Erezept jsonDeserialize() throws IOException {
+    return objectMapper.readValue(json, Erezept.class);
+  }
+
+  /**
+   * Encode a prescription as protobuf message and decode it again.
+   *
+   * @return decoded prescription
+   * @throws InvalidProtocolBufferException if decoding fails
+   */
+  @Benchmark
+  public Erezept protobufRoundTrip() throws InvalidProtocolBufferException {
+    return fromStruct(Struct.parseFrom(toStruct(prescription).toByteArray()));
+  }
+
+  /**
+   * Decode a prescription from protobuf bytes.
+   *
+   * @return decoded prescription
+   * @throws InvalidProtocolBufferException if decoding fails
+   */
+  @Benchmark
+  public Erezept protobufDeserialize() throws InvalidProtocolBufferException {
+    return fromStruct(Struct.parseFrom(protobuf));
+  }
+
+  private static Struct toStruct(Erezept prescription) {
+    return Struct.newBuilder()
+        .putFields("id", Value.newBuilder().setNumberValue(prescription.getId()).build())
+        .putFields("medicationName", string(prescription.getMedicationName()))
+        .putFields("dosage", string(prescription.getDosage()))
+        .putFields("issuedAt", string(prescription.getIssuedAt().toString()))
+        .putFields("expiresAt", string(prescription.getExpiresAt().toString()))
+        .putFields("status", string(prescription.getStatus().name()))
+        .putFields("patientId", string(prescription.getPatientId()))
+        .putFields("practitionerId", string(prescription.getPractitionerId()))
+        .putFields("prescriptionId", string(prescription.getPrescriptionId()))
+        .build();
+  }
+
+  private static Erezept fromStruct(Struct struct) {
+    return Erezept.builder()
+        .id((long) struct.getFieldsOrThrow("id").getNumberValue())
+        .medicationName(struct.getFieldsOrThrow("medicationName").getStringValue())
+        .dosage(struct.getFieldsOrThrow("dosage").getStringValue())
+        .issuedAt(OffsetDateTime.parse(struct.getFieldsOrThrow("issuedAt").getStringValue()))
+        .expiresAt(OffsetDateTime.parse(struct.getFieldsOrThrow("expiresAt").getStringValue()))
+        .status(ErezeptStatus.valueOf(struct.getFieldsOrThrow("status").getStringValue()))
+        .patientId(struct.getFieldsOrThrow("patientId").getStringValue())
+        .practitionerId(struct.getFieldsOrThrow("practitionerId").getStringValue())
+        .prescriptionId(struct.getFieldsOrThrow("prescriptionId").getStringValue())
+        .build();
+  }
+
+  private static Value string(String value) {
+    return Value.newBuilder().setStringValue(value).build();
+  }
+}
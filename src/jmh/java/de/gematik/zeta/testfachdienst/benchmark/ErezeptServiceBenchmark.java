@@ -0,0 +1,210 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.benchmark;
+
+import de.gematik.zeta.testfachdienst.config.ErezeptStatsProperties;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import de.gematik.zeta.testfachdienst.repository.ErezeptRepository;
+import de.gematik.zeta.testfachdienst.repository.JpaErezeptStore;
+import de.gematik.zeta.testfachdienst.service.ErezeptService;
+import de.gematik.zeta.testfachdienst.service.ErezeptStatsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * {@link ErezeptService} create, find and update against the default JPA store on H2.
+ *
+ * <p>Runs once per performance profile so that pool, batching and statement cache settings can be
+ * compared, and with datasets of different size so that index depth and cache effects show.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ErezeptServiceBenchmark {
+
+  @Param({"latency", "throughput", "loadtest"})
+  public String profile;
+
+  @Param({"10000", "100000"})
+  public int datasetSize;
+
+  private final AtomicLong sequence = new AtomicLong();
+  private ConfigurableApplicationContext context;
+  private ErezeptService service;
+  private List<Long> ids;
+
+  /**
+   * Start a persistence-only application context with the selected profile and load the dataset.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new SpringApplicationBuilder(PersistenceContext.class)
+        .web(WebApplicationType.NONE)
+        .profiles(profile)
+        .properties(
+            "spring.main.banner-mode=off",
+            "logging.config=classpath:logback.xml",
+            "logging.level.root=WARN",
+            "logging.level.de.gematik=INFO",
+            "spring.jpa.properties.hibernate.format_sql=false",
+            "spring.datasource.url=jdbc:h2:mem:benchmark-" + profile + "-" + datasetSize
+                + ";DB_CLOSE_DELAY=-1;QUERY_CACHE_SIZE=${erezept.jdbc.statementCacheSize}")
+        .run();
+    service = context.getBean(ErezeptService.class);
+    ids = LongStream.range(0, datasetSize)
+        .mapToObj(i -> service.create(prescription()).orElseThrow().getId())
+        .toList();
+  }
+
+  /**
+   * Close the application context and its database.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  /**
+   * Store a new prescription.
+   *
+   * @return created prescription
+   */
+  @Benchmark
+  public Optional<Erezept> create() {
+    return service.create(prescription());
+  }
+
+  /**
+   * Look up a random prescription by id.
+   *
+   * @return found prescription
+   */
+  @Benchmark
+  public Optional<Erezept> findById() {
+    return service.findById(randomId());
+  }
+
+  /**
+   * Look up a random prescription by business identifier.
+   *
+   * @return found prescription
+   */
+  @Benchmark
+  public Optional<Erezept> findByPrescriptionId() {
+    return service.findByPrescriptionId("RX-BENCH-" + ThreadLocalRandom.current().nextLong(1, datasetSize + 1));
+  }
+
+  /**
+   * Read one page of 100 prescriptions.
+   *
+   * @return page content
+   */
+  @Benchmark
+  public List<Erezept> findPage() {
+    return service.findPage(ThreadLocalRandom.current().nextInt(datasetSize / 100), 100);
+  }
+
+  /**
+   * Change the status of a random prescription.
+   *
+   * @return updated prescription
+   */
+  @Benchmark
+  public Optional<Erezept> update() {
+    var changes = prescription();
+    changes.setStatus(ThreadLocalRandom.current().nextBoolean() ? ErezeptStatus.SIGNED : ErezeptStatus.CREATED);
+    return service.update(randomId(), changes);
+  }
+
+  private Long randomId() {
+    return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+  }
+
+  private Erezept prescription() {
+    return Erezept.builder()
+        .prescriptionId("RX-BENCH-" + sequence.incrementAndGet())
+        .patientId("PAT-123456")
+        .practitionerId("PRAC-" + sequence.get() % 100)
+        .medicationName("Ibuprofen 400 mg")
+        .dosage("1 tablet, 3x daily after meals")
+        .issuedAt(OffsetDateTime.now().minusDays(1))
+        .expiresAt(OffsetDateTime.now().plusDays(90))
+        .status(ErezeptStatus.CREATED)
+        .build();
+  }
+
+  /**
+   * Persistence slice of the application: JPA store, service and stats without web, messaging or
+   * jobs.
+   */
+  @Configuration
+  @ImportAutoConfiguration({
+      DataSourceAutoConfiguration.class,
+      HibernateJpaAutoConfiguration.class,
+      TransactionAutoConfiguration.class
+  })
+  @EntityScan(basePackageClasses = Erezept.class)
+  @EnableJpaRepositories(basePackageClasses = ErezeptRepository.class)
+  @EnableConfigurationProperties(ErezeptStatsProperties.class)
+  @Import({JpaErezeptStore.class, ErezeptService.class, ErezeptStatsService.class})
+  static class PersistenceContext {
+
+    @Bean
+    MeterRegistry meterRegistry() {
+      return new SimpleMeterRegistry();
+    }
+  }
+}
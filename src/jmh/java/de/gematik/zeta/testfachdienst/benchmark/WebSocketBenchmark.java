@@ -0,0 +1,165 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.benchmark;
+
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.ws.ErezeptWsController;
+import de.gematik.zeta.testfachdienst.ws.StompFrameLoggingInterceptor;
+import de.gematik.zeta.testfachdienst.ws.WebSocketExceptionHandler;
+import de.gematik.zeta.testfachdienst.ws.model.WebSocketErrorResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.handler.annotation.support.MethodArgumentNotValidException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Per-frame overhead of the STOMP error handler and the inbound frame logging interceptor.
+ *
+ * <p>Both log on every call; the JMH logback configuration writes to a file so that the cost of
+ * formatting and appending is included as it is in the application.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WebSocketBenchmark {
+
+  private final WebSocketExceptionHandler handler = new WebSocketExceptionHandler();
+  private final StompFrameLoggingInterceptor interceptor = new StompFrameLoggingInterceptor();
+  private final MessageChannel channel = new ExecutorSubscribableChannel();
+  private ResponseStatusException notFound;
+  private MethodArgumentNotValidException invalid;
+  private MessageConversionException unreadable;
+  private IllegalStateException unexpected;
+  private Message<byte[]> sendFrame;
+  private Message<byte[]> subscribeFrame;
+
+  /**
+   * Prepare the exceptions and frames.
+   *
+   * @throws NoSuchMethodException if the STOMP handler method cannot be found
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws NoSuchMethodException {
+    notFound = new ResponseStatusException(HttpStatus.NOT_FOUND, "ERezept with id=42 not found");
+    var bindingResult = new BeanPropertyBindingResult(new Erezept(), "erezept");
+    bindingResult.rejectValue("medicationName", "NotBlank", "must not be blank");
+    bindingResult.rejectValue("prescriptionId", "NotBlank", "must not be blank");
+    var parameter = new MethodParameter(ErezeptWsController.class.getMethod("create", Erezept.class), 0);
+    sendFrame = frame(StompCommand.SEND, "/app/erezept.create", "{\"medicationName\":\"\"}");
+    subscribeFrame = frame(StompCommand.SUBSCRIBE, "/topic/erezept", "");
+    invalid = new MethodArgumentNotValidException(sendFrame, parameter, bindingResult);
+    unreadable = new MessageConversionException("Cannot deserialize value of type `java.time.OffsetDateTime`");
+    unexpected = new IllegalStateException("boom");
+  }
+
+  /**
+   * Map a not-found error.
+   *
+   * @return error response
+   */
+  @Benchmark
+  public WebSocketErrorResponse handleResponseStatus() {
+    return handler.handleException(notFound);
+  }
+
+  /**
+   * Map a validation error with field details.
+   *
+   * @return error response
+   */
+  @Benchmark
+  public WebSocketErrorResponse handleValidation() {
+    return handler.handleException(invalid);
+  }
+
+  /**
+   * Map a payload conversion error.
+   *
+   * @return error response
+   */
+  @Benchmark
+  public WebSocketErrorResponse handleConversion() {
+    return handler.handleException(unreadable);
+  }
+
+  /**
+   * Map an unexpected error, which is logged with stack trace.
+   *
+   * @return error response
+   */
+  @Benchmark
+  public WebSocketErrorResponse handleUnexpected() {
+    return handler.handleException(unexpected);
+  }
+
+  /**
+   * Intercept an inbound SEND frame.
+   *
+   * @return intercepted message
+   */
+  @Benchmark
+  public Message<?> preSendSend() {
+    return interceptor.preSend(sendFrame, channel);
+  }
+
+  /**
+   * Intercept an inbound SUBSCRIBE frame.
+   *
+   * @return intercepted message
+   */
+  @Benchmark
+  public Message<?> preSendSubscribe() {
+    return interceptor.preSend(subscribeFrame, channel);
+  }
+
+  private static Message<byte[]> frame(StompCommand command, String destination, String payload) {
+    StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+    accessor.setSessionId("benchmark-session");
+    accessor.setDestination(destination);
+    if (command == StompCommand.SUBSCRIBE) {
+      accessor.setSubscriptionId("sub-0");
+    }
+    accessor.setLeaveMutable(true);
+    return MessageBuilder.createMessage(payload.getBytes(StandardCharsets.UTF_8), accessor.getMessageHeaders());
+  }
+}
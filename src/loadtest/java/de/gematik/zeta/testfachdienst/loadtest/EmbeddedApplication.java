@@ -0,0 +1,172 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.loadtest;
+
+import de.gematik.zeta.testfachdienst.TestfachdienstApplication;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509ExtendedTrustManager;
+import javax.net.ssl.X509TrustManager;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Testfachdienst started in-process on a random port with TLS from the bundled
+ * {@code tls/keystore.p12}, as target of the load generators.
+ */
+final class EmbeddedApplication implements AutoCloseable {
+
+  private static final String KEYSTORE = "tls/keystore.p12";
+  private static final char[] KEYSTORE_PASSWORD = "password".toCharArray();
+
+  private final ConfigurableApplicationContext context;
+  private final URI baseUri;
+
+  private EmbeddedApplication(ConfigurableApplicationContext context, URI baseUri) {
+    this.context = context;
+    this.baseUri = baseUri;
+  }
+
+  /**
+   * Start the application with HTTP/2 enabled on a random port.
+   *
+   * @param profiles Spring profiles to activate, may be empty
+   * @return running application
+   */
+  static EmbeddedApplication start(String profiles) {
+    var application = new SpringApplication(TestfachdienstApplication.class);
+    if (!profiles.isBlank()) {
+      application.setAdditionalProfiles(profiles.split(","));
+    }
+    ConfigurableApplicationContext context = application.run(
+        "--server.port=0",
+        "--server.http2.enabled=true",
+        "--server.ssl.key-store=classpath:" + KEYSTORE,
+        "--logging.level.de.gematik=INFO");
+    int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+    String contextPath = context.getEnvironment().getProperty("server.servlet.context-path", "");
+    return new EmbeddedApplication(context, URI.create("https://localhost:" + port + contextPath));
+  }
+
+  /**
+   * Base URI including the servlet context path, without trailing slash.
+   *
+   * @return base URI of the running application
+   */
+  URI baseUri() {
+    return baseUri;
+  }
+
+  /**
+   * TLS context trusting the certificate of the bundled keystore.
+   *
+   * <p>The certificate is issued for {@code achelos_testfachdienst}, so host name verification is
+   * skipped to allow connecting to {@code localhost}; the chain is still checked against the
+   * keystore.</p>
+   *
+   * @return SSL context for clients of the application
+   * @throws IOException              if the keystore cannot be read
+   * @throws GeneralSecurityException if the keystore cannot be loaded
+   */
+  static SSLContext clientSslContext() throws IOException, GeneralSecurityException {
+    KeyStore keyStore = KeyStore.getInstance("PKCS12");
+    try (InputStream in = EmbeddedApplication.class.getClassLoader().getResourceAsStream(KEYSTORE)) {
+      if (in == null) {
+        throw new IOException("Keystore " + KEYSTORE + " not found on the classpath");
+      }
+      keyStore.load(in, KEYSTORE_PASSWORD);
+    }
+    TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+    trustManagers.init(keyStore);
+    var trustManager = (X509TrustManager) trustManagers.getTrustManagers()[0];
+    SSLContext sslContext = SSLContext.getInstance("TLS");
+    sslContext.init(null, new TrustManager[]{new ChainOnlyTrustManager(trustManager)}, null);
+    return sslContext;
+  }
+
+  @Override
+  public void close() {
+    context.close();
+  }
+
+  /**
+   * Checks the certificate chain but not the host name; the engine and socket variants would
+   * otherwise apply the endpoint identification requested by the client.
+   */
+  private static final class ChainOnlyTrustManager extends X509ExtendedTrustManager {
+
+    private final X509TrustManager delegate;
+
+    ChainOnlyTrustManager(X509TrustManager delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+      delegate.checkServerTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+      delegate.checkServerTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+      delegate.checkServerTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+      throw new CertificateException("Client certificates are not accepted");
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+      checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+      checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+      return delegate.getAcceptedIssuers();
+    }
+  }
+}
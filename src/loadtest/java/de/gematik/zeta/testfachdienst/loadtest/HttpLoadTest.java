@@ -0,0 +1,212 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.net.ssl.SSLContext;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Open-model HTTP load test of the REST API.
+ *
+ * <p>Starts the application on a random port (or targets {@code loadtest.baseUri}), seeds
+ * prescriptions and then runs every combination of protocol, target and arrival rate. Settings
+ * are read from system properties, see {@code ./gradlew loadTest} in the README.</p>
+ *
+ * <p>Targets:</p>
+ * <ul>
+ *   <li>{@code hellozeta}: {@code GET /hellozeta}</li>
+ *   <li>{@code erezept}: 20 % {@code POST /api/erezept}, 50 % {@code GET /api/erezept/{id}} of a
+ *       seeded prescription, 30 % {@code GET /api/erezept?page&size=20}</li>
+ * </ul>
+ */
+@Slf4j
+public final class HttpLoadTest {
+
+  private static final ObjectMapper JSON = new ObjectMapper();
+
+  private final URI baseUri;
+  private final SSLContext sslContext;
+  private final Random random;
+  private final AtomicLong prescriptionSequence = new AtomicLong();
+  private final List<Long> seededIds = new ArrayList<>();
+
+  private HttpLoadTest(URI baseUri, SSLContext sslContext, long seed) {
+    this.baseUri = baseUri;
+    this.sslContext = sslContext;
+    this.random = new Random(seed);
+  }
+
+  /**
+   * Run the load test.
+   *
+   * @param args unused, settings are read from system properties
+   * @throws Exception if the application cannot be started or the report cannot be written
+   */
+  public static void main(String[] args) throws Exception {
+    List<Double> rates = Arrays.stream(setting("rates", "50,100,200").split(","))
+        .map(String::trim).map(Double::parseDouble).toList();
+    List<HttpClient.Version> protocols = Arrays.stream(setting("protocols", "HTTP_1_1,HTTP_2").split(","))
+        .map(String::trim).map(HttpClient.Version::valueOf).toList();
+    List<String> targets = Arrays.stream(setting("targets", "hellozeta,erezept").split(","))
+        .map(String::trim).toList();
+    Duration warmup = Duration.ofSeconds(Long.parseLong(setting("warmupSeconds", "10")));
+    Duration duration = Duration.ofSeconds(Long.parseLong(setting("durationSeconds", "30")));
+    int seedCount = Integer.parseInt(setting("seedPrescriptions", "1000"));
+    long seed = Long.parseLong(setting("seed", "42"));
+    var runner = new OpenModelRunner(Integer.parseInt(setting("maxInFlight", "1000")));
+
+    Map<String, Object> settings = new LinkedHashMap<>();
+    settings.put("rates", rates);
+    settings.put("protocols", protocols);
+    settings.put("targets", targets);
+    settings.put("warmupSeconds", warmup.toSeconds());
+    settings.put("durationSeconds", duration.toSeconds());
+    settings.put("seedPrescriptions", seedCount);
+    settings.put("seed", seed);
+    settings.put("profiles", setting("profiles", ""));
+    var report = new LoadReport(Path.of(setting("reportDirectory", "build/reports/loadtest/http")), settings);
+
+    String externalUri = setting("baseUri", "");
+    EmbeddedApplication application = externalUri.isBlank() ? EmbeddedApplication.start(setting("profiles", "")) : null;
+    try {
+      URI baseUri = application != null ? application.baseUri() : URI.create(externalUri);
+      var test = new HttpLoadTest(baseUri, EmbeddedApplication.clientSslContext(), seed);
+      test.seed(seedCount);
+      for (HttpClient.Version protocol : protocols) {
+        try (HttpClient client = test.client(protocol)) {
+          for (String target : targets) {
+            for (double rate : rates) {
+              String scenario = "%s-%s-%.0f".formatted(protocol, target, rate);
+              report.add(runner.run(scenario, rate, warmup, duration, test.operation(client, target)));
+            }
+          }
+        }
+      }
+      log.info("Load test report written to {}", report.write());
+    } finally {
+      if (application != null) {
+        application.close();
+      }
+    }
+  }
+
+  /**
+   * Create prescriptions that the read operations can look up.
+   */
+  private void seed(int count) throws Exception {
+    try (HttpClient client = client(HttpClient.Version.HTTP_1_1)) {
+      for (int i = 0; i < count; i++) {
+        var response = client.send(createRequest(), BodyHandlers.ofString());
+        if (response.statusCode() != 201) {
+          throw new IllegalStateException("Seeding failed with HTTP " + response.statusCode() + ": " + response.body());
+        }
+        JsonNode created = JSON.readTree(response.body());
+        seededIds.add(created.get("id").asLong());
+      }
+    }
+    log.info("Seeded {} prescriptions", count);
+  }
+
+  private HttpClient client(HttpClient.Version protocol) {
+    return HttpClient.newBuilder()
+        .version(protocol)
+        .sslContext(sslContext)
+        .connectTimeout(Duration.ofSeconds(10))
+        .executor(Executors.newVirtualThreadPerTaskExecutor())
+        .build();
+  }
+
+  private Supplier<CompletableFuture<Boolean>> operation(HttpClient client, String target) {
+    return switch (target) {
+      case "hellozeta" -> () -> send(client, get("/hellozeta"));
+      case "erezept" -> () -> send(client, nextErezeptRequest());
+      default -> throw new IllegalArgumentException("Unknown target " + target);
+    };
+  }
+
+  private HttpRequest nextErezeptRequest() {
+    int dice = random.nextInt(100);
+    if (dice < 20) {
+      return createRequest();
+    }
+    if (dice < 70 && !seededIds.isEmpty()) {
+      return get("/api/erezept/" + seededIds.get(random.nextInt(seededIds.size())));
+    }
+    int pages = Math.max(1, seededIds.size() / 20);
+    return get("/api/erezept?page=" + random.nextInt(pages) + "&size=20");
+  }
+
+  private static CompletableFuture<Boolean> send(HttpClient client, HttpRequest request) {
+    return client.sendAsync(request, BodyHandlers.discarding())
+        .thenApply(response -> response.statusCode() / 100 == 2);
+  }
+
+  private HttpRequest get(String path) {
+    return HttpRequest.newBuilder(uri(path)).timeout(Duration.ofSeconds(30)).GET().build();
+  }
+
+  private HttpRequest createRequest() {
+    long n = prescriptionSequence.incrementAndGet();
+    String body = """
+        {"medicationName":"Ibuprofen 400 mg","dosage":"1 tablet, 3x daily after meals",\
+        "issuedAt":"%s","expiresAt":"%s","status":"CREATED","patientId":"PAT-%d",\
+        "practitionerId":"PRAC-%d","prescriptionId":"RX-LOAD-%d-%d"}"""
+        .formatted(OffsetDateTime.now().minusMinutes(1), OffsetDateTime.now().plusDays(90),
+            n % 10_000, n % 100, ProcessHandle.current().pid(), n);
+    return HttpRequest.newBuilder(uri("/api/erezept"))
+        .timeout(Duration.ofSeconds(30))
+        .header("Content-Type", "application/json")
+        .POST(BodyPublishers.ofString(body))
+        .build();
+  }
+
+  private URI uri(String path) {
+    return URI.create(baseUri + path);
+  }
+
+  private static String setting(String name, String defaultValue) {
+    return System.getProperty("loadtest." + name, defaultValue);
+  }
+}
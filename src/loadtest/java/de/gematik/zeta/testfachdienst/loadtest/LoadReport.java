@@ -0,0 +1,114 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Collects {@link LoadResult}s and writes them as HdrHistogram percentile distributions
+ * ({@code <scenario>.hgrm}) and a {@code summary.json} baseline.
+ */
+@Slf4j
+final class LoadReport {
+
+  private final Path directory;
+  private final Map<String, Object> metadata;
+  private final List<Map<String, Object>> results = new ArrayList<>();
+
+  /**
+   * Creates a report.
+   *
+   * @param directory target directory, created if missing
+   * @param settings  settings of the run, stored with the results for reproduction
+   */
+  LoadReport(Path directory, Map<String, Object> settings) {
+    this.directory = directory;
+    this.metadata = new LinkedHashMap<>();
+    metadata.put("version", System.getProperty("loadtest.version", "unknown"));
+    metadata.put("java", Runtime.version().toString());
+    metadata.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+    metadata.put("startedAt", OffsetDateTime.now().toString());
+    metadata.put("settings", settings);
+  }
+
+  /**
+   * Add a result, print its summary and write its percentile distribution.
+   *
+   * @param result scenario result
+   * @throws IOException if the distribution cannot be written
+   */
+  void add(LoadResult result) throws IOException {
+    results.add(result.summary());
+    Files.createDirectories(directory);
+    try (var out = new PrintStream(Files.newOutputStream(directory.resolve(fileName(result.scenario()) + ".hgrm")))) {
+      result.histogram().outputPercentileDistribution(out, 1_000_000.0);
+    }
+    log.info("{}: {} ok, {} failed, {} dropped, {}/s, p50={} ms p99={} ms p99.9={} ms max={} ms",
+        result.scenario(), result.succeeded(), result.failed(), result.dropped(),
+        "%.1f".formatted(result.throughput()), "%.2f".formatted(result.percentile(50)),
+        "%.2f".formatted(result.percentile(99)), "%.2f".formatted(result.percentile(99.9)),
+        "%.2f".formatted(result.histogram().getMaxValue() / 1_000_000.0));
+  }
+
+  /**
+   * Record a run-level measurement that is not a latency distribution, e.g. memory per session.
+   *
+   * @param key   name in {@code summary.json}
+   * @param value measured value
+   */
+  void put(String key, Object value) {
+    metadata.put(key, value);
+  }
+
+  /**
+   * Write all results collected so far to {@code summary.json}.
+   *
+   * @return written file
+   * @throws IOException if the file cannot be written
+   */
+  Path write() throws IOException {
+    Files.createDirectories(directory);
+    Path file = directory.resolve("summary.json");
+    Map<String, Object> document = new LinkedHashMap<>(metadata);
+    document.put("results", results);
+    new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), document);
+    return file;
+  }
+
+  private static String fileName(String scenario) {
+    return scenario.replaceAll("[^A-Za-z0-9_.-]", "_");
+  }
+}
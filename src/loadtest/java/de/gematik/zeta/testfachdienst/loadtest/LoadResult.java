@@ -0,0 +1,93 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Outcome of one load scenario; latencies are recorded in nanoseconds.
+ *
+ * @param scenario   name of the scenario
+ * @param targetRate offered arrivals per second
+ * @param duration   recorded phase
+ * @param succeeded  successful operations
+ * @param failed     failed operations
+ * @param dropped    operations not started because of the in-flight limit
+ * @param histogram  latencies of the successful operations
+ */
+record LoadResult(
+    String scenario,
+    double targetRate,
+    Duration duration,
+    long succeeded,
+    long failed,
+    long dropped,
+    Histogram histogram) {
+
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+  /**
+   * Successful operations per second over the recorded phase.
+   *
+   * @return achieved throughput
+   */
+  double throughput() {
+    return succeeded / (duration.toNanos() / 1_000_000_000.0);
+  }
+
+  /**
+   * Flat summary with latencies in milliseconds, used for the JSON report.
+   *
+   * @return ordered summary values
+   */
+  Map<String, Object> summary() {
+    Map<String, Object> summary = new LinkedHashMap<>();
+    summary.put("scenario", scenario);
+    summary.put("targetRate", targetRate);
+    summary.put("throughput", Math.round(throughput() * 10) / 10.0);
+    summary.put("succeeded", succeeded);
+    summary.put("failed", failed);
+    summary.put("dropped", dropped);
+    summary.put("p50Ms", percentile(50));
+    summary.put("p90Ms", percentile(90));
+    summary.put("p99Ms", percentile(99));
+    summary.put("p999Ms", percentile(99.9));
+    summary.put("maxMs", histogram.getMaxValue() / NANOS_PER_MILLI);
+    return summary;
+  }
+
+  /**
+   * Latency at the given percentile in milliseconds.
+   *
+   * @param percentile percentile between 0 and 100
+   * @return latency in milliseconds
+   */
+  double percentile(double percentile) {
+    return histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+  }
+}
@@ -0,0 +1,134 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Drives an asynchronous operation at a fixed arrival rate, independent of how fast the target
+ * responds (open workload model).
+ *
+ * <p>Latency is measured from the intended start of each operation rather than from the moment
+ * it was actually sent, so a stalling target shows up in the percentiles instead of silently
+ * lowering the offered load (coordinated omission). Operations that would exceed the in-flight
+ * limit are not started and reported as dropped.</p>
+ */
+@Slf4j
+final class OpenModelRunner {
+
+  private final int maxInFlight;
+
+  /**
+   * Creates a runner.
+   *
+   * @param maxInFlight upper bound of concurrently outstanding operations
+   */
+  OpenModelRunner(int maxInFlight) {
+    this.maxInFlight = maxInFlight;
+  }
+
+  /**
+   * Run one scenario; operations started during the warm-up are executed but not recorded.
+   *
+   * @param scenario  name used in the report
+   * @param rate      arrivals per second
+   * @param warmup    warm-up phase before recording
+   * @param duration  recorded phase
+   * @param operation starts one operation and completes with {@code true} on success
+   * @return recorded latencies and counters
+   * @throws InterruptedException if interrupted while pacing or draining
+   */
+  LoadResult run(
+      String scenario,
+      double rate,
+      Duration warmup,
+      Duration duration,
+      Supplier<CompletableFuture<Boolean>> operation) throws InterruptedException {
+    var recorder = new Recorder(3);
+    var inFlight = new Semaphore(maxInFlight);
+    var succeeded = new LongAdder();
+    var failed = new LongAdder();
+    var dropped = new LongAdder();
+    long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+    long start = System.nanoTime();
+    long measureFrom = start + warmup.toNanos();
+    long end = measureFrom + duration.toNanos();
+    log.info("Running {} at {}/s for {} after {} warm-up", scenario, rate, duration, warmup);
+    for (long i = 0; ; i++) {
+      long intended = start + i * interval;
+      if (intended >= end) {
+        break;
+      }
+      long delay = intended - System.nanoTime();
+      if (delay > 0) {
+        LockSupport.parkNanos(delay);
+      }
+      boolean measured = intended >= measureFrom;
+      if (!inFlight.tryAcquire()) {
+        if (measured) {
+          dropped.increment();
+        }
+        continue;
+      }
+      CompletableFuture<Boolean> result;
+      try {
+        result = operation.get();
+      } catch (RuntimeException ex) {
+        inFlight.release();
+        if (measured) {
+          failed.increment();
+        }
+        continue;
+      }
+      result.whenComplete((ok, ex) -> {
+        long latency = System.nanoTime() - intended;
+        inFlight.release();
+        if (!measured) {
+          return;
+        }
+        if (ex == null && Boolean.TRUE.equals(ok)) {
+          recorder.recordValue(latency);
+          succeeded.increment();
+        } else {
+          failed.increment();
+        }
+      });
+    }
+    if (!inFlight.tryAcquire(maxInFlight, 30, TimeUnit.SECONDS)) {
+      log.warn("{}: operations still outstanding after 30 s", scenario);
+    }
+    Histogram histogram = recorder.getIntervalHistogram();
+    return new LoadResult(scenario, rate, duration, succeeded.sum(), failed.sum(), dropped.sum(), histogram);
+  }
+}
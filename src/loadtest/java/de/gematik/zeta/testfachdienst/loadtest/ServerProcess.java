@@ -0,0 +1,244 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.gematik.zeta.testfachdienst.TestfachdienstApplication;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLContext;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The application started in a separate process, so that its heap and resident memory can be
+ * measured without the load generator's own objects.
+ *
+ * <p>By default the process is a JVM inheriting the class path of the load test; other launchers
+ * such as {@code java -jar} or a native executable can be passed to {@link #start(List, String, Path)}.
+ * Its heap is read from the actuator metrics endpoint after a full GC has been requested with
+ * {@code jcmd}.</p>
+ */
+@Slf4j
+final class ServerProcess implements AutoCloseable {
+
+  private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+  private static final Duration READINESS_POLL_INTERVAL = Duration.ofMillis(20);
+
+  private final Process process;
+  private final URI baseUri;
+  private final HttpClient client;
+  private final long startedAt;
+  private Duration startupTime;
+
+  private ServerProcess(Process process, long startedAt, URI baseUri, SSLContext sslContext) {
+    this.process = process;
+    this.startedAt = startedAt;
+    this.baseUri = baseUri;
+    this.client = HttpClient.newBuilder().sslContext(sslContext).connectTimeout(Duration.ofSeconds(5)).build();
+  }
+
+  /**
+   * Start the application on a free port and wait until it reports readiness.
+   *
+   * @param profiles     Spring profiles to activate, may be empty
+   * @param jvmArgs      additional JVM arguments of the server, separated by blanks
+   * @param logDirectory directory receiving {@code server.log}
+   * @return running server
+   * @throws Exception if the process cannot be started or does not become ready in time
+   */
+  static ServerProcess start(String profiles, String jvmArgs, Path logDirectory) throws Exception {
+    List<String> launcher = new ArrayList<>();
+    launcher.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+    Arrays.stream(jvmArgs.split(" ")).filter(arg -> !arg.isBlank()).forEach(launcher::add);
+    launcher.addAll(List.of("-cp", System.getProperty("java.class.path"), TestfachdienstApplication.class.getName()));
+    Files.createDirectories(logDirectory);
+    return start(launcher, profiles, logDirectory.resolve("server.log"));
+  }
+
+  /**
+   * Start the application with the given launcher on a free port and wait until it reports
+   * readiness.
+   *
+   * @param launcher command starting the application, e.g. {@code java -jar app.jar} or a native
+   *                 executable; port and profile arguments are appended
+   * @param profiles Spring profiles to activate, may be empty
+   * @param logFile  file receiving the output of the process
+   * @return running server
+   * @throws Exception if the process cannot be started or does not become ready in time
+   */
+  static ServerProcess start(List<String> launcher, String profiles, Path logFile) throws Exception {
+    int port;
+    try (var socket = new ServerSocket(0)) {
+      port = socket.getLocalPort();
+    }
+    List<String> command = new ArrayList<>(launcher);
+    command.addAll(List.of(
+        "--server.port=" + port,
+        "--management.server.port=" + port,
+        "--logging.level.de.gematik=INFO"));
+    if (!profiles.isBlank()) {
+      command.add("--spring.profiles.active=" + profiles);
+    }
+    long startedAt = System.nanoTime();
+    Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(logFile.toFile()).start();
+    String contextPath = System.getenv().getOrDefault("SERVER_CONTEXT_PATH", "/achelos_testfachdienst");
+    var server = new ServerProcess(process, startedAt, URI.create("https://localhost:" + port + contextPath),
+        EmbeddedApplication.clientSslContext());
+    try {
+      server.awaitReady(logFile);
+    } catch (Exception ex) {
+      server.close();
+      throw ex;
+    }
+    return server;
+  }
+
+  /**
+   * Base URI including the servlet context path, without trailing slash.
+   *
+   * @return base URI of the running server
+   */
+  URI baseUri() {
+    return baseUri;
+  }
+
+  /**
+   * Time from starting the process until the readiness probe first answered 200.
+   *
+   * @return startup time as seen by a readiness probe
+   */
+  Duration startupTime() {
+    return startupTime;
+  }
+
+  /**
+   * Read the resident set size of the process from {@code /proc}.
+   *
+   * @return resident memory in bytes, empty if not available on this platform
+   */
+  OptionalLong residentSetBytes() {
+    try {
+      return Files.readAllLines(Path.of("/proc", Long.toString(process.pid()), "status")).stream()
+          .filter(line -> line.startsWith("VmRSS:"))
+          .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")) * 1024)
+          .findFirst();
+    } catch (IOException ex) {
+      return OptionalLong.empty();
+    }
+  }
+
+  /**
+   * Send a GET request to the server.
+   *
+   * @param path path below the context path
+   * @return HTTP status, or -1 if the request failed
+   */
+  int get(String path) {
+    var request = HttpRequest.newBuilder(URI.create(baseUri + path)).timeout(Duration.ofSeconds(10)).GET().build();
+    try {
+      return client.send(request, BodyHandlers.discarding()).statusCode();
+    } catch (IOException ex) {
+      return -1;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return -1;
+    }
+  }
+
+  /**
+   * Request a full GC in the server and read the used heap afterwards.
+   *
+   * @return used heap in bytes, empty if the metric cannot be read
+   */
+  OptionalLong heapUsedAfterGc() {
+    Path jcmd = Path.of(System.getProperty("java.home"), "bin", "jcmd");
+    try {
+      Process gc = new ProcessBuilder(jcmd.toString(), Long.toString(process.pid()), "GC.run")
+          .redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+      if (!gc.waitFor(30, TimeUnit.SECONDS)) {
+        gc.destroyForcibly();
+      }
+      var request = HttpRequest.newBuilder(URI.create(baseUri + "/actuator/metrics/jvm.memory.used?tag=area:heap"))
+          .timeout(Duration.ofSeconds(10)).GET().build();
+      var response = client.send(request, BodyHandlers.ofString());
+      if (response.statusCode() != 200) {
+        log.warn("Heap metric returned HTTP {}", response.statusCode());
+        return OptionalLong.empty();
+      }
+      JsonNode metric = new ObjectMapper().readTree(response.body());
+      return OptionalLong.of(metric.path("measurements").path(0).path("value").asLong());
+    } catch (IOException ex) {
+      log.warn("Could not measure the server heap", ex);
+      return OptionalLong.empty();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return OptionalLong.empty();
+    }
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    process.destroy();
+    if (!process.waitFor(30, TimeUnit.SECONDS)) {
+      process.destroyForcibly();
+    }
+    client.close();
+  }
+
+  private void awaitReady(Path logFile) throws IOException, InterruptedException {
+    var readiness = HttpRequest.newBuilder(URI.create(baseUri + "/actuator/health/readiness"))
+        .timeout(Duration.ofSeconds(5)).GET().build();
+    long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+    while (System.nanoTime() < deadline) {
+      if (!process.isAlive()) {
+        throw new IllegalStateException("Server exited with code " + process.exitValue() + ", see " + logFile);
+      }
+      try {
+        if (client.send(readiness, BodyHandlers.discarding()).statusCode() == 200) {
+          startupTime = Duration.ofNanos(System.nanoTime() - startedAt);
+          log.info("Server ready at {} (pid {}) after {} ms", baseUri, process.pid(), startupTime.toMillis());
+          return;
+        }
+      } catch (IOException ex) {
+        // not listening yet
+      }
+      Thread.sleep(READINESS_POLL_INTERVAL);
+    }
+    throw new IllegalStateException("Server not ready after " + STARTUP_TIMEOUT + ", see " + logFile);
+  }
+}
@@ -0,0 +1,213 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Compares startup time and resident memory of the application variants.
+ *
+ * <p>Every variant is started {@code loadtest.runs} times in a fresh process. Per run the time
+ * until the readiness probe answers 200, the resident set size at that point and the resident set
+ * size after {@code loadtest.requests} REST requests are recorded; the report contains every run
+ * and the median per variant. Variants:</p>
+ * <ul>
+ *   <li>{@code jvm}: {@code java -jar} of the boot jar ({@code loadtest.jar})</li>
+ *   <li>{@code jvm-aot}: the same with the Spring AOT initializers ({@code -Dspring.aot.enabled=true})</li>
+ *   <li>{@code jvm-cds}: the extracted boot jar with Spring AOT and a CDS archive from a training
+ *       run, as shipped in the Jib image built with {@code -Pcds}</li>
+ *   <li>{@code native}: the GraalVM executable ({@code loadtest.nativeExecutable})</li>
+ * </ul>
+ */
+@Slf4j
+public final class StartupComparison {
+
+  private StartupComparison() {
+  }
+
+  /**
+   * Run the comparison.
+   *
+   * @param args unused, settings are read from system properties
+   * @throws Exception if a variant cannot be started or the report cannot be written
+   */
+  public static void main(String[] args) throws Exception {
+    List<String> variants = Arrays.stream(setting("variants", "jvm,native").split(","))
+        .map(String::trim).filter(variant -> !variant.isEmpty()).toList();
+    int runs = Integer.parseInt(setting("runs", "3"));
+    int requests = Integer.parseInt(setting("requests", "200"));
+    String profiles = setting("profiles", "");
+
+    Map<String, Object> settings = new LinkedHashMap<>();
+    settings.put("variants", variants);
+    settings.put("runs", runs);
+    settings.put("requests", requests);
+    settings.put("profiles", profiles);
+    settings.put("jvmArgs", setting("jvmArgs", ""));
+    Path directory = Path.of(setting("reportDirectory", "build/reports/startup"));
+    Files.createDirectories(directory);
+    var report = new LoadReport(directory, settings);
+
+    for (String variant : variants) {
+      List<String> launcher = launcher(variant, directory, profiles);
+      List<Map<String, Object>> measurements = new ArrayList<>();
+      for (int run = 1; run <= runs; run++) {
+        try (ServerProcess server = ServerProcess.start(launcher, profiles,
+            directory.resolve(variant + "-" + run + ".log"))) {
+          Map<String, Object> measurement = new LinkedHashMap<>();
+          measurement.put("readyMillis", server.startupTime().toMillis());
+          measurement.put("rssAtReadyBytes", value(server.residentSetBytes()));
+          int failed = 0;
+          for (int i = 0; i < requests; i++) {
+            String path = i % 2 == 0 ? "/hellozeta" : "/api/erezept?page=0&size=20";
+            if (server.get(path) != 200) {
+              failed++;
+            }
+          }
+          measurement.put("failedRequests", failed);
+          measurement.put("rssAfterRequestsBytes", value(server.residentSetBytes()));
+          log.info("{} run {}: {}", variant, run, measurement);
+          measurements.add(measurement);
+        }
+      }
+      Map<String, Object> summary = new LinkedHashMap<>();
+      summary.put("launcher", launcher);
+      summary.put("medianReadyMillis", median(measurements, "readyMillis"));
+      summary.put("medianRssAtReadyBytes", median(measurements, "rssAtReadyBytes"));
+      summary.put("medianRssAfterRequestsBytes", median(measurements, "rssAfterRequestsBytes"));
+      summary.put("runs", measurements);
+      report.put(variant, summary);
+    }
+    log.info("Startup comparison written to {}", report.write());
+  }
+
+  private static List<String> launcher(String variant, Path directory, String profiles) throws Exception {
+    return switch (variant) {
+      case "jvm" -> java(List.of("-jar", required("jar")));
+      case "jvm-aot" -> java(List.of("-Dspring.aot.enabled=true", "-jar", required("jar")));
+      case "jvm-cds" -> {
+        Path cds = directory.resolve("cds");
+        Path jar = extract(cds);
+        Path archive = cds.resolve("application.jsa");
+        train(jar, archive, profiles, directory.resolve("cds-training.log"));
+        yield java(List.of("-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true", "-jar", jar.toString()));
+      }
+      case "native" -> List.of(required("nativeExecutable"));
+      default -> throw new IllegalArgumentException("Unknown variant " + variant);
+    };
+  }
+
+  private static List<String> java(List<String> arguments) {
+    List<String> command = new ArrayList<>();
+    command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+    Arrays.stream(setting("jvmArgs", "").split(" ")).filter(arg -> !arg.isBlank()).forEach(command::add);
+    command.addAll(arguments);
+    return command;
+  }
+
+  /**
+   * Extract the boot jar into the layout CDS needs: an application jar next to its libraries.
+   */
+  private static Path extract(Path cds) throws Exception {
+    FileSystemUtils.deleteRecursively(cds);
+    Files.createDirectories(cds);
+    Path destination = cds.resolve("app");
+    run(java(List.of("-Djarmode=tools", "-jar", required("jar"), "extract", "--destination", destination.toString())),
+        cds.resolve("extract.log"));
+    try (Stream<Path> files = Files.list(destination)) {
+      return files.filter(file -> file.toString().endsWith(".jar")).findFirst()
+          .orElseThrow(() -> new IllegalStateException("No application jar extracted to " + destination));
+    }
+  }
+
+  /**
+   * Refresh the application context once and dump the loaded classes into the archive.
+   */
+  private static void train(Path jar, Path archive, String profiles, Path logFile) throws Exception {
+    List<String> command = new ArrayList<>(java(List.of(
+        "-XX:ArchiveClassesAtExit=" + archive,
+        "-Dspring.aot.enabled=true",
+        "-Dspring.context.exit=onRefresh",
+        "-jar", jar.toString(),
+        "--server.port=0")));
+    if (!profiles.isBlank()) {
+      command.add("--spring.profiles.active=" + profiles);
+    }
+    run(command, logFile);
+    if (!Files.exists(archive)) {
+      throw new IllegalStateException("Training run did not write " + archive + ", see " + logFile);
+    }
+    log.info("CDS archive of {} KiB written to {}", Files.size(archive) / 1024, archive);
+  }
+
+  private static void run(List<String> command, Path logFile) throws IOException, InterruptedException {
+    Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(logFile.toFile()).start();
+    if (!process.waitFor(5, TimeUnit.MINUTES)) {
+      process.destroyForcibly();
+      throw new IllegalStateException("Timed out: " + String.join(" ", command));
+    }
+    if (process.exitValue() != 0) {
+      throw new IllegalStateException("Exit code " + process.exitValue() + ", see " + logFile);
+    }
+  }
+
+  private static Long value(OptionalLong measured) {
+    return measured.isPresent() ? measured.getAsLong() : null;
+  }
+
+  private static Long median(List<Map<String, Object>> measurements, String key) {
+    List<Long> values = measurements.stream()
+        .map(measurement -> (Long) measurement.get(key))
+        .filter(Objects::nonNull)
+        .sorted()
+        .toList();
+    return values.isEmpty() ? null : values.get(values.size() / 2);
+  }
+
+  private static String required(String name) {
+    String value = setting(name, "");
+    if (value.isBlank() || !Files.exists(Path.of(value))) {
+      throw new IllegalStateException("loadtest." + name + " must point to an existing file, was '" + value + "'");
+    }
+    return value;
+  }
+
+  private static String setting(String name, String defaultValue) {
+    return System.getProperty("loadtest." + name, defaultValue);
+  }
+}
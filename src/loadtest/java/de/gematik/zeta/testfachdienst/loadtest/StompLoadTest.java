@@ -0,0 +1,430 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.loadtest;
+
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import javax.net.ssl.SSLContext;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Recorder;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+/**
+ * STOMP load test with many concurrent WebSocket sessions.
+ *
+ * <p>Starts the application in a separate JVM (or targets {@code loadtest.baseUri}), connects
+ * {@code loadtest.sessions} STOMP sessions to {@code /ws}, each subscribed to
+ * {@code /topic/erezept} and {@code /user/queue/erezept}, and then sends
+ * {@code erezept.create}/{@code erezept.update} at every configured rate from a few sender
+ * sessions. Every message carries a sequence number in its dosage, so each delivery can be
+ * matched to its send.</p>
+ *
+ * <p>Per rate the report contains:</p>
+ * <ul>
+ *   <li>{@code stomp-<rate>}: latency from the intended send until the last subscriber received
+ *       the broadcast, measured with the open model of {@link OpenModelRunner}</li>
+ *   <li>{@code stomp-<rate>-delivery}: latency of every single delivery; its throughput is the
+ *       fan-out rate, its failures are deliveries missing after {@code loadtest.timeoutSeconds}</li>
+ * </ul>
+ *
+ * <p>The {@code connect} result covers handshake, CONNECT and both SUBSCRIBE receipts. The
+ * server heap after a full GC is measured before and after connecting the sessions and reported
+ * per session.</p>
+ */
+@Slf4j
+public final class StompLoadTest {
+
+  private static final String MARKER = "\"dosage\":\"load ";
+  private static final String ID = "\"id\":";
+
+  private final String topic;
+  private final String userQueue;
+  private final String applicationPrefix;
+  private final Random random;
+  private final Duration timeout;
+  private final List<StompSession> sessions = Collections.synchronizedList(new ArrayList<>());
+  private final Map<Long, Broadcast> pending = new ConcurrentHashMap<>();
+  private final Map<Long, String> pendingCreates = new ConcurrentHashMap<>();
+  private final List<Long> createdIds = Collections.synchronizedList(new ArrayList<>());
+  private final Map<Long, String> prescriptionIds = new ConcurrentHashMap<>();
+  private final AtomicLong sequence = new AtomicLong();
+  private final Recorder deliveries = new Recorder(3);
+  private final LongAdder delivered = new LongAdder();
+  private final LongAdder missed = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private volatile long measureFrom;
+
+  private StompLoadTest(String contextPath, long seed, Duration timeout) {
+    this.topic = contextPath + "/topic/erezept";
+    this.userQueue = contextPath + "/user/queue/erezept";
+    this.applicationPrefix = contextPath + "/app/";
+    this.random = new Random(seed);
+    this.timeout = timeout;
+  }
+
+  /**
+   * Run the load test.
+   *
+   * @param args unused, settings are read from system properties
+   * @throws Exception if the application cannot be started or the report cannot be written
+   */
+  public static void main(String[] args) throws Exception {
+    int sessionCount = Integer.parseInt(setting("sessions", "2000"));
+    double connectRate = Double.parseDouble(setting("connectRate", "200"));
+    int senderCount = Integer.parseInt(setting("senders", "10"));
+    List<Double> rates = Arrays.stream(setting("rates", "10,50,100").split(","))
+        .map(String::trim).map(Double::parseDouble).toList();
+    double updateRatio = Double.parseDouble(setting("updateRatio", "0.5"));
+    Duration warmup = Duration.ofSeconds(Long.parseLong(setting("warmupSeconds", "10")));
+    Duration duration = Duration.ofSeconds(Long.parseLong(setting("durationSeconds", "30")));
+    Duration timeout = Duration.ofSeconds(Long.parseLong(setting("timeoutSeconds", "10")));
+    long seed = Long.parseLong(setting("seed", "42"));
+    var runner = new OpenModelRunner(Integer.parseInt(setting("maxInFlight", "1000")));
+
+    Map<String, Object> settings = new LinkedHashMap<>();
+    settings.put("sessions", sessionCount);
+    settings.put("connectRate", connectRate);
+    settings.put("senders", senderCount);
+    settings.put("rates", rates);
+    settings.put("updateRatio", updateRatio);
+    settings.put("warmupSeconds", warmup.toSeconds());
+    settings.put("durationSeconds", duration.toSeconds());
+    settings.put("timeoutSeconds", timeout.toSeconds());
+    settings.put("seed", seed);
+    settings.put("profiles", setting("profiles", ""));
+    settings.put("serverJvmArgs", setting("serverJvmArgs", "-Xmx1g"));
+    Path reportDirectory = Path.of(setting("reportDirectory", "build/reports/loadtest/stomp"));
+    var report = new LoadReport(reportDirectory, settings);
+
+    String externalUri = setting("baseUri", "");
+    ServerProcess server = externalUri.isBlank()
+        ? ServerProcess.start(setting("profiles", ""), setting("serverJvmArgs", "-Xmx1g"), reportDirectory)
+        : null;
+    try {
+      URI baseUri = server != null ? server.baseUri() : URI.create(externalUri);
+      var test = new StompLoadTest(baseUri.getPath(), seed, timeout);
+      var stompClient = stompClient(EmbeddedApplication.clientSslContext());
+      final OptionalLong heapBefore = server != null ? server.heapUsedAfterGc() : OptionalLong.empty();
+
+      report.add(test.connect(stompClient, webSocketUri(baseUri), sessionCount, connectRate));
+      int connected = test.sessions.size();
+      if (connected == 0) {
+        throw new IllegalStateException("No STOMP session could be connected");
+      }
+      OptionalLong heapAfter = server != null ? server.heapUsedAfterGc() : OptionalLong.empty();
+      report.put("connectedSessions", connected);
+      if (heapBefore.isPresent() && heapAfter.isPresent()) {
+        long perSession = (heapAfter.getAsLong() - heapBefore.getAsLong()) / connected;
+        report.put("serverHeapBeforeBytes", heapBefore.getAsLong());
+        report.put("serverHeapAfterConnectBytes", heapAfter.getAsLong());
+        report.put("serverHeapPerSessionBytes", perSession);
+        log.info("Server heap per session: {} bytes", perSession);
+      }
+
+      List<StompSession> senders = new ArrayList<>(test.sessions.subList(0, Math.min(senderCount, connected)));
+      for (double rate : rates) {
+        String scenario = "stomp-%.0f".formatted(rate);
+        test.reset(warmup);
+        report.add(runner.run(scenario, rate, warmup, duration, () -> test.send(senders, connected, updateRatio)));
+        report.add(test.deliveryResult(scenario + "-delivery", rate * connected, duration));
+      }
+      report.put("errorReplies", test.errors.sum());
+      test.sessions.forEach(StompSession::disconnect);
+      log.info("STOMP load test report written to {}", report.write());
+    } finally {
+      if (server != null) {
+        server.close();
+      }
+    }
+  }
+
+  /**
+   * Connect and subscribe the sessions at the given rate.
+   *
+   * @return connect latencies until both subscriptions were acknowledged
+   */
+  private LoadResult connect(WebSocketStompClient client, String url, int count, double rate)
+      throws InterruptedException {
+    var recorder = new Recorder(3);
+    var failed = new LongAdder();
+    var connecting = new Semaphore(Math.max(1, (int) rate));
+    long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+    long start = System.nanoTime();
+    log.info("Connecting {} STOMP sessions to {} at {}/s", count, url, rate);
+    for (int i = 0; i < count; i++) {
+      long delay = start + i * interval - System.nanoTime();
+      if (delay > 0) {
+        LockSupport.parkNanos(delay);
+      }
+      connecting.acquire();
+      long begin = System.nanoTime();
+      var ready = new CompletableFuture<StompSession>();
+      client.connectAsync(url, new WebSocketHttpHeaders(), new StompHeaders(), new SubscribingHandler(ready))
+          .exceptionally(ex -> {
+            ready.completeExceptionally(ex);
+            return null;
+          });
+      ready.orTimeout(timeout.toSeconds(), TimeUnit.SECONDS).whenComplete((session, ex) -> {
+        connecting.release();
+        if (ex == null) {
+          recorder.recordValue(System.nanoTime() - begin);
+          sessions.add(session);
+        } else {
+          failed.increment();
+          log.debug("STOMP session could not be connected", ex);
+        }
+      });
+      if ((i + 1) % 1000 == 0) {
+        log.info("{} sessions connecting or connected", i + 1);
+      }
+    }
+    connecting.acquire(Math.max(1, (int) rate));
+    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+    log.info("{} sessions connected, {} failed in {}", sessions.size(), failed.sum(), elapsed);
+    return new LoadResult("connect", rate, elapsed, sessions.size(), failed.sum(), 0, recorder.getIntervalHistogram());
+  }
+
+  /**
+   * Send one create or update and complete once every session received its broadcast.
+   */
+  private CompletableFuture<Boolean> send(List<StompSession> senders, int subscribers, double updateRatio) {
+    long marker = sequence.incrementAndGet();
+    final StompSession sender = senders.get((int) (marker % senders.size()));
+    var headers = new StompHeaders();
+    headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+    String body;
+    Long target = createdIds.isEmpty() || random.nextDouble() >= updateRatio
+        ? null
+        : createdIds.get(random.nextInt(createdIds.size()));
+    if (target == null) {
+      String prescriptionId = "RX-STOMP-%d-%d".formatted(ProcessHandle.current().pid(), marker);
+      pendingCreates.put(marker, prescriptionId);
+      headers.setDestination(applicationPrefix + "erezept.create");
+      body = payload(marker, prescriptionId);
+    } else {
+      headers.setDestination(applicationPrefix + "erezept.update." + target);
+      body = payload(marker, prescriptionIds.get(target));
+    }
+    var broadcast = new Broadcast(System.nanoTime() >= measureFrom, subscribers);
+    pending.put(marker, broadcast);
+    broadcast.sentAt = System.nanoTime();
+    sender.send(headers, body.getBytes(StandardCharsets.UTF_8));
+    return broadcast.done.orTimeout(timeout.toSeconds(), TimeUnit.SECONDS).whenComplete((ok, ex) -> {
+      if (ex != null && pending.remove(marker) != null && broadcast.measured) {
+        missed.add(broadcast.remaining.get());
+      }
+    });
+  }
+
+  private void onBroadcast(byte[] payload, long receivedAt) {
+    long marker = marker(new String(payload, StandardCharsets.UTF_8));
+    Broadcast broadcast = marker < 0 ? null : pending.get(marker);
+    if (broadcast == null) {
+      return;
+    }
+    if (broadcast.measured) {
+      deliveries.recordValue(Math.max(0, receivedAt - broadcast.sentAt));
+      delivered.increment();
+    }
+    if (broadcast.remaining.decrementAndGet() == 0 && pending.remove(marker) != null) {
+      broadcast.done.complete(true);
+    }
+  }
+
+  private void onReply(byte[] payload) {
+    String json = new String(payload, StandardCharsets.UTF_8);
+    long marker = marker(json);
+    String prescriptionId = marker < 0 ? null : pendingCreates.remove(marker);
+    if (prescriptionId != null) {
+      long id = number(json, ID);
+      if (id >= 0) {
+        prescriptionIds.put(id, prescriptionId);
+        createdIds.add(id);
+      }
+    } else if (marker < 0) {
+      errors.increment();
+      log.debug("Error reply {}", json);
+    }
+  }
+
+  private void reset(Duration warmup) {
+    deliveries.reset();
+    delivered.reset();
+    missed.reset();
+    measureFrom = System.nanoTime() + warmup.toNanos();
+  }
+
+  private LoadResult deliveryResult(String scenario, double targetRate, Duration duration) {
+    return new LoadResult(scenario, targetRate, duration, delivered.sum(), missed.sum(), 0,
+        deliveries.getIntervalHistogram());
+  }
+
+  private static String payload(long marker, String prescriptionId) {
+    return """
+        {"medicationName":"Ibuprofen 400 mg","dosage":"load %d",\
+        "issuedAt":"%s","expiresAt":"%s","status":"CREATED","patientId":"PAT-%d",\
+        "practitionerId":"PRAC-%d","prescriptionId":"%s"}"""
+        .formatted(marker, OffsetDateTime.now().minusMinutes(1), OffsetDateTime.now().plusDays(90),
+            marker % 10_000, marker % 100, prescriptionId);
+  }
+
+  private static long marker(String json) {
+    return number(json, MARKER);
+  }
+
+  private static long number(String json, String prefix) {
+    int start = json.indexOf(prefix);
+    if (start < 0) {
+      return -1;
+    }
+    int from = start + prefix.length();
+    int end = from;
+    while (end < json.length() && Character.isDigit(json.charAt(end))) {
+      end++;
+    }
+    return end == from ? -1 : Long.parseLong(json, from, end, 10);
+  }
+
+  private static StompHeaders subscription(String destination, String receipt) {
+    var headers = new StompHeaders();
+    headers.setDestination(destination);
+    headers.setReceipt(receipt);
+    return headers;
+  }
+
+  private static StompFrameHandler handler(Consumer<byte[]> consumer) {
+    return new StompFrameHandler() {
+      @Override
+      public Type getPayloadType(StompHeaders headers) {
+        return byte[].class;
+      }
+
+      @Override
+      public void handleFrame(StompHeaders headers, Object payload) {
+        consumer.accept((byte[]) payload);
+      }
+    };
+  }
+
+  private static WebSocketStompClient stompClient(SSLContext sslContext) {
+    var webSocketClient = new StandardWebSocketClient();
+    webSocketClient.setSslContext(sslContext);
+    var stompClient = new WebSocketStompClient(webSocketClient);
+    stompClient.setDefaultHeartbeat(new long[]{0, 0});
+    return stompClient;
+  }
+
+  private static String webSocketUri(URI baseUri) {
+    String scheme = "https".equals(baseUri.getScheme()) ? "wss" : "ws";
+    return scheme + baseUri.toString().substring(baseUri.getScheme().length()) + "/ws";
+  }
+
+  private static String setting(String name, String defaultValue) {
+    return System.getProperty("loadtest." + name, defaultValue);
+  }
+
+  /**
+   * Outstanding broadcast of one sent message.
+   */
+  private static final class Broadcast {
+
+    private final boolean measured;
+    private final AtomicInteger remaining;
+    private final CompletableFuture<Boolean> done = new CompletableFuture<>();
+    private volatile long sentAt;
+
+    Broadcast(boolean measured, int subscribers) {
+      this.measured = measured;
+      this.remaining = new AtomicInteger(subscribers);
+    }
+  }
+
+  /**
+   * Subscribes a freshly connected session to the broadcast topic and the user queue and
+   * completes once both subscriptions are acknowledged by a RECEIPT.
+   */
+  private final class SubscribingHandler extends StompSessionHandlerAdapter {
+
+    private final CompletableFuture<StompSession> ready;
+
+    SubscribingHandler(CompletableFuture<StompSession> ready) {
+      this.ready = ready;
+    }
+
+    @Override
+    public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+      var acknowledged = new AtomicInteger(2);
+      Runnable receipt = () -> {
+        if (acknowledged.decrementAndGet() == 0) {
+          ready.complete(session);
+        }
+      };
+      session.subscribe(subscription(topic, "topic"), handler(payload -> onBroadcast(payload, System.nanoTime())))
+          .addReceiptTask(receipt);
+      session.subscribe(subscription(userQueue, "queue"), handler(StompLoadTest.this::onReply))
+          .addReceiptTask(receipt);
+    }
+
+    @Override
+    public void handleException(StompSession session, StompCommand command, StompHeaders headers, byte[] payload,
+        Throwable exception) {
+      log.debug("STOMP frame could not be handled", exception);
+    }
+
+    @Override
+    public void handleTransportError(StompSession session, Throwable exception) {
+      ready.completeExceptionally(exception);
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.config;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Normalizes the configured servlet context path ({@code server.servlet.context-path}) for use
+ * as prefix of generated locations and STOMP destinations.
+ */
+public final class ContextPaths {
+
+  private ContextPaths() {
+  }
+
+  /**
+   * Normalize a context path so it can be prefixed to a path starting with {@code /}.
+   *
+   * @param contextPath raw context path from configuration (may be null or blank)
+   * @return context path starting with {@code /} and without trailing slash, empty for the root
+   */
+  public static String normalize(@Nullable String contextPath) {
+    if (contextPath == null || contextPath.isBlank()) {
+      return "";
+    }
+    String normalized = contextPath.startsWith("/") ? contextPath : "/" + contextPath;
+    return normalized.endsWith("/") ? normalized.substring(0, normalized.length() - 1) : normalized;
+  }
+
+  /**
+   * Prefix a path or destination with the normalized context path.
+   *
+   * @param contextPath raw context path from configuration (may be null or blank)
+   * @param path        path or destination starting with {@code /}
+   * @return path prefixed with the context path when one is configured
+   */
+  public static String prefix(@Nullable String contextPath, String path) {
+    return normalize(contextPath) + path;
+  }
+}
@@ -0,0 +1,52 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Config object to activate configuration of the prescription background jobs
+ * through spring application.yaml.
+ */
+@Configuration
+@EnableConfigurationProperties({
+    ErezeptExpiryProperties.class,
+    ErezeptArchiveProperties.class,
+    ErezeptImportProperties.class,
+    ErezeptExportProperties.class,
+    H2FileProperties.class,
+    MappedStoreProperties.class,
+    EventLogProperties.class,
+    WriteBehindProperties.class,
+    ShardingProperties.class,
+    ReadReplicaProperties.class,
+    ErezeptStatsProperties.class,
+    FlightRecorderProperties.class,
+    WarmupProperties.class
+})
+public class ErezeptJobConfig {
+
+}
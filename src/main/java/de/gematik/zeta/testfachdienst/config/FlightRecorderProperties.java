@@ -0,0 +1,45 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Maps the {@code erezept.jfr} settings of recordings started through the {@code jfr} actuator
+ * endpoint. Requested durations and sizes are capped by the maximum values.
+ */
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "erezept.jfr")
+public class FlightRecorderProperties {
+  private String directory = System.getProperty("java.io.tmpdir") + "/testfachdienst-jfr";
+  private String settings = "profile";
+  private long defaultDurationSeconds = 300;
+  private long maxDurationSeconds = 1800;
+  private long maxSizeMb = 256;
+  private long maxAgeSeconds = 1800;
+}
@@ -0,0 +1,104 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.config;
+
+import de.gematik.zeta.testfachdienst.service.H2FileMaintenanceService;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Readiness contribution of the file-backed H2 database.
+ *
+ * <p>Reports {@code DOWN} until the database file has been opened and answers queries, so the
+ * readiness probe holds traffic while a large database is still being opened after a restart.
+ * Afterwards it turns {@code DOWN} when the usable space next to the database file falls below
+ * {@code minFreeDiskBytes} or the last maintenance checkpoint failed, both of which mean that
+ * committed changes may no longer reach the file.</p>
+ */
+@Component
+@Profile("h2-file")
+public class H2FileHealthIndicator implements HealthIndicator {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final H2FileMaintenanceService maintenanceService;
+
+  /**
+   * Creates the health indicator.
+   *
+   * @param jdbcTemplate       template used to probe the database
+   * @param maintenanceService service that knows the database file and the last checkpoint
+   */
+  public H2FileHealthIndicator(JdbcTemplate jdbcTemplate, H2FileMaintenanceService maintenanceService) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.maintenanceService = maintenanceService;
+  }
+
+  /**
+   * Check that the database file exists, the database answers queries, enough disk space is left
+   * and the last checkpoint succeeded.
+   *
+   * @return health with the database file location, size and free space
+   */
+  @Override
+  public Health health() {
+    var file = maintenanceService.databaseFile();
+    if (!Files.isRegularFile(file)) {
+      return Health.down().withDetail("file", file.toString()).withDetail("reason", "not opened").build();
+    }
+    Health.Builder health = Health.up()
+        .withDetail("file", file.toString())
+        .withDetail("sizeBytes", maintenanceService.databaseFileSize());
+    try {
+      jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+    } catch (DataAccessException ex) {
+      return health.down(ex).build();
+    }
+    long usableBytes;
+    try {
+      usableBytes = Files.getFileStore(file).getUsableSpace();
+    } catch (IOException ex) {
+      return health.down(ex).build();
+    }
+    health.withDetail("usableBytes", usableBytes);
+    if (usableBytes < maintenanceService.minFreeDiskBytes()) {
+      health.down().withDetail("reason", "usable disk space below %d bytes"
+          .formatted(maintenanceService.minFreeDiskBytes()));
+    }
+    var checkpoint = maintenanceService.lastCheckpoint();
+    if (checkpoint != null) {
+      health.withDetail("lastCheckpointAt", checkpoint.finishedAt().toString());
+      if (checkpoint.failed()) {
+        health.down().withDetail("lastCheckpointError", checkpoint.error());
+      }
+    }
+    return health.build();
+  }
+}
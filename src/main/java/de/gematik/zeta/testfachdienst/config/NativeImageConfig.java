@@ -0,0 +1,132 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.config;
+
+import de.gematik.zeta.testfachdienst.controller.JobController;
+import de.gematik.zeta.testfachdienst.logging.MeteredAsyncAppender;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptArchive;
+import de.gematik.zeta.testfachdienst.model.ErezeptEvent;
+import de.gematik.zeta.testfachdienst.model.ErezeptExportStatus;
+import de.gematik.zeta.testfachdienst.model.ErezeptImportStatus;
+import de.gematik.zeta.testfachdienst.model.ErezeptStats;
+import de.gematik.zeta.testfachdienst.model.HelloZetaResource;
+import de.gematik.zeta.testfachdienst.service.ErezeptArchivalService;
+import de.gematik.zeta.testfachdienst.service.ErezeptExpiryService;
+import de.gematik.zeta.testfachdienst.service.ErezeptExportService;
+import de.gematik.zeta.testfachdienst.service.ErezeptImportService;
+import de.gematik.zeta.testfachdienst.service.ErezeptSnapshotService;
+import de.gematik.zeta.testfachdienst.service.ErezeptStatsService;
+import de.gematik.zeta.testfachdienst.service.H2FileMaintenanceService;
+import de.gematik.zeta.testfachdienst.service.SelfDisclosureExportService;
+import de.gematik.zeta.testfachdienst.ws.ErezeptWsController;
+import de.gematik.zeta.testfachdienst.ws.model.WebSocketErrorResponse;
+import java.util.List;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.lang.Nullable;
+
+/**
+ * Reflection and resource hints for the GraalVM native image.
+ *
+ * <p>Spring AOT covers beans, controller signatures and configuration properties. This adds what
+ * is only reached reflectively by libraries at runtime:</p>
+ * <ul>
+ *   <li>Jackson binding of the model outside controller signatures: STOMP payloads, journal and
+ *       export files, JobRunr job arguments and Springwolf payload schemas</li>
+ *   <li>JobRunr jobs, which are invoked by method name and whose lambdas JobRunr analyzes by
+ *       reading the class file of the declaring class</li>
+ *   <li>Springwolf, which scans the class files of its base package and reads the generic return
+ *       types of {@code @MessageMapping} methods (see {@link SpringwolfPayloadConfig})</li>
+ *   <li>classes instantiated from {@code logback-spring.xml} and the bundled TLS key store</li>
+ * </ul>
+ */
+@Configuration
+@ImportRuntimeHints(NativeImageConfig.Hints.class)
+@RegisterReflectionForBinding({
+    Erezept.class,
+    ErezeptArchive.class,
+    ErezeptEvent.class,
+    ErezeptExportStatus.class,
+    ErezeptImportStatus.class,
+    ErezeptStats.class,
+    HelloZetaResource.class,
+    WebSocketErrorResponse.class,
+    ErezeptImportService.Format.class
+})
+public class NativeImageConfig {
+
+  /**
+   * Classes declaring JobRunr job methods or job lambdas.
+   */
+  static final List<Class<?>> JOB_CLASSES = List.of(
+      JobController.class,
+      SelfDisclosureExportService.class,
+      ErezeptExpiryService.class,
+      ErezeptArchivalService.class,
+      ErezeptStatsService.class,
+      ErezeptSnapshotService.class,
+      H2FileMaintenanceService.class,
+      ErezeptExportService.class,
+      ErezeptImportService.class);
+
+  /**
+   * Registers the hints that cannot be expressed as annotations.
+   */
+  static class Hints implements RuntimeHintsRegistrar {
+
+    /**
+     * Register reflection and resource hints.
+     *
+     * @param hints       hints of the native image
+     * @param classLoader class loader of the application
+     */
+    @Override
+    public void registerHints(RuntimeHints hints, @Nullable ClassLoader classLoader) {
+      for (Class<?> job : JOB_CLASSES) {
+        hints.reflection().registerType(job, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.resources().registerType(job);
+      }
+
+      String wsPackage = ErezeptWsController.class.getPackageName().replace('.', '/');
+      hints.resources().registerPattern(wsPackage + "/*.class");
+      hints.reflection().registerType(ErezeptWsController.class,
+          MemberCategory.INTROSPECT_DECLARED_METHODS, MemberCategory.INVOKE_DECLARED_METHODS);
+
+      hints.reflection().registerType(MeteredAsyncAppender.class,
+          MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+      hints.reflection().registerType(TypeReference.of("org.springframework.boot.logging.logback.StructuredLogEncoder"),
+          MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+      hints.resources().registerPattern("tls/*.p12");
+      hints.resources().registerPattern("banner.txt");
+    }
+  }
+}
@@ -0,0 +1,53 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.config;
+
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.servers.Server;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Fixes the server of the OpenAPI document to the servlet context path.
+ *
+ * <p>Springdoc otherwise derives the server URL from the request, which makes the document
+ * generated at build time differ from the one served at runtime.</p>
+ */
+@Configuration
+public class OpenApiConfig {
+
+  /**
+   * Creates the OpenAPI base document.
+   *
+   * @param contextPath servlet context path the API is served below
+   * @return OpenAPI document with a relative server URL
+   */
+  @Bean
+  public OpenAPI openApi(@Value("${server.servlet.context-path:}") String contextPath) {
+    String url = contextPath.isBlank() ? "/" : contextPath;
+    return new OpenAPI().addServersItem(new Server().url(url).description("Testfachdienst"));
+  }
+}
@@ -0,0 +1,131 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs the effective connection pool, JDBC batching and statement cache settings once the
+ * application is ready.
+ *
+ * <p>The values are read from the running pool and the entity manager factory rather than from
+ * the configuration files, so the report shows what the {@code latency}, {@code throughput} or
+ * {@code loadtest} profile and any environment overrides actually resolved to.</p>
+ */
+@Component
+@Slf4j
+public class PerformanceSettingsReport {
+
+  private static final List<String> PERFORMANCE_PROFILES = List.of("latency", "throughput", "loadtest");
+
+  private static final List<String> HIBERNATE_SETTINGS = List.of(
+      "hibernate.jdbc.batch_size",
+      "hibernate.jdbc.fetch_size",
+      "hibernate.order_updates",
+      "hibernate.query.plan_cache_max_size",
+      "hibernate.query.in_clause_parameter_padding");
+
+  private final DataSource dataSource;
+  private final EntityManagerFactory entityManagerFactory;
+  private final Environment environment;
+
+  /**
+   * Creates the report.
+   *
+   * @param dataSource           application data source
+   * @param entityManagerFactory factory holding the effective Hibernate settings
+   * @param environment          environment providing the active profiles
+   */
+  public PerformanceSettingsReport(
+      DataSource dataSource,
+      EntityManagerFactory entityManagerFactory,
+      Environment environment) {
+    this.dataSource = dataSource;
+    this.entityManagerFactory = entityManagerFactory;
+    this.environment = environment;
+  }
+
+  /**
+   * Log the report on startup.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void report() {
+    Map<String, Object> settings = settings();
+    StringBuilder report = new StringBuilder("Effective performance settings:");
+    settings.forEach((key, value) -> report.append(System.lineSeparator())
+        .append("  ").append(key).append(" = ").append(value));
+    log.info(report.toString());
+  }
+
+  /**
+   * Collect the effective settings.
+   *
+   * @return setting names mapped to their values, in report order
+   */
+  Map<String, Object> settings() {
+    Map<String, Object> settings = new LinkedHashMap<>();
+    settings.put("profile", Arrays.stream(environment.getActiveProfiles())
+        .filter(PERFORMANCE_PROFILES::contains)
+        .findFirst()
+        .orElse("default"));
+    HikariDataSource pool = hikari();
+    if (pool != null) {
+      settings.put("hikari.pool-name", pool.getPoolName());
+      settings.put("hikari.maximum-pool-size", pool.getMaximumPoolSize());
+      settings.put("hikari.minimum-idle", pool.getMinimumIdle());
+      settings.put("hikari.connection-timeout-ms", pool.getConnectionTimeout());
+      settings.put("hikari.idle-timeout-ms", pool.getIdleTimeout());
+    } else {
+      settings.put("hikari", "not in use");
+    }
+    Map<String, Object> properties = entityManagerFactory.getProperties();
+    HIBERNATE_SETTINGS.forEach(key -> settings.put(key, properties.getOrDefault(key, "default")));
+    settings.put("hibernate.jdbc.batched-statements", properties.containsKey("hibernate.jdbc.batch_size")
+        ? "updates and deletes" : "none");
+    settings.put("h2.query-cache-size", environment.getProperty("erezept.jdbc.statementCacheSize", "default"));
+    return settings;
+  }
+
+  private HikariDataSource hikari() {
+    try {
+      return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+    } catch (SQLException ex) {
+      log.debug("Could not unwrap the connection pool", ex);
+      return null;
+    }
+  }
+}
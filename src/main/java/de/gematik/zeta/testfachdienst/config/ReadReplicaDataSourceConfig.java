@@ -0,0 +1,116 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+/**
+ * Splits database access into a primary pool and a read pool, active with the
+ * {@code read-replica} profile.
+ *
+ * <p>Methods running in a {@code @Transactional(readOnly = true)} transaction are served by the
+ * read pool, all other access uses the primary pool. The application-wide {@link DataSource} is
+ * the lazy routing proxy, so JPA, JDBC templates and the schema update all go through it.</p>
+ */
+@Configuration
+@Profile("read-replica")
+public class ReadReplicaDataSourceConfig {
+
+  /**
+   * Pool of the primary database, configured by the regular {@code spring.datasource} and
+   * {@code spring.datasource.hikari} settings.
+   *
+   * @param properties    standard data source properties
+   * @param meterRegistry registry receiving the pool metrics
+   * @return primary connection pool
+   */
+  @Bean(defaultCandidate = false)
+  @ConfigurationProperties("spring.datasource.hikari")
+  HikariDataSource primaryDataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+    HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    dataSource.setPoolName("erezept-primary");
+    dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+    return dataSource;
+  }
+
+  /**
+   * Read-only pool of the replica, connecting to the primary database when no replica URL is
+   * configured.
+   *
+   * @param properties        standard data source properties of the primary
+   * @param replicaProperties read replica settings
+   * @param meterRegistry     registry receiving the pool metrics
+   * @return replica connection pool
+   */
+  @Bean(defaultCandidate = false)
+  HikariDataSource replicaDataSource(
+      DataSourceProperties properties,
+      ReadReplicaProperties replicaProperties,
+      MeterRegistry meterRegistry) {
+    HikariDataSource dataSource = new HikariDataSource();
+    dataSource.setPoolName("erezept-replica");
+    if (StringUtils.hasText(replicaProperties.getUrl())) {
+      dataSource.setJdbcUrl(replicaProperties.getUrl());
+      dataSource.setUsername(replicaProperties.getUsername());
+      dataSource.setPassword(replicaProperties.getPassword());
+    } else {
+      dataSource.setDriverClassName(properties.determineDriverClassName());
+      dataSource.setJdbcUrl(properties.determineUrl());
+      dataSource.setUsername(properties.determineUsername());
+      dataSource.setPassword(properties.determinePassword());
+    }
+    dataSource.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+    dataSource.setReadOnly(true);
+    dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+    return dataSource;
+  }
+
+  /**
+   * Application data source routing by the read-only flag of the current transaction.
+   *
+   * @param primaryDataSource primary pool
+   * @param replicaDataSource replica pool
+   * @return lazy routing data source
+   */
+  @Bean
+  @Primary
+  DataSource dataSource(
+      @Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+      @Qualifier("replicaDataSource") HikariDataSource replicaDataSource) {
+    return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource));
+  }
+}
@@ -24,8 +24,12 @@
 
 package de.gematik.zeta.testfachdienst.config;
 
+import de.gematik.zeta.testfachdienst.jfr.FlightRecordingEndpoint;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
@@ -36,11 +40,35 @@ import org.springframework.security.web.SecurityFilterChain;
  * SecurityConfig configures the Spring Security filter chain and supporting beans.
  *
  * <p>The configuration keeps the H2 console usable in development and leaves all endpoints
- * publicly accessible.
+ * publicly accessible, except the {@code jfr} actuator endpoint which requires HTTP basic
+ * authentication with role {@code JFR}.
  */
 @Configuration
 public class SecurityConfig {
 
+  /**
+   * Build the filter chain protecting the {@code jfr} actuator endpoint, which can write and
+   * hand out heap and thread details of the running process.
+   *
+   * @param http mutable security builder supplied by Spring Boot
+   * @return security filter chain matching only the {@code jfr} endpoint
+   * @throws Exception when the security configuration cannot be built
+   */
+  @Bean
+  @Order(1)
+  SecurityFilterChain flightRecorder(HttpSecurity http) throws Exception {
+    http
+        .securityMatcher(EndpointRequest.to(FlightRecordingEndpoint.class))
+        .csrf(AbstractHttpConfigurer::disable)
+        .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+        .authorizeHttpRequests(authorize -> authorize.anyRequest().hasRole("JFR"))
+        .httpBasic(Customizer.withDefaults())
+        .requestCache(AbstractHttpConfigurer::disable)
+    ;
+
+    return http.build();
+  }
+
   /**
    * Build the security filter chain for the application.
    *
@@ -28,6 +28,7 @@ import io.github.springwolf.core.asyncapi.scanners.common.payload.PayloadMethodR
 import io.github.springwolf.core.asyncapi.scanners.common.payload.PayloadSchemaObject;
 import io.github.springwolf.core.asyncapi.scanners.common.payload.internal.PayloadService;
 import java.lang.reflect.Method;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -35,8 +36,11 @@ import org.springframework.context.annotation.Primary;
 /**
  * Spring configuration that replaces Springwolf's default payload method return service so that
  * schema generation uses the generic return type of controller methods.
+ *
+ * <p>Not loaded when Springwolf is disabled, e.g. with the {@code static-api-docs} profile.</p>
  */
 @Configuration
+@ConditionalOnProperty(name = "springwolf.enabled", havingValue = "true", matchIfMissing = true)
 @SuppressWarnings("unused") // instantiated by Spring's component scan
 public class SpringwolfPayloadConfig {
 
@@ -24,7 +24,9 @@
 
 package de.gematik.zeta.testfachdienst.controller;
 
+import de.gematik.zeta.testfachdienst.config.ContextPaths;
 import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.service.ErezeptConflictException;
 import de.gematik.zeta.testfachdienst.service.ErezeptService;
 import jakarta.validation.Valid;
 import java.util.List;
@@ -33,13 +35,16 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.util.UriComponentsBuilder;
 
 /**
@@ -50,6 +55,8 @@ import org.springframework.web.util.UriComponentsBuilder;
 @Slf4j
 public class ErezeptController {
 
+  private static final int MAX_PAGE_SIZE = 1000;
+
   private final ErezeptService service;
 
   private final String servletContextPath;
@@ -78,6 +85,25 @@ public class ErezeptController {
     return service.findAll();
   }
 
+  /**
+   * Return one page of electronic prescriptions ordered by id.
+   *
+   * @param page zero-based page number
+   * @param size maximum number of prescriptions per page
+   * @return prescriptions of the requested page, possibly empty
+   */
+  @GetMapping(params = "page")
+  public List<Erezept> listPage(
+      @RequestParam int page,
+      @RequestParam(defaultValue = "100") int size) {
+    log.debug("List E-Rezepte page={} size={}", page, size);
+    if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+          "page must be >= 0 and size between 1 and %d".formatted(MAX_PAGE_SIZE));
+    }
+    return service.findPage(page, size);
+  }
+
   /**
    * Retrieve a prescription by its primary key.
    *
@@ -125,7 +151,7 @@ public class ErezeptController {
       return ResponseEntity.status(HttpStatus.CONFLICT).body("PrescriptionId already exists");
     }
     Erezept saved = created.get();
-    String contextPath = normalizeContextPath(servletContextPath);
+    String contextPath = ContextPaths.normalize(servletContextPath);
     var location = UriComponentsBuilder.fromPath(contextPath)
         .path("/api/erezept/{id}")
         .buildAndExpand(saved.getId())
@@ -133,28 +159,12 @@ public class ErezeptController {
     return ResponseEntity.created(location).body(saved);
   }
 
-  /**
-   * Normalize the configured servlet context path so it can be prefixed to generated locations.
-   *
-   * @param contextPath raw context path from configuration (may be null or blank)
-   * @return normalized context path starting with {@code /} and without trailing slash
-   */
-  private String normalizeContextPath(String contextPath) {
-    if (contextPath == null || contextPath.isBlank() || "/".equals(contextPath)) {
-      return "";
-    }
-    if (!contextPath.startsWith("/")) {
-      contextPath = "/" + contextPath;
-    }
-    return contextPath.endsWith("/") ? contextPath.substring(0, contextPath.length() - 1) : contextPath;
-  }
-
   /**
    * Update an existing prescription in place.
    *
    * @param id  identifier of the prescription to update
    * @param req new state to apply to the existing entity
-   * @return HTTP 200 on success or 404 if the entity is missing
+   * @return HTTP 200 on success, 404 if the entity is missing or 409 if it is archived
    */
   @PutMapping("/{id}")
   public ResponseEntity<?> update(@PathVariable Long id, @Valid @RequestBody Erezept req) {
@@ -169,7 +179,7 @@ public class ErezeptController {
    * Remove a prescription from the persistence layer.
    *
    * @param id identifier of the prescription to delete
-   * @return HTTP 204 when deleted or 404 if the record did not exist
+   * @return HTTP 204 when deleted, 404 if the record did not exist or 409 if it is archived
    */
   @DeleteMapping("/{id}")
   public ResponseEntity<Void> delete(@PathVariable Long id) {
@@ -180,4 +190,16 @@ public class ErezeptController {
     }
     return ResponseEntity.noContent().build();
   }
+
+  /**
+   * Report writes that conflict with stored or archived prescriptions.
+   *
+   * @param ex conflict raised by the service
+   * @return HTTP 409 with the reason of the conflict
+   */
+  @ExceptionHandler(ErezeptConflictException.class)
+  public ResponseEntity<String> conflict(ErezeptConflictException ex) {
+    log.warn("E-Rezept conflict: {}", ex.getMessage());
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+  }
 }
@@ -0,0 +1,134 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.controller;
+
+import de.gematik.zeta.testfachdienst.config.ContextPaths;
+import de.gematik.zeta.testfachdienst.model.ErezeptExportStatus;
+import de.gematik.zeta.testfachdienst.service.ErezeptExportService;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * REST controller that triggers snapshot exports of all
+ * {@link de.gematik.zeta.testfachdienst.model.Erezept} resources and serves the finished files.
+ */
+@RestController
+@RequestMapping("/api/erezept/export")
+@Slf4j
+public class ErezeptExportController {
+
+  private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+  private final ErezeptExportService service;
+
+  private final String servletContextPath;
+
+  /**
+   * Creates the export controller with injected dependencies.
+   *
+   * @param service service that writes snapshot exports
+   * @param servletContextPath optional servlet context path prefix
+   */
+  public ErezeptExportController(
+      ErezeptExportService service,
+      @Value("${server.servlet.context-path:}") String servletContextPath) {
+    this.service = service;
+    this.servletContextPath = servletContextPath;
+  }
+
+  /**
+   * Enqueue a new snapshot export.
+   *
+   * @return HTTP 202 with the initial export status and a location header for polling, 409 if the
+   *     active store is not backed by the {@code erezept} table
+   */
+  @PostMapping
+  public ResponseEntity<ErezeptExportStatus> export() {
+    if (!service.isAvailable()) {
+      throw new ResponseStatusException(HttpStatus.CONFLICT,
+          "Exports require the JPA prescription store");
+    }
+    var status = service.submit();
+    log.info("Export requested exportId={}", status.getExportId());
+    var location = UriComponentsBuilder.fromPath(ContextPaths.normalize(servletContextPath))
+        .path("/api/erezept/export/{exportId}")
+        .buildAndExpand(status.getExportId())
+        .toUri();
+    return ResponseEntity.accepted().location(location).body(status);
+  }
+
+  /**
+   * Report the progress of an export.
+   *
+   * @param exportId identifier returned when the export was requested
+   * @return HTTP 200 with the export status or 404 if the export is unknown
+   */
+  @GetMapping("/{exportId}")
+  public ResponseEntity<ErezeptExportStatus> status(@PathVariable UUID exportId) {
+    log.debug("Fetch export status exportId={}", exportId);
+    return service.findStatus(exportId).map(ResponseEntity::ok)
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
+  /**
+   * Download the compressed NDJSON snapshot of a finished export.
+   *
+   * <p>The file is streamed from disk and supports HTTP range requests; it is never loaded into
+   * memory as a whole.</p>
+   *
+   * @param exportId identifier returned when the export was requested
+   * @return HTTP 200 with the snapshot or 404 if no finished snapshot exists
+   */
+  @GetMapping("/{exportId}/download")
+  public ResponseEntity<Resource> download(@PathVariable UUID exportId) {
+    return service.findSnapshot(exportId)
+        .map(file -> ResponseEntity.ok()
+            .contentType(GZIP)
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(file.getFileName().toString())
+                .build()
+                .toString())
+            .<Resource>body(new FileSystemResource(file)))
+        .orElseGet(() -> {
+          log.info("Export snapshot not available: exportId={}", exportId);
+          return ResponseEntity.notFound().build();
+        });
+  }
+}
@@ -0,0 +1,115 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.controller;
+
+import de.gematik.zeta.testfachdienst.config.ContextPaths;
+import de.gematik.zeta.testfachdienst.model.ErezeptImportStatus;
+import de.gematik.zeta.testfachdienst.service.ErezeptImportService;
+import de.gematik.zeta.testfachdienst.service.ErezeptImportService.Format;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * REST controller that accepts bulk uploads of {@link de.gematik.zeta.testfachdienst.model.Erezept}
+ * resources and reports the progress of their background import.
+ */
+@RestController
+@RequestMapping("/api/erezept/import")
+@Slf4j
+public class ErezeptImportController {
+
+  private final ErezeptImportService service;
+
+  private final String servletContextPath;
+
+  /**
+   * Creates the import controller with injected dependencies.
+   *
+   * @param service service that spools and imports uploads
+   * @param servletContextPath optional servlet context path prefix
+   */
+  public ErezeptImportController(
+      ErezeptImportService service,
+      @Value("${server.servlet.context-path:}") String servletContextPath) {
+    this.service = service;
+    this.servletContextPath = servletContextPath;
+  }
+
+  /**
+   * Accept an NDJSON or CSV upload and enqueue its import.
+   *
+   * @param contentType content type of the upload, selects the parser
+   * @param body raw request body, spooled to disk without buffering it in memory
+   * @return HTTP 202 with the initial import status and a location header for polling, 409 if the
+   *     active store is not backed by the {@code erezept} table, 413 if the upload is too large
+   * @throws IOException if the upload cannot be spooled
+   */
+  @PostMapping(consumes = {"application/x-ndjson", "application/ndjson", "text/csv"})
+  public ResponseEntity<ErezeptImportStatus> importPrescriptions(
+      @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+      InputStream body) throws IOException {
+    Format format = Format.fromContentType(contentType)
+        .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE));
+    if (!service.isAvailable()) {
+      throw new ResponseStatusException(HttpStatus.CONFLICT,
+          "Imports require the JPA prescription store");
+    }
+    log.info("Import upload received format={}", format);
+    var status = service.submit(body, format);
+    var location = UriComponentsBuilder.fromPath(ContextPaths.normalize(servletContextPath))
+        .path("/api/erezept/import/{importId}")
+        .buildAndExpand(status.getImportId())
+        .toUri();
+    return ResponseEntity.accepted().location(location).body(status);
+  }
+
+  /**
+   * Report the progress and line errors of an import.
+   *
+   * @param importId identifier returned when the upload was accepted
+   * @return HTTP 200 with the import status or 404 if the import is unknown
+   */
+  @GetMapping("/{importId}")
+  public ResponseEntity<ErezeptImportStatus> status(@PathVariable UUID importId) {
+    log.debug("Fetch import status importId={}", importId);
+    return service.findStatus(importId).map(ResponseEntity::ok)
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+}
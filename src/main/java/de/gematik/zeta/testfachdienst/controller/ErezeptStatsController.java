@@ -0,0 +1,58 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.controller;
+
+import de.gematik.zeta.testfachdienst.model.ErezeptStats;
+import de.gematik.zeta.testfachdienst.service.ErezeptStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller exposing aggregate counts of
+ * {@link de.gematik.zeta.testfachdienst.model.Erezept} resources.
+ */
+@RestController
+@RequestMapping("/api/erezept/stats")
+@RequiredArgsConstructor
+@Slf4j
+public class ErezeptStatsController {
+
+  private final ErezeptStatsService service;
+
+  /**
+   * Return the maintained counts per status, practitioner and day of issue without scanning the
+   * store.
+   *
+   * @return current aggregate counts
+   */
+  @GetMapping
+  public ErezeptStats stats() {
+    log.debug("Fetch E-Rezept stats");
+    return service.current();
+  }
+}
@@ -24,6 +24,9 @@
 
 package de.gematik.zeta.testfachdienst.controller;
 
+import de.gematik.zeta.testfachdienst.service.ErezeptArchivalService;
+import de.gematik.zeta.testfachdienst.service.ErezeptExpiryService;
+import de.gematik.zeta.testfachdienst.service.ErezeptStatsService;
 import de.gematik.zeta.testfachdienst.service.SelfDisclosureExportService;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
@@ -42,17 +45,31 @@ public class JobController {
 
   private JobScheduler jobScheduler;
   private SelfDisclosureExportService selfDisclosureExportService;
+  private ErezeptExpiryService erezeptExpiryService;
+  private ErezeptArchivalService erezeptArchivalService;
+  private ErezeptStatsService erezeptStatsService;
 
   /**
    * Constructor for controller that also initiates job scheduling.
    *
    * @param scheduler Scheduler service from jobrunr
    * @param service Export service that provides method to be run in a job
+   * @param expiryService Expiry service that transitions expired prescriptions in a job
+   * @param archivalService Archival service that moves terminal prescriptions in a job
+   * @param statsService Stats service whose aggregates are reconciled in a job
    */
-  public JobController(JobScheduler scheduler, SelfDisclosureExportService service) {
+  public JobController(JobScheduler scheduler, SelfDisclosureExportService service,
+      ErezeptExpiryService expiryService, ErezeptArchivalService archivalService,
+      ErezeptStatsService statsService) {
     this.jobScheduler = scheduler;
     this.selfDisclosureExportService = service;
+    this.erezeptExpiryService = expiryService;
+    this.erezeptArchivalService = archivalService;
+    this.erezeptStatsService = statsService;
     scheduleInitial(jobScheduler, service);
+    scheduleExpirySweep(jobScheduler, expiryService);
+    scheduleArchival(jobScheduler, archivalService);
+    scheduleStatsReconciliation(jobScheduler, statsService);
   }
 
   private void scheduleInitial(JobScheduler scheduler, SelfDisclosureExportService service) {
@@ -64,6 +81,42 @@ public class JobController {
     );
   }
 
+  private void scheduleExpirySweep(JobScheduler scheduler, ErezeptExpiryService service) {
+    if (!service.isEnabled()) {
+      scheduler.deleteRecurringJob("erezept-expiry-sweep");
+      return;
+    }
+    scheduler.createRecurrently(
+        RecurringJobBuilder.aRecurringJob()
+          .withId("erezept-expiry-sweep")
+          .withInterval(Duration.of(service.getIntervalInSeconds(), ChronoUnit.SECONDS))
+          .withDetails(service::sweepExpired)
+    );
+  }
+
+  private void scheduleArchival(JobScheduler scheduler, ErezeptArchivalService service) {
+    if (!service.isEnabled()) {
+      scheduler.deleteRecurringJob("erezept-archival");
+      return;
+    }
+    scheduler.createRecurrently(
+        RecurringJobBuilder.aRecurringJob()
+          .withId("erezept-archival")
+          .withInterval(Duration.of(service.getIntervalInSeconds(), ChronoUnit.SECONDS))
+          .withDetails(service::archiveTerminal)
+    );
+  }
+
+  private void scheduleStatsReconciliation(JobScheduler scheduler, ErezeptStatsService service) {
+    scheduler.enqueue(service::reconcile);
+    scheduler.createRecurrently(
+        RecurringJobBuilder.aRecurringJob()
+          .withId("erezept-stats-reconcile")
+          .withInterval(Duration.of(service.getReconcileIntervalInSeconds(), ChronoUnit.SECONDS))
+          .withDetails(service::reconcile)
+    );
+  }
+
   /**
    * Dummy endpoint to activate controller.
    *
@@ -0,0 +1,107 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Serves the OpenAPI and AsyncAPI documents generated at build time from {@code docs/}.
+ *
+ * <p>Active with the {@code static-api-docs} profile, which turns off the springdoc and
+ * Springwolf scanners. The documents are answered on the URLs of the scanners, so clients do
+ * not notice the difference; they are read once at startup.</p>
+ */
+@RestController
+@Profile("static-api-docs")
+@Slf4j
+public class StaticApiDocsController {
+
+  static final String OPENAPI_RESOURCE = "api-docs/swagger-api-docs.json";
+  static final String ASYNCAPI_RESOURCE = "api-docs/async-api-docs.yml";
+  private static final MediaType YAML = MediaType.parseMediaType("application/yaml");
+
+  private final byte[] openApi;
+  private final byte[] asyncApiYaml;
+  private final byte[] asyncApiJson;
+
+  /**
+   * Creates the controller and loads the documents.
+   *
+   * @param objectMapper mapper used to render the AsyncAPI document as JSON
+   * @throws IOException if a document is missing from the class path
+   */
+  public StaticApiDocsController(ObjectMapper objectMapper) throws IOException {
+    this.openApi = read(OPENAPI_RESOURCE);
+    this.asyncApiYaml = read(ASYNCAPI_RESOURCE);
+    this.asyncApiJson = objectMapper.writeValueAsBytes(new YAMLMapper().readTree(asyncApiYaml));
+    log.info("Serving precomputed API documents, runtime scanners are disabled");
+  }
+
+  /**
+   * Return the OpenAPI document.
+   *
+   * @return OpenAPI 3.1 document as JSON
+   */
+  @GetMapping(value = "/v3/api-docs", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<byte[]> openApi() {
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(openApi);
+  }
+
+  /**
+   * Return the AsyncAPI document as JSON.
+   *
+   * @return AsyncAPI 3.0 document as JSON
+   */
+  @GetMapping(value = {"/springwolf/docs", "/springwolf/docs.json"}, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<byte[]> asyncApiJson() {
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(asyncApiJson);
+  }
+
+  /**
+   * Return the AsyncAPI document as YAML.
+   *
+   * @return AsyncAPI 3.0 document as YAML
+   */
+  @GetMapping(value = "/springwolf/docs.yaml", produces = "application/yaml")
+  public ResponseEntity<byte[]> asyncApiYaml() {
+    return ResponseEntity.ok().contentType(YAML).body(asyncApiYaml);
+  }
+
+  private static byte[] read(String resource) throws IOException {
+    try (InputStream in = new ClassPathResource(resource).getInputStream()) {
+      return in.readAllBytes();
+    }
+  }
+}
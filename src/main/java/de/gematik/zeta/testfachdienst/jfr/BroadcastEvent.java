@@ -0,0 +1,53 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Publication of a prescription to the STOMP broadcast topic.
+ */
+@Name("de.gematik.zeta.testfachdienst.Broadcast")
+@Label("Broadcast")
+@Category({"ZETA Testfachdienst", "WebSocket"})
+@Description("Prescription sent to the STOMP broadcast topic")
+@StackTrace(false)
+public class BroadcastEvent extends Event {
+
+  @Label("Destination")
+  public String destination;
+
+  @Label("Id")
+  @Description("Database id of the prescription")
+  public long id;
+
+  @Label("Prescription Id")
+  public String prescriptionId;
+}
@@ -0,0 +1,67 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Handling of one REST request or STOMP message by a controller, from entry to exit.
+ */
+@Name("de.gematik.zeta.testfachdienst.Controller")
+@Label("Controller Invocation")
+@Category({"ZETA Testfachdienst", "Controller"})
+@Description("REST request or STOMP message handled by a controller")
+@StackTrace(false)
+public class ControllerEvent extends Event {
+
+  @Label("Transport")
+  @Description("HTTP or STOMP")
+  public String transport;
+
+  @Label("Handler")
+  @Description("Controller class and method, HTTP only")
+  public String handler;
+
+  @Label("Route")
+  @Description("Request pattern or normalized STOMP destination")
+  public String route;
+
+  @Label("Resource Id")
+  @Description("Prescription id addressed by the request, if any")
+  public String resourceId;
+
+  @Label("Session Id")
+  @Description("STOMP session, if any")
+  public String sessionId;
+
+  @Label("Status")
+  @Description("HTTP status or status of the STOMP error reply")
+  public int status;
+}
@@ -0,0 +1,92 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.jfr;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.Map;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Emits a {@link ControllerEvent} for every REST request handled by a controller method.
+ *
+ * <p>The event begins before the handler is invoked and is committed after the response has been
+ * completed, so it includes serialization of the response body.</p>
+ */
+public class ControllerEventInterceptor implements HandlerInterceptor {
+
+  private static final String EVENT_ATTRIBUTE = ControllerEventInterceptor.class.getName() + ".event";
+
+  /**
+   * Begin the event for controller handlers.
+   *
+   * @param request  current request
+   * @param response current response
+   * @param handler  selected handler
+   * @return always {@code true}
+   */
+  @Override
+  public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+      @NonNull Object handler) {
+    if (!(handler instanceof HandlerMethod method)) {
+      return true;
+    }
+    var event = new ControllerEvent();
+    if (!event.isEnabled()) {
+      return true;
+    }
+    event.begin();
+    event.transport = "HTTP";
+    event.handler = method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+    event.route = request.getMethod() + " " + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    if (request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE) instanceof Map<?, ?> variables
+        && variables.get("id") != null) {
+      event.resourceId = variables.get("id").toString();
+    }
+    request.setAttribute(EVENT_ATTRIBUTE, event);
+    return true;
+  }
+
+  /**
+   * Commit the event with the response status.
+   *
+   * @param request  current request
+   * @param response current response
+   * @param handler  selected handler
+   * @param ex       exception thrown by the handler, if any
+   */
+  @Override
+  public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+      @NonNull Object handler, @Nullable Exception ex) {
+    if (request.getAttribute(EVENT_ATTRIBUTE) instanceof ControllerEvent event) {
+      event.status = ex != null && response.getStatus() < 400 ? 500 : response.getStatus();
+      event.commit();
+    }
+  }
+}
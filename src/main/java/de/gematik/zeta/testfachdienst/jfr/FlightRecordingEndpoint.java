@@ -0,0 +1,247 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.jfr;
+
+import de.gematik.zeta.testfachdienst.config.FlightRecorderProperties;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint {@code /actuator/jfr} controlling one bounded JDK Flight Recorder recording.
+ *
+ * <ul>
+ *   <li>{@code POST} starts a recording; optional {@code durationSeconds}, {@code maxSizeMb} and
+ *       {@code settings} ({@code default} or {@code profile}) are capped by
+ *       {@link FlightRecorderProperties}</li>
+ *   <li>{@code GET} returns the state of the current recording</li>
+ *   <li>{@code GET /actuator/jfr/{file}} downloads the recording; while it is running a snapshot
+ *       of the data recorded so far is returned</li>
+ *   <li>{@code DELETE} stops the recording and keeps its file for download</li>
+ * </ul>
+ *
+ * <p>A recording stops on its own after its duration. Only the latest recording file is kept.</p>
+ */
+@Component
+@WebEndpoint(id = "jfr")
+@Slf4j
+public class FlightRecordingEndpoint {
+
+  private static final String RECORDING_NAME = "testfachdienst";
+  private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+  private static final int STATUS_CONFLICT = 409;
+
+  private final FlightRecorderProperties properties;
+  private Recording recording;
+  private String settingsName;
+  private Path file;
+
+  /**
+   * Creates the endpoint.
+   *
+   * @param properties recording limits and target directory
+   */
+  public FlightRecordingEndpoint(FlightRecorderProperties properties) {
+    this.properties = properties;
+  }
+
+  /**
+   * Describe the current recording.
+   *
+   * <p>The JDK closes a recording with a destination once it has written the file; such a
+   * recording is reported as {@code STOPPED} with the size of its file.</p>
+   *
+   * @return recording state, limits and file
+   */
+  @ReadOperation
+  public synchronized Map<String, Object> status() {
+    Map<String, Object> status = new LinkedHashMap<>();
+    if (recording == null) {
+      status.put("state", "NONE");
+      return status;
+    }
+    boolean written = recording.getState() == RecordingState.CLOSED;
+    status.put("state", written ? RecordingState.STOPPED.name() : recording.getState().name());
+    status.put("settings", settingsName);
+    status.put("startedAt", recording.getStartTime());
+    status.put("durationSeconds", recording.getDuration() != null ? recording.getDuration().toSeconds() : null);
+    status.put("maxSizeMb", recording.getMaxSize() / (1024 * 1024));
+    status.put("maxAgeSeconds", recording.getMaxAge() != null ? recording.getMaxAge().toSeconds() : null);
+    status.put("recordedBytes", written ? fileSize() : recording.getSize());
+    status.put("file", file.getFileName().toString());
+    return status;
+  }
+
+  /**
+   * Start a new recording; a previous recording that is still running is rejected.
+   *
+   * @param durationSeconds requested duration, capped by {@code erezept.jfr.maxDurationSeconds}
+   * @param maxSizeMb       requested size limit, capped by {@code erezept.jfr.maxSizeMb}
+   * @param settings        JFR configuration name, {@code default} or {@code profile}
+   * @return status of the started recording, or 409 if one is running, or 400 for unknown settings
+   * @throws IOException if the recording directory cannot be created
+   */
+  @WriteOperation
+  public synchronized WebEndpointResponse<Map<String, Object>> start(
+      @Nullable Long durationSeconds,
+      @Nullable Long maxSizeMb,
+      @Nullable String settings) throws IOException {
+    if (recording != null && recording.getState() == RecordingState.RUNNING) {
+      return new WebEndpointResponse<>(status(), STATUS_CONFLICT);
+    }
+    String configurationName = settings != null ? settings : properties.getSettings();
+    Configuration configuration;
+    try {
+      configuration = Configuration.getConfiguration(configurationName);
+    } catch (ParseException | IOException ex) {
+      return new WebEndpointResponse<>(Map.<String, Object>of("error", "Unknown JFR settings " + configurationName),
+          WebEndpointResponse.STATUS_BAD_REQUEST);
+    }
+    closeRecording();
+    deleteFiles();
+    Path directory = Path.of(properties.getDirectory());
+    Files.createDirectories(directory);
+    file = directory.resolve(RECORDING_NAME + "-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr");
+
+    var started = new Recording(configuration);
+    started.setName(RECORDING_NAME);
+    started.setToDisk(true);
+    started.setDuration(Duration.ofSeconds(capped(durationSeconds, properties.getDefaultDurationSeconds(),
+        properties.getMaxDurationSeconds())));
+    started.setMaxSize(capped(maxSizeMb, properties.getMaxSizeMb(), properties.getMaxSizeMb()) * 1024 * 1024);
+    started.setMaxAge(Duration.ofSeconds(properties.getMaxAgeSeconds()));
+    started.setDestination(file);
+    started.start();
+    recording = started;
+    settingsName = configurationName;
+    log.info("Started JFR recording with {} settings for {} s, writing to {}", configurationName,
+        started.getDuration().toSeconds(), file);
+    return new WebEndpointResponse<>(status(), WebEndpointResponse.STATUS_OK);
+  }
+
+  /**
+   * Stop the running recording and write it to its file.
+   *
+   * @return status of the stopped recording, or 404 if there is none
+   */
+  @DeleteOperation
+  public synchronized WebEndpointResponse<Map<String, Object>> stop() {
+    if (recording == null) {
+      return new WebEndpointResponse<>(status(), WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+    if (recording.getState() == RecordingState.RUNNING) {
+      recording.stop();
+      log.info("Stopped JFR recording, written to {}", file);
+    }
+    return new WebEndpointResponse<>(status(), WebEndpointResponse.STATUS_OK);
+  }
+
+  /**
+   * Download the recording; a running recording is dumped to a snapshot file first.
+   *
+   * @param name file name reported by {@link #status()}
+   * @return recording file, or 404 if the name does not match the current recording
+   * @throws IOException if the snapshot cannot be written
+   */
+  @ReadOperation(produces = "application/octet-stream")
+  public synchronized WebEndpointResponse<Resource> download(@Selector String name) throws IOException {
+    if (recording == null || !file.getFileName().toString().equals(name)) {
+      return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+    if (recording.getState() == RecordingState.RUNNING) {
+      Path snapshot = snapshot();
+      recording.dump(snapshot);
+      return new WebEndpointResponse<>(new FileSystemResource(snapshot), WebEndpointResponse.STATUS_OK);
+    }
+    if (!Files.exists(file)) {
+      return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+    return new WebEndpointResponse<>(new FileSystemResource(file), WebEndpointResponse.STATUS_OK);
+  }
+
+  /**
+   * Stop a running recording on shutdown so that its file is complete.
+   */
+  @PreDestroy
+  public synchronized void shutdown() {
+    closeRecording();
+  }
+
+  private void closeRecording() {
+    if (recording == null) {
+      return;
+    }
+    if (recording.getState() == RecordingState.RUNNING) {
+      recording.stop();
+    }
+    recording.close();
+    recording = null;
+  }
+
+  private void deleteFiles() throws IOException {
+    if (file != null) {
+      Files.deleteIfExists(file);
+      Files.deleteIfExists(snapshot());
+    }
+  }
+
+  private long fileSize() {
+    try {
+      return Files.exists(file) ? Files.size(file) : 0;
+    } catch (IOException ex) {
+      return 0;
+    }
+  }
+
+  private Path snapshot() {
+    return file.resolveSibling("snapshot-" + file.getFileName());
+  }
+
+  private static long capped(Long requested, long defaultValue, long max) {
+    long value = requested != null && requested > 0 ? requested : defaultValue;
+    return Math.min(value, max);
+  }
+}
@@ -0,0 +1,62 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call of an {@link de.gematik.zeta.testfachdienst.repository.ErezeptStore} method.
+ */
+@Name("de.gematik.zeta.testfachdienst.Repository")
+@Label("Repository Call")
+@Category({"ZETA Testfachdienst", "Repository"})
+@Description("Call of the prescription store")
+@StackTrace(false)
+public class RepositoryEvent extends Event {
+
+  @Label("Store")
+  @Description("Implementation of the store")
+  public String store;
+
+  @Label("Operation")
+  @Description("Called store method")
+  public String operation;
+
+  @Label("Key")
+  @Description("Id or prescription id passed to the call, if any")
+  public String key;
+
+  @Label("Rows")
+  @Description("Number of prescriptions returned, -1 if not applicable")
+  public int rows;
+
+  @Label("Failed")
+  public boolean failed;
+}
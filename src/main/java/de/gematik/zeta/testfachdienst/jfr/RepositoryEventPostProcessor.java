@@ -0,0 +1,104 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.jfr;
+
+import de.gematik.zeta.testfachdienst.repository.ErezeptStore;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Optional;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Emits a {@link RepositoryEvent} for every call of an {@link ErezeptStore} bean.
+ *
+ * <p>Stores are proxied by class because some consumers inject a concrete implementation, e.g.
+ * the write-behind store its JPA delegate. While no recording is running the interceptor only
+ * checks whether the event is enabled.</p>
+ */
+@Component
+public class RepositoryEventPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+  /**
+   * Creates the post processor advising all store beans.
+   */
+  public RepositoryEventPostProcessor() {
+    setProxyTargetClass(true);
+    setBeforeExistingAdvisors(true);
+    this.advisor = new DefaultPointcutAdvisor(new StorePointcut(), (MethodInterceptor) RepositoryEventPostProcessor::record);
+  }
+
+  private static Object record(MethodInvocation invocation) throws Throwable {
+    var event = new RepositoryEvent();
+    if (!event.isEnabled()) {
+      return invocation.proceed();
+    }
+    event.begin();
+    event.store = ClassUtils.getUserClass(invocation.getThis().getClass()).getSimpleName();
+    event.operation = invocation.getMethod().getName();
+    Object[] arguments = invocation.getArguments();
+    if (arguments.length > 0 && (arguments[0] instanceof Long || arguments[0] instanceof String)) {
+      event.key = arguments[0].toString();
+    }
+    event.rows = -1;
+    try {
+      Object result = invocation.proceed();
+      event.rows = rows(result);
+      return result;
+    } catch (Throwable ex) {
+      event.failed = true;
+      throw ex;
+    } finally {
+      event.commit();
+    }
+  }
+
+  private static int rows(Object result) {
+    if (result instanceof Collection<?> collection) {
+      return collection.size();
+    }
+    if (result instanceof Optional<?> optional) {
+      return optional.isPresent() ? 1 : 0;
+    }
+    return -1;
+  }
+
+  /**
+   * Matches the {@link ErezeptStore} methods of store implementations.
+   */
+  private static final class StorePointcut extends StaticMethodMatcherPointcut {
+
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+      return ErezeptStore.class.isAssignableFrom(targetClass)
+          && ClassUtils.hasMethod(ErezeptStore.class, method.getName(), method.getParameterTypes());
+    }
+  }
+}
@@ -0,0 +1,151 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.logging;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.MDC;
+import org.springframework.lang.Nullable;
+
+/**
+ * MDC keys written to every log event of a REST request or STOMP frame.
+ *
+ * <ul>
+ *   <li>{@value #TRACE_ID}: trace id of a W3C {@code traceparent} header, otherwise a generated
+ *       id per request or frame</li>
+ *   <li>{@value #SESSION_ID}: STOMP session id</li>
+ *   <li>{@value #EREZEPT_ID}: id of the addressed prescription, taken from the {@code {id}} path
+ *       variable or the numeric segment of the STOMP destination</li>
+ * </ul>
+ */
+public final class LogContext {
+
+  public static final String TRACE_ID = "traceId";
+  public static final String SESSION_ID = "sessionId";
+  public static final String EREZEPT_ID = "erezeptId";
+  static final String TRACEPARENT = "traceparent";
+
+  private static final Pattern TRACEPARENT_FORMAT = Pattern.compile("^[0-9a-f]{2}-([0-9a-f]{32})-[0-9a-f]{16}-[0-9a-f]{2}");
+  private static final String INVALID_TRACE_ID = "0".repeat(32);
+  private static final Pattern NUMERIC_SEGMENT = Pattern.compile("(?<=[./])\\d+(?=$|[./])");
+
+  private LogContext() {
+  }
+
+  /**
+   * Put the request scoped keys into the MDC; {@code null} values are skipped.
+   *
+   * @param traceId   trace id
+   * @param sessionId STOMP session id
+   * @param erezeptId prescription id
+   */
+  static void put(String traceId, @Nullable String sessionId, @Nullable String erezeptId) {
+    MDC.put(TRACE_ID, traceId);
+    if (sessionId != null) {
+      MDC.put(SESSION_ID, sessionId);
+    }
+    if (erezeptId != null) {
+      MDC.put(EREZEPT_ID, erezeptId);
+    }
+  }
+
+  /**
+   * Remove the keys written by {@link #put}.
+   */
+  static void clear() {
+    MDC.remove(TRACE_ID);
+    MDC.remove(SESSION_ID);
+    MDC.remove(EREZEPT_ID);
+  }
+
+  /**
+   * Extract the trace id from a W3C {@code traceparent} header.
+   *
+   * @param traceparent header value, may be {@code null}
+   * @return the 32 hex digit trace id, or {@code null} if the header is missing or malformed
+   */
+  @Nullable
+  static String traceId(@Nullable String traceparent) {
+    if (traceparent == null) {
+      return null;
+    }
+    Matcher matcher = TRACEPARENT_FORMAT.matcher(traceparent);
+    if (!matcher.find() || INVALID_TRACE_ID.equals(matcher.group(1))) {
+      return null;
+    }
+    return matcher.group(1);
+  }
+
+  /**
+   * Format a message id as trace id, so that all handlers of one STOMP frame share it.
+   *
+   * @param id message id
+   * @return 32 hex digits
+   */
+  static String traceId(UUID id) {
+    return toHex(id.getMostSignificantBits(), id.getLeastSignificantBits());
+  }
+
+  /**
+   * Generate a random trace id in W3C format.
+   *
+   * @return 32 hex digits
+   */
+  static String newTraceId() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    return toHex(random.nextLong(), random.nextLong());
+  }
+
+  /**
+   * Find the prescription id in a STOMP destination such as {@code /app/erezept.read.42}.
+   *
+   * @param destination destination, may be {@code null}
+   * @return first numeric segment, or {@code null}
+   */
+  @Nullable
+  static String erezeptId(@Nullable String destination) {
+    if (destination == null) {
+      return null;
+    }
+    Matcher matcher = NUMERIC_SEGMENT.matcher(destination);
+    return matcher.find() ? matcher.group() : null;
+  }
+
+  private static String toHex(long high, long low) {
+    char[] hex = new char[32];
+    fill(hex, 0, high);
+    fill(hex, 16, low);
+    return new String(hex);
+  }
+
+  private static void fill(char[] hex, int offset, long value) {
+    for (int i = 15; i >= 0; i--) {
+      hex[offset + i] = Character.forDigit((int) (value & 0xF), 16);
+      value >>>= 4;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.logging;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+
+/**
+ * Registers the MDC interceptors for REST requests and inbound STOMP frames.
+ *
+ * <p>The STOMP registration lives in a nested configuration, because both configurer interfaces
+ * declare {@code configureMessageConverters} with the same erasure.</p>
+ */
+@Configuration
+public class LogContextConfig implements WebMvcConfigurer {
+
+  /**
+   * Add the REST log context interceptor.
+   *
+   * @param registry interceptor registry of the MVC configuration
+   */
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(new LogContextInterceptor());
+  }
+
+  /**
+   * Registers the MDC interceptor for inbound STOMP frames.
+   */
+  @Configuration
+  static class Stomp implements WebSocketMessageBrokerConfigurer {
+
+    /**
+     * Add the STOMP log context interceptor.
+     *
+     * @param registration inbound channel registration
+     */
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+      registration.interceptors(new StompLogContextInterceptor());
+    }
+  }
+}
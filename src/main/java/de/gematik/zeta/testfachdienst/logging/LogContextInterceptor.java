@@ -0,0 +1,74 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.logging;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.Map;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Fills the {@link LogContext} MDC keys for REST requests.
+ */
+public class LogContextInterceptor implements HandlerInterceptor {
+
+  /**
+   * Put trace id and prescription id into the MDC.
+   *
+   * @param request  current request
+   * @param response current response
+   * @param handler  selected handler
+   * @return always {@code true}
+   */
+  @Override
+  public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+      @NonNull Object handler) {
+    String traceId = LogContext.traceId(request.getHeader(LogContext.TRACEPARENT));
+    String erezeptId = null;
+    if (request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE) instanceof Map<?, ?> variables
+        && variables.get("id") != null) {
+      erezeptId = variables.get("id").toString();
+    }
+    LogContext.put(traceId != null ? traceId : LogContext.newTraceId(), null, erezeptId);
+    return true;
+  }
+
+  /**
+   * Remove the MDC keys once the response is complete.
+   *
+   * @param request  current request
+   * @param response current response
+   * @param handler  selected handler
+   * @param ex       exception thrown by the handler, if any
+   */
+  @Override
+  public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+      @NonNull Object handler, @Nullable Exception ex) {
+    LogContext.clear();
+  }
+}
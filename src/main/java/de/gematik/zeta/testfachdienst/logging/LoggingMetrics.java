@@ -0,0 +1,88 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Optional;
+import java.util.function.ToDoubleFunction;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exports queue depth and dropped events of the asynchronous log appender.
+ *
+ * <p>The appender is looked up on every read because the logging system may be reinitialized
+ * after startup. Without the {@code ASYNC} appender of {@code logback-spring.xml} the gauges
+ * report {@code NaN} and the counters zero.</p>
+ */
+@Component
+public class LoggingMetrics implements MeterBinder {
+
+  static final String APPENDER_NAME = "ASYNC";
+
+  /**
+   * Register the logging meters.
+   *
+   * @param registry registry receiving the meters
+   */
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("erezept.logging.queue.depth", this, gauge(MeteredAsyncAppender::getNumberOfElementsInQueue))
+        .description("Log events waiting in the asynchronous appender queue")
+        .register(registry);
+    Gauge.builder("erezept.logging.queue.capacity", this, gauge(MeteredAsyncAppender::getQueueSize))
+        .description("Size of the asynchronous appender queue")
+        .register(registry);
+    FunctionCounter.builder("erezept.logging.dropped", this, counter(MeteredAsyncAppender::getDiscardedCount))
+        .description("Log events dropped by the asynchronous appender")
+        .tag("reason", "discarded")
+        .register(registry);
+    FunctionCounter.builder("erezept.logging.dropped", this, counter(MeteredAsyncAppender::getRejectedCount))
+        .description("Log events dropped by the asynchronous appender")
+        .tag("reason", "queue_full")
+        .register(registry);
+  }
+
+  private static ToDoubleFunction<LoggingMetrics> gauge(ToDoubleFunction<MeteredAsyncAppender> value) {
+    return metrics -> appender().map(value::applyAsDouble).orElse(Double.NaN);
+  }
+
+  private static ToDoubleFunction<LoggingMetrics> counter(ToDoubleFunction<MeteredAsyncAppender> value) {
+    return metrics -> appender().map(value::applyAsDouble).orElse(0.0);
+  }
+
+  private static Optional<MeteredAsyncAppender> appender() {
+    if (LoggerFactory.getILoggerFactory() instanceof LoggerContext context
+        && context.getLogger(Logger.ROOT_LOGGER_NAME).getAppender(APPENDER_NAME) instanceof MeteredAsyncAppender async) {
+      return Optional.of(async);
+    }
+    return Optional.empty();
+  }
+}
@@ -0,0 +1,76 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link AsyncAppender} that counts the events it drops.
+ *
+ * <p>Logback drops events silently in two cases: TRACE, DEBUG and INFO events are discarded
+ * while the remaining capacity is below the discarding threshold, and with {@code neverBlock}
+ * any event is dropped when the queue is full. Both are counted here and exported by
+ * {@link LoggingMetrics}. The checks race with the worker thread, so the counts are close
+ * estimates rather than exact numbers.</p>
+ */
+public class MeteredAsyncAppender extends AsyncAppender {
+
+  private final LongAdder discarded = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+
+  @Override
+  protected void append(ILoggingEvent event) {
+    int remaining = getRemainingCapacity();
+    if (remaining < getDiscardingThreshold() && isDiscardable(event)) {
+      discarded.increment();
+      return;
+    }
+    if (isNeverBlock() && remaining == 0) {
+      rejected.increment();
+      return;
+    }
+    super.append(event);
+  }
+
+  /**
+   * Events of level INFO or lower discarded because the queue was nearly full.
+   *
+   * @return number of discarded events
+   */
+  public long getDiscardedCount() {
+    return discarded.sum();
+  }
+
+  /**
+   * Events dropped because the queue was full and the appender must not block.
+   *
+   * @return number of rejected events
+   */
+  public long getRejectedCount() {
+    return rejected.sum();
+  }
+}
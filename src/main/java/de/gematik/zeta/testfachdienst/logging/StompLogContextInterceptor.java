@@ -0,0 +1,81 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.logging;
+
+import java.util.UUID;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+
+/**
+ * Fills the {@link LogContext} MDC keys while inbound STOMP frames are handled.
+ *
+ * <p>Without a {@code traceparent} STOMP header the message id is used as trace id, so the
+ * annotation handler and the broker handlers of one frame log the same id.</p>
+ */
+public class StompLogContextInterceptor implements ExecutorChannelInterceptor {
+
+  /**
+   * Put trace id, session id and prescription id into the MDC.
+   *
+   * @param message STOMP frame
+   * @param channel executor channel
+   * @param handler handler about to process the frame
+   * @return original message to continue processing
+   */
+  @Override
+  public Message<?> beforeHandle(@NonNull Message<?> message, @NonNull MessageChannel channel,
+      @NonNull MessageHandler handler) {
+    MessageHeaders headers = message.getHeaders();
+    String traceId = LogContext.traceId(NativeMessageHeaderAccessor.getFirstNativeHeader(LogContext.TRACEPARENT, headers));
+    if (traceId == null) {
+      UUID id = headers.getId();
+      traceId = id != null ? LogContext.traceId(id) : LogContext.newTraceId();
+    }
+    LogContext.put(traceId, SimpMessageHeaderAccessor.getSessionId(headers),
+        LogContext.erezeptId(SimpMessageHeaderAccessor.getDestination(headers)));
+    return message;
+  }
+
+  /**
+   * Remove the MDC keys after the handler returned.
+   *
+   * @param message STOMP frame
+   * @param channel executor channel
+   * @param handler handler that processed the frame
+   * @param ex      exception not handled by the handler, if any
+   */
+  @Override
+  public void afterMessageHandled(@NonNull Message<?> message, @NonNull MessageChannel channel,
+      @NonNull MessageHandler handler, @Nullable Exception ex) {
+    LogContext.clear();
+  }
+}
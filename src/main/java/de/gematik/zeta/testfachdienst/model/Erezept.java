@@ -33,10 +33,12 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.FutureOrPresent;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.PastOrPresent;
+import jakarta.validation.constraints.Size;
 import java.time.OffsetDateTime;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -52,24 +54,43 @@ import lombok.Setter;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
-@Table(name = "erezept")
+@Builder(toBuilder = true)
+@Table(name = "erezept", indexes = {
+    @Index(name = "idx_erezept_status_expires_at", columnList = "status, expiresAt")
+})
 @Schema(name = "ERezept", description = "A prescription (ERezept)")
 public class Erezept {
 
+  /**
+   * Maximum length of {@code medicationName}.
+   */
+  public static final int MEDICATION_NAME_LENGTH = 128;
+
+  /**
+   * Maximum length of {@code dosage}.
+   */
+  public static final int DOSAGE_LENGTH = 256;
+
+  /**
+   * Maximum length of the patient, practitioner and prescription identifiers.
+   */
+  public static final int IDENTIFIER_LENGTH = 64;
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   @Schema(description = "Unique identifier", example = "123", accessMode = AccessMode.READ_ONLY)
   private Long id;
 
   @NotBlank
-  @Column(nullable = false, length = 128)
+  @Size(min = 1, max = MEDICATION_NAME_LENGTH)
+  @Column(nullable = false, length = MEDICATION_NAME_LENGTH)
   @Schema(description = "Medication name", example = "Ibuprofen 400 mg")
   private String medicationName;
 
   @NotBlank
-  @Column(nullable = false, length = 256)
-  @Schema(description = "Dosage instructions", example = "1 tablet, 3× daily after meals")
+  @Size(min = 1, max = DOSAGE_LENGTH)
+  @Column(nullable = false, length = DOSAGE_LENGTH)
+  @Schema(description = "Dosage instructions", example = "One tablet, 3× daily after meals")
   private String dosage;
 
   @PastOrPresent
@@ -90,17 +111,20 @@ public class Erezept {
   private ErezeptStatus status = ErezeptStatus.CREATED;
 
   @NotBlank
-  @Column(nullable = false, length = 64)
+  @Size(min = 1, max = IDENTIFIER_LENGTH)
+  @Column(nullable = false, length = IDENTIFIER_LENGTH)
   @Schema(description = "FHIR/PKV patient identifier", example = "PAT-123456")
   private String patientId;
 
   @NotBlank
-  @Column(nullable = false, length = 64)
+  @Size(min = 1, max = IDENTIFIER_LENGTH)
+  @Column(nullable = false, length = IDENTIFIER_LENGTH)
   @Schema(description = "Identifier of prescribing practitioner", example = "PRAC-98765")
   private String practitionerId;
 
   @NotBlank
-  @Column(nullable = false, length = 64, unique = true)
+  @Size(min = 1, max = IDENTIFIER_LENGTH)
+  @Column(nullable = false, length = IDENTIFIER_LENGTH, unique = true)
   @Schema(description = "Prescription identifier", example = "RX-2025-000123")
   private String prescriptionId;
 }
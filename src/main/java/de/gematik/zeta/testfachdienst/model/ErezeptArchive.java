@@ -0,0 +1,104 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.OffsetDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * JPA entity that holds a prescription in a terminal state after it was moved out of the hot
+ * {@code erezept} table by the archival job.
+ *
+ * <p>The primary key is the identifier the prescription had in the hot table, so archived
+ * records stay addressable by the same id.</p>
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "erezept_archive")
+public class ErezeptArchive {
+
+  @Id
+  private Long id;
+
+  @Column(nullable = false, length = 128)
+  private String medicationName;
+
+  @Column(nullable = false, length = 256)
+  private String dosage;
+
+  @Column(nullable = false)
+  private OffsetDateTime issuedAt;
+
+  private OffsetDateTime expiresAt;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  private ErezeptStatus status;
+
+  @Column(nullable = false, length = 64)
+  private String patientId;
+
+  @Column(nullable = false, length = 64)
+  private String practitionerId;
+
+  @Column(nullable = false, length = 64, unique = true)
+  private String prescriptionId;
+
+  @Column(nullable = false)
+  private OffsetDateTime archivedAt;
+
+  /**
+   * Convert the archived record back into the API representation of a prescription.
+   *
+   * @return detached prescription carrying the archived values
+   */
+  public Erezept toErezept() {
+    return Erezept.builder()
+        .id(id)
+        .medicationName(medicationName)
+        .dosage(dosage)
+        .issuedAt(issuedAt)
+        .expiresAt(expiresAt)
+        .status(status)
+        .patientId(patientId)
+        .practitionerId(practitionerId)
+        .prescriptionId(prescriptionId)
+        .build();
+  }
+}
@@ -0,0 +1,62 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.model;
+
+import java.time.OffsetDateTime;
+import java.util.Set;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Journal entry recording a change to a prescription.
+ *
+ * <p>Create and update events carry the complete state after the change, so replaying the
+ * journal only has to apply the latest event per prescription. The write-behind log also records
+ * the statuses the database row may have for a buffered update to still apply.</p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErezeptEvent {
+
+  private long sequence;
+  private Type type;
+  private Long erezeptId;
+  private Erezept prescription;
+  private OffsetDateTime recordedAt;
+  private Set<ErezeptStatus> expectedStatuses;
+
+  /**
+   * Kind of change recorded by an event.
+   */
+  public enum Type {
+    CREATED,
+    UPDATED,
+    DELETED
+  }
+}
@@ -0,0 +1,90 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress and outcome of a snapshot export of all prescriptions.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "ERezeptExportStatus", description = "Progress of a prescription snapshot export")
+public class ErezeptExportStatus {
+
+  @Schema(description = "Export identifier, identical to the Jobrunr job id",
+      example = "5c1f0f5a-8d55-4f5e-9f0a-3e2b7c9d1a22")
+  private UUID exportId;
+
+  @Schema(description = "Current state of the export")
+  private State state;
+
+  @Schema(description = "Number of prescriptions written to the snapshot", example = "1000000")
+  private long rowCount;
+
+  @Schema(description = "Size of the compressed snapshot in bytes", example = "48234112")
+  private long sizeBytes;
+
+  @Schema(description = "File name of the compressed snapshot",
+      example = "erezept-5c1f0f5a-8d55-4f5e-9f0a-3e2b7c9d1a22.ndjson.gz")
+  private String fileName;
+
+  @Schema(description = "When the export was requested (ISO-8601)", format = "date-time")
+  private OffsetDateTime submittedAt;
+
+  @Schema(description = "When the export finished (ISO-8601)", format = "date-time")
+  private OffsetDateTime finishedAt;
+
+  /**
+   * Lifecycle of an export.
+   */
+  @Schema(description = "Lifecycle states of an export")
+  public enum State {
+    /**
+     * Export job is waiting to be processed.
+     */
+    QUEUED,
+    /**
+     * Export job is writing the snapshot.
+     */
+    RUNNING,
+    /**
+     * Snapshot is complete and can be downloaded.
+     */
+    SUCCEEDED,
+    /**
+     * Export job aborted; no snapshot is available.
+     */
+    FAILED
+  }
+}
@@ -0,0 +1,112 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress and outcome of a bulk import of prescriptions.
+ *
+ * <p>Instances are immutable snapshots; the import job publishes a new snapshot after every
+ * inserted batch.</p>
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "ERezeptImportStatus", description = "Progress of a bulk prescription import")
+public class ErezeptImportStatus {
+
+  @Schema(description = "Import identifier, identical to the Jobrunr job id",
+      example = "0b7e8c2e-5d0f-4c55-9d5e-8f1b3a0e9c11")
+  private UUID importId;
+
+  @Schema(description = "Upload format", example = "NDJSON")
+  private String format;
+
+  @Schema(description = "Current state of the import")
+  private State state;
+
+  @Schema(description = "Number of non-blank data lines in the upload", example = "1000000")
+  private long totalLines;
+
+  @Schema(description = "Number of data lines processed so far", example = "250000")
+  private long processedLines;
+
+  @Schema(description = "Number of prescriptions inserted so far", example = "249990")
+  private long importedCount;
+
+  @Schema(description = "Number of data lines rejected so far", example = "10")
+  private long failedCount;
+
+  @Schema(description = "First rejected lines with the reason of rejection")
+  private List<LineError> errors;
+
+  @Schema(description = "When the upload was accepted (ISO-8601)", format = "date-time")
+  private OffsetDateTime submittedAt;
+
+  @Schema(description = "When the import finished (ISO-8601)", format = "date-time")
+  private OffsetDateTime finishedAt;
+
+  /**
+   * Lifecycle of an import.
+   */
+  @Schema(description = "Lifecycle states of an import")
+  public enum State {
+    /**
+     * Upload is spooled and the import job is waiting to be processed.
+     */
+    QUEUED,
+    /**
+     * Import job is parsing and inserting the upload.
+     */
+    RUNNING,
+    /**
+     * All lines were processed; rejected lines are listed in the errors.
+     */
+    SUCCEEDED,
+    /**
+     * Import job aborted because of an I/O or database error.
+     */
+    FAILED
+  }
+
+  /**
+   * A rejected input line.
+   *
+   * @param line    1-based line number in the upload
+   * @param message reason why the line was rejected
+   */
+  @Schema(name = "ERezeptImportLineError", description = "A rejected input line")
+  public record LineError(long line, String message) {
+  }
+}
@@ -0,0 +1,60 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Aggregated prescription counts maintained by the application.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "ERezeptStats", description = "Prescription counts per status, practitioner and day of issue")
+public class ErezeptStats {
+
+  @Schema(description = "Number of active prescriptions", example = "1000")
+  private long total;
+
+  @Schema(description = "Number of prescriptions per status", example = "{\"CREATED\": 600, \"SIGNED\": 400}")
+  private Map<ErezeptStatus, Long> byStatus;
+
+  @Schema(description = "Number of prescriptions per practitioner identifier", example = "{\"PRAC-98765\": 1000}")
+  private Map<String, Long> byPractitioner;
+
+  @Schema(description = "Number of prescriptions per day of issue (UTC)", example = "{\"2025-09-22\": 1000}")
+  private Map<LocalDate, Long> byDay;
+
+  @Schema(description = "When the counts were last reconciled against the store (ISO-8601)", format = "date-time")
+  private OffsetDateTime reconciledAt;
+}
@@ -0,0 +1,92 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.repository;
+
+import de.gematik.zeta.testfachdienst.model.ErezeptArchive;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Repository abstraction for the archive of terminal {@link ErezeptArchive} records.
+ */
+public interface ErezeptArchiveRepository extends JpaRepository<ErezeptArchive, Long> {
+
+  /**
+   * Locate an archived prescription by its external identifier.
+   *
+   * @param prescriptionId unique business identifier of the prescription
+   * @return optional containing the archived record when found
+   */
+  Optional<ErezeptArchive> findByPrescriptionId(String prescriptionId);
+
+  /**
+   * Determine whether an archived prescription with the given external identifier exists.
+   *
+   * @param prescriptionId unique business identifier of the prescription
+   * @return {@code true} if a matching archived record exists, {@code false} otherwise
+   */
+  boolean existsByPrescriptionId(String prescriptionId);
+
+  /**
+   * Copy the given hot prescriptions into the archive with a single set-based statement.
+   *
+   * <p>Only rows that are still in one of the given states are copied.</p>
+   *
+   * @param ids        identifiers of hot prescriptions selected for archival
+   * @param statuses   terminal states eligible for archival
+   * @param archivedAt timestamp recorded on every archived row
+   * @return number of archived rows
+   */
+  @Modifying(flushAutomatically = true)
+  @Query("""
+      insert into ErezeptArchive (id, medicationName, dosage, issuedAt, expiresAt, status,
+          patientId, practitionerId, prescriptionId, archivedAt)
+      select e.id, e.medicationName, e.dosage, e.issuedAt, e.expiresAt, e.status,
+          e.patientId, e.practitionerId, e.prescriptionId, :archivedAt
+      from Erezept e
+      where e.id in :ids and e.status in :statuses
+      """)
+  int copyFromHot(
+      @Param("ids") Collection<Long> ids,
+      @Param("statuses") Collection<ErezeptStatus> statuses,
+      @Param("archivedAt") OffsetDateTime archivedAt);
+
+  /**
+   * Return those of the given business identifiers that are already taken.
+   *
+   * @param prescriptionIds business identifiers to check
+   * @return subset of {@code prescriptionIds} with a matching record
+   */
+  @Query("select e.prescriptionId from ErezeptArchive e where e.prescriptionId in :prescriptionIds")
+  List<String> findExistingPrescriptionIds(
+      @Param("prescriptionIds") Collection<String> prescriptionIds);
+}
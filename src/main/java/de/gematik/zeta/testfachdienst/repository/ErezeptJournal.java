@@ -0,0 +1,452 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptEvent;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only journal of {@link ErezeptEvent}s stored as NDJSON segment files.
+ *
+ * <p>Appends only write to the current segment; durability is established by
+ * {@link #awaitDurable(long)} with group commit: the first waiting writer forces the segment for
+ * everything appended so far while later writers wait for its result, so concurrent writers
+ * share one {@code fsync}. A new segment is started on every open and rotation, which allows
+ * older segments to be deleted once a snapshot covers them.</p>
+ *
+ * <p>An append that fails part-way is cut off again. A failed {@code fsync} leaves the journal
+ * failed: the events after the last durable one may or may not be on disk, so appends are
+ * rejected until the owner calls {@link #discardUnsynced()}, which cuts them off the segment and
+ * continues in a new one. Their sequences are not reused, and waiting writers are told that their
+ * events were discarded.</p>
+ */
+@Slf4j
+final class ErezeptJournal implements Closeable {
+
+  private static final String SEGMENT_PREFIX = "journal-";
+  private static final String SEGMENT_SUFFIX = ".ndjson";
+
+  private final Path directory;
+  private final ObjectMapper objectMapper;
+  private final Counter appends;
+  private final DistributionSummary syncBatchSize;
+  private final Timer syncDuration;
+  private final NavigableMap<Long, Long> discarded = new TreeMap<>();
+  private FileChannel segment;
+  private long appendedSequence;
+  private long appendedPosition;
+  private long durableSequence;
+  private long durablePosition;
+  private boolean syncing;
+  private IOException failure;
+
+  /**
+   * Creates a journal in the given directory; call {@link #open} before appending.
+   *
+   * @param directory     directory of the segment files
+   * @param objectMapper  mapper used to serialize events
+   * @param meterRegistry registry receiving the journal metrics
+   */
+  ErezeptJournal(Path directory, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+    this.directory = directory;
+    this.objectMapper = objectMapper;
+    this.appends = Counter.builder("erezept.journal.appends")
+        .description("Events appended to the prescription journal")
+        .register(meterRegistry);
+    this.syncBatchSize = DistributionSummary.builder("erezept.journal.sync.batch.size")
+        .description("Events made durable by a single fsync")
+        .register(meterRegistry);
+    this.syncDuration = Timer.builder("erezept.journal.sync")
+        .description("Duration of a journal fsync")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Replay all events after the given sequence and start a new segment.
+   *
+   * <p>A partially written last line of a segment, left by a crash, is discarded.</p>
+   *
+   * @param afterSequence sequence covered by the loaded snapshot
+   * @param consumer      receives the replayed events in order
+   * @return number of replayed events
+   * @throws IOException if the segments cannot be read or the new segment cannot be created
+   */
+  synchronized long open(long afterSequence, Consumer<ErezeptEvent> consumer) throws IOException {
+    long last = afterSequence;
+    long replayed = 0;
+    for (Path file : segments()) {
+      try (BufferedReader reader = Files.newBufferedReader(file)) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          if (line.isBlank()) {
+            continue;
+          }
+          ErezeptEvent event;
+          try {
+            event = objectMapper.readValue(line, ErezeptEvent.class);
+          } catch (IOException ex) {
+            log.warn("Discarding incomplete journal entry at the end of {}", file);
+            truncateAfterLastLine(file);
+            break;
+          }
+          if (event.getSequence() > last) {
+            consumer.accept(event);
+            last = event.getSequence();
+            replayed++;
+          }
+        }
+      }
+    }
+    appendedSequence = last;
+    durableSequence = last;
+    startSegment(last + 1);
+    return replayed;
+  }
+
+  /**
+   * Append an event to the current segment without waiting for durability.
+   *
+   * @param type         kind of change
+   * @param id           id of the changed prescription
+   * @param prescription state after the change, {@code null} for deletes
+   * @return sequence of the appended event
+   */
+  long append(ErezeptEvent.Type type, Long id, Erezept prescription) {
+    return append(type, id, prescription, null);
+  }
+
+  /**
+   * Append an event that records the statuses the stored row may have for it to apply.
+   *
+   * @param type             kind of change
+   * @param id               id of the changed prescription
+   * @param prescription     state after the change, {@code null} for deletes
+   * @param expectedStatuses statuses the change is based on, {@code null} if unguarded
+   * @return sequence of the appended event
+   */
+  synchronized long append(ErezeptEvent.Type type, Long id, Erezept prescription, Set<ErezeptStatus> expectedStatuses) {
+    var event = ErezeptEvent.builder()
+        .sequence(appendedSequence + 1)
+        .type(type)
+        .erezeptId(id)
+        .prescription(prescription)
+        .recordedAt(OffsetDateTime.now())
+        .expectedStatuses(expectedStatuses)
+        .build();
+    requireHealthy();
+    ByteBuffer buffer;
+    try {
+      byte[] json = objectMapper.writeValueAsBytes(event);
+      buffer = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    try {
+      while (buffer.hasRemaining()) {
+        segment.write(buffer);
+      }
+    } catch (IOException ex) {
+      if (buffer.position() > 0) {
+        cutOffPartialAppend(ex);
+      }
+      throw new UncheckedIOException(ex);
+    }
+    appendedSequence = event.getSequence();
+    appendedPosition += buffer.limit();
+    appends.increment();
+    return appendedSequence;
+  }
+
+  /**
+   * Block until the event with the given sequence has been forced to disk.
+   *
+   * @param sequence sequence returned by {@link #append}
+   * @throws UncheckedIOException if the journal could not be forced; the event is discarded by
+   *                              the next {@link #discardUnsynced()}, or already was
+   */
+  void awaitDurable(long sequence) {
+    FileChannel channel;
+    long target;
+    long targetPosition;
+    synchronized (this) {
+      while (durableSequence < sequence && syncing) {
+        waitForSync();
+      }
+      if (isDiscarded(sequence)) {
+        throw new UncheckedIOException(new IOException(
+            "Journal event %d was discarded after a failed fsync".formatted(sequence)));
+      }
+      if (durableSequence >= sequence) {
+        return;
+      }
+      requireHealthy();
+      syncing = true;
+      channel = segment;
+      target = appendedSequence;
+      targetPosition = appendedPosition;
+    }
+    boolean synced = false;
+    try {
+      syncDuration.record(() -> force(channel));
+      synced = true;
+    } catch (UncheckedIOException ex) {
+      synchronized (this) {
+        failure = ex.getCause();
+      }
+      throw ex;
+    } finally {
+      synchronized (this) {
+        if (synced) {
+          syncBatchSize.record(target - durableSequence);
+          durableSequence = Math.max(durableSequence, target);
+          durablePosition = Math.max(durablePosition, targetPosition);
+        }
+        syncing = false;
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Sequence of the last event known to be on disk.
+   *
+   * @return durable sequence
+   */
+  synchronized long durableSequence() {
+    return durableSequence;
+  }
+
+  /**
+   * Cut the events that are not durable off a failed journal and continue in a new segment.
+   * Owners call it after a failed {@link #append} or {@link #awaitDurable} and drop their state
+   * for all events after {@link #durableSequence()} if it returns {@code true}.
+   *
+   * @return {@code true} if the journal had failed and its unsynced events were discarded
+   * @throws UncheckedIOException if the segment cannot be cut; the journal stays failed
+   */
+  synchronized boolean discardUnsynced() {
+    while (syncing) {
+      waitForSync();
+    }
+    if (failure == null) {
+      return false;
+    }
+    try {
+      cutOffUnsynced();
+      startSegment(appendedSequence + 1);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    notifyAll();
+    return true;
+  }
+
+  /**
+   * Make all appended events durable and continue in a new segment.
+   *
+   * @return sequence of the last event before the new segment
+   */
+  synchronized long rotate() {
+    while (syncing) {
+      waitForSync();
+    }
+    requireHealthy();
+    try {
+      segment.force(false);
+    } catch (IOException ex) {
+      failure = ex;
+      throw new UncheckedIOException(ex);
+    }
+    try {
+      segment.close();
+      durableSequence = appendedSequence;
+      startSegment(appendedSequence + 1);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    notifyAll();
+    return appendedSequence;
+  }
+
+  /**
+   * Delete segments whose events all precede the given sequence.
+   *
+   * @param firstSequence first sequence of the oldest segment to keep
+   */
+  void pruneBefore(long firstSequence) {
+    try {
+      for (Path file : segments()) {
+        if (startOf(file) < firstSequence) {
+          Files.deleteIfExists(file);
+          log.debug("Removed journal segment {}", file);
+        }
+      }
+    } catch (IOException ex) {
+      log.warn("Could not prune journal segments in {}", directory, ex);
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    while (syncing) {
+      waitForSync();
+    }
+    if (segment == null || !segment.isOpen()) {
+      return;
+    }
+    if (failure != null) {
+      cutOffUnsynced();
+      return;
+    }
+    segment.force(false);
+    segment.close();
+    durableSequence = appendedSequence;
+  }
+
+  /**
+   * Wait for the running fsync to finish. Callers hold the monitor.
+   */
+  private void waitForSync() {
+    try {
+      wait();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for the journal", ex);
+    }
+  }
+
+  private void requireHealthy() {
+    if (failure != null) {
+      throw new UncheckedIOException("Journal events after sequence %d could not be made durable"
+          .formatted(durableSequence), failure);
+    }
+  }
+
+  private boolean isDiscarded(long sequence) {
+    Map.Entry<Long, Long> range = discarded.floorEntry(sequence);
+    return range != null && sequence <= range.getValue();
+  }
+
+  /**
+   * Remove the bytes of an append that failed part-way, so that the next append starts on a
+   * fresh line. If that fails too, the journal is failed until {@link #discardUnsynced()}.
+   */
+  private void cutOffPartialAppend(IOException cause) {
+    try {
+      segment.truncate(appendedPosition);
+    } catch (IOException ex) {
+      cause.addSuppressed(ex);
+      failure = cause;
+    }
+  }
+
+  /**
+   * Truncate the segment to its durable length, force and close it, and record the sequences
+   * after the durable one as discarded. Callers hold the monitor.
+   */
+  private void cutOffUnsynced() throws IOException {
+    segment.truncate(durablePosition);
+    segment.force(false);
+    segment.close();
+    if (appendedSequence > durableSequence) {
+      discarded.put(durableSequence + 1, appendedSequence);
+      log.warn("Discarded journal events {} to {} after a failed write", durableSequence + 1, appendedSequence);
+    }
+    failure = null;
+  }
+
+  /**
+   * Cut a segment after its last complete line so that later appends start on a fresh line.
+   */
+  private static void truncateAfterLastLine(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      ByteBuffer single = ByteBuffer.allocate(1);
+      long position = channel.size();
+      while (position > 0) {
+        single.clear();
+        channel.read(single, position - 1);
+        if (single.get(0) == '\n') {
+          break;
+        }
+        position--;
+      }
+      channel.truncate(position);
+    }
+  }
+
+  private void startSegment(long firstSequence) throws IOException {
+    Path file = directory.resolve(SEGMENT_PREFIX + "%020d".formatted(firstSequence) + SEGMENT_SUFFIX);
+    segment = FileChannel.open(file,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    appendedPosition = 0;
+    durablePosition = 0;
+  }
+
+  private List<Path> segments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX)
+              && file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+          .sorted()
+          .toList();
+    }
+  }
+
+  private static long startOf(Path segment) {
+    String name = segment.getFileName().toString();
+    return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  private static void force(FileChannel channel) {
+    try {
+      channel.force(false);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+}
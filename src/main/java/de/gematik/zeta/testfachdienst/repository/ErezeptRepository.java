@@ -25,14 +25,92 @@
 package de.gematik.zeta.testfachdienst.repository;
 
 import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import jakarta.persistence.QueryHint;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Repository abstraction for persisting and querying {@link Erezept} entities.
  */
 public interface ErezeptRepository extends JpaRepository<Erezept, Long> {
 
+  /**
+   * Constructor expression used by the detached read queries. The argument order follows the
+   * field order of {@link Erezept}.
+   */
+  String DETACHED = "new de.gematik.zeta.testfachdienst.model.Erezept(e.id, e.medicationName, e.dosage, "
+      + "e.issuedAt, e.expiresAt, e.status, e.patientId, e.practitionerId, e.prescriptionId)";
+
+  /**
+   * Load all prescriptions ordered by identifier as unmanaged instances.
+   *
+   * <p>The constructor expression bypasses the persistence context: no entity is registered, no
+   * dirty-checking snapshot is kept and nothing has to be flushed. Use for read paths whose
+   * results are only serialized.</p>
+   *
+   * @return detached copies of all prescriptions
+   */
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("select " + DETACHED + " from Erezept e order by e.id")
+  List<Erezept> findAllDetached();
+
+  /**
+   * Load one page of prescriptions ordered by identifier as unmanaged instances, without a count
+   * query.
+   *
+   * @param page page request; its sort is ignored
+   * @return detached copies of the prescriptions of the page
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Query("select " + DETACHED + " from Erezept e order by e.id")
+  List<Erezept> findPageDetached(Pageable page);
+
+  /**
+   * Load the prescriptions following the given id as unmanaged instances, seeking by primary key
+   * instead of skipping rows.
+   *
+   * @param afterId id of the last prescription of the previous batch
+   * @param page    page request limiting the batch size; only its size is used
+   * @return detached copies of the prescriptions of the batch
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Query("select " + DETACHED + " from Erezept e where e.id > :afterId order by e.id")
+  List<Erezept> findPageAfterDetached(@Param("afterId") long afterId, Pageable page);
+
+  /**
+   * Load a prescription by identifier as unmanaged instance.
+   *
+   * @param id primary key of the prescription
+   * @return optional containing a detached copy when found
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Query("select " + DETACHED + " from Erezept e where e.id = :id")
+  Optional<Erezept> findDetachedById(@Param("id") Long id);
+
+  /**
+   * Load a prescription by business identifier as unmanaged instance.
+   *
+   * @param prescriptionId unique business identifier of the prescription
+   * @return optional containing a detached copy when found
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Query("select " + DETACHED + " from Erezept e where e.prescriptionId = :prescriptionId")
+  Optional<Erezept> findDetachedByPrescriptionId(@Param("prescriptionId") String prescriptionId);
+
   /**
    * Locate a prescription by its external identifier.
    *
@@ -48,5 +126,103 @@ public interface ErezeptRepository extends JpaRepository<Erezept, Long> {
    * @return {@code true} if a matching record exists, {@code false} otherwise
    */
   boolean existsByPrescriptionId(String prescriptionId);
-}
 
+  /**
+   * Select identifiers of prescriptions in one of the given states whose expiry lies before the
+   * cutoff, oldest expiry first. Served by the {@code (status, expiresAt)} index.
+   *
+   * @param statuses states that are eligible for expiry
+   * @param cutoff   instant before which a prescription counts as expired
+   * @param page     page request bounding the number of returned identifiers
+   * @return identifiers of expired prescriptions, at most {@code page.getPageSize()} entries
+   */
+  @Query("""
+      select e.id from Erezept e
+      where e.status in :statuses and e.expiresAt < :cutoff
+      order by e.expiresAt, e.id
+      """)
+  List<Long> findExpiredIds(
+      @Param("statuses") Collection<ErezeptStatus> statuses,
+      @Param("cutoff") OffsetDateTime cutoff,
+      Pageable page);
+
+  /**
+   * Transition the given prescriptions to a new status with a single set-based statement.
+   *
+   * <p>The state and expiry predicates are re-checked so that rows changed concurrently since
+   * {@link #findExpiredIds} are left untouched.</p>
+   *
+   * @param ids      identifiers selected for transition
+   * @param statuses states that are still eligible for the transition
+   * @param cutoff   instant before which a prescription counts as expired
+   * @param target   status to assign
+   * @return number of updated rows
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("""
+      update Erezept e set e.status = :target
+      where e.id in :ids and e.status in :statuses and e.expiresAt < :cutoff
+      """)
+  int transitionStatus(
+      @Param("ids") Collection<Long> ids,
+      @Param("statuses") Collection<ErezeptStatus> statuses,
+      @Param("cutoff") OffsetDateTime cutoff,
+      @Param("target") ErezeptStatus target);
+
+  /**
+   * Select identifiers of prescriptions in one of the given terminal states that were issued
+   * before the cutoff, oldest first.
+   *
+   * @param statuses terminal states eligible for archival
+   * @param cutoff   instant before which a prescription counts as old enough to archive
+   * @param page     page request bounding the number of returned identifiers
+   * @return identifiers of archivable prescriptions, at most {@code page.getPageSize()} entries
+   */
+  @Query("""
+      select e.id from Erezept e
+      where e.status in :statuses and e.issuedAt < :cutoff
+      order by e.id
+      """)
+  List<Long> findArchivableIds(
+      @Param("statuses") Collection<ErezeptStatus> statuses,
+      @Param("cutoff") OffsetDateTime cutoff,
+      Pageable page);
+
+  /**
+   * Remove the given prescriptions from the hot table once they are present in the archive.
+   *
+   * @param ids identifiers of prescriptions that were copied to the archive
+   * @return number of deleted rows
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("""
+      delete from Erezept e
+      where e.id in :ids and e.id in (select a.id from ErezeptArchive a where a.id in :ids)
+      """)
+  int deleteArchived(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Return those of the given business identifiers that are already taken.
+   *
+   * @param prescriptionIds business identifiers to check
+   * @return subset of {@code prescriptionIds} with a matching record
+   */
+  @Query("select e.prescriptionId from Erezept e where e.prescriptionId in :prescriptionIds")
+  List<String> findExistingPrescriptionIds(
+      @Param("prescriptionIds") Collection<String> prescriptionIds);
+
+  /**
+   * Stream all prescriptions ordered by identifier through a server-side cursor.
+   *
+   * <p>Entities are loaded read-only, so Hibernate keeps no dirty-checking snapshots. Must be
+   * consumed inside a transaction and closed afterwards.</p>
+   *
+   * @return stream over all prescriptions
+   */
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("select e from Erezept e order by e.id")
+  Stream<Erezept> streamAll();
+}
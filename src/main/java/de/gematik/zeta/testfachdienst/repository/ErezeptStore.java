@@ -0,0 +1,166 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.repository;
+
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Storage engine behind {@link de.gematik.zeta.testfachdienst.service.ErezeptService}.
+ *
+ * <p>The default engine is backed by JPA; alternative engines are selected by Spring profile.
+ * Lookups by identifier include archived prescriptions where the engine has an archive; updates
+ * and deletes only operate on active prescriptions.</p>
+ */
+public interface ErezeptStore {
+
+  /**
+   * Retrieve all active prescriptions.
+   *
+   * @return list of prescriptions, possibly empty
+   */
+  List<Erezept> findAll();
+
+  /**
+   * Retrieve one page of active prescriptions ordered by id.
+   *
+   * @param page zero-based page number
+   * @param size maximum number of prescriptions per page
+   * @return prescriptions of the page, possibly empty
+   */
+  default List<Erezept> findPage(int page, int size) {
+    return findAll().stream()
+        .sorted(Comparator.comparing(Erezept::getId))
+        .skip((long) page * size)
+        .limit(size)
+        .toList();
+  }
+
+  /**
+   * Retrieve up to {@code size} active prescriptions with an id greater than {@code afterId},
+   * ordered by id. Unlike {@link #findPage(int, int)}, the cost of a page does not grow with its
+   * position, so callers can walk the whole store in bounded batches.
+   *
+   * @param afterId id of the last prescription of the previous batch, {@code 0} to start
+   * @param size    maximum number of prescriptions
+   * @return prescriptions of the batch, possibly empty
+   */
+  default List<Erezept> findPageAfter(long afterId, int size) {
+    return findAll().stream()
+        .filter(prescription -> prescription.getId() > afterId)
+        .sorted(Comparator.comparing(Erezept::getId))
+        .limit(size)
+        .toList();
+  }
+
+  /**
+   * Find a prescription by database identifier.
+   *
+   * @param id primary key of the prescription
+   * @return optional containing the prescription when found
+   */
+  Optional<Erezept> findById(Long id);
+
+  /**
+   * Find a prescription by its business identifier.
+   *
+   * @param prescriptionId business identifier of the prescription
+   * @return optional containing the prescription when found
+   */
+  Optional<Erezept> findByPrescriptionId(String prescriptionId);
+
+  /**
+   * Check whether an active prescription exists for the given identifier.
+   *
+   * @param id database identifier
+   * @return {@code true} if present
+   */
+  boolean existsById(Long id);
+
+  /**
+   * Check whether the business identifier is taken by any prescription.
+   *
+   * @param prescriptionId business identifier
+   * @return {@code true} if a matching record exists
+   */
+  boolean existsByPrescriptionId(String prescriptionId);
+
+  /**
+   * Check whether the identifier belongs to an archived prescription. Archived prescriptions are
+   * still returned by lookups but must not be updated or deleted.
+   *
+   * @param id database identifier
+   * @return {@code true} if the prescription is archived and not active
+   */
+  default boolean isArchived(Long id) {
+    return false;
+  }
+
+  /**
+   * Store a new prescription unless its business identifier is already taken.
+   *
+   * @param prescription prescription to store
+   * @return stored prescription, empty optional when the business identifier is taken
+   */
+  Optional<Erezept> create(Erezept prescription);
+
+  /**
+   * Apply changes to an active prescription. The changes must not modify the identifiers.
+   *
+   * @param id      identifier of the prescription to update
+   * @param changes callback mutating the prescription
+   * @return updated prescription when present, empty optional when missing
+   */
+  Optional<Erezept> update(Long id, Consumer<Erezept> changes);
+
+  /**
+   * Insert or replace a prescription.
+   *
+   * @param prescription prescription to store
+   * @return stored prescription
+   */
+  Erezept save(Erezept prescription);
+
+  /**
+   * Remove an active prescription.
+   *
+   * @param id identifier to delete
+   * @return {@code true} when a prescription was removed
+   */
+  boolean deleteById(Long id);
+
+  /**
+   * Whether this engine keeps its prescriptions in the {@code erezept} table, so that the
+   * background jobs reading and writing that table directly operate on the served data.
+   *
+   * @return {@code true} when the engine is backed by the {@code erezept} table
+   */
+  default boolean isJpaBacked() {
+    return false;
+  }
+}
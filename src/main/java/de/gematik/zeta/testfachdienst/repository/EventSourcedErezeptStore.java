@@ -0,0 +1,508 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import de.gematik.zeta.testfachdienst.config.EventLogProperties;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptEvent;
+import de.gematik.zeta.testfachdienst.model.ErezeptEvent.Type;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Event-sourced {@link ErezeptStore}, active with the {@code event-sourced} profile.
+ *
+ * <p>Every create, update and delete is appended to the {@link ErezeptJournal}; the prescriptions
+ * served to readers are an in-memory projection of that journal. A write is acknowledged once
+ * its event is durable, with concurrent writers sharing one {@code fsync}. Events are applied to
+ * the projection only after they are durable, so readers never see a write that could be lost;
+ * until then, writers see them through a small set of in-flight events. If the journal cannot be
+ * written or forced, the events that are not durable are cut off the journal and dropped from
+ * the in-flight set, so they are neither visible now nor replayed later. Periodic snapshots of
+ * the projection allow older journal segments to be deleted, and on startup the projection is
+ * rebuilt from the latest snapshot plus the journal tail.</p>
+ */
+@Component
+@Profile("event-sourced")
+@Slf4j
+public class EventSourcedErezeptStore implements ErezeptStore {
+
+  private static final String SNAPSHOT_PREFIX = "snapshot-";
+  private static final String SNAPSHOT_SUFFIX = ".ndjson.gz";
+
+  private final InMemoryErezeptStore projection = new InMemoryErezeptStore();
+  private final Lock writeLock = new ReentrantLock();
+  private final NavigableMap<Long, ErezeptEvent> inFlight = new TreeMap<>();
+  private final Map<Long, ErezeptEvent> inFlightById = new HashMap<>();
+  private final Map<String, Long> inFlightPrescriptionIds = new HashMap<>();
+  private final Path directory;
+  private final ObjectMapper objectMapper;
+  private final EventLogProperties properties;
+  private final ErezeptJournal journal;
+  private final Timer snapshotDuration;
+  private long lastAssignedId;
+
+  /**
+   * Rebuild the projection from the latest snapshot and the journal.
+   *
+   * @param properties    event log configuration
+   * @param objectMapper  application object mapper used for events and snapshots
+   * @param meterRegistry registry receiving the journal metrics
+   * @throws IOException if the snapshot or journal cannot be read
+   */
+  public EventSourcedErezeptStore(
+      EventLogProperties properties,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry) throws IOException {
+    this.directory = Path.of(properties.getDirectory());
+    this.objectMapper = objectMapper;
+    this.properties = properties;
+    this.journal = new ErezeptJournal(directory, objectMapper, meterRegistry);
+    this.snapshotDuration = Timer.builder("erezept.journal.snapshot")
+        .description("Duration of writing a prescription snapshot")
+        .register(meterRegistry);
+    Files.createDirectories(directory);
+    long snapshotSequence = loadLatestSnapshot();
+    long replayed = journal.open(snapshotSequence, this::apply);
+    this.lastAssignedId = projection.lastId();
+    log.info("Rebuilt prescriptions from snapshot at sequence {} and {} journal events",
+        snapshotSequence, replayed);
+  }
+
+  @Override
+  public List<Erezept> findAll() {
+    return projection.findAll();
+  }
+
+  @Override
+  public List<Erezept> findPageAfter(long afterId, int size) {
+    return projection.findPageAfter(afterId, size);
+  }
+
+  @Override
+  public Optional<Erezept> findById(Long id) {
+    return projection.findById(id);
+  }
+
+  @Override
+  public Optional<Erezept> findByPrescriptionId(String prescriptionId) {
+    return projection.findByPrescriptionId(prescriptionId);
+  }
+
+  @Override
+  public boolean existsById(Long id) {
+    return projection.existsById(id);
+  }
+
+  @Override
+  public boolean existsByPrescriptionId(String prescriptionId) {
+    return projection.existsByPrescriptionId(prescriptionId);
+  }
+
+  @Override
+  public Optional<Erezept> create(Erezept prescription) {
+    Erezept created;
+    long sequence;
+    writeLock.lock();
+    try {
+      if (prescriptionIdTaken(prescription.getPrescriptionId())) {
+        return Optional.empty();
+      }
+      created = copy(prescription);
+      created.setId(lastAssignedId + 1);
+      sequence = append(Type.CREATED, created.getId(), created);
+      lastAssignedId = created.getId();
+    } finally {
+      writeLock.unlock();
+    }
+    commit(sequence);
+    return Optional.of(copy(created));
+  }
+
+  @Override
+  public Optional<Erezept> update(Long id, Consumer<Erezept> changes) {
+    Erezept updated;
+    long sequence;
+    writeLock.lock();
+    try {
+      Optional<Erezept> current = latest(id);
+      if (current.isEmpty()) {
+        return current;
+      }
+      updated = copy(current.get());
+      changes.accept(updated);
+      updated.setId(id);
+      updated.setPrescriptionId(current.get().getPrescriptionId());
+      sequence = append(Type.UPDATED, id, updated);
+    } finally {
+      writeLock.unlock();
+    }
+    commit(sequence);
+    return Optional.of(copy(updated));
+  }
+
+  @Override
+  public Erezept save(Erezept prescription) {
+    Erezept saved = copy(prescription);
+    long sequence;
+    writeLock.lock();
+    try {
+      Optional<Erezept> current = saved.getId() == null ? Optional.empty() : latest(saved.getId());
+      String newKey = saved.getPrescriptionId();
+      boolean keyChanged = current.isEmpty()
+          || !Objects.equals(current.get().getPrescriptionId(), newKey);
+      if (keyChanged && prescriptionIdTaken(newKey)) {
+        throw new DataIntegrityViolationException(
+            "ERezept with prescriptionId=%s already exists".formatted(newKey));
+      }
+      if (current.isEmpty()) {
+        saved.setId(lastAssignedId + 1);
+        sequence = append(Type.CREATED, saved.getId(), saved);
+        lastAssignedId = saved.getId();
+      } else {
+        sequence = append(Type.UPDATED, saved.getId(), saved);
+      }
+    } finally {
+      writeLock.unlock();
+    }
+    commit(sequence);
+    return copy(saved);
+  }
+
+  @Override
+  public boolean deleteById(Long id) {
+    long sequence;
+    writeLock.lock();
+    try {
+      if (latest(id).isEmpty()) {
+        return false;
+      }
+      sequence = append(Type.DELETED, id, null);
+    } finally {
+      writeLock.unlock();
+    }
+    commit(sequence);
+    return true;
+  }
+
+  /**
+   * Write a compacted snapshot of the projection and delete the journal segments it covers.
+   *
+   * <p>Writers are paused only while the journal is rotated and the projection is copied; the
+   * snapshot file is written afterwards and becomes visible by an atomic rename.</p>
+   *
+   * @throws IOException if the snapshot cannot be written
+   */
+  public void snapshot() throws IOException {
+    List<Erezept> state;
+    long sequence;
+    long lastId;
+    writeLock.lock();
+    try {
+      try {
+        sequence = journal.rotate();
+      } catch (RuntimeException ex) {
+        discardUnsynced(ex);
+        throw ex;
+      }
+      applyDurable(sequence);
+      state = projection.findAll();
+      lastId = projection.lastId();
+    } finally {
+      writeLock.unlock();
+    }
+    Path target = directory.resolve(SNAPSHOT_PREFIX + "%020d".formatted(sequence) + SNAPSHOT_SUFFIX);
+    if (Files.exists(target)) {
+      log.debug("Snapshot at sequence {} already exists", sequence);
+      return;
+    }
+    final Timer.Sample sample = Timer.start();
+    Path partial = target.resolveSibling(target.getFileName() + ".part");
+    try (var out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)));
+        SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+      writer.write(new SnapshotHeader(sequence, lastId));
+      writer.writeAll(state);
+    }
+    try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+      channel.force(true);
+    }
+    Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    sample.stop(snapshotDuration);
+    journal.pruneBefore(sequence + 1);
+    pruneSnapshots();
+    log.info("Wrote snapshot of {} prescriptions at sequence {}", state.size(), sequence);
+  }
+
+  /**
+   * Make all journal events durable before shutdown.
+   *
+   * @throws IOException if the journal cannot be closed
+   */
+  @PreDestroy
+  public void close() throws IOException {
+    writeLock.lock();
+    try {
+      journal.close();
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Append an event and register it as in flight, so that later writers build on it before it
+   * is durable. Callers hold the write lock; a failed append registers nothing.
+   */
+  private long append(Type type, Long id, Erezept prescription) {
+    long sequence;
+    try {
+      sequence = journal.append(type, id, prescription);
+    } catch (RuntimeException ex) {
+      discardUnsynced(ex);
+      throw ex;
+    }
+    ErezeptEvent event = ErezeptEvent.builder()
+        .sequence(sequence)
+        .type(type)
+        .erezeptId(id)
+        .prescription(prescription == null ? null : copy(prescription))
+        .build();
+    inFlight.put(sequence, event);
+    track(event);
+    return sequence;
+  }
+
+  /**
+   * Register an in-flight event as the latest state of its prescription. Callers hold the write
+   * lock.
+   */
+  private void track(ErezeptEvent event) {
+    inFlightById.put(event.getErezeptId(), event);
+    Erezept prescription = event.getPrescription();
+    if (prescription != null && prescription.getPrescriptionId() != null) {
+      inFlightPrescriptionIds.put(prescription.getPrescriptionId(), event.getErezeptId());
+    }
+  }
+
+  /**
+   * Wait until the event is durable and apply it, together with all earlier events, to the
+   * projection. If the journal cannot be forced, the event and all other events that are not
+   * durable are discarded and never become visible to readers. If the wait fails for another
+   * reason, the event stays in flight; it is in the journal and applied with the next durable
+   * write.
+   */
+  private void commit(long sequence) {
+    try {
+      journal.awaitDurable(sequence);
+    } catch (RuntimeException ex) {
+      writeLock.lock();
+      try {
+        discardUnsynced(ex);
+      } finally {
+        writeLock.unlock();
+      }
+      throw ex;
+    }
+    writeLock.lock();
+    try {
+      applyDurable(sequence);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Apply all in-flight events up to the given durable sequence in journal order. Callers hold
+   * the write lock.
+   */
+  private void applyDurable(long sequence) {
+    while (!inFlight.isEmpty() && inFlight.firstKey() <= sequence) {
+      ErezeptEvent event = inFlight.pollFirstEntry().getValue();
+      apply(event);
+      release(event);
+    }
+  }
+
+  /**
+   * Drop the events a failed journal could not make durable. The journal cuts them off and
+   * continues in a new segment; the in-flight set forgets them so that no writer builds on them.
+   * Durable events stay in flight until their writers apply them. Does nothing while the journal
+   * is healthy. Callers hold the write lock.
+   */
+  private void discardUnsynced(RuntimeException cause) {
+    try {
+      if (!journal.discardUnsynced()) {
+        return;
+      }
+    } catch (RuntimeException ex) {
+      cause.addSuppressed(ex);
+    }
+    inFlight.tailMap(journal.durableSequence(), false).clear();
+    inFlightById.clear();
+    inFlightPrescriptionIds.clear();
+    inFlight.values().forEach(this::track);
+  }
+
+  /**
+   * Forget an event that left the in-flight set. Callers hold the write lock.
+   */
+  private void release(ErezeptEvent event) {
+    Long id = event.getErezeptId();
+    if (inFlightById.get(id) == event) {
+      inFlightById.remove(id);
+    }
+    Erezept prescription = event.getPrescription();
+    if (prescription == null || prescription.getPrescriptionId() == null) {
+      return;
+    }
+    ErezeptEvent newer = inFlightById.get(id);
+    String key = prescription.getPrescriptionId();
+    if (newer == null || newer.getPrescription() == null
+        || !key.equals(newer.getPrescription().getPrescriptionId())) {
+      inFlightPrescriptionIds.remove(key, id);
+    }
+  }
+
+  /**
+   * State of a prescription as seen by writers: the latest in-flight event, else the projection.
+   * Callers hold the write lock.
+   */
+  private Optional<Erezept> latest(Long id) {
+    ErezeptEvent event = inFlightById.get(id);
+    if (event != null) {
+      return Optional.ofNullable(event.getPrescription()).map(EventSourcedErezeptStore::copy);
+    }
+    return projection.findById(id);
+  }
+
+  /**
+   * Whether a business identifier is used by the projection or claimed by an in-flight event.
+   * Identifiers released by in-flight events stay taken until those events are durable. Callers
+   * hold the write lock.
+   */
+  private boolean prescriptionIdTaken(String prescriptionId) {
+    return prescriptionId != null && (inFlightPrescriptionIds.containsKey(prescriptionId)
+        || projection.existsByPrescriptionId(prescriptionId));
+  }
+
+  private static Erezept copy(Erezept prescription) {
+    return prescription.toBuilder().build();
+  }
+
+  private void apply(ErezeptEvent event) {
+    switch (event.getType()) {
+      case CREATED, UPDATED -> projection.restore(event.getPrescription());
+      case DELETED -> projection.deleteById(event.getErezeptId());
+      default -> throw new IllegalStateException("Unknown event type " + event.getType());
+    }
+    if (event.getErezeptId() != null) {
+      projection.advanceIds(event.getErezeptId());
+    }
+  }
+
+  /**
+   * Load the newest snapshot into the projection.
+   *
+   * @return journal sequence covered by the snapshot, {@code 0} without snapshot
+   */
+  private long loadLatestSnapshot() throws IOException {
+    List<Path> snapshots = snapshots();
+    if (snapshots.isEmpty()) {
+      return 0;
+    }
+    Path latest = snapshots.get(snapshots.size() - 1);
+    try (var reader = new BufferedReader(new InputStreamReader(
+        new GZIPInputStream(Files.newInputStream(latest)), StandardCharsets.UTF_8))) {
+      SnapshotHeader header = objectMapper.readValue(reader.readLine(), SnapshotHeader.class);
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (!line.isBlank()) {
+          projection.restore(objectMapper.readValue(line, Erezept.class));
+        }
+      }
+      projection.advanceIds(header.lastId());
+      return header.sequence();
+    }
+  }
+
+  private void pruneSnapshots() {
+    try {
+      List<Path> snapshots = snapshots();
+      int obsolete = snapshots.size() - Math.max(1, properties.getRetainedSnapshots());
+      for (int i = 0; i < obsolete; i++) {
+        Files.deleteIfExists(snapshots.get(i));
+      }
+    } catch (IOException ex) {
+      log.warn("Could not prune snapshots in {}", directory, ex);
+    }
+  }
+
+  private List<Path> snapshots() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> file.getFileName().toString().startsWith(SNAPSHOT_PREFIX)
+              && file.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+          .sorted()
+          .toList();
+    }
+  }
+
+  /**
+   * First line of a snapshot file.
+   *
+   * @param sequence last journal sequence contained in the snapshot
+   * @param lastId   highest prescription id assigned at snapshot time
+   */
+  record SnapshotHeader(long sequence, long lastId) {
+  }
+}
@@ -0,0 +1,295 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.repository;
+
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link ErezeptStore} that keeps prescriptions in concurrent maps, active with the
+ * {@code in-memory} profile for load tests where the ORM must not be the bottleneck.
+ *
+ * <p>Prescriptions are indexed by id and by {@code prescriptionId}. Uniqueness of the business
+ * identifier is enforced under one of a fixed set of striped locks chosen by the identifier's
+ * hash, so writers of different identifiers rarely contend while reads never lock. Stored
+ * prescriptions are copied on the way in and out, so callers cannot mutate the shared state.
+ * Data is lost on restart and is not visible to the JPA based background jobs.</p>
+ */
+@Component
+@Profile("in-memory")
+public class InMemoryErezeptStore implements ErezeptStore {
+
+  private static final int STRIPES = 64;
+
+  private final Map<Long, Erezept> prescriptions = new ConcurrentHashMap<>();
+  private final Map<String, Long> idsByPrescriptionId = new ConcurrentHashMap<>();
+  private final AtomicLong sequence = new AtomicLong();
+  private final Object[] locks = new Object[STRIPES];
+
+  /**
+   * Creates an empty store.
+   */
+  public InMemoryErezeptStore() {
+    for (int i = 0; i < STRIPES; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  @Override
+  public List<Erezept> findAll() {
+    return prescriptions.values().stream()
+        .sorted(Comparator.comparing(Erezept::getId))
+        .map(InMemoryErezeptStore::copy)
+        .toList();
+  }
+
+  /**
+   * Look up the ids following {@code afterId} one by one; ids are assigned in sequence, so this
+   * avoids sorting the whole store for every batch.
+   */
+  @Override
+  public List<Erezept> findPageAfter(long afterId, int size) {
+    List<Erezept> result = new ArrayList<>(Math.min(size, 1024));
+    long last = sequence.get();
+    for (long id = afterId + 1; id <= last && result.size() < size; id++) {
+      Erezept prescription = prescriptions.get(id);
+      if (prescription != null) {
+        result.add(copy(prescription));
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public Optional<Erezept> findById(Long id) {
+    return Optional.ofNullable(prescriptions.get(id)).map(InMemoryErezeptStore::copy);
+  }
+
+  @Override
+  public Optional<Erezept> findByPrescriptionId(String prescriptionId) {
+    return Optional.ofNullable(idsByPrescriptionId.get(prescriptionId)).flatMap(this::findById);
+  }
+
+  @Override
+  public boolean existsById(Long id) {
+    return prescriptions.containsKey(id);
+  }
+
+  @Override
+  public boolean existsByPrescriptionId(String prescriptionId) {
+    return idsByPrescriptionId.containsKey(prescriptionId);
+  }
+
+  @Override
+  public Optional<Erezept> create(Erezept prescription) {
+    Erezept stored = copy(prescription);
+    return withLocks(stored.getPrescriptionId(), stored.getPrescriptionId(), () -> {
+      if (stored.getPrescriptionId() != null && idsByPrescriptionId.containsKey(stored.getPrescriptionId())) {
+        return Optional.empty();
+      }
+      insert(stored);
+      return Optional.of(copy(stored));
+    });
+  }
+
+  @Override
+  public Optional<Erezept> update(Long id, Consumer<Erezept> changes) {
+    return Optional.ofNullable(prescriptions.computeIfPresent(id, (key, current) -> {
+      Erezept updated = copy(current);
+      changes.accept(updated);
+      updated.setId(current.getId());
+      updated.setPrescriptionId(current.getPrescriptionId());
+      return updated;
+    })).map(InMemoryErezeptStore::copy);
+  }
+
+  @Override
+  public Erezept save(Erezept prescription) {
+    Erezept stored = copy(prescription);
+    while (true) {
+      Erezept current = stored.getId() == null ? null : prescriptions.get(stored.getId());
+      if (current == null) {
+        stored.setId(null);
+        return withLocks(stored.getPrescriptionId(), stored.getPrescriptionId(), () -> {
+          if (stored.getPrescriptionId() != null && idsByPrescriptionId.containsKey(stored.getPrescriptionId())) {
+            throw duplicate(stored.getPrescriptionId());
+          }
+          insert(stored);
+          return copy(stored);
+        });
+      }
+      Erezept replaced = withLocks(current.getPrescriptionId(), stored.getPrescriptionId(),
+          () -> replace(current, stored));
+      if (replaced != null) {
+        return copy(replaced);
+      }
+    }
+  }
+
+  @Override
+  public boolean deleteById(Long id) {
+    while (true) {
+      Erezept current = prescriptions.get(id);
+      if (current == null) {
+        return false;
+      }
+      boolean removed = withLocks(current.getPrescriptionId(), current.getPrescriptionId(), () -> {
+        if (!prescriptions.remove(id, current)) {
+          return false;
+        }
+        if (current.getPrescriptionId() != null) {
+          idsByPrescriptionId.remove(current.getPrescriptionId(), id);
+        }
+        return true;
+      });
+      if (removed) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Put a prescription with its existing id, replacing an earlier state. Used to rebuild the
+   * store from a snapshot or journal.
+   *
+   * @param prescription prescription including its id
+   */
+  void restore(Erezept prescription) {
+    Erezept stored = copy(prescription);
+    Erezept previous = prescriptions.get(stored.getId());
+    String previousKey = previous == null ? null : previous.getPrescriptionId();
+    withLocks(previousKey, stored.getPrescriptionId(), () -> {
+      prescriptions.put(stored.getId(), stored);
+      if (previousKey != null) {
+        idsByPrescriptionId.remove(previousKey, stored.getId());
+      }
+      if (stored.getPrescriptionId() != null) {
+        idsByPrescriptionId.put(stored.getPrescriptionId(), stored.getId());
+      }
+      return stored;
+    });
+    advanceIds(stored.getId());
+  }
+
+  /**
+   * Make sure ids up to the given value are never assigned again.
+   *
+   * @param id highest id in use
+   */
+  void advanceIds(long id) {
+    sequence.accumulateAndGet(id, Math::max);
+  }
+
+  /**
+   * Highest id assigned so far.
+   *
+   * @return last assigned id, {@code 0} when empty
+   */
+  long lastId() {
+    return sequence.get();
+  }
+
+  /**
+   * Assign a new id and add the prescription to both indexes. Callers hold the lock of its
+   * business identifier.
+   */
+  private void insert(Erezept stored) {
+    stored.setId(sequence.incrementAndGet());
+    prescriptions.put(stored.getId(), stored);
+    if (stored.getPrescriptionId() != null) {
+      idsByPrescriptionId.put(stored.getPrescriptionId(), stored.getId());
+    }
+  }
+
+  /**
+   * Replace a prescription and move its business identifier when it changed. Callers hold the
+   * locks of the old and the new business identifier.
+   *
+   * @return the stored prescription, {@code null} when {@code current} was concurrently replaced
+   */
+  private Erezept replace(Erezept current, Erezept stored) {
+    if (prescriptions.get(current.getId()) != current) {
+      return null;
+    }
+    String oldKey = current.getPrescriptionId();
+    String newKey = stored.getPrescriptionId();
+    if (!Objects.equals(oldKey, newKey)) {
+      if (newKey != null && idsByPrescriptionId.containsKey(newKey)) {
+        throw duplicate(newKey);
+      }
+      if (oldKey != null) {
+        idsByPrescriptionId.remove(oldKey, current.getId());
+      }
+      if (newKey != null) {
+        idsByPrescriptionId.put(newKey, current.getId());
+      }
+    }
+    prescriptions.put(current.getId(), stored);
+    return stored;
+  }
+
+  /**
+   * Run the action while holding the striped locks of both business identifiers, always
+   * acquired in stripe order to avoid deadlocks.
+   */
+  private <T> T withLocks(String first, String second, Supplier<T> action) {
+    int a = stripe(first);
+    int b = stripe(second);
+    synchronized (locks[Math.min(a, b)]) {
+      synchronized (locks[Math.max(a, b)]) {
+        return action.get();
+      }
+    }
+  }
+
+  private static int stripe(String prescriptionId) {
+    if (prescriptionId == null) {
+      return 0;
+    }
+    int hash = prescriptionId.hashCode();
+    return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+  }
+
+  private static DataIntegrityViolationException duplicate(String prescriptionId) {
+    return new DataIntegrityViolationException(
+        "ERezept with prescriptionId=%s already exists".formatted(prescriptionId));
+  }
+
+  private static Erezept copy(Erezept prescription) {
+    return prescription.toBuilder().build();
+  }
+}
@@ -0,0 +1,131 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.repository;
+
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptArchive;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Default {@link ErezeptStore} backed by {@link ErezeptRepository}, falling back to the archive of
+ * terminal prescriptions for lookups by identifier.
+ *
+ * <p>Reads return detached projections that never enter the persistence context; only
+ * {@link #update} loads a managed entity to apply its changes.</p>
+ */
+@Component
+@Profile("!in-memory & !mapped & !event-sourced & !sharded")
+@RequiredArgsConstructor
+public class JpaErezeptStore implements ErezeptStore {
+
+  private final ErezeptRepository repository;
+  private final ErezeptArchiveRepository archiveRepository;
+
+  @Override
+  public List<Erezept> findAll() {
+    return repository.findAllDetached();
+  }
+
+  @Override
+  public List<Erezept> findPage(int page, int size) {
+    return repository.findPageDetached(PageRequest.of(page, size));
+  }
+
+  @Override
+  public List<Erezept> findPageAfter(long afterId, int size) {
+    return repository.findPageAfterDetached(afterId, PageRequest.of(0, size));
+  }
+
+  @Override
+  public Optional<Erezept> findById(Long id) {
+    return repository.findDetachedById(id)
+        .or(() -> archiveRepository.findById(id).map(ErezeptArchive::toErezept));
+  }
+
+  @Override
+  public Optional<Erezept> findByPrescriptionId(String prescriptionId) {
+    return repository.findDetachedByPrescriptionId(prescriptionId)
+        .or(() -> archiveRepository.findByPrescriptionId(prescriptionId)
+            .map(ErezeptArchive::toErezept));
+  }
+
+  @Override
+  public boolean existsById(Long id) {
+    return repository.existsById(id);
+  }
+
+  @Override
+  public boolean existsByPrescriptionId(String prescriptionId) {
+    return repository.existsByPrescriptionId(prescriptionId)
+        || archiveRepository.existsByPrescriptionId(prescriptionId);
+  }
+
+  @Override
+  public boolean isArchived(Long id) {
+    return id != null && !repository.existsById(id) && archiveRepository.existsById(id);
+  }
+
+  @Override
+  public Optional<Erezept> create(Erezept prescription) {
+    if (prescription.getPrescriptionId() != null
+        && existsByPrescriptionId(prescription.getPrescriptionId())) {
+      return Optional.empty();
+    }
+    return Optional.of(repository.save(prescription));
+  }
+
+  @Override
+  public Optional<Erezept> update(Long id, Consumer<Erezept> changes) {
+    return repository.findById(id).map(existing -> {
+      changes.accept(existing);
+      return repository.save(existing);
+    });
+  }
+
+  @Override
+  public Erezept save(Erezept prescription) {
+    return repository.save(prescription);
+  }
+
+  @Override
+  public boolean deleteById(Long id) {
+    if (!repository.existsById(id)) {
+      return false;
+    }
+    repository.deleteById(id);
+    return true;
+  }
+
+  @Override
+  public boolean isJpaBacked() {
+    return true;
+  }
+}
@@ -0,0 +1,504 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.repository;
+
+import de.gematik.zeta.testfachdienst.config.MappedStoreProperties;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link ErezeptStore} that keeps prescriptions off-heap in memory-mapped files, active with the
+ * {@code mapped} profile for soak tests with tens of millions of prescriptions.
+ *
+ * <p>Every prescription occupies a fixed-size slot in {@code erezept.slots}; the slot position is
+ * derived from the id, so the id needs no separate index. {@code prescriptionId} lookups go
+ * through {@link MappedPrescriptionIndex} in {@code erezept.index}. The heap only holds the
+ * prescriptions currently being read or written, and the operating system pages the files in
+ * and out. On a clean shutdown the index is reused on the next start; after a crash it is rebuilt
+ * from the slots. Writers are serialized, readers proceed concurrently.</p>
+ */
+@Component
+@Profile("mapped")
+@Slf4j
+public class MappedErezeptStore implements ErezeptStore {
+
+  /**
+   * Slot size in bytes. A prescription within the maximum lengths declared on {@link Erezept}
+   * needs at most 42 header bytes, 5 length prefixes and 576 characters of up to 3 UTF-8 bytes
+   * each, i.e. 1780 bytes; supplementary characters take 4 bytes but count as two characters.
+   */
+  static final int SLOT_SIZE = 2048;
+
+  private static final long MAGIC = 0x4552455a45505431L;
+  private static final int VERSION = 2;
+  private static final int HEADER_MAGIC = 0;
+  private static final int HEADER_VERSION = 8;
+  private static final int HEADER_CLEAN = 12;
+  private static final int HEADER_NEXT_ID = 16;
+  private static final int HEADER_LIVE = 24;
+  private static final int HEADER_INDEX_CAPACITY = 32;
+  private static final int HEADER_INDEX_SIZE = 40;
+  private static final int HEADER_INDEX_TOMBSTONES = 48;
+  private static final int SLOT_STRINGS = 42;
+  private static final byte LIVE = 1;
+  private static final byte DELETED = 2;
+  private static final ErezeptStatus[] STATUSES = ErezeptStatus.values();
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final MappedFile slots;
+  private final MappedPrescriptionIndex index;
+  private long nextId;
+  private long live;
+
+  /**
+   * Open the store files, creating them when missing, and register the store metrics.
+   *
+   * @param properties    store configuration
+   * @param meterRegistry registry receiving the store metrics
+   * @throws IOException if the files cannot be opened or mapped
+   */
+  public MappedErezeptStore(MappedStoreProperties properties, MeterRegistry meterRegistry)
+      throws IOException {
+    Path directory = Path.of(properties.getDirectory());
+    Files.createDirectories(directory);
+    int chunkSize = Math.max(1, properties.getChunkSizeMb()) * 1024 * 1024;
+    this.slots = new MappedFile(directory.resolve("erezept.slots"), chunkSize);
+    if (slots.getLong(HEADER_MAGIC) == 0) {
+      slots.putLong(HEADER_MAGIC, MAGIC);
+      slots.putInt(HEADER_VERSION, VERSION);
+      slots.putLong(HEADER_NEXT_ID, 1);
+      slots.putByte(HEADER_CLEAN, (byte) 0);
+    } else if (slots.getLong(HEADER_MAGIC) != MAGIC || slots.getInt(HEADER_VERSION) != VERSION) {
+      throw new IllegalStateException("Unsupported prescription store in " + directory);
+    }
+    this.nextId = slots.getLong(HEADER_NEXT_ID);
+    this.live = slots.getLong(HEADER_LIVE);
+
+    Path indexFile = directory.resolve("erezept.index");
+    long indexCapacity = slots.getLong(HEADER_INDEX_CAPACITY);
+    boolean reusable = slots.getByte(HEADER_CLEAN) == 1 && indexCapacity > 0
+        && Files.isRegularFile(indexFile) && Files.size(indexFile) == indexCapacity * 16;
+    if (reusable) {
+      this.index = new MappedPrescriptionIndex(indexFile, indexCapacity,
+          slots.getLong(HEADER_INDEX_SIZE), slots.getLong(HEADER_INDEX_TOMBSTONES), chunkSize);
+      log.info("Opened prescription store {} with {} prescriptions", directory, live);
+    } else {
+      Files.deleteIfExists(indexFile);
+      this.index = new MappedPrescriptionIndex(indexFile,
+          MappedPrescriptionIndex.capacityFor(live, properties.getInitialIndexCapacity()), 0, 0, chunkSize);
+      rebuildIndex();
+      log.info("Rebuilt prescriptionId index of {} with {} prescriptions", directory, live);
+    }
+    slots.putByte(HEADER_CLEAN, (byte) 0);
+    writeHeader();
+    slots.force();
+
+    Gauge.builder("erezept.mapped.store.prescriptions", this, store -> store.live)
+        .description("Prescriptions held by the memory-mapped store")
+        .register(meterRegistry);
+    Gauge.builder("erezept.mapped.store.file.size", slots, MappedFile::capacity)
+        .description("Mapped size of the prescription slot file")
+        .baseUnit("bytes")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public List<Erezept> findAll() {
+    lock.readLock().lock();
+    try {
+      List<Erezept> result = new ArrayList<>();
+      for (long id = 1; id < nextId; id++) {
+        if (slots.getByte(offset(id)) == LIVE) {
+          result.add(decode(id));
+        }
+      }
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Walk the slots in id order, skipping the live prescriptions of earlier pages, and decode only
+   * the prescriptions of the requested page.
+   */
+  @Override
+  public List<Erezept> findPage(int page, int size) {
+    lock.readLock().lock();
+    try {
+      long skip = (long) page * size;
+      List<Erezept> result = new ArrayList<>(Math.min(size, 1024));
+      for (long id = 1; id < nextId && result.size() < size; id++) {
+        if (slots.getByte(offset(id)) != LIVE) {
+          continue;
+        }
+        if (skip > 0) {
+          skip--;
+        } else {
+          result.add(decode(id));
+        }
+      }
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public List<Erezept> findPageAfter(long afterId, int size) {
+    lock.readLock().lock();
+    try {
+      List<Erezept> result = new ArrayList<>(Math.min(size, 1024));
+      for (long id = Math.max(1, afterId + 1); id < nextId && result.size() < size; id++) {
+        if (slots.getByte(offset(id)) == LIVE) {
+          result.add(decode(id));
+        }
+      }
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Optional<Erezept> findById(Long id) {
+    lock.readLock().lock();
+    try {
+      return isLive(id) ? Optional.of(decode(id)) : Optional.empty();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Optional<Erezept> findByPrescriptionId(String prescriptionId) {
+    lock.readLock().lock();
+    try {
+      long id = index.find(prescriptionId, this::readPrescriptionId);
+      return id == 0 ? Optional.empty() : Optional.of(decode(id));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean existsById(Long id) {
+    lock.readLock().lock();
+    try {
+      return isLive(id);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean existsByPrescriptionId(String prescriptionId) {
+    lock.readLock().lock();
+    try {
+      return index.find(prescriptionId, this::readPrescriptionId) != 0;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Optional<Erezept> create(Erezept prescription) {
+    lock.writeLock().lock();
+    try {
+      if (prescription.getPrescriptionId() != null && existsByPrescriptionId(prescription.getPrescriptionId())) {
+        return Optional.empty();
+      }
+      return Optional.of(insert(prescription));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public Optional<Erezept> update(Long id, Consumer<Erezept> changes) {
+    lock.writeLock().lock();
+    try {
+      if (!isLive(id)) {
+        return Optional.empty();
+      }
+      Erezept current = decode(id);
+      Erezept updated = current.toBuilder().build();
+      changes.accept(updated);
+      updated.setId(id);
+      updated.setPrescriptionId(current.getPrescriptionId());
+      write(id, encode(updated));
+      return Optional.of(updated);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public Erezept save(Erezept prescription) {
+    lock.writeLock().lock();
+    try {
+      Long id = prescription.getId();
+      if (!isLive(id)) {
+        if (prescription.getPrescriptionId() != null && existsByPrescriptionId(prescription.getPrescriptionId())) {
+          throw duplicate(prescription.getPrescriptionId());
+        }
+        return insert(prescription);
+      }
+      String oldKey = readPrescriptionId(id);
+      String newKey = prescription.getPrescriptionId();
+      boolean keyChanged = !Objects.equals(oldKey, newKey);
+      if (keyChanged && newKey != null && existsByPrescriptionId(newKey)) {
+        throw duplicate(newKey);
+      }
+      Erezept stored = prescription.toBuilder().build();
+      write(id, encode(stored));
+      if (keyChanged) {
+        if (oldKey != null) {
+          index.remove(oldKey, id);
+        }
+        if (newKey != null) {
+          index.insert(newKey, id);
+        }
+        writeHeader();
+      }
+      return stored;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean deleteById(Long id) {
+    lock.writeLock().lock();
+    try {
+      if (!isLive(id)) {
+        return false;
+      }
+      String key = readPrescriptionId(id);
+      if (key != null) {
+        index.remove(key, id);
+      }
+      slots.putByte(offset(id), DELETED);
+      live--;
+      writeHeader();
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Flush the files and mark the store as cleanly closed so the index is reused on restart.
+   *
+   * @throws IOException if the files cannot be closed
+   */
+  @PreDestroy
+  public void close() throws IOException {
+    lock.writeLock().lock();
+    try {
+      writeHeader();
+      index.close();
+      slots.putByte(HEADER_CLEAN, (byte) 1);
+      slots.close();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Append a prescription in the next free slot. Callers hold the write lock.
+   */
+  private Erezept insert(Erezept prescription) {
+    long id = nextId;
+    Erezept stored = prescription.toBuilder().id(id).build();
+    byte[] record = encode(stored);
+    slots.ensureCapacity(offset(id) + SLOT_SIZE);
+    write(id, record);
+    nextId++;
+    live++;
+    if (stored.getPrescriptionId() != null) {
+      index.insert(stored.getPrescriptionId(), id);
+    }
+    writeHeader();
+    return stored;
+  }
+
+  private void rebuildIndex() {
+    live = 0;
+    for (long id = 1; id < nextId; id++) {
+      if (slots.getByte(offset(id)) == LIVE) {
+        live++;
+        String key = readPrescriptionId(id);
+        if (key != null) {
+          index.insert(key, id);
+        }
+      }
+    }
+  }
+
+  private void writeHeader() {
+    slots.putLong(HEADER_NEXT_ID, nextId);
+    slots.putLong(HEADER_LIVE, live);
+    slots.putLong(HEADER_INDEX_CAPACITY, index.capacity());
+    slots.putLong(HEADER_INDEX_SIZE, index.size());
+    slots.putLong(HEADER_INDEX_TOMBSTONES, index.tombstones());
+  }
+
+  private boolean isLive(Long id) {
+    return id != null && id > 0 && id < nextId && slots.getByte(offset(id)) == LIVE;
+  }
+
+  private void write(long id, byte[] record) {
+    slots.put(offset(id), record, record.length);
+  }
+
+  /**
+   * Slot 0 holds the file header, so a prescription's slot is addressed directly by its id.
+   */
+  private static long offset(long id) {
+    return id * SLOT_SIZE;
+  }
+
+  /**
+   * Serialize a prescription into a slot image: state, status, id, both timestamps and the
+   * length-prefixed UTF-8 strings, {@code prescriptionId} first so index probes read it cheaply.
+   */
+  private static byte[] encode(Erezept prescription) {
+    ByteBuffer out = ByteBuffer.allocate(SLOT_SIZE);
+    try {
+      out.put(LIVE);
+      out.put(prescription.getStatus() == null ? -1 : (byte) prescription.getStatus().ordinal());
+      out.putLong(prescription.getId());
+      putTime(out, prescription.getIssuedAt());
+      putTime(out, prescription.getExpiresAt());
+      putString(out, prescription.getPrescriptionId());
+      putString(out, prescription.getMedicationName());
+      putString(out, prescription.getDosage());
+      putString(out, prescription.getPatientId());
+      putString(out, prescription.getPractitionerId());
+    } catch (BufferOverflowException ex) {
+      throw new DataIntegrityViolationException(
+          "ERezept id=%d exceeds the slot size of %d bytes".formatted(prescription.getId(), SLOT_SIZE));
+    }
+    return out.array();
+  }
+
+  private Erezept decode(long id) {
+    byte[] record = new byte[SLOT_SIZE];
+    slots.get(offset(id), record, SLOT_SIZE);
+    ByteBuffer in = ByteBuffer.wrap(record, 1, SLOT_SIZE - 1);
+    byte status = in.get();
+    return Erezept.builder()
+        .id(in.getLong())
+        .status(status < 0 ? null : STATUSES[status])
+        .issuedAt(getTime(in))
+        .expiresAt(getTime(in))
+        .prescriptionId(getString(in))
+        .medicationName(getString(in))
+        .dosage(getString(in))
+        .patientId(getString(in))
+        .practitionerId(getString(in))
+        .build();
+  }
+
+  private String readPrescriptionId(long id) {
+    long offset = offset(id) + SLOT_STRINGS;
+    byte[] length = new byte[2];
+    slots.get(offset, length, 2);
+    short size = ByteBuffer.wrap(length).getShort();
+    if (size < 0) {
+      return null;
+    }
+    byte[] value = new byte[size];
+    slots.get(offset + 2, value, size);
+    return new String(value, StandardCharsets.UTF_8);
+  }
+
+  private static void putTime(ByteBuffer out, OffsetDateTime time) {
+    if (time == null) {
+      out.putLong(0).putInt(-1).putInt(0);
+      return;
+    }
+    out.putLong(time.toEpochSecond()).putInt(time.getNano()).putInt(time.getOffset().getTotalSeconds());
+  }
+
+  private static OffsetDateTime getTime(ByteBuffer in) {
+    long seconds = in.getLong();
+    int nanos = in.getInt();
+    int offsetSeconds = in.getInt();
+    if (nanos < 0) {
+      return null;
+    }
+    return OffsetDateTime.ofInstant(Instant.ofEpochSecond(seconds, nanos),
+        ZoneOffset.ofTotalSeconds(offsetSeconds));
+  }
+
+  private static void putString(ByteBuffer out, String value) {
+    if (value == null) {
+      out.putShort((short) -1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.putShort((short) bytes.length).put(bytes);
+  }
+
+  private static String getString(ByteBuffer in) {
+    short size = in.getShort();
+    if (size < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[size];
+    in.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static DataIntegrityViolationException duplicate(String prescriptionId) {
+    return new DataIntegrityViolationException(
+        "ERezept with prescriptionId=%s already exists".formatted(prescriptionId));
+  }
+}
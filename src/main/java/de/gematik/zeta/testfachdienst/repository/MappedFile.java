@@ -0,0 +1,134 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File mapped into memory as a list of fixed-size chunks, so it can grow beyond the 2 GiB limit
+ * of a single {@link MappedByteBuffer}. Callers must not let a single value cross a chunk
+ * boundary and are responsible for synchronizing growth with concurrent access.
+ */
+final class MappedFile implements Closeable {
+
+  private final FileChannel channel;
+  private final int chunkSize;
+  private final List<MappedByteBuffer> chunks = new ArrayList<>();
+
+  /**
+   * Open or create the file and map its current content, at least one chunk.
+   *
+   * @param file      file to map
+   * @param chunkSize size of a mapped chunk in bytes
+   * @throws IOException if the file cannot be opened or mapped
+   */
+  MappedFile(Path file, int chunkSize) throws IOException {
+    this.channel = FileChannel.open(file,
+        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    this.chunkSize = chunkSize;
+    ensureCapacity(Math.max(channel.size(), chunkSize));
+  }
+
+  /**
+   * Map further chunks until at least {@code bytes} are addressable.
+   *
+   * @param bytes required capacity
+   */
+  void ensureCapacity(long bytes) {
+    try {
+      while (capacity() < bytes) {
+        chunks.add(channel.map(MapMode.READ_WRITE, capacity(), chunkSize));
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  long capacity() {
+    return (long) chunks.size() * chunkSize;
+  }
+
+  byte getByte(long offset) {
+    return chunk(offset).get(position(offset));
+  }
+
+  void putByte(long offset, byte value) {
+    chunk(offset).put(position(offset), value);
+  }
+
+  int getInt(long offset) {
+    return chunk(offset).getInt(position(offset));
+  }
+
+  void putInt(long offset, int value) {
+    chunk(offset).putInt(position(offset), value);
+  }
+
+  long getLong(long offset) {
+    return chunk(offset).getLong(position(offset));
+  }
+
+  void putLong(long offset, long value) {
+    chunk(offset).putLong(position(offset), value);
+  }
+
+  void get(long offset, byte[] target, int length) {
+    chunk(offset).get(position(offset), target, 0, length);
+  }
+
+  void put(long offset, byte[] source, int length) {
+    chunk(offset).put(position(offset), source, 0, length);
+  }
+
+  /**
+   * Write all modified pages to the storage device.
+   */
+  void force() {
+    chunks.forEach(MappedByteBuffer::force);
+  }
+
+  @Override
+  public void close() throws IOException {
+    force();
+    channel.close();
+  }
+
+  private MappedByteBuffer chunk(long offset) {
+    return chunks.get((int) (offset / chunkSize));
+  }
+
+  private int position(long offset) {
+    return (int) (offset % chunkSize);
+  }
+}
@@ -0,0 +1,235 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.function.LongFunction;
+
+/**
+ * Off-heap hash index from {@code prescriptionId} to prescription id, kept in a memory-mapped
+ * file so its size does not count against the heap.
+ *
+ * <p>The table uses open addressing with linear probing. Each entry holds the 64-bit hash of the
+ * key and the id; keys themselves are not stored but compared against the record on a hash
+ * match. Removed entries become tombstones until the table is rebuilt on growth.</p>
+ */
+final class MappedPrescriptionIndex implements Closeable {
+
+  private static final int ENTRY_SIZE = 16;
+  private static final long TOMBSTONE = -1;
+  private static final double MAX_LOAD = 0.7;
+
+  private final Path file;
+  private final int maxChunkSize;
+  private MappedFile table;
+  private long capacity;
+  private long size;
+  private long tombstones;
+
+  /**
+   * Open an existing index or create an empty one.
+   *
+   * @param file         index file
+   * @param capacity     number of entries, a power of two
+   * @param size         number of live entries in an existing index
+   * @param tombstones   number of tombstones in an existing index
+   * @param maxChunkSize upper bound of a mapped chunk in bytes
+   * @throws IOException if the file cannot be mapped
+   */
+  MappedPrescriptionIndex(Path file, long capacity, long size, long tombstones, int maxChunkSize)
+      throws IOException {
+    this.file = file;
+    this.maxChunkSize = maxChunkSize;
+    this.capacity = capacity;
+    this.size = size;
+    this.tombstones = tombstones;
+    this.table = map(file, capacity);
+  }
+
+  /**
+   * Look up the id stored for a key.
+   *
+   * @param key   business identifier
+   * @param keyOf resolves the business identifier of a stored id to confirm hash matches
+   * @return id of the prescription, {@code 0} when absent
+   */
+  long find(String key, LongFunction<String> keyOf) {
+    long hash = hash(key);
+    long mask = capacity - 1;
+    for (long slot = hash & mask; ; slot = (slot + 1) & mask) {
+      long storedHash = table.getLong(slot * ENTRY_SIZE);
+      if (storedHash == 0) {
+        return 0;
+      }
+      long id = table.getLong(slot * ENTRY_SIZE + 8);
+      if (storedHash == hash && id != TOMBSTONE && key.equals(keyOf.apply(id))) {
+        return id;
+      }
+    }
+  }
+
+  /**
+   * Add a key that is known to be absent.
+   *
+   * @param key business identifier
+   * @param id  id of the prescription
+   */
+  void insert(String key, long id) {
+    if (size + tombstones + 1 > capacity * MAX_LOAD) {
+      rebuild(size + 1 > capacity * MAX_LOAD / 2 ? capacity * 2 : capacity);
+    }
+    if (place(table, capacity, hash(key), id)) {
+      tombstones--;
+    }
+    size++;
+  }
+
+  /**
+   * Remove the entry of a key.
+   *
+   * @param key business identifier
+   * @param id  id stored for the key
+   */
+  void remove(String key, long id) {
+    long hash = hash(key);
+    long mask = capacity - 1;
+    for (long slot = hash & mask; ; slot = (slot + 1) & mask) {
+      long storedHash = table.getLong(slot * ENTRY_SIZE);
+      if (storedHash == 0) {
+        return;
+      }
+      if (storedHash == hash && table.getLong(slot * ENTRY_SIZE + 8) == id) {
+        table.putLong(slot * ENTRY_SIZE + 8, TOMBSTONE);
+        size--;
+        tombstones++;
+        return;
+      }
+    }
+  }
+
+  long capacity() {
+    return capacity;
+  }
+
+  long size() {
+    return size;
+  }
+
+  long tombstones() {
+    return tombstones;
+  }
+
+  void force() {
+    table.force();
+  }
+
+  @Override
+  public void close() throws IOException {
+    table.close();
+  }
+
+  /**
+   * Smallest power-of-two capacity that keeps the given number of entries below the load limit.
+   *
+   * @param entries expected number of entries
+   * @param minimum lower bound of the capacity
+   * @return capacity for a new index
+   */
+  static long capacityFor(long entries, long minimum) {
+    long capacity = Long.highestOneBit(Math.max(minimum, 1024));
+    while (entries > capacity * MAX_LOAD / 2) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  /**
+   * Copy all live entries into a new table of the given capacity and replace the index file.
+   */
+  private void rebuild(long newCapacity) {
+    Path next = file.resolveSibling(file.getFileName() + ".tmp");
+    try {
+      Files.deleteIfExists(next);
+      MappedFile rebuilt = map(next, newCapacity);
+      for (long slot = 0; slot < capacity; slot++) {
+        long storedHash = table.getLong(slot * ENTRY_SIZE);
+        long id = table.getLong(slot * ENTRY_SIZE + 8);
+        if (storedHash != 0 && id != TOMBSTONE) {
+          place(rebuilt, newCapacity, storedHash, id);
+        }
+      }
+      table.close();
+      Files.move(next, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      table = rebuilt;
+      capacity = newCapacity;
+      tombstones = 0;
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /**
+   * Store an entry in the first free or tombstone slot of its probe sequence.
+   *
+   * @return {@code true} when a tombstone was reused
+   */
+  private static boolean place(MappedFile target, long targetCapacity, long hash, long id) {
+    long mask = targetCapacity - 1;
+    for (long slot = hash & mask; ; slot = (slot + 1) & mask) {
+      long storedHash = target.getLong(slot * ENTRY_SIZE);
+      boolean tombstone = storedHash != 0 && target.getLong(slot * ENTRY_SIZE + 8) == TOMBSTONE;
+      if (storedHash == 0 || tombstone) {
+        target.putLong(slot * ENTRY_SIZE, hash);
+        target.putLong(slot * ENTRY_SIZE + 8, id);
+        return tombstone;
+      }
+    }
+  }
+
+  private MappedFile map(Path target, long entries) throws IOException {
+    long bytes = entries * ENTRY_SIZE;
+    var mapped = new MappedFile(target, (int) Math.min(maxChunkSize, bytes));
+    mapped.ensureCapacity(bytes);
+    return mapped;
+  }
+
+  /**
+   * 64-bit FNV-1a hash of the key, never {@code 0} because that marks a free slot.
+   */
+  private static long hash(String key) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < key.length(); i++) {
+      hash ^= key.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 32;
+    return hash == 0 ? 1 : hash;
+  }
+}
@@ -0,0 +1,450 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.repository;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import de.gematik.zeta.testfachdienst.config.ShardingProperties;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import jakarta.annotation.PreDestroy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * {@link ErezeptStore} that spreads prescriptions over several embedded H2 databases, active with
+ * the {@code sharded} profile.
+ *
+ * <p>A prescription lives in the shard selected by the hash of its {@code prescriptionId}, so
+ * lookups and uniqueness checks by business identifier touch a single shard and the unique
+ * constraint of that shard enforces global uniqueness. Ids encode the shard they were created in
+ * ({@code id % shardCount}); the rare prescriptions that moved to another shard because their
+ * {@code prescriptionId} changed are tracked in a small map rebuilt on startup. Listing queries
+ * all shards in parallel and merges the id-ordered results. The shard count must not change
+ * while data exists, because rows are not rebalanced.</p>
+ *
+ * <p>A move copies the row into the target shard together with a move record in one local
+ * transaction and then deletes the source row. Until that delete succeeds, reads ignore the stale
+ * source row because it is not in the shard the id maps to. On startup, the latest move record of
+ * every id decides which copy is kept; all other copies and the move records are deleted. Updates
+ * and deletes hold the read side of a lock whose write side a move holds, so they never change a
+ * copy that a concurrent move is about to replace.</p>
+ */
+@Component
+@Profile("sharded")
+@Slf4j
+public class ShardedErezeptStore implements ErezeptStore {
+
+  private static final String COLUMNS = "id, medication_name, dosage, issued_at, expires_at, status, "
+      + "patient_id, practitioner_id, prescription_id";
+  private static final String INSERT_SQL = "insert into erezept (" + COLUMNS + ") values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+  private static final String UPDATE_SQL = """
+      update erezept set medication_name = ?, dosage = ?, issued_at = ?, expires_at = ?,
+          status = ?, patient_id = ?, practitioner_id = ?, prescription_id = ?
+      where id = ?
+      """;
+  private static final List<String> SCHEMA = List.of("""
+      create table if not exists erezept (
+        id bigint primary key,
+        medication_name varchar(128) not null,
+        dosage varchar(256) not null,
+        issued_at timestamp(6) with time zone not null,
+        expires_at timestamp(6) with time zone,
+        status varchar(16) not null,
+        patient_id varchar(64) not null,
+        practitioner_id varchar(64) not null,
+        prescription_id varchar(64) not null unique
+      )
+      """,
+      "create index if not exists idx_erezept_status_expires_at on erezept (status, expires_at)",
+      "create table if not exists erezept_move (id bigint not null, moved_at timestamp(6) with time zone not null)");
+  private static final RowMapper<Erezept> ROW_MAPPER = ShardedErezeptStore::mapRow;
+
+  private final List<HikariDataSource> dataSources = new ArrayList<>();
+  private final List<JdbcTemplate> shards = new ArrayList<>();
+  private final List<TransactionTemplate> transactions = new ArrayList<>();
+  private final Map<Long, Integer> movedIds = new ConcurrentHashMap<>();
+  private final AtomicLong sequence = new AtomicLong();
+  private final ExecutorService scatter = Executors.newVirtualThreadPerTaskExecutor();
+  private final ReadWriteLock moveLock = new ReentrantReadWriteLock();
+
+  /**
+   * Open one connection pool per shard, create the schema and restore the id sequence.
+   *
+   * @param properties sharding configuration
+   */
+  public ShardedErezeptStore(ShardingProperties properties) {
+    int shardCount = Math.max(1, properties.getShardCount());
+    for (int shard = 0; shard < shardCount; shard++) {
+      var config = new HikariConfig();
+      config.setPoolName("erezept-shard-" + shard);
+      config.setJdbcUrl(properties.getUrlTemplate().formatted(shard));
+      config.setUsername(properties.getUsername());
+      config.setPassword(properties.getPassword());
+      config.setMaximumPoolSize(Math.max(1, properties.getPoolSize()));
+      var dataSource = new HikariDataSource(config);
+      dataSources.add(dataSource);
+      var jdbcTemplate = new JdbcTemplate(dataSource);
+      SCHEMA.forEach(jdbcTemplate::execute);
+      shards.add(jdbcTemplate);
+      transactions.add(new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+    }
+    int finishedMoves = finishMoves();
+    for (int shard = 0; shard < shardCount; shard++) {
+      JdbcTemplate jdbcTemplate = shards.get(shard);
+      Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from erezept", Long.class);
+      sequence.accumulateAndGet(maxId == null ? 0 : maxId / shardCount, Math::max);
+      int current = shard;
+      jdbcTemplate.queryForList("select id from erezept where mod(id, ?) <> ?", Long.class, shardCount, shard)
+          .forEach(id -> movedIds.put(id, current));
+    }
+    log.info("Opened {} prescription shards, {} prescriptions outside their home shard, {} moves finished",
+        shardCount, movedIds.size(), finishedMoves);
+  }
+
+  @Override
+  public List<Erezept> findAll() {
+    return gather(shard -> shard.query("select " + COLUMNS + " from erezept order by id", ROW_MAPPER));
+  }
+
+  /**
+   * Ask every shard for its first {@code (page + 1) * size} rows by id, merge them and cut out
+   * the requested page.
+   */
+  @Override
+  public List<Erezept> findPage(int page, int size) {
+    long limit = (long) (page + 1) * size;
+    return gather(shard -> shard.query("select " + COLUMNS + " from erezept order by id limit ?", ROW_MAPPER, limit))
+        .stream()
+        .skip((long) page * size)
+        .limit(size)
+        .toList();
+  }
+
+  @Override
+  public List<Erezept> findPageAfter(long afterId, int size) {
+    return gather(shard -> shard.query("select " + COLUMNS + " from erezept where id > ? order by id limit ?",
+        ROW_MAPPER, afterId, size))
+        .stream()
+        .limit(size)
+        .toList();
+  }
+
+  @Override
+  public Optional<Erezept> findById(Long id) {
+    return shardOf(id).query("select " + COLUMNS + " from erezept where id = ?", ROW_MAPPER, id)
+        .stream().findFirst();
+  }
+
+  @Override
+  public Optional<Erezept> findByPrescriptionId(String prescriptionId) {
+    int shard = shardIndexFor(prescriptionId);
+    return shards.get(shard)
+        .query("select " + COLUMNS + " from erezept where prescription_id = ?", ROW_MAPPER, prescriptionId)
+        .stream()
+        .filter(prescription -> shardIndexOf(prescription.getId()) == shard)
+        .findFirst();
+  }
+
+  @Override
+  public boolean existsById(Long id) {
+    return count(shardOf(id), "id", id) > 0;
+  }
+
+  @Override
+  public boolean existsByPrescriptionId(String prescriptionId) {
+    return count(shardFor(prescriptionId), "prescription_id", prescriptionId) > 0;
+  }
+
+  @Override
+  public Optional<Erezept> create(Erezept prescription) {
+    try {
+      return Optional.of(insert(prescription));
+    } catch (DuplicateKeyException ex) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Apply the changes to the current row; empty if the row is missing or was deleted after it
+   * was read.
+   */
+  @Override
+  public Optional<Erezept> update(Long id, Consumer<Erezept> changes) {
+    moveLock.readLock().lock();
+    try {
+      Optional<Erezept> current = findById(id);
+      if (current.isEmpty()) {
+        return Optional.empty();
+      }
+      Erezept updated = current.get().toBuilder().build();
+      changes.accept(updated);
+      updated.setId(id);
+      updated.setPrescriptionId(current.get().getPrescriptionId());
+      if (shardOf(id).update(UPDATE_SQL, ps -> bindUpdate(ps, updated)) == 0) {
+        return Optional.empty();
+      }
+      return Optional.of(updated);
+    } finally {
+      moveLock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Erezept save(Erezept prescription) {
+    Optional<Erezept> current = prescription.getId() == null ? Optional.empty() : findById(prescription.getId());
+    if (current.isEmpty()) {
+      return insert(prescription);
+    }
+    Erezept stored = prescription.toBuilder().build();
+    int from = shardIndexOf(stored.getId());
+    int to = shardIndexFor(stored.getPrescriptionId());
+    if (from == to) {
+      moveLock.readLock().lock();
+      try {
+        shards.get(shardIndexOf(stored.getId())).update(UPDATE_SQL, ps -> bindUpdate(ps, stored));
+      } finally {
+        moveLock.readLock().unlock();
+      }
+      return stored;
+    }
+    moveLock.writeLock().lock();
+    try {
+      JdbcTemplate target = shards.get(to);
+      transactions.get(to).executeWithoutResult(status -> {
+        target.update("delete from erezept where id = ?", stored.getId());
+        target.update(INSERT_SQL, ps -> bindInsert(ps, stored));
+        target.update("insert into erezept_move (id, moved_at) values (?, ?)", ps -> {
+          ps.setLong(1, stored.getId());
+          ps.setObject(2, OffsetDateTime.now(), Types.TIMESTAMP_WITH_TIMEZONE);
+        });
+      });
+      if (to == homeShard(stored.getId())) {
+        movedIds.remove(stored.getId());
+      } else {
+        movedIds.put(stored.getId(), to);
+      }
+      try {
+        shards.get(from).update("delete from erezept where id = ?", stored.getId());
+      } catch (DataAccessException ex) {
+        log.warn("Could not delete prescription id={} from shard {} after moving it; the stale copy is "
+            + "removed on the next start", stored.getId(), from, ex);
+      }
+    } finally {
+      moveLock.writeLock().unlock();
+    }
+    log.debug("Moved prescription id={} from shard {} to shard {}", stored.getId(), from, to);
+    return stored;
+  }
+
+  @Override
+  public boolean deleteById(Long id) {
+    moveLock.readLock().lock();
+    try {
+      boolean deleted = shardOf(id).update("delete from erezept where id = ?", id) > 0;
+      movedIds.remove(id);
+      return deleted;
+    } finally {
+      moveLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Stop the scatter executor and close the shard connection pools.
+   */
+  @PreDestroy
+  public void close() {
+    scatter.shutdown();
+    dataSources.forEach(HikariDataSource::close);
+  }
+
+  /**
+   * Insert a prescription into the shard of its business identifier with a new id that encodes
+   * that shard.
+   */
+  private Erezept insert(Erezept prescription) {
+    int shard = shardIndexFor(prescription.getPrescriptionId());
+    Erezept stored = prescription.toBuilder()
+        .id(sequence.incrementAndGet() * shards.size() + shard)
+        .build();
+    shards.get(shard).update(INSERT_SQL, ps -> bindInsert(ps, stored));
+    return stored;
+  }
+
+  /**
+   * Finish moves left incomplete by a crash or a failed delete. The latest move record of an id
+   * names the shard holding its current copy; copies in other shards are deleted, and all copies
+   * if the current one has been deleted since.
+   *
+   * @return number of prescriptions with move records
+   */
+  private int finishMoves() {
+    Map<Long, Integer> owners = new HashMap<>();
+    Map<Long, OffsetDateTime> movedAt = new HashMap<>();
+    for (int shard = 0; shard < shards.size(); shard++) {
+      int current = shard;
+      shards.get(shard).query("select id, moved_at from erezept_move", rs -> {
+        long id = rs.getLong("id");
+        OffsetDateTime at = rs.getObject("moved_at", OffsetDateTime.class);
+        if (!movedAt.containsKey(id) || at.isAfter(movedAt.get(id))) {
+          movedAt.put(id, at);
+          owners.put(id, current);
+        }
+      });
+    }
+    owners.forEach((id, owner) -> {
+      boolean exists = count(shards.get(owner), "id", id) > 0;
+      for (int shard = 0; shard < shards.size(); shard++) {
+        if (shard != owner || !exists) {
+          shards.get(shard).update("delete from erezept where id = ?", id);
+        }
+        shards.get(shard).update("delete from erezept_move where id = ?", id);
+      }
+    });
+    return owners.size();
+  }
+
+  /**
+   * Run a query on all shards in parallel and merge the results by id, skipping stale copies of
+   * moved prescriptions.
+   */
+  private List<Erezept> gather(Function<JdbcTemplate, List<Erezept>> query) {
+    List<Future<List<Erezept>>> results = new ArrayList<>();
+    for (int index = 0; index < shards.size(); index++) {
+      JdbcTemplate shard = shards.get(index);
+      int current = index;
+      results.add(scatter.submit(() -> query.apply(shard).stream()
+          .filter(prescription -> shardIndexOf(prescription.getId()) == current)
+          .toList()));
+    }
+    List<Erezept> merged = new ArrayList<>();
+    try {
+      for (Future<List<Erezept>> result : results) {
+        merged.addAll(result.get());
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while querying shards", ex);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw new IllegalStateException("Querying shards failed", ex.getCause());
+    }
+    merged.sort(Comparator.comparing(Erezept::getId));
+    return merged;
+  }
+
+  private long count(JdbcTemplate shard, String column, Object value) {
+    Long count = shard.queryForObject("select count(*) from erezept where " + column + " = ?", Long.class, value);
+    return count == null ? 0 : count;
+  }
+
+  private JdbcTemplate shardOf(Long id) {
+    return shards.get(shardIndexOf(id));
+  }
+
+  private JdbcTemplate shardFor(String prescriptionId) {
+    return shards.get(shardIndexFor(prescriptionId));
+  }
+
+  private int shardIndexOf(Long id) {
+    Integer moved = movedIds.get(id);
+    return moved != null ? moved : homeShard(id);
+  }
+
+  private int homeShard(long id) {
+    return (int) Math.floorMod(id, (long) shards.size());
+  }
+
+  private int shardIndexFor(String prescriptionId) {
+    return Math.floorMod(Objects.hashCode(prescriptionId), shards.size());
+  }
+
+  private static void bindInsert(PreparedStatement ps, Erezept prescription) throws SQLException {
+    ps.setLong(1, prescription.getId());
+    bindColumns(ps, prescription, 2);
+    ps.setString(9, prescription.getPrescriptionId());
+  }
+
+  private static void bindUpdate(PreparedStatement ps, Erezept prescription) throws SQLException {
+    bindColumns(ps, prescription, 1);
+    ps.setString(8, prescription.getPrescriptionId());
+    ps.setLong(9, prescription.getId());
+  }
+
+  private static void bindColumns(PreparedStatement ps, Erezept prescription, int first) throws SQLException {
+    ps.setString(first, prescription.getMedicationName());
+    ps.setString(first + 1, prescription.getDosage());
+    ps.setObject(first + 2, prescription.getIssuedAt(), Types.TIMESTAMP_WITH_TIMEZONE);
+    ps.setObject(first + 3, prescription.getExpiresAt(), Types.TIMESTAMP_WITH_TIMEZONE);
+    ps.setString(first + 4, prescription.getStatus() == null ? null : prescription.getStatus().name());
+    ps.setString(first + 5, prescription.getPatientId());
+    ps.setString(first + 6, prescription.getPractitionerId());
+  }
+
+  private static Erezept mapRow(ResultSet rs, int rowNum) throws SQLException {
+    return Erezept.builder()
+        .id(rs.getLong("id"))
+        .medicationName(rs.getString("medication_name"))
+        .dosage(rs.getString("dosage"))
+        .issuedAt(rs.getObject("issued_at", OffsetDateTime.class))
+        .expiresAt(rs.getObject("expires_at", OffsetDateTime.class))
+        .status(ErezeptStatus.valueOf(rs.getString("status")))
+        .patientId(rs.getString("patient_id"))
+        .practitionerId(rs.getString("practitioner_id"))
+        .prescriptionId(rs.getString("prescription_id"))
+        .build();
+  }
+}
@@ -0,0 +1,665 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.gematik.zeta.testfachdienst.config.WriteBehindProperties;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptEvent;
+import de.gematik.zeta.testfachdienst.model.ErezeptEvent.Type;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Write-behind decorator of {@link JpaErezeptStore} for bursts of updates, enabled with
+ * {@code erezept.write-behind.enabled}.
+ *
+ * <p>Updates of existing prescriptions are acknowledged once they are durable in a local
+ * write-ahead log ({@link ErezeptJournal}). They are kept in a pending map that coalesces
+ * repeated updates of the same id, and a background flusher writes the latest state of every
+ * pending prescription to the database with JDBC batch updates. Reads see pending updates. A
+ * writer that finds more than {@code maxPendingUpdates} pending flushes inline, which bounds the
+ * lag. Creates, deletes and updates that change the {@code prescriptionId} stay synchronous;
+ * deletes are logged as well, so buffered updates of a deleted prescription are not replayed.</p>
+ *
+ * <p>Each buffered update remembers the statuses the database row may have for it to apply: the
+ * status it was based on and, while a flush is running, the status being flushed. The flusher
+ * only updates rows in one of these statuses. A row changed in between, for example expired by
+ * the sweeper or moved to the archive, is left alone and its buffered update is dropped and
+ * counted as a conflict. On startup, updates left in the log by a crash are written to the
+ * database with the same guard before traffic is served.</p>
+ *
+ * <p>If the log cannot be written or forced, the entries that are not durable are cut off the
+ * log, and every pending prescription falls back to its latest durable update, or to its row if
+ * it has none. A write whose caller saw the failure is thus neither flushed nor recovered.</p>
+ */
+@Component
+@Primary
+@Profile("!in-memory & !mapped & !event-sourced & !sharded")
+@ConditionalOnProperty(prefix = "erezept.write-behind", name = "enabled", havingValue = "true")
+@Slf4j
+public class WriteBehindErezeptStore implements ErezeptStore {
+
+  private static final ErezeptStatus[] STATUSES = ErezeptStatus.values();
+
+  /**
+   * Guarded update with one placeholder per status; statuses that are not expected are bound as
+   * {@code null}, which never matches.
+   */
+  private static final String UPDATE_SQL = """
+      update erezept set medication_name = ?, dosage = ?, issued_at = ?, expires_at = ?,
+          status = ?, patient_id = ?, practitioner_id = ?
+      where id = ? and status in (%s)
+      """.formatted(String.join(", ", Collections.nCopies(STATUSES.length, "?")));
+
+  private final JpaErezeptStore delegate;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final WriteBehindProperties properties;
+  private final ErezeptJournal wal;
+  private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+  private final Lock appendLock = new ReentrantLock();
+  private final Object flushMonitor = new Object();
+  private final ScheduledExecutorService flusher;
+  private final Counter acceptedUpdates;
+  private final Counter coalescedUpdates;
+  private final Counter flushedRows;
+  private final Counter flushFailures;
+  private final Counter conflicts;
+  private final Timer flushDuration;
+  private Map<Long, Pending> flushing = Map.of();
+
+  /**
+   * Creates the store, recovers updates left in the write-ahead log and starts the flusher.
+   *
+   * @param delegate           synchronous JPA store
+   * @param jdbcTemplate       template used for batch updates
+   * @param transactionManager transaction manager used to scope each flush
+   * @param objectMapper       application object mapper used for log entries
+   * @param properties         write-behind configuration
+   * @param meterRegistry      registry receiving the write-behind metrics
+   * @throws IOException if the write-ahead log cannot be opened
+   */
+  public WriteBehindErezeptStore(
+      JpaErezeptStore delegate,
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      ObjectMapper objectMapper,
+      WriteBehindProperties properties,
+      MeterRegistry meterRegistry) throws IOException {
+    this.delegate = delegate;
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.properties = properties;
+    Path directory = Path.of(properties.getWalDirectory());
+    Files.createDirectories(directory);
+    this.wal = new ErezeptJournal(directory, objectMapper, meterRegistry);
+    this.acceptedUpdates = Counter.builder("erezept.write-behind.updates")
+        .description("Updates acknowledged after the write-ahead log append")
+        .register(meterRegistry);
+    this.coalescedUpdates = Counter.builder("erezept.write-behind.coalesced")
+        .description("Updates superseded by a later update before being flushed")
+        .register(meterRegistry);
+    this.flushedRows = Counter.builder("erezept.write-behind.flushed")
+        .description("Prescriptions written to the database by the flusher")
+        .register(meterRegistry);
+    this.flushFailures = Counter.builder("erezept.write-behind.flush.failures")
+        .description("Flushes that failed and will be retried")
+        .register(meterRegistry);
+    this.conflicts = Counter.builder("erezept.write-behind.conflicts")
+        .description("Buffered updates dropped because the row was changed or removed in between")
+        .register(meterRegistry);
+    this.flushDuration = Timer.builder("erezept.write-behind.flush")
+        .description("Duration of a write-behind flush")
+        .register(meterRegistry);
+    Gauge.builder("erezept.write-behind.pending", pending, Map::size)
+        .description("Updates waiting to be flushed")
+        .register(meterRegistry);
+    Gauge.builder("erezept.write-behind.lag", this, WriteBehindErezeptStore::lagSeconds)
+        .description("Age of the oldest update waiting to be flushed")
+        .baseUnit("seconds")
+        .register(meterRegistry);
+
+    recover();
+    this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "erezept-write-behind");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long interval = Math.max(1, properties.getFlushIntervalMillis());
+    flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public List<Erezept> findAll() {
+    return delegate.findAll().stream().map(this::overlay).toList();
+  }
+
+  @Override
+  public List<Erezept> findPage(int page, int size) {
+    return delegate.findPage(page, size).stream().map(this::overlay).toList();
+  }
+
+  @Override
+  public List<Erezept> findPageAfter(long afterId, int size) {
+    return delegate.findPageAfter(afterId, size).stream().map(this::overlay).toList();
+  }
+
+  @Override
+  public Optional<Erezept> findById(Long id) {
+    Pending update = pending.get(id);
+    if (update != null) {
+      return Optional.of(copy(update.state()));
+    }
+    return delegate.findById(id);
+  }
+
+  @Override
+  public Optional<Erezept> findByPrescriptionId(String prescriptionId) {
+    return delegate.findByPrescriptionId(prescriptionId).map(this::overlay);
+  }
+
+  @Override
+  public boolean existsById(Long id) {
+    return pending.containsKey(id) || delegate.existsById(id);
+  }
+
+  @Override
+  public boolean existsByPrescriptionId(String prescriptionId) {
+    return delegate.existsByPrescriptionId(prescriptionId);
+  }
+
+  @Override
+  public boolean isArchived(Long id) {
+    return !pending.containsKey(id) && delegate.isArchived(id);
+  }
+
+  @Override
+  public Optional<Erezept> create(Erezept prescription) {
+    return delegate.create(prescription);
+  }
+
+  @Override
+  public Optional<Erezept> update(Long id, Consumer<Erezept> changes) {
+    Optional<Erezept> current = currentState(id);
+    if (current.isEmpty()) {
+      return current;
+    }
+    Erezept updated = copy(current.get());
+    changes.accept(updated);
+    updated.setId(id);
+    updated.setPrescriptionId(current.get().getPrescriptionId());
+    enqueue(updated, current.get().getStatus());
+    return Optional.of(copy(updated));
+  }
+
+  @Override
+  public Erezept save(Erezept prescription) {
+    Optional<Erezept> current = prescription.getId() == null
+        ? Optional.empty() : currentState(prescription.getId());
+    if (current.isEmpty()) {
+      return delegate.save(prescription);
+    }
+    Erezept updated = copy(prescription);
+    if (!Objects.equals(current.get().getPrescriptionId(), prescription.getPrescriptionId())) {
+      return saveSynchronously(updated, current.get().getStatus());
+    }
+    enqueue(updated, current.get().getStatus());
+    return copy(updated);
+  }
+
+  @Override
+  public boolean deleteById(Long id) {
+    long sequence;
+    Pending removed;
+    appendLock.lock();
+    try {
+      removed = pending.remove(id);
+      try {
+        sequence = wal.append(Type.DELETED, id, null);
+      } catch (RuntimeException ex) {
+        restore(id, removed);
+        discardUnsynced(ex);
+        throw ex;
+      }
+    } finally {
+      appendLock.unlock();
+    }
+    awaitDurable(sequence, () -> restore(id, removed));
+    return delegate.deleteById(id);
+  }
+
+  @Override
+  public boolean isJpaBacked() {
+    return delegate.isJpaBacked();
+  }
+
+  /**
+   * Write all pending updates to the database.
+   *
+   * <p>The write-ahead log is rotated first; once the pending updates are committed, the log
+   * segments before the rotation are deleted. Updates arriving during the flush stay pending and
+   * are based on the flushed status from then on. Updates whose row no longer has an expected
+   * status are dropped.</p>
+   */
+  public void flush() {
+    synchronized (flushMonitor) {
+      long boundary;
+      Map<Long, Pending> batch;
+      appendLock.lock();
+      try {
+        try {
+          boundary = wal.rotate();
+        } catch (RuntimeException ex) {
+          discardUnsynced(ex);
+          throw ex;
+        }
+        batch = new HashMap<>(pending);
+        flushing = batch;
+      } finally {
+        appendLock.unlock();
+      }
+      try {
+        if (!batch.isEmpty()) {
+          Set<Long> conflicted = flushDuration.record(() -> writeToDatabase(batch));
+          appendLock.lock();
+          try {
+            batch.forEach((id, flushed) -> pending.computeIfPresent(id, (key, current) -> {
+              if (current == flushed || conflicted.contains(id)) {
+                return null;
+              }
+              return current.basedOn(EnumSet.of(flushed.state().getStatus()), flushed.sequence());
+            }));
+          } finally {
+            appendLock.unlock();
+          }
+          flushedRows.increment(batch.size() - conflicted.size());
+        }
+      } finally {
+        appendLock.lock();
+        try {
+          flushing = Map.of();
+        } finally {
+          appendLock.unlock();
+        }
+      }
+      wal.pruneBefore(boundary + 1);
+    }
+  }
+
+  /**
+   * Stop the flusher, write the remaining updates and close the write-ahead log.
+   *
+   * @throws IOException if the log cannot be closed
+   */
+  @PreDestroy
+  public void close() throws IOException {
+    flusher.shutdown();
+    try {
+      if (!flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+        log.warn("Write-behind flusher did not stop in time");
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+    wal.close();
+  }
+
+  /**
+   * Acknowledge an update once it is durable in the write-ahead log and hand it to the flusher.
+   *
+   * @param baseStatus status of the state the update was derived from, used when no update of
+   *                   the prescription is pending yet
+   */
+  private void enqueue(Erezept updated, ErezeptStatus baseStatus) {
+    requireNotNullColumns(updated);
+    long sequence;
+    appendLock.lock();
+    try {
+      Pending previous = pending.get(updated.getId());
+      Set<ErezeptStatus> expected = expectedStatuses(updated.getId(), previous, baseStatus);
+      sequence = append(updated, expected);
+      if (previous == null) {
+        pending.put(updated.getId(), new Pending(updated, expected, System.nanoTime(), sequence, null));
+      } else {
+        coalescedUpdates.increment();
+        pending.put(updated.getId(), new Pending(updated, expected, previous.enqueuedNanos(), sequence,
+            previous.trimmedTo(wal.durableSequence())));
+      }
+    } finally {
+      appendLock.unlock();
+    }
+    awaitDurable(sequence, () -> {});
+    acceptedUpdates.increment();
+    if (pending.size() >= properties.getMaxPendingUpdates()) {
+      flush();
+    }
+  }
+
+  /**
+   * Write an update that changes the business identifier directly, so the unique constraint is
+   * checked before the update is acknowledged. The flusher is paused to keep an older pending
+   * state from overwriting it.
+   */
+  private Erezept saveSynchronously(Erezept updated, ErezeptStatus baseStatus) {
+    synchronized (flushMonitor) {
+      long sequence;
+      Pending previous;
+      appendLock.lock();
+      try {
+        previous = pending.remove(updated.getId());
+        Set<ErezeptStatus> expected = expectedStatuses(updated.getId(), previous, baseStatus);
+        expected.add(updated.getStatus());
+        try {
+          sequence = wal.append(Type.UPDATED, updated.getId(), updated, expected);
+        } catch (RuntimeException ex) {
+          restore(updated.getId(), previous);
+          discardUnsynced(ex);
+          throw ex;
+        }
+      } finally {
+        appendLock.unlock();
+      }
+      awaitDurable(sequence, () -> restore(updated.getId(), previous));
+      return delegate.save(updated);
+    }
+  }
+
+  /**
+   * Append a buffered update to the write-ahead log. Callers hold the append lock.
+   */
+  private long append(Erezept updated, Set<ErezeptStatus> expected) {
+    try {
+      return wal.append(Type.UPDATED, updated.getId(), updated, expected);
+    } catch (RuntimeException ex) {
+      discardUnsynced(ex);
+      throw ex;
+    }
+  }
+
+  /**
+   * Wait until a log entry is durable. If that fails, {@code undo} reverts the changes of the
+   * caller to the pending map before the entries that are not durable are discarded.
+   */
+  private void awaitDurable(long sequence, Runnable undo) {
+    try {
+      wal.awaitDurable(sequence);
+    } catch (RuntimeException ex) {
+      appendLock.lock();
+      try {
+        undo.run();
+        discardUnsynced(ex);
+      } finally {
+        appendLock.unlock();
+      }
+      throw ex;
+    }
+  }
+
+  /**
+   * Drop the log entries a failed write-ahead log could not make durable. The log cuts them off
+   * and continues in a new segment; every pending prescription falls back to its latest durable
+   * update, or to its row if it has none. Does nothing while the log is healthy. Callers hold the
+   * append lock.
+   */
+  private void discardUnsynced(RuntimeException cause) {
+    try {
+      if (!wal.discardUnsynced()) {
+        return;
+      }
+    } catch (RuntimeException ex) {
+      cause.addSuppressed(ex);
+    }
+    long durable = wal.durableSequence();
+    for (Long id : pending.keySet()) {
+      pending.computeIfPresent(id, (key, update) -> update.durableAt(durable));
+    }
+  }
+
+  /**
+   * Put back a pending update removed by a write that failed, unless a newer one arrived since.
+   * Callers hold the append lock.
+   */
+  private void restore(Long id, Pending removed) {
+    if (removed != null) {
+      pending.putIfAbsent(id, removed);
+    }
+  }
+
+  /**
+   * Statuses the row may have for an update to apply. Callers hold the append lock.
+   */
+  private Set<ErezeptStatus> expectedStatuses(Long id, Pending previous, ErezeptStatus baseStatus) {
+    Set<ErezeptStatus> expected = EnumSet.noneOf(ErezeptStatus.class);
+    if (previous != null) {
+      expected.addAll(previous.expectedStatuses());
+    } else if (baseStatus != null) {
+      expected.add(baseStatus);
+    }
+    Pending inFlush = flushing.get(id);
+    if (inFlush != null) {
+      expected.add(inFlush.state().getStatus());
+    }
+    return expected;
+  }
+
+  /**
+   * Write the updates in one transaction, each guarded by its expected statuses.
+   *
+   * @return ids whose row no longer had an expected status, or no longer existed
+   */
+  private Set<Long> writeToDatabase(Map<Long, Pending> updates) {
+    List<Erezept> states = updates.values().stream().map(Pending::state).toList();
+    int batchSize = Math.max(1, properties.getBatchSize());
+    int[][] counts = transactionTemplate.execute(status ->
+        jdbcTemplate.batchUpdate(UPDATE_SQL, states, batchSize, (ps, prescription) -> {
+          ps.setString(1, prescription.getMedicationName());
+          ps.setString(2, prescription.getDosage());
+          ps.setObject(3, prescription.getIssuedAt(), Types.TIMESTAMP_WITH_TIMEZONE);
+          ps.setObject(4, prescription.getExpiresAt(), Types.TIMESTAMP_WITH_TIMEZONE);
+          ps.setString(5, prescription.getStatus().name());
+          ps.setString(6, prescription.getPatientId());
+          ps.setString(7, prescription.getPractitionerId());
+          ps.setLong(8, prescription.getId());
+          Set<ErezeptStatus> expected = updates.get(prescription.getId()).expectedStatuses();
+          for (int i = 0; i < STATUSES.length; i++) {
+            if (expected.contains(STATUSES[i])) {
+              ps.setString(9 + i, STATUSES[i].name());
+            } else {
+              ps.setNull(9 + i, Types.VARCHAR);
+            }
+          }
+        }));
+    Set<Long> conflicted = new HashSet<>();
+    if (counts != null) {
+      for (int batch = 0; batch < counts.length; batch++) {
+        for (int row = 0; row < counts[batch].length; row++) {
+          if (counts[batch][row] == 0) {
+            conflicted.add(states.get(batch * batchSize + row).getId());
+          }
+        }
+      }
+    }
+    if (!conflicted.isEmpty()) {
+      conflicts.increment(conflicted.size());
+      log.warn("Dropped buffered updates of {} prescriptions changed or removed in the database: {}",
+          conflicted.size(), conflicted);
+    }
+    return conflicted;
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (RuntimeException ex) {
+      flushFailures.increment();
+      log.error("Write-behind flush failed; {} updates stay pending", pending.size(), ex);
+    }
+  }
+
+  /**
+   * Apply updates left in the write-ahead log by a previous run, keeping the last state per id
+   * and skipping prescriptions deleted afterwards. A row that already has the logged state, for
+   * example because the last flush committed before the crash, also counts as expected.
+   */
+  private void recover() throws IOException {
+    Map<Long, Pending> recovered = new HashMap<>();
+    wal.open(0, event -> {
+      if (event.getType() == Type.DELETED) {
+        recovered.remove(event.getErezeptId());
+      } else if (event.getType() == Type.UPDATED && event.getPrescription() != null) {
+        recovered.put(event.getErezeptId(), recoveredUpdate(event));
+      }
+    });
+    if (!recovered.isEmpty()) {
+      Set<Long> conflicted = writeToDatabase(recovered);
+      log.info("Recovered {} buffered prescription updates from the write-ahead log",
+          recovered.size() - conflicted.size());
+    }
+    wal.pruneBefore(wal.rotate() + 1);
+  }
+
+  private static Pending recoveredUpdate(ErezeptEvent event) {
+    Set<ErezeptStatus> expected = EnumSet.noneOf(ErezeptStatus.class);
+    expected.addAll(event.getExpectedStatuses() == null
+        ? EnumSet.allOf(ErezeptStatus.class) : event.getExpectedStatuses());
+    if (event.getPrescription().getStatus() != null) {
+      expected.add(event.getPrescription().getStatus());
+    }
+    return new Pending(event.getPrescription(), expected, System.nanoTime(), event.getSequence(), null);
+  }
+
+  private Optional<Erezept> currentState(Long id) {
+    Pending update = pending.get(id);
+    if (update != null) {
+      return Optional.of(update.state());
+    }
+    return delegate.existsById(id) ? delegate.findById(id) : Optional.empty();
+  }
+
+  private Erezept overlay(Erezept prescription) {
+    Pending update = pending.get(prescription.getId());
+    return update == null ? prescription : copy(update.state());
+  }
+
+  private double lagSeconds() {
+    long now = System.nanoTime();
+    return pending.values().stream()
+        .mapToLong(update -> now - update.enqueuedNanos())
+        .max()
+        .orElse(0) / 1e9;
+  }
+
+  /**
+   * Reject states the database would refuse, because a buffered update cannot report a failure
+   * to its caller anymore.
+   */
+  private static void requireNotNullColumns(Erezept prescription) {
+    if (prescription.getStatus() == null || prescription.getMedicationName() == null
+        || prescription.getDosage() == null || prescription.getIssuedAt() == null
+        || prescription.getPatientId() == null || prescription.getPractitionerId() == null) {
+      throw new DataIntegrityViolationException(
+          "ERezept id=%d is missing a mandatory field".formatted(prescription.getId()));
+    }
+  }
+
+  private static Erezept copy(Erezept prescription) {
+    return prescription.toBuilder().build();
+  }
+
+  /**
+   * Latest buffered state of a prescription, the statuses its row may have for the state to
+   * apply, when its oldest unflushed update arrived, its log sequence, and the update it
+   * replaced, which is the fallback if this one is discarded.
+   */
+  private record Pending(Erezept state, Set<ErezeptStatus> expectedStatuses, long enqueuedNanos,
+                         long sequence, Pending replaced) {
+
+    /**
+     * The same update based on the flushed status, without the replaced updates the flush wrote.
+     */
+    Pending basedOn(Set<ErezeptStatus> statuses, long flushedSequence) {
+      Pending fallback = replaced == null || replaced.sequence() <= flushedSequence
+          ? null : replaced.basedOn(replaced.expectedStatuses(), flushedSequence);
+      return new Pending(state, statuses, enqueuedNanos, sequence, fallback);
+    }
+
+    /**
+     * The chain of replaced updates cut after the first durable one, which is as far as a
+     * discard can fall back.
+     */
+    Pending trimmedTo(long durableSequence) {
+      if (replaced == null) {
+        return this;
+      }
+      Pending fallback = sequence <= durableSequence ? null : replaced.trimmedTo(durableSequence);
+      return new Pending(state, expectedStatuses, enqueuedNanos, sequence, fallback);
+    }
+
+    /**
+     * The latest durable update of the chain, {@code null} if none is durable.
+     */
+    Pending durableAt(long durableSequence) {
+      if (sequence <= durableSequence) {
+        return this;
+      }
+      return replaced == null ? null : replaced.durableAt(durableSequence);
+    }
+  }
+}
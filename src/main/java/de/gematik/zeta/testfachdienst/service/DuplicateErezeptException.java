@@ -0,0 +1,55 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.service;
+
+/**
+ * Signals a write whose id or business identifier is already taken by another prescription.
+ */
+public class DuplicateErezeptException extends ErezeptConflictException {
+
+  private DuplicateErezeptException(String message) {
+    super(message);
+  }
+
+  /**
+   * Creates the exception for an id that already exists.
+   *
+   * @param id identifier of the existing prescription
+   * @return exception describing the duplicate id
+   */
+  public static DuplicateErezeptException forId(Long id) {
+    return new DuplicateErezeptException("ERezept with id=%d already exists".formatted(id));
+  }
+
+  /**
+   * Creates the exception for a business identifier that already exists.
+   *
+   * @param prescriptionId business identifier of the existing prescription
+   * @return exception describing the duplicate business identifier
+   */
+  public static DuplicateErezeptException forPrescriptionId(String prescriptionId) {
+    return new DuplicateErezeptException("ERezept with prescriptionId=%s already exists".formatted(prescriptionId));
+  }
+}
@@ -0,0 +1,197 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.service;
+
+import de.gematik.zeta.testfachdienst.config.ErezeptArchiveProperties;
+import de.gematik.zeta.testfachdienst.model.ErezeptArchive;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import de.gematik.zeta.testfachdienst.repository.ErezeptArchiveRepository;
+import de.gematik.zeta.testfachdienst.repository.ErezeptRepository;
+import de.gematik.zeta.testfachdienst.repository.ErezeptStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.OffsetDateTime;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Background service that moves prescriptions in a terminal state out of the hot {@code erezept}
+ * table into the {@code erezept_archive} table.
+ *
+ * <p>Each batch is copied with a single {@code INSERT ... SELECT} and removed from the hot table
+ * with a single {@code DELETE} inside one transaction, so a prescription is always visible in
+ * exactly one of both tables. Reads through {@link ErezeptService} fall back to the archive.
+ * Archived prescriptions leave the {@link ErezeptStatsService} counts once their batch commits.</p>
+ *
+ * <p>Archival only runs when the active {@link ErezeptStore} is backed by the {@code erezept}
+ * table; other engines keep all prescriptions active.</p>
+ */
+@Service
+@Slf4j
+public class ErezeptArchivalService {
+
+  /**
+   * States after which a prescription does not change anymore.
+   */
+  static final List<ErezeptStatus> TERMINAL_STATUSES =
+      List.of(ErezeptStatus.DISPENSED, ErezeptStatus.CANCELLED, ErezeptStatus.EXPIRED);
+
+  private final ErezeptRepository repository;
+  private final ErezeptStore store;
+  private final ErezeptArchiveRepository archiveRepository;
+  private final ErezeptStatsService stats;
+  private final ErezeptArchiveProperties properties;
+  private final TransactionTemplate transactionTemplate;
+  private final Counter archived;
+  private final DistributionSummary rowsPerRun;
+  private final Timer runDuration;
+
+  /**
+   * Creates the archival service and registers its metrics.
+   *
+   * @param repository         repository of the hot prescription table
+   * @param store              active storage engine, checked for being backed by the table
+   * @param archiveRepository  repository of the archive table
+   * @param stats              aggregates the archived prescriptions are removed from
+   * @param properties         archival configuration
+   * @param transactionManager transaction manager used to scope each batch
+   * @param meterRegistry      registry receiving the archival metrics
+   */
+  public ErezeptArchivalService(
+      ErezeptRepository repository,
+      ErezeptStore store,
+      ErezeptArchiveRepository archiveRepository,
+      ErezeptStatsService stats,
+      ErezeptArchiveProperties properties,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry) {
+    this.repository = repository;
+    this.store = store;
+    this.archiveRepository = archiveRepository;
+    this.stats = stats;
+    this.properties = properties;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.archived = Counter.builder("erezept.archive.moved")
+        .description("Prescriptions moved from the hot table to the archive")
+        .register(meterRegistry);
+    this.rowsPerRun = DistributionSummary.builder("erezept.archive.rows.per.run")
+        .description("Prescriptions archived by a single archival run")
+        .register(meterRegistry);
+    this.runDuration = Timer.builder("erezept.archive.run")
+        .description("Duration of an archival run")
+        .register(meterRegistry);
+    if (properties.isEnabled() && !store.isJpaBacked()) {
+      log.warn("Archival disabled: the active prescription store is not backed by the erezept table");
+    }
+  }
+
+  /**
+   * Job entry point that archives terminal prescriptions older than the configured age.
+   */
+  public void archiveTerminal() {
+    if (!isEnabled()) {
+      log.debug("Archival disabled; skipping run");
+      return;
+    }
+    runDuration.record(() -> archiveIssuedBefore(
+        OffsetDateTime.now().minusDays(properties.getMinAgeDays())));
+  }
+
+  /**
+   * Archive terminal prescriptions issued before the cutoff, bounded by the configured batch
+   * size and maximum rows per run.
+   *
+   * @param cutoff instant before which a terminal prescription is archived
+   * @return number of prescriptions archived in this run
+   */
+  int archiveIssuedBefore(OffsetDateTime cutoff) {
+    int batchSize = Math.max(1, properties.getBatchSize());
+    int maxRows = Math.max(batchSize, properties.getMaxRowsPerRun());
+    int processed = 0;
+    while (processed < maxRows) {
+      int limit = Math.min(batchSize, maxRows - processed);
+      Integer moved = transactionTemplate.execute(status -> archiveBatch(cutoff, limit));
+      if (moved == null || moved == 0) {
+        break;
+      }
+      processed += moved;
+      archived.increment(moved);
+    }
+    rowsPerRun.record(processed);
+    if (processed > 0) {
+      log.info("Archival moved {} terminal prescriptions to the archive", processed);
+    }
+    return processed;
+  }
+
+  /**
+   * Move a single batch inside the surrounding transaction and remove the moved prescriptions
+   * from the stats once it commits.
+   *
+   * @param cutoff instant before which a terminal prescription is archived
+   * @param limit  maximum number of rows to move
+   * @return number of rows removed from the hot table
+   */
+  private int archiveBatch(OffsetDateTime cutoff, int limit) {
+    List<Long> ids = repository.findArchivableIds(TERMINAL_STATUSES, cutoff, PageRequest.of(0, limit));
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    if (archiveRepository.copyFromHot(ids, TERMINAL_STATUSES, OffsetDateTime.now()) == 0) {
+      return 0;
+    }
+    int moved = repository.deleteArchived(ids);
+    if (moved > 0) {
+      archiveRepository.findAllById(ids).stream()
+          .map(ErezeptArchive::toErezept)
+          .forEach(stats::deleted);
+    }
+    return moved;
+  }
+
+  /**
+   * Retrieves the configured archival interval in seconds.
+   *
+   * @return configured archival interval
+   */
+  public long getIntervalInSeconds() {
+    return properties.getIntervalSeconds();
+  }
+
+  /**
+   * Whether the archival job should be scheduled.
+   *
+   * @return {@code true} when enabled in configuration and the store is backed by the table
+   */
+  public boolean isEnabled() {
+    return properties.isEnabled() && store.isJpaBacked();
+  }
+}
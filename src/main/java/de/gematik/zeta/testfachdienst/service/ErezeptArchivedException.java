@@ -0,0 +1,42 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.service;
+
+/**
+ * Signals a write to a prescription that has been moved to the archive.
+ *
+ * <p>Archived prescriptions are read-only.</p>
+ */
+public class ErezeptArchivedException extends ErezeptConflictException {
+
+  /**
+   * Creates the exception for an archived prescription.
+   *
+   * @param id identifier of the archived prescription
+   */
+  public ErezeptArchivedException(Long id) {
+    super("ERezept with id=%d is archived".formatted(id));
+  }
+}
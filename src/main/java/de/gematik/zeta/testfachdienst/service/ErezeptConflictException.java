@@ -0,0 +1,43 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.service;
+
+/**
+ * Signals a write that conflicts with the stored prescriptions.
+ *
+ * <p>The REST and STOMP controllers report it as {@code 409 Conflict} with the exception message
+ * as reason.</p>
+ */
+public abstract class ErezeptConflictException extends RuntimeException {
+
+  /**
+   * Creates the exception with the reason reported to the client.
+   *
+   * @param message description of the conflict
+   */
+  protected ErezeptConflictException(String message) {
+    super(message);
+  }
+}
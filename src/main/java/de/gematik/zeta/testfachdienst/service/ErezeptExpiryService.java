@@ -0,0 +1,217 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.service;
+
+import de.gematik.zeta.testfachdienst.config.ErezeptExpiryProperties;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import de.gematik.zeta.testfachdienst.repository.ErezeptRepository;
+import de.gematik.zeta.testfachdienst.repository.ErezeptStore;
+import de.gematik.zeta.testfachdienst.ws.ErezeptBroadcaster;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Background service that transitions prescriptions past their expiry date to
+ * {@link ErezeptStatus#EXPIRED}.
+ *
+ * <p>Each run selects expired rows through the {@code (status, expiresAt)} index in bounded
+ * batches, updates every batch with one set-based statement in its own transaction and
+ * broadcasts the transitioned prescriptions on the STOMP topic once the batch is committed.
+ * The transitions are reported to {@link ErezeptStatsService} with the same commit.</p>
+ *
+ * <p>The sweeper works on the {@code erezept} table directly and therefore only runs when the
+ * active {@link ErezeptStore} is backed by that table.</p>
+ */
+@Service
+@Slf4j
+public class ErezeptExpiryService {
+
+  /**
+   * States from which a prescription may still expire; terminal states are left untouched.
+   */
+  static final List<ErezeptStatus> EXPIRABLE_STATUSES =
+      List.of(ErezeptStatus.CREATED, ErezeptStatus.SIGNED);
+
+  private final ErezeptRepository repository;
+  private final ErezeptStore store;
+  private final ErezeptBroadcaster broadcaster;
+  private final ErezeptStatsService stats;
+  private final ErezeptExpiryProperties properties;
+  private final TransactionTemplate transactionTemplate;
+  private final Counter transitions;
+  private final DistributionSummary rowsPerRun;
+  private final Timer runDuration;
+
+  /**
+   * Creates the expiry service and registers its metrics.
+   *
+   * @param repository         repository used to select and update expired prescriptions
+   * @param store              active storage engine, checked for being backed by the table
+   * @param broadcaster        publisher for transitioned prescriptions
+   * @param stats              aggregates moved to the expired bucket after each batch
+   * @param properties         sweeper configuration
+   * @param transactionManager transaction manager used to scope each batch
+   * @param meterRegistry      registry receiving the sweeper metrics
+   */
+  public ErezeptExpiryService(
+      ErezeptRepository repository,
+      ErezeptStore store,
+      ErezeptBroadcaster broadcaster,
+      ErezeptStatsService stats,
+      ErezeptExpiryProperties properties,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry) {
+    this.repository = repository;
+    this.store = store;
+    this.broadcaster = broadcaster;
+    this.stats = stats;
+    this.properties = properties;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transitions = Counter.builder("erezept.expiry.transitions")
+        .description("Prescriptions transitioned to EXPIRED")
+        .register(meterRegistry);
+    this.rowsPerRun = DistributionSummary.builder("erezept.expiry.rows.per.run")
+        .description("Prescriptions transitioned by a single sweeper run")
+        .register(meterRegistry);
+    this.runDuration = Timer.builder("erezept.expiry.run")
+        .description("Duration of a sweeper run")
+        .register(meterRegistry);
+    Gauge.builder("erezept.expiry.batch.size", properties, ErezeptExpiryProperties::getBatchSize)
+        .description("Configured number of rows updated per statement")
+        .register(meterRegistry);
+    Gauge.builder("erezept.expiry.max.rows.per.run", properties,
+            ErezeptExpiryProperties::getMaxRowsPerRun)
+        .description("Configured upper bound of rows processed per run")
+        .register(meterRegistry);
+    Gauge.builder("erezept.expiry.interval", properties,
+            ErezeptExpiryProperties::getIntervalSeconds)
+        .description("Configured interval between sweeper runs")
+        .baseUnit("seconds")
+        .register(meterRegistry);
+    if (properties.isEnabled() && !store.isJpaBacked()) {
+      log.warn("Expiry sweeper disabled: the active prescription store is not backed by the erezept table");
+    }
+  }
+
+  /**
+   * Job entry point that expires all prescriptions whose expiry lies in the past.
+   */
+  public void sweepExpired() {
+    if (!isEnabled()) {
+      log.debug("Expiry sweeper disabled; skipping run");
+      return;
+    }
+    runDuration.record(() -> expireBefore(OffsetDateTime.now()));
+  }
+
+  /**
+   * Expire prescriptions whose expiry lies before the cutoff, bounded by the configured batch
+   * size and maximum rows per run.
+   *
+   * @param cutoff instant before which a prescription counts as expired
+   * @return number of prescriptions transitioned in this run
+   */
+  int expireBefore(OffsetDateTime cutoff) {
+    int batchSize = Math.max(1, properties.getBatchSize());
+    int maxRows = Math.max(batchSize, properties.getMaxRowsPerRun());
+    int processed = 0;
+    while (processed < maxRows) {
+      int limit = Math.min(batchSize, maxRows - processed);
+      List<Erezept> expired = transactionTemplate.execute(status -> expireBatch(cutoff, limit));
+      if (expired == null || expired.isEmpty()) {
+        break;
+      }
+      processed += expired.size();
+      transitions.increment(expired.size());
+      expired.forEach(broadcaster::broadcast);
+    }
+    rowsPerRun.record(processed);
+    if (processed > 0) {
+      log.info("Expiry sweeper transitioned {} prescriptions to EXPIRED", processed);
+    }
+    return processed;
+  }
+
+  /**
+   * Transition a single batch inside the surrounding transaction and report the transitions to
+   * the stats once it commits.
+   *
+   * @param cutoff instant before which a prescription counts as expired
+   * @param limit  maximum number of rows to transition
+   * @return prescriptions that were transitioned by this batch
+   */
+  private List<Erezept> expireBatch(OffsetDateTime cutoff, int limit) {
+    List<Long> ids = repository.findExpiredIds(EXPIRABLE_STATUSES, cutoff, PageRequest.of(0, limit));
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    // The bulk update clears the persistence context, so these stay detached with the old state.
+    Map<Long, Erezept> before = repository.findAllById(ids).stream()
+        .collect(Collectors.toMap(Erezept::getId, Function.identity()));
+    int updated = repository.transitionStatus(ids, EXPIRABLE_STATUSES, cutoff, ErezeptStatus.EXPIRED);
+    if (updated == 0) {
+      return List.of();
+    }
+    List<Erezept> expired = repository.findAllById(ids).stream()
+        .filter(prescription -> prescription.getStatus() == ErezeptStatus.EXPIRED)
+        .filter(prescription -> before.containsKey(prescription.getId())
+            && EXPIRABLE_STATUSES.contains(before.get(prescription.getId()).getStatus()))
+        .toList();
+    expired.forEach(after -> stats.changed(before.get(after.getId()), after));
+    return expired;
+  }
+
+  /**
+   * Retrieves the configured sweeper interval in seconds.
+   *
+   * @return configured sweeper interval
+   */
+  public long getIntervalInSeconds() {
+    return properties.getIntervalSeconds();
+  }
+
+  /**
+   * Whether the sweeper job should be scheduled.
+   *
+   * @return {@code true} when enabled in configuration and the store is backed by the table
+   */
+  public boolean isEnabled() {
+    return properties.isEnabled() && store.isJpaBacked();
+  }
+}
@@ -0,0 +1,303 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import de.gematik.zeta.testfachdienst.config.ErezeptExportProperties;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptExportStatus;
+import de.gematik.zeta.testfachdienst.model.ErezeptExportStatus.State;
+import de.gematik.zeta.testfachdienst.repository.ErezeptRepository;
+import de.gematik.zeta.testfachdienst.repository.ErezeptStore;
+import jakarta.persistence.EntityManager;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.jobrunr.jobs.annotations.Job;
+import org.jobrunr.jobs.context.JobContext;
+import org.jobrunr.jobs.context.JobDashboardProgressBar;
+import org.jobrunr.scheduling.JobScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service that writes consistent, gzip-compressed NDJSON snapshots of the {@code erezept} table in
+ * the background.
+ *
+ * <p>The export job reads all prescriptions through a streaming cursor inside a single read-only,
+ * repeatable-read transaction, so the snapshot reflects one point in time without materializing
+ * the table in memory. Like the Jobrunr storage, export status is kept in memory only; finished
+ * exports are forgotten after {@code statusRetentionMinutes}, when more than
+ * {@code maxRetainedStatuses} are kept, or when their snapshot file is deleted because more than
+ * {@code retainedSnapshots} exist.</p>
+ *
+ * <p>Exports are only available when the active {@link ErezeptStore} is backed by the
+ * {@code erezept} table.</p>
+ */
+@Service
+@Slf4j
+public class ErezeptExportService {
+
+  private static final String FILE_SUFFIX = ".ndjson.gz";
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final int PROGRESS_STEP = 10_000;
+
+  private final JobScheduler jobScheduler;
+  private final ErezeptRepository repository;
+  private final ErezeptStore store;
+  private final EntityManager entityManager;
+  private final ObjectMapper objectMapper;
+  private final ErezeptExportProperties properties;
+  private final TransactionTemplate snapshotTransaction;
+  private final Map<UUID, ErezeptExportStatus> statuses = new ConcurrentHashMap<>();
+
+  /**
+   * Creates the export service.
+   *
+   * @param jobScheduler       scheduler used to enqueue export jobs
+   * @param repository         repository providing the streaming cursor
+   * @param store              active storage engine, checked for being backed by the table
+   * @param entityManager      shared entity manager used to detach exported entities
+   * @param objectMapper       application object mapper used to serialize prescriptions
+   * @param properties         export configuration
+   * @param transactionManager transaction manager used for the snapshot transaction
+   */
+  public ErezeptExportService(
+      JobScheduler jobScheduler,
+      ErezeptRepository repository,
+      ErezeptStore store,
+      EntityManager entityManager,
+      ObjectMapper objectMapper,
+      ErezeptExportProperties properties,
+      PlatformTransactionManager transactionManager) {
+    this.jobScheduler = jobScheduler;
+    this.repository = repository;
+    this.store = store;
+    this.entityManager = entityManager;
+    this.objectMapper = objectMapper;
+    this.properties = properties;
+    this.snapshotTransaction = new TransactionTemplate(transactionManager);
+    this.snapshotTransaction.setReadOnly(true);
+    this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+  }
+
+  /**
+   * Whether exports can be served, which requires a store backed by the {@code erezept} table.
+   *
+   * @return {@code true} when the active store is backed by the table
+   */
+  public boolean isAvailable() {
+    return store.isJpaBacked();
+  }
+
+  /**
+   * Enqueue a new snapshot export.
+   *
+   * @return initial status of the queued export
+   */
+  public ErezeptExportStatus submit() {
+    UUID exportId = UUID.randomUUID();
+    var status = ErezeptExportStatus.builder()
+        .exportId(exportId)
+        .state(State.QUEUED)
+        .fileName("erezept-" + exportId + FILE_SUFFIX)
+        .submittedAt(OffsetDateTime.now())
+        .build();
+    evictStatuses();
+    statuses.put(exportId, status);
+    jobScheduler.<ErezeptExportService>enqueue(exportId,
+        service -> service.runExport(exportId, JobContext.Null));
+    return status;
+  }
+
+  /**
+   * Forget finished exports older than the retention, then the oldest finished exports beyond
+   * the configured maximum. Queued and running exports are always kept.
+   */
+  private void evictStatuses() {
+    OffsetDateTime retainedSince = OffsetDateTime.now().minusMinutes(properties.getStatusRetentionMinutes());
+    statuses.values().removeIf(status -> status.getFinishedAt() != null
+        && status.getFinishedAt().isBefore(retainedSince));
+    int excess = statuses.size() + 1 - Math.max(1, properties.getMaxRetainedStatuses());
+    if (excess <= 0) {
+      return;
+    }
+    statuses.values().stream()
+        .filter(status -> status.getFinishedAt() != null)
+        .sorted(Comparator.comparing(ErezeptExportStatus::getFinishedAt))
+        .limit(excess)
+        .map(ErezeptExportStatus::getExportId)
+        .toList()
+        .forEach(statuses::remove);
+  }
+
+  /**
+   * Return the latest status snapshot of an export.
+   *
+   * @param exportId identifier returned by {@link #submit}
+   * @return optional containing the status when the export is known
+   */
+  public Optional<ErezeptExportStatus> findStatus(UUID exportId) {
+    return Optional.ofNullable(statuses.get(exportId));
+  }
+
+  /**
+   * Locate the snapshot file of a finished export.
+   *
+   * @param exportId identifier returned by {@link #submit}
+   * @return optional containing the file when the export succeeded and was not yet cleaned up
+   */
+  public Optional<Path> findSnapshot(UUID exportId) {
+    return findStatus(exportId)
+        .filter(status -> status.getState() == State.SUCCEEDED)
+        .map(status -> Path.of(properties.getDirectory()).resolve(status.getFileName()))
+        .filter(Files::isRegularFile);
+  }
+
+  /**
+   * Job entry point that writes the snapshot file of an export.
+   *
+   * <p>The snapshot is written to a temporary file and atomically renamed when complete, so a
+   * download never observes a partial file.</p>
+   *
+   * @param exportId   identifier of the export
+   * @param jobContext context supplied by Jobrunr for dashboard progress and logging
+   * @throws IOException if the snapshot cannot be written
+   */
+  @Job(name = "Export prescriptions %0", retries = 2)
+  public void runExport(UUID exportId, JobContext jobContext) throws IOException {
+    Path directory = Path.of(properties.getDirectory());
+    Files.createDirectories(directory);
+    Path target = directory.resolve("erezept-" + exportId + FILE_SUFFIX);
+    Path partial = directory.resolve(target.getFileName() + ".part");
+    updateStatus(exportId, s -> s.toBuilder().state(State.RUNNING).build());
+    try {
+      long rows = writeSnapshot(partial, jobContext);
+      Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      long size = Files.size(target);
+      updateStatus(exportId, s -> s.toBuilder()
+          .state(State.SUCCEEDED)
+          .rowCount(rows)
+          .sizeBytes(size)
+          .finishedAt(OffsetDateTime.now())
+          .build());
+      log.info("Export {} wrote {} prescriptions ({} bytes) to {}", exportId, rows, size, target);
+      pruneSnapshots(directory);
+    } catch (IOException | RuntimeException ex) {
+      Files.deleteIfExists(partial);
+      updateStatus(exportId, s -> s.toBuilder()
+          .state(State.FAILED)
+          .finishedAt(OffsetDateTime.now())
+          .build());
+      log.error("Export {} failed", exportId, ex);
+      throw ex;
+    }
+  }
+
+  /**
+   * Stream all prescriptions into a gzip-compressed NDJSON file within the snapshot transaction.
+   *
+   * @param file       file to write
+   * @param jobContext context used to report progress
+   * @return number of written prescriptions
+   * @throws IOException if the file cannot be written
+   */
+  private long writeSnapshot(Path file, JobContext jobContext) throws IOException {
+    try (var out = new GZIPOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE), BUFFER_SIZE);
+        SequenceWriter writer = objectMapper.writer()
+            .withRootValueSeparator("\n")
+            .writeValues(out)) {
+      Long rows = snapshotTransaction.execute(status -> {
+        JobDashboardProgressBar progressBar = jobContext.progressBar(Math.max(repository.count(), 1));
+        long written = 0;
+        try (Stream<Erezept> prescriptions = repository.streamAll()) {
+          var iterator = prescriptions.iterator();
+          while (iterator.hasNext()) {
+            Erezept prescription = iterator.next();
+            writer.write(prescription);
+            entityManager.detach(prescription);
+            if (++written % PROGRESS_STEP == 0) {
+              progressBar.setProgress(written);
+            }
+          }
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+        progressBar.setProgress(Math.max(written, 1));
+        return written;
+      });
+      return rows == null ? 0 : rows;
+    } catch (UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+  }
+
+  /**
+   * Delete the oldest snapshot files beyond the configured retention count and forget the
+   * exports that wrote them.
+   *
+   * @param directory export directory
+   */
+  private void pruneSnapshots(Path directory) {
+    try (Stream<Path> files = Files.list(directory)) {
+      files.filter(file -> file.getFileName().toString().endsWith(FILE_SUFFIX))
+          .sorted((a, b) -> Long.compare(b.toFile().lastModified(), a.toFile().lastModified()))
+          .skip(Math.max(1, properties.getRetainedSnapshots()))
+          .forEach(file -> {
+            try {
+              Files.deleteIfExists(file);
+              String fileName = file.getFileName().toString();
+              statuses.values().removeIf(status -> fileName.equals(status.getFileName()));
+              log.debug("Removed outdated export snapshot {}", file);
+            } catch (IOException ex) {
+              log.warn("Could not remove outdated export snapshot {}", file, ex);
+            }
+          });
+    } catch (IOException ex) {
+      log.warn("Could not list export directory {}", directory, ex);
+    }
+  }
+
+  private void updateStatus(UUID exportId, UnaryOperator<ErezeptExportStatus> update) {
+    statuses.computeIfPresent(exportId, (id, status) -> update.apply(status));
+  }
+}
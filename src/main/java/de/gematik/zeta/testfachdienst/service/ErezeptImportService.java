@@ -0,0 +1,633 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.gematik.zeta.testfachdienst.config.ErezeptImportProperties;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptImportStatus;
+import de.gematik.zeta.testfachdienst.model.ErezeptImportStatus.LineError;
+import de.gematik.zeta.testfachdienst.model.ErezeptImportStatus.State;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import de.gematik.zeta.testfachdienst.repository.ErezeptArchiveRepository;
+import de.gematik.zeta.testfachdienst.repository.ErezeptRepository;
+import de.gematik.zeta.testfachdienst.repository.ErezeptStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Types;
+import java.time.DateTimeException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.jobrunr.jobs.annotations.Job;
+import org.jobrunr.jobs.context.JobContext;
+import org.jobrunr.jobs.context.JobDashboardProgressBar;
+import org.jobrunr.scheduling.JobScheduler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Service that imports large prescription uploads in the background.
+ *
+ * <p>Uploads are spooled to local disk and processed by a Jobrunr job that reads the file line by
+ * line, rejects invalid or duplicate lines and inserts the remaining prescriptions with JDBC batch
+ * statements, reporting each committed batch to {@link ErezeptStatsService}. Progress is published on the Jobrunr dashboard and as {@link ErezeptImportStatus}
+ * snapshots. Like the Jobrunr storage, import status is kept in memory only; finished imports are
+ * forgotten after {@code statusRetentionMinutes} or when more than {@code maxRetainedStatuses}
+ * are kept. Uploads larger than {@code maxUploadBytes} are rejected while spooling.</p>
+ *
+ * <p>Imports are only available when the active {@link ErezeptStore} is backed by the
+ * {@code erezept} table.</p>
+ */
+@Service
+@Slf4j
+public class ErezeptImportService {
+
+  private static final String INSERT_SQL = """
+      insert into erezept (medication_name, dosage, issued_at, expires_at, status,
+          patient_id, practitioner_id, prescription_id)
+      values (?, ?, ?, ?, ?, ?, ?, ?)
+      """;
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+  private final JobScheduler jobScheduler;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ErezeptRepository repository;
+  private final ErezeptStore store;
+  private final ErezeptArchiveRepository archiveRepository;
+  private final ErezeptStatsService stats;
+  private final ObjectMapper objectMapper;
+  private final Validator validator;
+  private final ErezeptImportProperties properties;
+  private final Map<UUID, ErezeptImportStatus> statuses = new ConcurrentHashMap<>();
+  private final Counter importedRows;
+  private final Counter rejectedRows;
+
+  /**
+   * Creates the import service.
+   *
+   * @param jobScheduler       scheduler used to enqueue import jobs
+   * @param jdbcTemplate       template used for batch inserts
+   * @param transactionManager transaction manager used to scope each batch
+   * @param repository         repository of the hot prescription table
+   * @param store              active storage engine, checked for being backed by the table
+   * @param archiveRepository  repository of the archive table
+   * @param stats              aggregates counting the imported prescriptions
+   * @param objectMapper       application object mapper used to parse NDJSON lines
+   * @param validator          bean validator, if one is available
+   * @param properties         import configuration
+   * @param meterRegistry      registry receiving the import metrics
+   */
+  public ErezeptImportService(
+      JobScheduler jobScheduler,
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      ErezeptRepository repository,
+      ErezeptStore store,
+      ErezeptArchiveRepository archiveRepository,
+      ErezeptStatsService stats,
+      ObjectMapper objectMapper,
+      ObjectProvider<Validator> validator,
+      ErezeptImportProperties properties,
+      MeterRegistry meterRegistry) {
+    this.jobScheduler = jobScheduler;
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.repository = repository;
+    this.store = store;
+    this.archiveRepository = archiveRepository;
+    this.stats = stats;
+    this.objectMapper = objectMapper;
+    this.validator = validator.getIfUnique();
+    this.properties = properties;
+    this.importedRows = Counter.builder("erezept.import.rows")
+        .description("Prescriptions processed by bulk imports")
+        .tag("result", "imported")
+        .register(meterRegistry);
+    this.rejectedRows = Counter.builder("erezept.import.rows")
+        .description("Prescriptions processed by bulk imports")
+        .tag("result", "rejected")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Whether imports can be served, which requires a store backed by the {@code erezept} table.
+   *
+   * @return {@code true} when the active store is backed by the table
+   */
+  public boolean isAvailable() {
+    return store.isJpaBacked();
+  }
+
+  /**
+   * Spool an upload to local disk and enqueue the import job for it.
+   *
+   * @param body   request body stream containing the upload
+   * @param format format of the upload
+   * @return initial status of the queued import
+   * @throws IOException if the upload cannot be written to the spool directory
+   * @throws ResponseStatusException 413 if the upload exceeds {@code maxUploadBytes}
+   */
+  public ErezeptImportStatus submit(InputStream body, Format format) throws IOException {
+    UUID importId = UUID.randomUUID();
+    Path spoolDirectory = Path.of(properties.getSpoolDirectory());
+    Files.createDirectories(spoolDirectory);
+    Path spoolFile = spoolDirectory.resolve(importId + "." + format.getExtension());
+    long bytes = spool(body, spoolFile);
+    log.info("Spooled {} import {} ({} bytes) to {}", format, importId, bytes, spoolFile);
+
+    var status = ErezeptImportStatus.builder()
+        .importId(importId)
+        .format(format.name())
+        .state(State.QUEUED)
+        .errors(List.of())
+        .submittedAt(OffsetDateTime.now())
+        .build();
+    evictStatuses();
+    statuses.put(importId, status);
+
+    String file = spoolFile.toString();
+    jobScheduler.<ErezeptImportService>enqueue(importId,
+        service -> service.runImport(importId, format, file, JobContext.Null));
+    return status;
+  }
+
+  /**
+   * Copy the upload to the spool file, aborting once it exceeds the configured maximum size.
+   *
+   * @param body      request body stream
+   * @param spoolFile target file, deleted again when the upload is too large
+   * @return number of bytes written
+   * @throws IOException if the spool file cannot be written
+   */
+  private long spool(InputStream body, Path spoolFile) throws IOException {
+    long maxBytes = properties.getMaxUploadBytes();
+    byte[] buffer = new byte[COPY_BUFFER_SIZE];
+    long bytes = 0;
+    try (OutputStream out = Files.newOutputStream(spoolFile)) {
+      int read;
+      while ((read = body.read(buffer)) != -1) {
+        bytes += read;
+        if (bytes > maxBytes) {
+          break;
+        }
+        out.write(buffer, 0, read);
+      }
+    }
+    if (bytes > maxBytes) {
+      Files.deleteIfExists(spoolFile);
+      throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+          "Upload exceeds %d bytes".formatted(maxBytes));
+    }
+    return bytes;
+  }
+
+  /**
+   * Forget finished imports older than the retention, then the oldest finished imports beyond
+   * the configured maximum. Queued and running imports are always kept.
+   */
+  private void evictStatuses() {
+    OffsetDateTime retainedSince = OffsetDateTime.now().minusMinutes(properties.getStatusRetentionMinutes());
+    statuses.values().removeIf(status -> status.getFinishedAt() != null
+        && status.getFinishedAt().isBefore(retainedSince));
+    int excess = statuses.size() + 1 - Math.max(1, properties.getMaxRetainedStatuses());
+    if (excess <= 0) {
+      return;
+    }
+    statuses.values().stream()
+        .filter(status -> status.getFinishedAt() != null)
+        .sorted(Comparator.comparing(ErezeptImportStatus::getFinishedAt))
+        .limit(excess)
+        .map(ErezeptImportStatus::getImportId)
+        .toList()
+        .forEach(statuses::remove);
+  }
+
+  /**
+   * Return the latest status snapshot of an import.
+   *
+   * @param importId identifier returned by {@link #submit}
+   * @return optional containing the status when the import is known
+   */
+  public Optional<ErezeptImportStatus> findStatus(UUID importId) {
+    return Optional.ofNullable(statuses.get(importId));
+  }
+
+  /**
+   * Job entry point that parses a spooled upload and inserts its prescriptions.
+   *
+   * <p>Invalid or duplicate lines are reported and skipped. The job is not retried because
+   * batches inserted before a failure are already committed.</p>
+   *
+   * @param importId   identifier of the import
+   * @param format     format of the spooled upload
+   * @param spoolFile  path of the spooled upload
+   * @param jobContext context supplied by Jobrunr for dashboard progress and logging
+   * @throws IOException if the spooled upload cannot be read
+   */
+  @Job(name = "Import prescriptions %0", retries = 0)
+  public void runImport(UUID importId, Format format, String spoolFile, JobContext jobContext)
+      throws IOException {
+    Path path = Path.of(spoolFile);
+    try {
+      long total = countDataLines(path, format);
+      JobDashboardProgressBar progressBar = jobContext.progressBar(Math.max(total, 1));
+      updateStatus(importId, s -> s.toBuilder().state(State.RUNNING).totalLines(total).build());
+
+      var run = new ImportRun(properties.getMaxReportedErrors());
+      importLines(path, format, run, () -> {
+        progressBar.setProgress(run.processed);
+        publish(importId, run, State.RUNNING);
+      });
+      progressBar.setProgress(Math.max(total, 1));
+      publish(importId, run, State.SUCCEEDED);
+      jobContext.logger().info("Imported %d prescriptions, rejected %d lines"
+          .formatted(run.imported, run.failed));
+      log.info("Import {} finished: imported={} rejected={}", importId, run.imported, run.failed);
+    } catch (IOException | RuntimeException ex) {
+      updateStatus(importId, s -> s.toBuilder()
+          .state(State.FAILED)
+          .finishedAt(OffsetDateTime.now())
+          .build());
+      log.error("Import {} failed", importId, ex);
+      throw ex;
+    } finally {
+      Files.deleteIfExists(path);
+    }
+  }
+
+  /**
+   * Stream the spooled file and insert accepted lines batch by batch.
+   *
+   * @param path     spooled upload
+   * @param format   format of the upload
+   * @param run      accumulator for counters and errors
+   * @param progress callback invoked after every flushed batch
+   * @throws IOException if the file cannot be read
+   */
+  private void importLines(Path path, Format format, ImportRun run, Runnable progress)
+      throws IOException {
+    int batchSize = Math.max(1, properties.getBatchSize());
+    List<PendingRow> batch = new ArrayList<>(batchSize);
+    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      long lineNumber = 0;
+      Map<String, Integer> csvHeader = Map.of();
+      if (format == Format.CSV) {
+        String header = reader.readLine();
+        lineNumber++;
+        csvHeader = parseCsvHeader(header);
+      }
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (line.isBlank()) {
+          continue;
+        }
+        run.processed++;
+        try {
+          Erezept prescription = format == Format.CSV
+              ? parseCsvLine(line, csvHeader)
+              : objectMapper.readValue(line, Erezept.class);
+          validate(prescription);
+          batch.add(new PendingRow(lineNumber, prescription));
+        } catch (JsonProcessingException ex) {
+          run.reject(lineNumber, "Malformed JSON: " + ex.getOriginalMessage());
+        } catch (DateTimeException | IllegalArgumentException ex) {
+          run.reject(lineNumber, ex.getMessage());
+        }
+        if (batch.size() >= batchSize) {
+          flush(batch, run);
+          progress.run();
+        }
+      }
+      flush(batch, run);
+      progress.run();
+    }
+  }
+
+  /**
+   * Insert the pending rows of a batch, rejecting business identifiers that are already taken.
+   * Inserted rows are counted in the stats once the batch commits.
+   *
+   * @param batch pending rows, cleared afterwards
+   * @param run   accumulator for counters and errors
+   */
+  private void flush(List<PendingRow> batch, ImportRun run) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    Set<String> candidates = batch.stream()
+        .map(row -> row.prescription().getPrescriptionId())
+        .collect(Collectors.toSet());
+    Set<String> taken = new HashSet<>(repository.findExistingPrescriptionIds(candidates));
+    taken.addAll(archiveRepository.findExistingPrescriptionIds(candidates));
+
+    List<Erezept> accepted = new ArrayList<>(batch.size());
+    for (PendingRow row : batch) {
+      String prescriptionId = row.prescription().getPrescriptionId();
+      if (!taken.add(prescriptionId)) {
+        run.reject(row.line(), "prescriptionId %s already exists".formatted(prescriptionId));
+        continue;
+      }
+      accepted.add(row.prescription());
+    }
+    batch.clear();
+    if (accepted.isEmpty()) {
+      return;
+    }
+
+    transactionTemplate.executeWithoutResult(status -> {
+      jdbcTemplate.batchUpdate(INSERT_SQL, accepted, accepted.size(), (ps, prescription) -> {
+        ps.setString(1, prescription.getMedicationName());
+        ps.setString(2, prescription.getDosage());
+        ps.setObject(3, prescription.getIssuedAt(), Types.TIMESTAMP_WITH_TIMEZONE);
+        ps.setObject(4, prescription.getExpiresAt(), Types.TIMESTAMP_WITH_TIMEZONE);
+        ps.setString(5, prescription.getStatus().name());
+        ps.setString(6, prescription.getPatientId());
+        ps.setString(7, prescription.getPractitionerId());
+        ps.setString(8, prescription.getPrescriptionId());
+      });
+      accepted.forEach(stats::created);
+    });
+    run.imported += accepted.size();
+    importedRows.increment(accepted.size());
+  }
+
+  /**
+   * Reject prescriptions that would violate column constraints or bean validation rules.
+   *
+   * @param prescription parsed prescription
+   * @throws IllegalArgumentException describing the first violations found
+   */
+  private void validate(Erezept prescription) {
+    requireText(prescription.getMedicationName(), "medicationName");
+    requireText(prescription.getDosage(), "dosage");
+    requireText(prescription.getPatientId(), "patientId");
+    requireText(prescription.getPractitionerId(), "practitionerId");
+    requireText(prescription.getPrescriptionId(), "prescriptionId");
+    ErezeptService.fieldLengthViolation(prescription).ifPresent(message -> {
+      throw new IllegalArgumentException(message);
+    });
+    if (prescription.getIssuedAt() == null) {
+      throw new IllegalArgumentException("issuedAt must not be null");
+    }
+    if (prescription.getStatus() == null) {
+      prescription.setStatus(ErezeptStatus.CREATED);
+    }
+    prescription.setId(null);
+    if (validator == null) {
+      return;
+    }
+    var violations = validator.validate(prescription);
+    if (!violations.isEmpty()) {
+      throw new IllegalArgumentException(violations.stream()
+          .map(v -> v.getPropertyPath() + " " + v.getMessage())
+          .sorted()
+          .collect(Collectors.joining(", ")));
+    }
+  }
+
+  private static void requireText(String value, String field) {
+    if (value == null || value.isBlank()) {
+      throw new IllegalArgumentException(field + " must not be blank");
+    }
+  }
+
+  /**
+   * Map CSV column names to their positions.
+   *
+   * @param header first line of the CSV upload
+   * @return column positions by name
+   * @throws IllegalArgumentException if the header is missing
+   */
+  private static Map<String, Integer> parseCsvHeader(String header) {
+    if (header == null || header.isBlank()) {
+      throw new IllegalArgumentException("CSV upload has no header line");
+    }
+    List<String> columns = splitCsv(header);
+    Map<String, Integer> positions = new HashMap<>();
+    for (int i = 0; i < columns.size(); i++) {
+      positions.put(columns.get(i).trim(), i);
+    }
+    return positions;
+  }
+
+  /**
+   * Build a prescription from a CSV data line using the header positions.
+   *
+   * @param line      CSV data line
+   * @param positions column positions by name
+   * @return parsed prescription
+   */
+  private static Erezept parseCsvLine(String line, Map<String, Integer> positions) {
+    List<String> values = splitCsv(line);
+    String issuedAt = csvValue(values, positions, "issuedAt");
+    String expiresAt = csvValue(values, positions, "expiresAt");
+    String status = csvValue(values, positions, "status");
+    return Erezept.builder()
+        .medicationName(csvValue(values, positions, "medicationName"))
+        .dosage(csvValue(values, positions, "dosage"))
+        .issuedAt(issuedAt == null ? null : OffsetDateTime.parse(issuedAt))
+        .expiresAt(expiresAt == null ? null : OffsetDateTime.parse(expiresAt))
+        .status(status == null ? ErezeptStatus.CREATED : ErezeptStatus.valueOf(status))
+        .patientId(csvValue(values, positions, "patientId"))
+        .practitionerId(csvValue(values, positions, "practitionerId"))
+        .prescriptionId(csvValue(values, positions, "prescriptionId"))
+        .build();
+  }
+
+  private static String csvValue(List<String> values, Map<String, Integer> positions, String column) {
+    Integer position = positions.get(column);
+    if (position == null || position >= values.size()) {
+      return null;
+    }
+    String value = values.get(position);
+    return value.isEmpty() ? null : value;
+  }
+
+  /**
+   * Split a single CSV line into fields, honouring double-quoted fields with {@code ""} escapes.
+   *
+   * @param line CSV line
+   * @return field values in order
+   */
+  static List<String> splitCsv(String line) {
+    List<String> fields = new ArrayList<>();
+    StringBuilder current = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          current.append('"');
+          i++;
+        } else if (c == '"') {
+          quoted = false;
+        } else {
+          current.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(current.toString());
+        current.setLength(0);
+      } else {
+        current.append(c);
+      }
+    }
+    fields.add(current.toString());
+    return fields;
+  }
+
+  private static long countDataLines(Path path, Format format) throws IOException {
+    try (Stream<String> lines = Files.lines(path, StandardCharsets.UTF_8)) {
+      long nonBlank = lines.filter(line -> !line.isBlank()).count();
+      return format == Format.CSV ? Math.max(0, nonBlank - 1) : nonBlank;
+    }
+  }
+
+  private void publish(UUID importId, ImportRun run, State state) {
+    updateStatus(importId, s -> s.toBuilder()
+        .state(state)
+        .processedLines(run.processed)
+        .importedCount(run.imported)
+        .failedCount(run.failed)
+        .errors(List.copyOf(run.errors))
+        .finishedAt(state == State.SUCCEEDED ? OffsetDateTime.now() : null)
+        .build());
+  }
+
+  private void updateStatus(UUID importId, UnaryOperator<ErezeptImportStatus> update) {
+    statuses.computeIfPresent(importId, (id, status) -> update.apply(status));
+  }
+
+  /**
+   * Supported upload formats.
+   */
+  public enum Format {
+    /**
+     * One JSON prescription per line.
+     */
+    NDJSON("ndjson"),
+    /**
+     * Comma separated values with a header line naming the prescription fields.
+     */
+    CSV("csv");
+
+    private final String extension;
+
+    Format(String extension) {
+      this.extension = extension;
+    }
+
+    /**
+     * File extension used for spooled uploads of this format.
+     *
+     * @return file extension without dot
+     */
+    public String getExtension() {
+      return extension;
+    }
+
+    /**
+     * Resolve the upload format from a request content type.
+     *
+     * @param contentType content type of the upload
+     * @return matching format, empty when unsupported
+     */
+    public static Optional<Format> fromContentType(MediaType contentType) {
+      if (contentType == null) {
+        return Optional.empty();
+      }
+      if ("csv".equalsIgnoreCase(contentType.getSubtype())) {
+        return Optional.of(CSV);
+      }
+      if (contentType.getSubtype().toLowerCase().endsWith("ndjson")) {
+        return Optional.of(NDJSON);
+      }
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * A parsed line waiting for insertion.
+   *
+   * @param line         1-based line number in the upload
+   * @param prescription parsed prescription
+   */
+  private record PendingRow(long line, Erezept prescription) {
+  }
+
+  /**
+   * Mutable counters of a single import run, confined to the job thread.
+   */
+  private final class ImportRun {
+    private final int maxReportedErrors;
+    private final List<LineError> errors = new ArrayList<>();
+    private long processed;
+    private long imported;
+    private long failed;
+
+    private ImportRun(int maxReportedErrors) {
+      this.maxReportedErrors = maxReportedErrors;
+    }
+
+    private void reject(long line, String message) {
+      failed++;
+      rejectedRows.increment();
+      if (errors.size() < maxReportedErrors) {
+        errors.add(new LineError(line, message));
+      }
+    }
+  }
+}
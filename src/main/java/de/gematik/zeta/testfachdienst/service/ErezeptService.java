@@ -25,48 +25,84 @@
 package de.gematik.zeta.testfachdienst.service;
 
 import de.gematik.zeta.testfachdienst.model.Erezept;
-import de.gematik.zeta.testfachdienst.repository.ErezeptRepository;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import de.gematik.zeta.testfachdienst.repository.ErezeptStore;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 /**
  * Application service exposing CRUD-style operations for {@link Erezept} aggregates.
+ *
+ * <p>Storage is delegated to the {@link ErezeptStore} selected by profile. Lookups by identifier
+ * fall back to the archive of terminal prescriptions; listing, updates and deletes only operate
+ * on active prescriptions. Writes addressing an archived prescription are rejected with
+ * {@link ErezeptArchivedException}, writes with a taken id or business identifier with
+ * {@link DuplicateErezeptException}. Writes with text fields longer than declared on
+ * {@link Erezept} are rejected with {@code 400 Bad Request} before they reach the store, whether
+ * or not bean validation is available.</p>
+ *
+ * <p>Lookups run in read-only transactions, which lets Hibernate skip dirty checking and lets the
+ * {@code read-replica} profile route them to the read pool. Writes run in read-write
+ * transactions so that their existence checks see the primary database.</p>
+ *
+ * <p>Every successful write is reported to the {@link ErezeptStatsService} so that the aggregate
+ * counts stay current without scanning the store.</p>
  */
 @Service
 @RequiredArgsConstructor
 public class ErezeptService {
 
-  private final ErezeptRepository repository;
+  private final ErezeptStore store;
+  private final ErezeptStatsService stats;
 
   /**
    * Retrieve all prescriptions.
    *
    * @return list of prescriptions, possibly empty
    */
+  @Transactional(readOnly = true)
   public List<Erezept> findAll() {
-    return repository.findAll();
+    return store.findAll();
+  }
+
+  /**
+   * Retrieve one page of prescriptions ordered by id.
+   *
+   * @param page zero-based page number
+   * @param size maximum number of prescriptions per page
+   * @return prescriptions of the page, possibly empty
+   */
+  @Transactional(readOnly = true)
+  public List<Erezept> findPage(int page, int size) {
+    return store.findPage(page, size);
   }
 
   /**
-   * Find a prescription by database identifier.
+   * Find a prescription by database identifier, falling back to the archive.
    *
    * @param id primary key of the prescription
    * @return optional containing the entity when found
    */
+  @Transactional(readOnly = true)
   public Optional<Erezept> findById(Long id) {
-    return repository.findById(id);
+    return store.findById(id);
   }
 
   /**
-   * Find a prescription by its domain-specific identifier.
+   * Find a prescription by its domain-specific identifier, falling back to the archive.
    *
    * @param prescriptionId business identifier of the prescription
    * @return optional containing the entity when found
    */
+  @Transactional(readOnly = true)
   public Optional<Erezept> findByPrescriptionId(String prescriptionId) {
-    return repository.findByPrescriptionId(prescriptionId);
+    return store.findByPrescriptionId(prescriptionId);
   }
 
   /**
@@ -75,12 +111,67 @@ public class ErezeptService {
    * @param prescription prescription to persist
    * @return saved entity when persisted, empty optional when duplicate
    */
+  @Transactional
   public Optional<Erezept> create(Erezept prescription) {
-    if (prescription.getPrescriptionId() != null
-        && existsByPrescriptionId(prescription.getPrescriptionId())) {
-      return Optional.empty();
+    requireFieldLengths(prescription);
+    Optional<Erezept> created = store.create(prescription);
+    created.ifPresent(stats::created);
+    return created;
+  }
+
+  /**
+   * Create a prescription in status {@code CREATED} from a client request. The identifiers are
+   * checked in the same read-write transaction as the insert.
+   *
+   * @param request prescription values; a supplied id is only checked for conflicts
+   * @return created prescription with its generated id
+   * @throws DuplicateErezeptException if the id or the business identifier already exists
+   */
+  @Transactional
+  public Erezept createUnique(Erezept request) {
+    if (request.getId() != null && store.existsById(request.getId())) {
+      throw DuplicateErezeptException.forId(request.getId());
     }
-    return Optional.of(repository.save(prescription));
+    var toCreate = request.toBuilder()
+        .id(null)
+        .status(ErezeptStatus.CREATED)
+        .build();
+    return create(toCreate).orElseThrow(() -> DuplicateErezeptException.forPrescriptionId(request.getPrescriptionId()));
+  }
+
+  /**
+   * Replace the client-editable fields of an existing prescription, keeping its issue date and,
+   * if none is given, its status. Lookup, uniqueness check and write share one read-write
+   * transaction.
+   *
+   * @param id      identifier of the prescription to replace
+   * @param request new values, including a possibly changed business identifier
+   * @return replaced prescription when present, empty optional when missing
+   * @throws ErezeptArchivedException  if the prescription is archived
+   * @throws DuplicateErezeptException if the new business identifier is already taken
+   */
+  @Transactional
+  public Optional<Erezept> replace(Long id, Erezept request) {
+    requireFieldLengths(request);
+    requireNotArchived(id);
+    Optional<Erezept> existing = store.findById(id);
+    if (existing.isEmpty()) {
+      return existing;
+    }
+    Erezept before = existing.get();
+    if (request.getPrescriptionId() != null
+        && !request.getPrescriptionId().equals(before.getPrescriptionId())
+        && store.existsByPrescriptionId(request.getPrescriptionId())) {
+      throw DuplicateErezeptException.forPrescriptionId(request.getPrescriptionId());
+    }
+    var replacement = request.toBuilder()
+        .id(id)
+        .issuedAt(before.getIssuedAt())
+        .status(request.getStatus() != null ? request.getStatus() : before.getStatus())
+        .build();
+    Erezept saved = store.save(replacement);
+    stats.changed(before, saved);
+    return Optional.of(saved);
   }
 
   /**
@@ -89,15 +180,22 @@ public class ErezeptService {
    * @param id         identifier of the prescription to update
    * @param updateData new field values
    * @return updated entity when present, empty optional when missing
+   * @throws ErezeptArchivedException if the prescription is archived
    */
+  @Transactional
   public Optional<Erezept> update(Long id, Erezept updateData) {
-    return repository.findById(id).map(existing -> {
+    requireFieldLengths(updateData);
+    requireNotArchived(id);
+    var before = new AtomicReference<Erezept>();
+    Optional<Erezept> updated = store.update(id, existing -> {
+      before.set(existing.toBuilder().build());
       existing.setMedicationName(updateData.getMedicationName());
       existing.setDosage(updateData.getDosage());
       existing.setExpiresAt(updateData.getExpiresAt());
       existing.setStatus(updateData.getStatus());
-      return repository.save(existing);
     });
+    updated.ifPresent(after -> stats.changed(before.get(), after));
+    return updated;
   }
 
   /**
@@ -105,12 +203,16 @@ public class ErezeptService {
    *
    * @param id identifier of the prescription to delete
    * @return {@code true} when deleted, {@code false} otherwise
+   * @throws ErezeptArchivedException if the prescription is archived
    */
+  @Transactional
   public boolean deleteIfExists(Long id) {
-    if (!repository.existsById(id)) {
+    requireNotArchived(id);
+    Optional<Erezept> before = store.findById(id);
+    if (!store.deleteById(id)) {
       return false;
     }
-    repository.deleteById(id);
+    before.ifPresent(stats::deleted);
     return true;
   }
 
@@ -119,9 +221,19 @@ public class ErezeptService {
    *
    * @param prescription entity to store
    * @return saved entity
+   * @throws ErezeptArchivedException if the prescription is archived
    */
+  @Transactional
   public Erezept save(Erezept prescription) {
-    return repository.save(prescription);
+    requireFieldLengths(prescription);
+    if (prescription.getId() != null) {
+      requireNotArchived(prescription.getId());
+    }
+    Optional<Erezept> before = prescription.getId() == null
+        ? Optional.empty() : store.findById(prescription.getId());
+    Erezept saved = store.save(prescription);
+    before.ifPresentOrElse(previous -> stats.changed(previous, saved), () -> stats.created(saved));
+    return saved;
   }
 
   /**
@@ -129,8 +241,9 @@ public class ErezeptService {
    *
    * @param id identifier to delete
    */
+  @Transactional
   public void deleteById(Long id) {
-    repository.deleteById(id);
+    deleteIfExists(id);
   }
 
   /**
@@ -139,20 +252,56 @@ public class ErezeptService {
    * @param id database identifier
    * @return {@code true} if present
    */
+  @Transactional(readOnly = true)
   public boolean existsById(Long id) {
-    return repository.existsById(id);
+    return store.existsById(id);
   }
 
   /**
-   * Check for the presence of a prescription by business identifier.
+   * Check for the presence of a prescription by business identifier, including archived ones so
+   * that business identifiers stay unique after archival.
    *
    * @param prescriptionId business identifier
    * @return {@code true} if a matching record exists
    */
+  @Transactional(readOnly = true)
   public boolean existsByPrescriptionId(String prescriptionId) {
     if (prescriptionId == null) {
       return false;
     }
-    return repository.existsByPrescriptionId(prescriptionId);
+    return store.existsByPrescriptionId(prescriptionId);
+  }
+
+  /**
+   * Describe the first text field that exceeds its maximum length.
+   *
+   * @param prescription prescription to check
+   * @return violation message, empty when all fields fit
+   */
+  static Optional<String> fieldLengthViolation(Erezept prescription) {
+    return lengthViolation("medicationName", prescription.getMedicationName(), Erezept.MEDICATION_NAME_LENGTH)
+        .or(() -> lengthViolation("dosage", prescription.getDosage(), Erezept.DOSAGE_LENGTH))
+        .or(() -> lengthViolation("patientId", prescription.getPatientId(), Erezept.IDENTIFIER_LENGTH))
+        .or(() -> lengthViolation("practitionerId", prescription.getPractitionerId(), Erezept.IDENTIFIER_LENGTH))
+        .or(() -> lengthViolation("prescriptionId", prescription.getPrescriptionId(), Erezept.IDENTIFIER_LENGTH));
+  }
+
+  private static Optional<String> lengthViolation(String field, String value, int maxLength) {
+    if (value == null || value.length() <= maxLength) {
+      return Optional.empty();
+    }
+    return Optional.of("%s must not exceed %d characters".formatted(field, maxLength));
+  }
+
+  private static void requireFieldLengths(Erezept prescription) {
+    fieldLengthViolation(prescription).ifPresent(message -> {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, message);
+    });
+  }
+
+  private void requireNotArchived(Long id) {
+    if (store.isArchived(id)) {
+      throw new ErezeptArchivedException(id);
+    }
   }
 }
@@ -0,0 +1,77 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.service;
+
+import de.gematik.zeta.testfachdienst.config.EventLogProperties;
+import de.gematik.zeta.testfachdienst.repository.EventSourcedErezeptStore;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import org.jobrunr.scheduling.JobScheduler;
+import org.jobrunr.scheduling.RecurringJobBuilder;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+/**
+ * Schedules periodic snapshots of the event-sourced prescription store, active with the
+ * {@code event-sourced} profile.
+ */
+@Service
+@Profile("event-sourced")
+public class ErezeptSnapshotService {
+
+  private static final String JOB_ID = "erezept-event-log-snapshot";
+
+  private final EventSourcedErezeptStore store;
+
+  /**
+   * Creates the service and schedules its recurring job.
+   *
+   * @param store        event-sourced store to snapshot
+   * @param properties   event log configuration
+   * @param jobScheduler scheduler used to register the recurring job
+   */
+  public ErezeptSnapshotService(
+      EventSourcedErezeptStore store,
+      EventLogProperties properties,
+      JobScheduler jobScheduler) {
+    this.store = store;
+    jobScheduler.createRecurrently(
+        RecurringJobBuilder.aRecurringJob()
+          .withId(JOB_ID)
+          .withInterval(Duration.of(properties.getSnapshotIntervalSeconds(), ChronoUnit.SECONDS))
+          .withDetails(this::createSnapshot)
+    );
+  }
+
+  /**
+   * Job entry point that writes a snapshot and compacts the journal.
+   *
+   * @throws IOException if the snapshot cannot be written
+   */
+  public void createSnapshot() throws IOException {
+    store.snapshot();
+  }
+}
@@ -0,0 +1,265 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.service;
+
+import de.gematik.zeta.testfachdienst.config.ErezeptStatsProperties;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptStats;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import de.gematik.zeta.testfachdienst.repository.ErezeptStore;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Maintains prescription counts per status, practitioner and day of issue.
+ *
+ * <p>{@link ErezeptService} and the expiry, archival and bulk import jobs report every row they
+ * create, change or delete, so reading the counts never scans the store. Changes made inside a
+ * transaction are counted once it commits. Writes racing with those reports can still skew the
+ * counts; the periodic {@link #reconcile()} job recounts the store in batches and replaces the
+ * counters to correct that drift.</p>
+ *
+ * <p>Reconciliation also bounds the buckets: days older than {@code dayRetentionDays} are dropped,
+ * and only the {@code maxPractitioners} practitioners with the most prescriptions are kept.
+ * Between reconciliations, new practitioners get a bucket only while there is room.</p>
+ */
+@Service
+@Slf4j
+public class ErezeptStatsService {
+
+  private final ErezeptStore store;
+  private final ErezeptStatsProperties properties;
+  private final Timer reconcileDuration;
+  private final DistributionSummary drift;
+  private volatile Counts counts;
+  private volatile OffsetDateTime reconciledAt;
+
+  /**
+   * Creates the stats service and registers its metrics.
+   *
+   * @param store         store counted during reconciliation
+   * @param properties    stats configuration
+   * @param meterRegistry registry receiving the reconciliation metrics
+   */
+  public ErezeptStatsService(
+      ErezeptStore store,
+      ErezeptStatsProperties properties,
+      MeterRegistry meterRegistry) {
+    this.store = store;
+    this.properties = properties;
+    this.reconcileDuration = Timer.builder("erezept.stats.reconcile")
+        .description("Duration of recounting the prescription aggregates")
+        .register(meterRegistry);
+    this.drift = DistributionSummary.builder("erezept.stats.drift")
+        .description("Absolute difference of the total count corrected by a reconciliation")
+        .register(meterRegistry);
+    this.counts = new Counts(maxPractitioners());
+  }
+
+  /**
+   * Count a newly stored prescription.
+   *
+   * @param created stored prescription
+   */
+  public void created(Erezept created) {
+    afterCommit(() -> counts.add(created, 1));
+  }
+
+  /**
+   * Move a prescription between buckets after an update.
+   *
+   * @param before state before the update
+   * @param after  state after the update
+   */
+  public void changed(Erezept before, Erezept after) {
+    afterCommit(() -> {
+      Counts current = counts;
+      current.add(before, -1);
+      current.add(after, 1);
+    });
+  }
+
+  /**
+   * Remove a deleted prescription from the counts.
+   *
+   * @param deleted state of the prescription before deletion
+   */
+  public void deleted(Erezept deleted) {
+    afterCommit(() -> counts.add(deleted, -1));
+  }
+
+  /**
+   * Return the current counts; empty buckets are omitted.
+   *
+   * @return aggregate counts
+   */
+  public ErezeptStats current() {
+    Counts current = counts;
+    return ErezeptStats.builder()
+        .total(current.total.sum())
+        .byStatus(sorted(current.byStatus))
+        .byPractitioner(sorted(current.byPractitioner))
+        .byDay(sorted(current.byDay))
+        .reconciledAt(reconciledAt)
+        .build();
+  }
+
+  /**
+   * Job entry point that recounts all prescriptions and replaces the counters.
+   *
+   * <p>The store is read in batches of {@code reconcileBatchSize} by ascending id, so only one
+   * batch of prescriptions is held at a time. Changes committed while the store is being read may be missed
+   * or counted twice until the next run.</p>
+   */
+  public void reconcile() {
+    reconcileDuration.record(() -> {
+      var recount = new Counts(Integer.MAX_VALUE);
+      int batchSize = Math.max(1, properties.getReconcileBatchSize());
+      List<Erezept> batch = store.findPageAfter(0, batchSize);
+      while (!batch.isEmpty()) {
+        batch.forEach(prescription -> recount.add(prescription, 1));
+        batch = store.findPageAfter(batch.get(batch.size() - 1).getId(), batchSize);
+      }
+      recount.retainDaysFrom(LocalDate.now(ZoneOffset.UTC).minusDays(Math.max(0, properties.getDayRetentionDays())));
+      recount.retainLargestPractitioners(maxPractitioners());
+      long difference = Math.abs(recount.total.sum() - counts.total.sum());
+      counts = recount;
+      reconciledAt = OffsetDateTime.now();
+      drift.record(difference);
+      if (difference > 0) {
+        log.info("Reconciled prescription stats, corrected total by {}", difference);
+      }
+    });
+  }
+
+  /**
+   * Retrieves the configured reconciliation interval in seconds.
+   *
+   * @return configured reconciliation interval
+   */
+  public long getReconcileIntervalInSeconds() {
+    return properties.getReconcileIntervalSeconds();
+  }
+
+  private int maxPractitioners() {
+    return Math.max(0, properties.getMaxPractitioners());
+  }
+
+  private static void afterCommit(Runnable update) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      update.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        update.run();
+      }
+    });
+  }
+
+  private static <K extends Comparable<? super K>> Map<K, Long> sorted(Map<K, LongAdder> counters) {
+    var result = new TreeMap<K, Long>();
+    counters.forEach((key, counter) -> {
+      long value = counter.sum();
+      if (value != 0) {
+        result.put(key, value);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * One generation of counters, replaced as a whole on reconciliation.
+   */
+  private static final class Counts {
+
+    private final LongAdder total = new LongAdder();
+    private final Map<ErezeptStatus, LongAdder> byStatus = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> byPractitioner = new ConcurrentHashMap<>();
+    private final Map<LocalDate, LongAdder> byDay = new ConcurrentHashMap<>();
+    private int practitionerLimit;
+
+    Counts(int practitionerLimit) {
+      this.practitionerLimit = practitionerLimit;
+    }
+
+    void add(Erezept prescription, long delta) {
+      total.add(delta);
+      if (prescription.getStatus() != null) {
+        byStatus.computeIfAbsent(prescription.getStatus(), key -> new LongAdder()).add(delta);
+      }
+      if (prescription.getPractitionerId() != null) {
+        LongAdder counter = byPractitioner.get(prescription.getPractitionerId());
+        if (counter == null && byPractitioner.size() < practitionerLimit) {
+          counter = byPractitioner.computeIfAbsent(prescription.getPractitionerId(), key -> new LongAdder());
+        }
+        if (counter != null) {
+          counter.add(delta);
+        }
+      }
+      if (prescription.getIssuedAt() != null) {
+        LocalDate day = prescription.getIssuedAt().atZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+        byDay.computeIfAbsent(day, key -> new LongAdder()).add(delta);
+      }
+    }
+
+    void retainDaysFrom(LocalDate first) {
+      byDay.keySet().removeIf(day -> day.isBefore(first));
+    }
+
+    /**
+     * Keep the practitioners with the most prescriptions and admit new ones only up to the limit.
+     * Called before the counts are published.
+     */
+    void retainLargestPractitioners(int limit) {
+      practitionerLimit = limit;
+      if (byPractitioner.size() <= limit) {
+        return;
+      }
+      var kept = byPractitioner.entrySet().stream()
+          .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> entry) -> entry.getValue().sum()).reversed())
+          .limit(limit)
+          .map(Map.Entry::getKey)
+          .collect(Collectors.toSet());
+      byPractitioner.keySet().retainAll(kept);
+    }
+  }
+}
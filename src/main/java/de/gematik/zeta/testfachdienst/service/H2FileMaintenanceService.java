@@ -0,0 +1,181 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.service;
+
+import de.gematik.zeta.testfachdienst.config.H2FileProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+import lombok.extern.slf4j.Slf4j;
+import org.jobrunr.scheduling.JobScheduler;
+import org.jobrunr.scheduling.RecurringJobBuilder;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintenance of the file-backed H2 database, active with the {@code h2-file} profile.
+ *
+ * <p>A recurring Jobrunr job forces a synchronous checkpoint so that the MVStore writes its
+ * pending changes, releases unused chunks and lets its background compaction rewrite sparse
+ * chunks (see {@code AUTO_COMPACT_FILL_RATE} in the datasource URL). A full compaction runs when
+ * the database is closed on shutdown, bounded by {@code MAX_COMPACT_TIME}.</p>
+ *
+ * <p>The outcome of the last checkpoint is kept for the {@code h2File} health indicator, so a
+ * database that can no longer write its file is taken out of the readiness group.</p>
+ */
+@Service
+@Profile("h2-file")
+@Slf4j
+public class H2FileMaintenanceService {
+
+  private static final String JOB_ID = "h2-file-maintenance";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final H2FileProperties properties;
+  private final Timer checkpointDuration;
+  private final Counter checkpointFailures;
+  private volatile CheckpointResult lastCheckpoint;
+
+  /**
+   * Creates the maintenance service and schedules its recurring job.
+   *
+   * @param jdbcTemplate  template used to issue maintenance statements
+   * @param properties    file mode configuration
+   * @param jobScheduler  scheduler used to register the recurring job
+   * @param meterRegistry registry receiving the maintenance metrics
+   */
+  public H2FileMaintenanceService(
+      JdbcTemplate jdbcTemplate,
+      H2FileProperties properties,
+      JobScheduler jobScheduler,
+      MeterRegistry meterRegistry) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.properties = properties;
+    this.checkpointDuration = Timer.builder("erezept.h2.checkpoint")
+        .description("Duration of H2 maintenance checkpoints")
+        .register(meterRegistry);
+    this.checkpointFailures = Counter.builder("erezept.h2.checkpoint.failures")
+        .description("H2 maintenance checkpoints that failed")
+        .register(meterRegistry);
+    Gauge.builder("erezept.h2.file.size", this, H2FileMaintenanceService::databaseFileSize)
+        .description("Size of the H2 database file")
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    jobScheduler.createRecurrently(
+        RecurringJobBuilder.aRecurringJob()
+          .withId(JOB_ID)
+          .withInterval(Duration.of(properties.getMaintenanceIntervalSeconds(), ChronoUnit.SECONDS))
+          .withDetails(this::checkpoint)
+    );
+  }
+
+  /**
+   * Job entry point that flushes the MVStore and lets it reclaim free space.
+   *
+   * <p>A failure is recorded for the health indicator and rethrown so Jobrunr reports the job as
+   * failed.</p>
+   */
+  public void checkpoint() {
+    long before = databaseFileSize();
+    try {
+      checkpointDuration.record(() -> jdbcTemplate.execute("CHECKPOINT SYNC"));
+    } catch (RuntimeException ex) {
+      checkpointFailures.increment();
+      lastCheckpoint = new CheckpointResult(OffsetDateTime.now(),
+          Objects.toString(ex.getMessage(), ex.getClass().getName()));
+      log.error("H2 checkpoint failed", ex);
+      throw ex;
+    }
+    lastCheckpoint = new CheckpointResult(OffsetDateTime.now(), null);
+    log.info("H2 checkpoint finished; database file size {} -> {} bytes", before, databaseFileSize());
+  }
+
+  /**
+   * Outcome of the most recent checkpoint.
+   *
+   * @return last checkpoint result, {@code null} before the first checkpoint
+   */
+  public CheckpointResult lastCheckpoint() {
+    return lastCheckpoint;
+  }
+
+  /**
+   * Minimum usable space that must remain on the file system of the database file.
+   *
+   * @return minimum free space in bytes
+   */
+  public long minFreeDiskBytes() {
+    return properties.getMinFreeDiskBytes();
+  }
+
+  /**
+   * Location of the MVStore file backing the database.
+   *
+   * @return path of the {@code .mv.db} file
+   */
+  public Path databaseFile() {
+    return Path.of(properties.getPath() + ".mv.db");
+  }
+
+  /**
+   * Current size of the MVStore file.
+   *
+   * @return file size in bytes, {@code -1} when the file does not exist
+   */
+  public long databaseFileSize() {
+    try {
+      return Files.size(databaseFile());
+    } catch (IOException ex) {
+      return -1;
+    }
+  }
+
+  /**
+   * Outcome of a checkpoint.
+   *
+   * @param finishedAt when the checkpoint finished
+   * @param error      failure message, {@code null} when the checkpoint succeeded
+   */
+  public record CheckpointResult(OffsetDateTime finishedAt, String error) {
+
+    /**
+     * Whether the checkpoint failed.
+     *
+     * @return {@code true} if the checkpoint failed
+     */
+    public boolean failed() {
+      return error != null;
+    }
+  }
+}
@@ -25,8 +25,10 @@
 package de.gematik.zeta.testfachdienst.service;
 
 import de.gematik.zeta.testfachdienst.config.SelfDisclosureExportConfig;
+import de.gematik.zeta.testfachdienst.jfr.OtlpExportEvent;
 import io.opentelemetry.exporter.otlp.http.logs.OtlpHttpLogRecordExporter;
 import io.opentelemetry.exporter.otlp.logs.OtlpGrpcLogRecordExporter;
+import io.opentelemetry.sdk.common.CompletableResultCode;
 import io.opentelemetry.sdk.logs.data.LogRecordData;
 import io.opentelemetry.sdk.logs.export.LogRecordExporter;
 import java.util.Collections;
@@ -37,6 +39,9 @@ import org.springframework.stereotype.Service;
 
 /**
  * Export service that handles an OTLP conformant log record export.
+ *
+ * <p>Each export is emitted as JFR {@link OtlpExportEvent} lasting until the exporter reports
+ * its result.</p>
  */
 @Service
 @Slf4j
@@ -135,11 +140,34 @@ public class SelfDisclosureExportService {
       log.debug("OTLP export disabled; skipping self disclosure export");
       return;
     }
-    if (logExporter == null) {
-      logExporter = setupLogExporter(config);
-    }
+    var event = new OtlpExportEvent();
+    event.begin();
     LogRecordData logRecord = selfDisclosureService.generateSelfDisclosureRecord();
-    logExporter.export(Collections.singletonList(logRecord));
+    CompletableResultCode result = exporter().export(Collections.singletonList(logRecord));
+    if (event.isEnabled() && result != null) {
+      event.protocol = config.isGrpcExportEnabled() ? "gRPC" : "HTTP";
+      event.records = 1;
+      result.whenComplete(() -> {
+        event.success = result.isSuccess();
+        event.commit();
+      });
+    }
+  }
+
+  /**
+   * Create the configured OTLP exporter ahead of the first export.
+   *
+   * <p>Used by the warm-up so that the first scheduled export does not pay for building the
+   * exporter and its transport. Nothing is exported.</p>
+   *
+   * @return {@code true} if an exporter is ready, {@code false} if OTLP export is disabled
+   */
+  public boolean initializeExporter() {
+    if (!config.isHttpExportEnabled() && !config.isGrpcExportEnabled()) {
+      return false;
+    }
+    exporter();
+    return true;
   }
 
   /**
@@ -151,6 +179,13 @@ public class SelfDisclosureExportService {
     return config.getIntervalSeconds();
   }
 
+  private synchronized LogRecordExporter exporter() {
+    if (logExporter == null) {
+      logExporter = setupLogExporter(config);
+    }
+    return logExporter;
+  }
+
   /**
    * Factory abstraction to create OTLP log exporters for different transports.
    */
@@ -0,0 +1,63 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.warmup;
+
+import java.util.List;
+
+/**
+ * Prescriptions preloaded by the warm-up whose identifiers are used by the REST and STOMP
+ * requests.
+ *
+ * <p>Without stored prescriptions the requests use identifiers that do not exist and exercise
+ * the not-found paths instead.</p>
+ *
+ * @param ids             primary keys of the preloaded prescriptions
+ * @param prescriptionIds business identifiers of the preloaded prescriptions
+ */
+record HotRows(List<Long> ids, List<String> prescriptionIds) {
+
+  private static final long UNKNOWN_ID = 0L;
+  private static final String UNKNOWN_PRESCRIPTION_ID = "WARMUP-UNKNOWN";
+
+  /**
+   * Pick the primary key for the given request.
+   *
+   * @param index number of the request
+   * @return preloaded primary key, cycling through all of them
+   */
+  long id(int index) {
+    return ids.isEmpty() ? UNKNOWN_ID : ids.get(index % ids.size());
+  }
+
+  /**
+   * Pick the business identifier for the given request.
+   *
+   * @param index number of the request
+   * @return preloaded business identifier, cycling through all of them
+   */
+  String prescriptionId(int index) {
+    return prescriptionIds.isEmpty() ? UNKNOWN_PRESCRIPTION_ID : prescriptionIds.get(index % prescriptionIds.size());
+  }
+}
@@ -0,0 +1,159 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.warmup;
+
+import de.gematik.zeta.testfachdienst.config.ContextPaths;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.boot.web.server.Ssl;
+import org.springframework.boot.web.server.WebServerSslBundle;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Sends the hot REST requests to the application itself over the loopback interface.
+ *
+ * <p>The requests pass the whole servlet stack: TLS, filters, security, controllers, validation,
+ * JSON serialization and the store. Only reading requests and a create request failing validation
+ * are sent, so no data is changed. With TLS enabled the server certificate is checked against the
+ * server's own key store and only the dialed loopback host is accepted.</p>
+ */
+@Component
+@Slf4j
+class RestWarmup {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+  private static final String INVALID_PRESCRIPTION = "{}";
+
+  private final ServerProperties server;
+  private final SslBundles sslBundles;
+  private final Environment environment;
+
+  RestWarmup(ServerProperties server, SslBundles sslBundles, Environment environment) {
+    this.server = server;
+    this.sslBundles = sslBundles;
+    this.environment = environment;
+  }
+
+  /**
+   * Send each hot request once per iteration; stops early when the thread is interrupted.
+   *
+   * @param hot        preloaded prescriptions to read
+   * @param iterations number of rounds
+   * @return number of requests answered with a server error
+   * @throws GeneralSecurityException if the server key store cannot be used as trust store
+   */
+  int run(HotRows hot, int iterations) throws GeneralSecurityException {
+    RestClient client = client();
+    int serverErrors = 0;
+    for (int i = 0; i < iterations && !Thread.currentThread().isInterrupted(); i++) {
+      serverErrors += serverError(client.get().uri("/hellozeta"));
+      serverErrors += serverError(client.get().uri("/api/erezept/{id}", hot.id(i)));
+      serverErrors += serverError(client.get().uri("/api/erezept/by-prescription/{prescriptionId}", hot.prescriptionId(i)));
+      serverErrors += serverError(client.get().uri("/api/erezept?page={page}&size={size}", 0, 20));
+      serverErrors += serverError(client.get().uri("/api/erezept/stats"));
+      serverErrors += serverError(client.post().uri("/api/erezept")
+          .contentType(MediaType.APPLICATION_JSON)
+          .body(INVALID_PRESCRIPTION));
+    }
+    return serverErrors;
+  }
+
+  private RestClient client() throws GeneralSecurityException {
+    InetAddress address = server.getAddress();
+    String host = address == null || address.isAnyLocalAddress() ? "localhost" : address.getHostAddress();
+    int port = environment.getRequiredProperty("local.server.port", Integer.class);
+    String contextPath = ContextPaths.normalize(server.getServlet().getContextPath());
+    Ssl ssl = server.getSsl();
+    SSLContext sslContext = Ssl.isEnabled(ssl) ? sslContext(ssl) : null;
+    String scheme = sslContext != null ? "https" : "http";
+    return RestClient.builder()
+        .baseUrl(scheme + "://" + host + ":" + port + contextPath)
+        .defaultHeader(WarmupTraffic.HEADER, WarmupTraffic.TOKEN)
+        .requestFactory(new LoopbackRequestFactory(sslContext, host))
+        .build();
+  }
+
+  private SSLContext sslContext(Ssl ssl) throws GeneralSecurityException {
+    TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+    trustManagers.init(WebServerSslBundle.get(ssl, sslBundles).getStores().getKeyStore());
+    SSLContext sslContext = SSLContext.getInstance("TLS");
+    sslContext.init(null, trustManagers.getTrustManagers(), null);
+    return sslContext;
+  }
+
+  private static int serverError(RestClient.RequestHeadersSpec<?> request) {
+    int status = request.exchange((clientRequest, response) -> {
+      try (InputStream body = response.getBody()) {
+        body.transferTo(OutputStream.nullOutputStream());
+      }
+      return response.getStatusCode().value();
+    });
+    if (status >= 500) {
+      log.debug("Warm-up request answered with HTTP {}", status);
+      return 1;
+    }
+    return 0;
+  }
+
+  /**
+   * Request factory trusting the server's own certificate for the dialed loopback host only.
+   */
+  private static final class LoopbackRequestFactory extends SimpleClientHttpRequestFactory {
+
+    private final SSLContext sslContext;
+    private final String host;
+
+    LoopbackRequestFactory(SSLContext sslContext, String host) {
+      this.sslContext = sslContext;
+      this.host = host;
+      setConnectTimeout(TIMEOUT);
+      setReadTimeout(TIMEOUT);
+    }
+
+    @Override
+    protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+      super.prepareConnection(connection, httpMethod);
+      if (sslContext != null && connection instanceof HttpsURLConnection https) {
+        https.setSSLSocketFactory(sslContext.getSocketFactory());
+        https.setHostnameVerifier((hostname, session) -> host.equals(hostname));
+      }
+    }
+  }
+}
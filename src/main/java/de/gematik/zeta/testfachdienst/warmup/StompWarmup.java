@@ -0,0 +1,118 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.warmup;
+
+import de.gematik.zeta.testfachdienst.config.ContextPaths;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Sends SEND frames of a pseudo session into the client inbound channel.
+ *
+ * <p>The frames take the same route as frames of a WebSocket client after decoding: channel
+ * interceptors, the inbound executor, argument resolution and validation, the
+ * {@code @MessageMapping} handlers, the exception handler and the user destination reply. Only
+ * reads and a create frame failing validation are sent, so no data is changed. The replies go to
+ * the user queue of the pseudo session, which has no subscribers.</p>
+ */
+@Component
+class StompWarmup {
+
+  static final String SESSION_ID = WarmupTraffic.STOMP_SESSION_ID;
+  private static final byte[] EMPTY = new byte[0];
+  private static final byte[] INVALID_PRESCRIPTION = "{}".getBytes(StandardCharsets.UTF_8);
+  private static final Duration IDLE_TIMEOUT = Duration.ofSeconds(10);
+  private static final Duration IDLE_POLL_INTERVAL = Duration.ofMillis(5);
+
+  private final MessageChannel inbound;
+  private final ThreadPoolTaskExecutor inboundExecutor;
+  private final String applicationPrefix;
+
+  StompWarmup(
+      @Qualifier("clientInboundChannel") MessageChannel inbound,
+      @Qualifier("clientInboundChannelExecutor") ThreadPoolTaskExecutor inboundExecutor,
+      @Value("${server.servlet.context-path:}") String contextPath) {
+    this.inbound = inbound;
+    this.inboundExecutor = inboundExecutor;
+    this.applicationPrefix = ContextPaths.prefix(contextPath, "/app/");
+  }
+
+  /**
+   * Send each hot frame once per iteration and wait for the inbound executor after each round;
+   * stops early when the thread is interrupted.
+   *
+   * @param hot        preloaded prescriptions to read
+   * @param iterations number of rounds
+   * @throws InterruptedException if interrupted while waiting for the inbound executor
+   */
+  void run(HotRows hot, int iterations) throws InterruptedException {
+    for (int i = 0; i < iterations && !Thread.currentThread().isInterrupted(); i++) {
+      inbound.send(frame("erezept.read." + hot.id(i), EMPTY, null));
+      inbound.send(frame("erezept.create", INVALID_PRESCRIPTION, MimeTypeUtils.APPLICATION_JSON));
+      awaitIdle();
+    }
+  }
+
+  /**
+   * Build a SEND frame of the pseudo session.
+   *
+   * @param destination application destination without prefix
+   * @param payload     frame body
+   * @param contentType content type of the body, if any
+   * @return decoded STOMP frame
+   */
+  Message<byte[]> frame(String destination, byte[] payload, @Nullable MimeType contentType) {
+    StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SEND);
+    accessor.setDestination(applicationPrefix + destination);
+    accessor.setSessionId(SESSION_ID);
+    accessor.setSessionAttributes(new ConcurrentHashMap<>());
+    if (contentType != null) {
+      accessor.setContentType(contentType);
+    }
+    return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+  }
+
+  private void awaitIdle() throws InterruptedException {
+    ThreadPoolExecutor executor = inboundExecutor.getThreadPoolExecutor();
+    long deadline = System.nanoTime() + IDLE_TIMEOUT.toNanos();
+    while ((executor.getActiveCount() > 0 || !executor.getQueue().isEmpty()) && System.nanoTime() < deadline) {
+      Thread.sleep(IDLE_POLL_INTERVAL);
+    }
+  }
+}
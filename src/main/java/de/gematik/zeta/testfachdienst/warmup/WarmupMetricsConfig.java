@@ -0,0 +1,52 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.warmup;
+
+import io.micrometer.observation.ObservationPredicate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+/**
+ * Leaves the warm-up requests out of {@code http.server.requests}.
+ *
+ * <p>The warm-up sends a create request failing validation on purpose; recorded, it would show up
+ * as client errors and distort latencies right after every start. STOMP frames of the warm-up are
+ * skipped by {@code StompMetricsInterceptor}.</p>
+ */
+@Configuration
+class WarmupMetricsConfig {
+
+  /**
+   * Skip observations of server requests sent by the warm-up.
+   *
+   * @return predicate rejecting warm-up requests
+   */
+  @Bean
+  ObservationPredicate warmupRequestsNotObserved() {
+    return (name, context) -> !(context instanceof ServerRequestObservationContext request
+        && WarmupTraffic.isWarmup(request.getCarrier()));
+  }
+}
@@ -0,0 +1,198 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.warmup;
+
+import de.gematik.zeta.testfachdienst.config.WarmupProperties;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.service.ErezeptService;
+import de.gematik.zeta.testfachdienst.service.SelfDisclosureExportService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Warms up the application after the web server has started and before it reports readiness.
+ *
+ * <p>Spring Boot switches the readiness state to {@code ACCEPTING_TRAFFIC} only after all
+ * application runners have returned, so the {@code readinessState} indicator of the readiness
+ * group answers {@code OUT_OF_SERVICE} while this runner works; liveness is already
+ * {@code CORRECT}. The warm-up</p>
+ * <ol>
+ *   <li>reads the first {@code erezept.warmup.preloadRows} prescriptions page by page and looks
+ *       each up by id and by prescription id,</li>
+ *   <li>creates the OTLP exporter of the self disclosure export if export is enabled,</li>
+ *   <li>sends the hot REST requests over the loopback interface, see {@link RestWarmup},</li>
+ *   <li>sends the hot STOMP frames into the inbound channel, see {@link StompWarmup}.</li>
+ * </ol>
+ *
+ * <p>The runner is always registered and checks {@code erezept.warmup.enabled} when it runs, so
+ * the setting also applies to AOT-processed and native images.</p>
+ *
+ * <p>No data is changed. The work runs on its own thread and is interrupted after
+ * {@code erezept.warmup.timeoutSeconds}; a timeout or failure is logged and never prevents the
+ * startup. The duration is recorded as {@code erezept.warmup.duration} with the outcome as tag.</p>
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@Slf4j
+public class WarmupRunner implements ApplicationRunner {
+
+  private static final int PAGE_SIZE = 100;
+
+  private final WarmupProperties properties;
+  private final ErezeptService service;
+  private final SelfDisclosureExportService exportService;
+  private final RestWarmup rest;
+  private final StompWarmup stomp;
+  private final ApplicationEventPublisher publisher;
+  private final MeterRegistry registry;
+
+  /**
+   * Creates the runner.
+   *
+   * @param properties    warm-up settings
+   * @param service       prescription service used to preload rows
+   * @param exportService self disclosure export whose exporter is created ahead of time
+   * @param rest          loopback REST requests
+   * @param stomp         inbound STOMP frames
+   * @param publisher     publisher of the readiness state
+   * @param registry      registry receiving the warm-up duration
+   */
+  WarmupRunner(WarmupProperties properties, ErezeptService service, SelfDisclosureExportService exportService,
+      RestWarmup rest, StompWarmup stomp, ApplicationEventPublisher publisher, MeterRegistry registry) {
+    this.properties = properties;
+    this.service = service;
+    this.exportService = exportService;
+    this.rest = rest;
+    this.stomp = stomp;
+    this.publisher = publisher;
+    this.registry = registry;
+  }
+
+  /**
+   * Refuse traffic and warm up if enabled, waiting at most {@code erezept.warmup.timeoutSeconds}.
+   *
+   * @param args application arguments, unused
+   */
+  @Override
+  public void run(ApplicationArguments args) {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    AvailabilityChangeEvent.publish(publisher, this, ReadinessState.REFUSING_TRAFFIC);
+    log.info("Warm-up started, readiness is held for at most {} s", properties.getTimeoutSeconds());
+    long startedAt = System.nanoTime();
+    ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "warmup"));
+    Future<?> work = executor.submit(() -> {
+      warmUp();
+      return null;
+    });
+    String outcome;
+    try {
+      work.get(properties.getTimeoutSeconds(), TimeUnit.SECONDS);
+      outcome = "completed";
+    } catch (TimeoutException ex) {
+      work.cancel(true);
+      outcome = "timeout";
+      log.warn("Warm-up did not finish within {} s, accepting traffic anyway", properties.getTimeoutSeconds());
+    } catch (ExecutionException ex) {
+      outcome = "failed";
+      log.warn("Warm-up failed, accepting traffic anyway", ex.getCause());
+    } catch (InterruptedException ex) {
+      work.cancel(true);
+      Thread.currentThread().interrupt();
+      outcome = "interrupted";
+    } finally {
+      executor.shutdownNow();
+    }
+    Duration duration = Duration.ofNanos(System.nanoTime() - startedAt);
+    Timer.builder("erezept.warmup.duration")
+        .description("Duration of the warm-up before readiness")
+        .tag("outcome", outcome)
+        .register(registry)
+        .record(duration);
+    log.info("Warm-up {} after {} ms", outcome, duration.toMillis());
+  }
+
+  private void warmUp() throws InterruptedException {
+    HotRows hot = preload();
+    log.info("Warm-up preloaded {} prescriptions", hot.ids().size());
+    if (exportService.initializeExporter()) {
+      log.info("Warm-up initialized the OTLP exporter");
+    }
+    try {
+      int serverErrors = rest.run(hot, properties.getIterations());
+      if (serverErrors > 0) {
+        log.warn("Warm-up REST requests answered {} times with a server error", serverErrors);
+      }
+    } catch (RestClientException | GeneralSecurityException ex) {
+      log.warn("Warm-up REST requests failed, continuing with STOMP: {}", ex.getMessage());
+    }
+    stomp.run(hot, properties.getIterations());
+  }
+
+  private HotRows preload() {
+    List<Long> ids = new ArrayList<>();
+    List<String> prescriptionIds = new ArrayList<>();
+    int page = 0;
+    while (ids.size() < properties.getPreloadRows() && !Thread.currentThread().isInterrupted()) {
+      List<Erezept> rows = service.findPage(page++, PAGE_SIZE);
+      for (Erezept row : rows) {
+        if (ids.size() == properties.getPreloadRows()) {
+          break;
+        }
+        service.findById(row.getId());
+        ids.add(row.getId());
+        if (row.getPrescriptionId() != null) {
+          service.findByPrescriptionId(row.getPrescriptionId());
+          prescriptionIds.add(row.getPrescriptionId());
+        }
+      }
+      if (rows.size() < PAGE_SIZE) {
+        break;
+      }
+    }
+    return new HotRows(ids, prescriptionIds);
+  }
+}
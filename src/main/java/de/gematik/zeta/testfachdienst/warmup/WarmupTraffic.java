@@ -0,0 +1,67 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.warmup;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.UUID;
+import org.springframework.lang.Nullable;
+
+/**
+ * Marks the REST requests and STOMP frames sent by the warm-up, so they can be left out of the
+ * request and error metrics.
+ *
+ * <p>REST requests carry {@value #HEADER} with a token generated per process, so clients cannot
+ * hide their traffic by sending the header. STOMP frames use the pseudo session
+ * {@value #STOMP_SESSION_ID}; ids of real sessions are generated by the WebSocket server.</p>
+ */
+public final class WarmupTraffic {
+
+  public static final String STOMP_SESSION_ID = "warmup";
+  static final String HEADER = "X-Warmup-Token";
+  static final String TOKEN = UUID.randomUUID().toString();
+
+  private WarmupTraffic() {
+  }
+
+  /**
+   * Check whether a request was sent by {@link RestWarmup}.
+   *
+   * @param request incoming request
+   * @return {@code true} when the request carries the warm-up token
+   */
+  public static boolean isWarmup(HttpServletRequest request) {
+    return TOKEN.equals(request.getHeader(HEADER));
+  }
+
+  /**
+   * Check whether a STOMP frame belongs to the pseudo session of {@link StompWarmup}.
+   *
+   * @param sessionId session id of the frame
+   * @return {@code true} for the warm-up session
+   */
+  public static boolean isWarmupSession(@Nullable String sessionId) {
+    return STOMP_SESSION_ID.equals(sessionId);
+  }
+}
@@ -0,0 +1,87 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.ws;
+
+import de.gematik.zeta.testfachdienst.config.ContextPaths;
+import de.gematik.zeta.testfachdienst.jfr.BroadcastEvent;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes prescription state changes to the shared STOMP broadcast topic.
+ *
+ * <p>Used by the STOMP controller and by background jobs so that every producer resolves the
+ * topic destination, including an optional servlet context path, the same way.</p>
+ */
+@Component
+public class ErezeptBroadcaster {
+
+  private static final String EREZEPT_TOPIC_SUFFIX = "/erezept";
+
+  private final SimpMessagingTemplate broker;
+  private final String contextPath;
+
+  /**
+   * Create a broadcaster bound to the application's message broker.
+   *
+   * @param broker      messaging template used to publish to the simple broker
+   * @param contextPath optional servlet context path prefix
+   */
+  public ErezeptBroadcaster(
+      SimpMessagingTemplate broker,
+      @Value("${server.servlet.context-path:}") String contextPath) {
+    this.broker = broker;
+    this.contextPath = contextPath;
+  }
+
+  /**
+   * Send the given prescription to all subscribers of the broadcast topic.
+   *
+   * @param prescription prescription state to publish
+   */
+  public void broadcast(Erezept prescription) {
+    var event = new BroadcastEvent();
+    event.begin();
+    String destination = topic();
+    broker.convertAndSend(destination, prescription);
+    if (event.shouldCommit()) {
+      event.destination = destination;
+      event.id = prescription.getId() != null ? prescription.getId() : -1;
+      event.prescriptionId = prescription.getPrescriptionId();
+      event.commit();
+    }
+  }
+
+  /**
+   * Build the broker topic destination, respecting an optional servlet context path.
+   *
+   * @return topic destination string such as {@code /topic/erezept} or with context prefix
+   */
+  public String topic() {
+    return ContextPaths.prefix(contextPath, "/topic" + EREZEPT_TOPIC_SUFFIX);
+  }
+}
@@ -25,18 +25,17 @@
 package de.gematik.zeta.testfachdienst.ws;
 
 import de.gematik.zeta.testfachdienst.model.Erezept;
-import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import de.gematik.zeta.testfachdienst.service.DuplicateErezeptException;
+import de.gematik.zeta.testfachdienst.service.ErezeptArchivedException;
 import de.gematik.zeta.testfachdienst.service.ErezeptService;
 import jakarta.validation.Valid;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.server.ResponseStatusException;
@@ -70,12 +69,8 @@ import org.springframework.web.server.ResponseStatusException;
 @SuppressWarnings("unused") // invoked via STOMP @MessageMapping endpoints
 public class ErezeptWsController {
 
-  private static final String EREZEPT_TOPIC_SUFFIX = "/erezept";
-
   private final ErezeptService service;
-  private final SimpMessagingTemplate broker;
-  @Value("${server.servlet.context-path:}")
-  private String contextPath;
+  private final ErezeptBroadcaster broadcaster;
 
   /**
    * Create a new prescription and broadcast it to all subscribers on /topic/erezept.
@@ -87,7 +82,8 @@ public class ErezeptWsController {
    * </ul>
    *
    * <p>On success, sets {@code status=CREATED}, persists with the provided values,
-   * then broadcasts the created entity.</p>
+   * then broadcasts the created entity. Checks and insert run in one transaction in
+   * {@link ErezeptService#createUnique(Erezept)}.</p>
    *
    * @param request new prescription payload
    */
@@ -96,36 +92,11 @@ public class ErezeptWsController {
   public Erezept create(@Payload @Valid Erezept request) {
     log.info("STOMP erezept.create request received for prescriptionId={}",
         request.getPrescriptionId());
-    if (request.getId() != null && service.existsById(request.getId())) {
-      throw new ResponseStatusException(
-          HttpStatus.CONFLICT,
-          "ERezept with id=%d already exists".formatted(request.getId()));
-    }
-    if (request.getPrescriptionId() != null && service.existsByPrescriptionId(
-        request.getPrescriptionId())) {
-      throw new ResponseStatusException(
-          HttpStatus.CONFLICT,
-          "ERezept with prescriptionId=%s already exists".formatted(request.getPrescriptionId()));
-    }
-
-    var toSave = Erezept.builder()
-        .id(null) // let the DB generate it
-        .medicationName(request.getMedicationName())
-        .dosage(request.getDosage())
-        .issuedAt(request.getIssuedAt())
-        .expiresAt(request.getExpiresAt())
-        .patientId(request.getPatientId())
-        .practitionerId(request.getPractitionerId())
-        .prescriptionId(request.getPrescriptionId())
-        .status(ErezeptStatus.CREATED)
-        .build();
+    var created = service.createUnique(request);
 
-    var created = service.save(toSave);
-
-    var broadcastDestination = brokerTopic();
     log.info("STOMP erezept.create persisted id={}, broadcasting to {}", created.getId(),
-        broadcastDestination);
-    broker.convertAndSend(broadcastDestination, created);
+        broadcaster.topic());
+    broadcaster.broadcast(created);
     return created;
   }
 
@@ -166,41 +137,21 @@ public class ErezeptWsController {
    *
    * @param id      identifier of the prescription to update
    * @param request new values (validated)
+   * @throws ResponseStatusException   404 if not found
+   * @throws ErezeptArchivedException  if the prescription is archived
+   * @throws DuplicateErezeptException if the new business identifier is already taken
    */
   @MessageMapping("erezept.update.{id}")
   @SendToUser("/queue/erezept")
   public Erezept update(@DestinationVariable Long id, @Payload @Valid Erezept request) {
     log.info("STOMP erezept.update request received for id={}", id);
-    var existing = service.findById(id)
+    var saved = service.replace(id, request)
         .orElseThrow(() -> new ResponseStatusException(
             HttpStatus.NOT_FOUND, "ERezept with id=%d not found".formatted(id)));
 
-    if (request.getPrescriptionId() != null
-        && !request.getPrescriptionId().equals(existing.getPrescriptionId())
-        && service.existsByPrescriptionId(request.getPrescriptionId())) {
-      throw new ResponseStatusException(
-          HttpStatus.CONFLICT,
-          "ERezept with prescriptionId=%s already exists".formatted(request.getPrescriptionId()));
-    }
-
-    var updated = Erezept.builder()
-        .id(existing.getId())
-        .medicationName(request.getMedicationName())
-        .dosage(request.getDosage())
-        .issuedAt(existing.getIssuedAt())        // preserve original issue date
-        .expiresAt(request.getExpiresAt())
-        .patientId(request.getPatientId())
-        .practitionerId(request.getPractitionerId())
-        .prescriptionId(request.getPrescriptionId())
-        .status(request.getStatus() != null ? request.getStatus() : existing.getStatus())
-        .build();
-
-    var saved = service.save(updated);
-
-    var broadcastDestination = brokerTopic();
-    log.info("STOMP erezept.update persisted id={}, broadcasting to {}", updated.getId(),
-        broadcastDestination);
-    broker.convertAndSend(broadcastDestination, saved);
+    log.info("STOMP erezept.update persisted id={}, broadcasting to {}", saved.getId(),
+        broadcaster.topic());
+    broadcaster.broadcast(saved);
     return saved;
   }
 
@@ -211,36 +162,18 @@ public class ErezeptWsController {
    *
    * @param id identifier of the prescription to delete
    * @return confirmation object with id and status
-   * @throws ResponseStatusException 404 if not found
+   * @throws ResponseStatusException  404 if not found
+   * @throws ErezeptArchivedException if the prescription is archived
    */
   @MessageMapping("erezept.delete.{id}")
   @SendToUser("/queue/erezept")
   public java.util.Map<String, Object> delete(@DestinationVariable Long id) {
     log.info("STOMP erezept.delete request received for id={}", id);
-    if (!service.existsById(id)) {
+    if (!service.deleteIfExists(id)) {
       throw new ResponseStatusException(
           HttpStatus.NOT_FOUND, "ERezept with id=%d not found".formatted(id));
     }
-    service.deleteById(id);
     log.info("STOMP erezept.delete removed id={}", id);
     return java.util.Map.of("id", id, "status", "deleted");
   }
-
-  /**
-   * Build the broker topic destination, respecting an optional servlet context path.
-   *
-   * @return topic destination string such as {@code /topic/erezept} or with context prefix
-   */
-  private String brokerTopic() {
-    var destination = "/topic" + EREZEPT_TOPIC_SUFFIX;
-    if (contextPath == null || contextPath.isBlank()) {
-      return destination;
-    }
-
-    String normalizedContext = contextPath.startsWith("/") ? contextPath : "/" + contextPath;
-    if (normalizedContext.endsWith("/")) {
-      normalizedContext = normalizedContext.substring(0, normalizedContext.length() - 1);
-    }
-    return normalizedContext + destination;
-  }
 }
@@ -24,6 +24,7 @@
 
 package de.gematik.zeta.testfachdienst.ws;
 
+import de.gematik.zeta.testfachdienst.config.ContextPaths;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
@@ -164,10 +165,10 @@ public class StompConfig implements WebSocketMessageBrokerConfigurer {
   /**
    * Check whether a servlet context path is configured.
    *
-   * @return {@code true} when the context path is null or blank
+   * @return {@code true} when the context path is null, blank or the root
    */
   private boolean isContextPathBlank() {
-    return contextPath == null || contextPath.isBlank();
+    return ContextPaths.normalize(contextPath).isEmpty();
   }
 
   /**
@@ -177,14 +178,6 @@ public class StompConfig implements WebSocketMessageBrokerConfigurer {
    * @return destination prefixed with context path when present
    */
   private String withContextPath(String destination) {
-    if (contextPath == null || contextPath.isBlank()) {
-      return destination;
-    }
-
-    String normalizedContext = contextPath.startsWith("/") ? contextPath : "/" + contextPath;
-    if (normalizedContext.endsWith("/")) {
-      normalizedContext = normalizedContext.substring(0, normalizedContext.length() - 1);
-    }
-    return normalizedContext + destination;
+    return ContextPaths.prefix(contextPath, destination);
   }
 }
@@ -0,0 +1,107 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.ws;
+
+import de.gematik.zeta.testfachdienst.ws.StompMetricsInterceptor.Direction;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import java.util.List;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.annotation.support.SimpAnnotationMethodMessageHandler;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+
+/**
+ * Registers {@link StompMetricsInterceptor} on the client inbound and outbound channels.
+ *
+ * <p>Application destinations are tagged with the {@code @MessageMapping} pattern they match, or
+ * {@code other}, so clients cannot create tag values. As a second guard, the number of distinct
+ * destinations per STOMP meter is capped; further destinations are not recorded. SLO buckets are configured
+ * under {@code management.metrics.distribution.slo} in {@code application.yml}.</p>
+ */
+@Configuration
+public class StompMetricsConfig implements WebSocketMessageBrokerConfigurer {
+
+  private static final int MAX_DESTINATIONS = 100;
+
+  private final MeterRegistry registry;
+  private final String contextPath;
+  private final ObjectProvider<SimpAnnotationMethodMessageHandler> handler;
+
+  /**
+   * Creates the configuration.
+   *
+   * @param registry    registry receiving the STOMP meters
+   * @param contextPath optional servlet context path prefixing the destinations
+   * @param handler     handler of the {@code @MessageMapping} methods, looked up on first use
+   */
+  public StompMetricsConfig(
+      MeterRegistry registry,
+      @Value("${server.servlet.context-path:}") String contextPath,
+      ObjectProvider<SimpAnnotationMethodMessageHandler> handler) {
+    this.registry = registry;
+    this.contextPath = contextPath;
+    this.handler = handler;
+  }
+
+  /**
+   * Limit the number of destination tag values of the STOMP meters.
+   *
+   * @return meter filter denying meters beyond the limit
+   */
+  @Bean
+  static MeterFilter stompDestinationLimit() {
+    return MeterFilter.maximumAllowableTags("erezept.stomp", "destination", MAX_DESTINATIONS, MeterFilter.deny());
+  }
+
+  /**
+   * Record inbound frames and handler durations.
+   *
+   * @param registration inbound channel registration
+   */
+  @Override
+  public void configureClientInboundChannel(ChannelRegistration registration) {
+    registration.interceptors(new StompMetricsInterceptor(registry, Direction.INBOUND, contextPath, this::mappingPatterns));
+  }
+
+  /**
+   * Record outbound messages.
+   *
+   * @param registration outbound channel registration
+   */
+  @Override
+  public void configureClientOutboundChannel(ChannelRegistration registration) {
+    registration.interceptors(new StompMetricsInterceptor(registry, Direction.OUTBOUND, contextPath, this::mappingPatterns));
+  }
+
+  private List<String> mappingPatterns() {
+    return handler.getObject().getHandlerMethods().keySet().stream()
+        .flatMap(mapping -> mapping.getDestinationConditions().getPatterns().stream())
+        .toList();
+  }
+}
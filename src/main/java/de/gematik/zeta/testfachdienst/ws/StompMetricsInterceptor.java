@@ -0,0 +1,338 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.ws;
+
+import de.gematik.zeta.testfachdienst.config.ContextPaths;
+import de.gematik.zeta.testfachdienst.jfr.ControllerEvent;
+import de.gematik.zeta.testfachdienst.warmup.WarmupTraffic;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.annotation.support.SimpAnnotationMethodMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+/**
+ * Records Micrometer metrics for STOMP frames on the client inbound or outbound channel.
+ *
+ * <p>Destinations are used as tag in a bounded form. Application destinations are reported as the
+ * {@code @MessageMapping} pattern they match, so {@code /achelos_testfachdienst/app/erezept.read.42}
+ * becomes {@code erezept.read.{id}}; destinations no handler is mapped to, and other destinations
+ * sent by clients, are reported as {@code other}. Outbound destinations are chosen by the server;
+ * they lose the context path, numeric segments become {@code {id}} and the session suffix of
+ * resolved user destinations is dropped. Meters:</p>
+ * <ul>
+ *   <li>{@code erezept.stomp.messages}: payload size of every SEND (inbound) or MESSAGE
+ *       (outbound) frame; its count is the message rate</li>
+ *   <li>{@code erezept.stomp.handler}: duration of {@code @MessageMapping} handlers per
+ *       destination, outcome and status</li>
+ *   <li>{@code erezept.stomp.errors}: handler invocations answered with an error response</li>
+ *   <li>{@code erezept.stomp.sessions} and {@code erezept.stomp.subscriptions}: currently
+ *       connected sessions and their subscriptions (inbound interceptor only)</li>
+ * </ul>
+ *
+ * <p>Handler invocations are also emitted as JFR {@link ControllerEvent} while a recording is
+ * running.</p>
+ */
+public class StompMetricsInterceptor implements ExecutorChannelInterceptor {
+
+  private static final ThreadLocal<Handling> HANDLING = new ThreadLocal<>();
+  private static final Pattern NUMERIC_SEGMENT = Pattern.compile("(?<=[./])\\d+(?=$|[./])");
+  private static final Pattern USER_SESSION_SUFFIX = Pattern.compile("-user[^/]+$");
+  private static final String APPLICATION_PREFIX = "/app/";
+  private static final String OTHER = "other";
+
+  /**
+   * Channel the interceptor is registered on, used as {@code direction} tag.
+   */
+  public enum Direction {
+    INBOUND, OUTBOUND
+  }
+
+  private final MeterRegistry registry;
+  private final Direction direction;
+  private final String contextPath;
+  private final Supplier<? extends Collection<String>> mappingPatterns;
+  private final PathMatcher pathMatcher = new AntPathMatcher();
+  private final Map<String, Set<String>> sessions = new ConcurrentHashMap<>();
+  private volatile List<String> patterns;
+
+  /**
+   * Creates the interceptor and, for the inbound channel, registers the session gauges.
+   *
+   * @param registry        registry receiving the meters
+   * @param direction       channel the interceptor is registered on
+   * @param contextPath     servlet context path that prefixes destinations, may be blank
+   * @param mappingPatterns destination patterns of the {@code @MessageMapping} handlers, resolved
+   *                        on first use
+   */
+  public StompMetricsInterceptor(MeterRegistry registry, Direction direction, String contextPath,
+      Supplier<? extends Collection<String>> mappingPatterns) {
+    this.registry = registry;
+    this.direction = direction;
+    this.contextPath = ContextPaths.normalize(contextPath);
+    this.mappingPatterns = mappingPatterns;
+    if (direction == Direction.INBOUND) {
+      Gauge.builder("erezept.stomp.sessions", sessions, Map::size)
+          .description("Connected STOMP sessions")
+          .register(registry);
+      Gauge.builder("erezept.stomp.subscriptions", sessions,
+              open -> open.values().stream().mapToInt(Set::size).sum())
+          .description("Active STOMP subscriptions over all sessions")
+          .register(registry);
+    }
+  }
+
+  /**
+   * Mark the handler running on the current thread as failed.
+   *
+   * <p>Called by {@link WebSocketExceptionHandler}, which runs on the thread of the failed
+   * handler before {@link #afterMessageHandled} records it.</p>
+   *
+   * @param status status of the error response
+   */
+  static void failed(int status) {
+    Handling handling = HANDLING.get();
+    if (handling != null) {
+      handling.status = status;
+    }
+  }
+
+  /**
+   * Track sessions and subscriptions and record the payload size of message frames.
+   *
+   * @param message STOMP frame
+   * @param channel channel the frame is sent to
+   * @return original message to continue processing
+   */
+  @Override
+  public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+    MessageHeaders headers = message.getHeaders();
+    SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(headers);
+    if (type == null) {
+      return message;
+    }
+    String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+    if (WarmupTraffic.isWarmupSession(sessionId)) {
+      return message;
+    }
+    if (direction == Direction.INBOUND && sessionId != null) {
+      trackSession(type, sessionId, SimpMessageHeaderAccessor.getSubscriptionId(headers));
+    }
+    if (type == SimpMessageType.MESSAGE && message.getPayload() instanceof byte[] payload) {
+      DistributionSummary.builder("erezept.stomp.messages")
+          .description("Payload size of STOMP messages per destination")
+          .baseUnit("bytes")
+          .tag("direction", direction.name().toLowerCase(Locale.ROOT))
+          .tag("destination", destination(headers))
+          .register(registry)
+          .record(payload.length);
+    }
+    return message;
+  }
+
+  /**
+   * Start timing a frame dispatched to the {@code @MessageMapping} handlers.
+   *
+   * @param message STOMP frame
+   * @param channel executor channel
+   * @param handler handler about to process the frame
+   * @return original message to continue processing
+   */
+  @Override
+  public Message<?> beforeHandle(@NonNull Message<?> message, @NonNull MessageChannel channel,
+      @NonNull MessageHandler handler) {
+    MessageHeaders headers = message.getHeaders();
+    if (handler instanceof SimpAnnotationMethodMessageHandler
+        && SimpMessageHeaderAccessor.getMessageType(headers) == SimpMessageType.MESSAGE
+        && !WarmupTraffic.isWarmupSession(SimpMessageHeaderAccessor.getSessionId(headers))
+        && withoutContextPath(SimpMessageHeaderAccessor.getDestination(headers)).startsWith(APPLICATION_PREFIX)) {
+      var handling = new Handling(destination(headers), System.nanoTime());
+      var event = new ControllerEvent();
+      if (event.isEnabled()) {
+        event.begin();
+        event.transport = "STOMP";
+        event.route = handling.destination;
+        event.sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        Matcher id = NUMERIC_SEGMENT.matcher(withoutContextPath(SimpMessageHeaderAccessor.getDestination(headers)));
+        event.resourceId = id.find() ? id.group() : null;
+        handling.event = event;
+      }
+      HANDLING.set(handling);
+    }
+    return message;
+  }
+
+  /**
+   * Record the handler duration together with its outcome.
+   *
+   * @param message STOMP frame
+   * @param channel executor channel
+   * @param handler handler that processed the frame
+   * @param ex      exception not handled by the handler, if any
+   */
+  @Override
+  public void afterMessageHandled(@NonNull Message<?> message, @NonNull MessageChannel channel,
+      @NonNull MessageHandler handler, @Nullable Exception ex) {
+    Handling handling = HANDLING.get();
+    if (handling == null || !(handler instanceof SimpAnnotationMethodMessageHandler)) {
+      return;
+    }
+    HANDLING.remove();
+    int status = ex != null ? 500 : handling.status;
+    String outcome = status >= 500 ? "SERVER_ERROR" : status >= 400 ? "CLIENT_ERROR" : "SUCCESS";
+    Timer.builder("erezept.stomp.handler")
+        .description("Duration of STOMP @MessageMapping handlers")
+        .tag("destination", handling.destination)
+        .tag("outcome", outcome)
+        .tag("status", Integer.toString(status))
+        .register(registry)
+        .record(System.nanoTime() - handling.startedAt, TimeUnit.NANOSECONDS);
+    if (handling.event != null) {
+      handling.event.status = status;
+      handling.event.commit();
+    }
+    if (status >= 400) {
+      Counter.builder("erezept.stomp.errors")
+          .description("STOMP handler invocations answered with an error response")
+          .tag("destination", handling.destination)
+          .tag("status", Integer.toString(status))
+          .register(registry)
+          .increment();
+    }
+  }
+
+  /**
+   * Normalize the destination of a frame for use as a tag.
+   *
+   * @param headers frame headers
+   * @return matching {@code @MessageMapping} pattern for application destinations, normalized
+   *     destination for outbound frames, {@code other} otherwise
+   */
+  String destination(MessageHeaders headers) {
+    Object original = headers.get(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION);
+    String destination = original instanceof String value ? value : SimpMessageHeaderAccessor.getDestination(headers);
+    if (destination == null) {
+      return "none";
+    }
+    destination = withoutContextPath(destination);
+    if (destination.startsWith(APPLICATION_PREFIX)) {
+      return mappingPattern(destination.substring(APPLICATION_PREFIX.length()));
+    }
+    if (direction == Direction.INBOUND) {
+      return OTHER;
+    }
+    destination = USER_SESSION_SUFFIX.matcher(destination).replaceFirst("");
+    return NUMERIC_SEGMENT.matcher(destination).replaceAll("{id}");
+  }
+
+  /**
+   * Find the {@code @MessageMapping} pattern matching a destination below the application prefix.
+   */
+  private String mappingPattern(String lookup) {
+    List<String> known = patterns;
+    if (known == null) {
+      known = mappingPatterns.get().stream()
+          .map(pattern -> pattern.startsWith("/") ? pattern.substring(1) : pattern)
+          .sorted()
+          .toList();
+      patterns = known;
+    }
+    for (String pattern : known) {
+      if (pathMatcher.match(pattern, lookup)) {
+        return pattern;
+      }
+    }
+    return OTHER;
+  }
+
+  private String withoutContextPath(@Nullable String destination) {
+    if (destination == null) {
+      return "";
+    }
+    if (!contextPath.isEmpty() && destination.startsWith(contextPath + "/")) {
+      return destination.substring(contextPath.length());
+    }
+    return destination;
+  }
+
+  private void trackSession(SimpMessageType type, String sessionId, @Nullable String subscriptionId) {
+    switch (type) {
+      case CONNECT -> sessions.putIfAbsent(sessionId, ConcurrentHashMap.newKeySet());
+      case SUBSCRIBE -> {
+        if (subscriptionId != null) {
+          sessions.computeIfAbsent(sessionId, id -> ConcurrentHashMap.newKeySet()).add(subscriptionId);
+        }
+      }
+      case UNSUBSCRIBE -> {
+        Set<String> subscriptions = sessions.get(sessionId);
+        if (subscriptions != null && subscriptionId != null) {
+          subscriptions.remove(subscriptionId);
+        }
+      }
+      case DISCONNECT -> sessions.remove(sessionId);
+      default -> {
+        // other frames do not change sessions or subscriptions
+      }
+    }
+  }
+
+  /**
+   * Handler invocation in progress on the current thread.
+   */
+  private static final class Handling {
+
+    private final String destination;
+    private final long startedAt;
+    private int status = 200;
+    private ControllerEvent event;
+
+    Handling(String destination, long startedAt) {
+      this.destination = destination;
+      this.startedAt = startedAt;
+    }
+  }
+}
@@ -24,6 +24,7 @@
 
 package de.gematik.zeta.testfachdienst.ws;
 
+import de.gematik.zeta.testfachdienst.service.ErezeptConflictException;
 import de.gematik.zeta.testfachdienst.ws.model.WebSocketErrorResponse;
 import java.time.OffsetDateTime;
 import java.util.Map;
@@ -57,6 +58,12 @@ public class WebSocketExceptionHandler {
   @MessageExceptionHandler
   @SendToUser("/queue/erezept")
   public WebSocketErrorResponse handleException(Exception ex) {
+    WebSocketErrorResponse response = toResponse(ex);
+    StompMetricsInterceptor.failed(response.getStatus());
+    return response;
+  }
+
+  private WebSocketErrorResponse toResponse(Exception ex) {
     if (ex instanceof ResponseStatusException rsEx) {
       log.warn("WebSocket error [{}]: {}", rsEx.getStatusCode(), rsEx.getReason());
       return WebSocketErrorResponse.builder()
@@ -66,6 +73,15 @@ public class WebSocketExceptionHandler {
           .build();
     }
 
+    if (ex instanceof ErezeptConflictException conflictEx) {
+      log.warn("WebSocket conflict: {}", conflictEx.getMessage());
+      return WebSocketErrorResponse.builder()
+          .status(409)
+          .message(conflictEx.getMessage())
+          .timestamp(OffsetDateTime.now())
+          .build();
+    }
+
     if (ex instanceof MethodArgumentNotValidException validationEx) {
       log.warn("Validation error: {}", ex.getMessage());
       Map<String, String> errors = validationEx.getBindingResult()
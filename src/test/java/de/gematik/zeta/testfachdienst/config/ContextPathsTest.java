@@ -0,0 +1,56 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ContextPaths}.
+ */
+class ContextPathsTest {
+
+  /**
+   * Missing, blank and root context paths add no prefix.
+   */
+  @Test
+  void normalize_rootIsEmpty() {
+    assertThat(ContextPaths.normalize(null)).isEmpty();
+    assertThat(ContextPaths.normalize(" ")).isEmpty();
+    assertThat(ContextPaths.normalize("/")).isEmpty();
+  }
+
+  /**
+   * Context paths get a leading slash and lose a trailing one.
+   */
+  @Test
+  void normalize_addsLeadingAndDropsTrailingSlash() {
+    assertThat(ContextPaths.normalize("achelos_testfachdienst")).isEqualTo("/achelos_testfachdienst");
+    assertThat(ContextPaths.normalize("/achelos_testfachdienst/")).isEqualTo("/achelos_testfachdienst");
+    assertThat(ContextPaths.prefix("/achelos_testfachdienst/", "/topic")).isEqualTo("/achelos_testfachdienst/topic");
+    assertThat(ContextPaths.prefix("", "/topic")).isEqualTo("/topic");
+  }
+}
@@ -0,0 +1,137 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+import de.gematik.zeta.testfachdienst.service.H2FileMaintenanceService;
+import de.gematik.zeta.testfachdienst.service.H2FileMaintenanceService.CheckpointResult;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Unit tests for {@link H2FileHealthIndicator}.
+ */
+@ExtendWith(MockitoExtension.class)
+class H2FileHealthIndicatorTest {
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+  @Mock
+  private H2FileMaintenanceService maintenanceService;
+  @TempDir
+  private Path directory;
+
+  private Path databaseFile;
+  private H2FileHealthIndicator indicator;
+
+  /**
+   * Point the indicator at a database file in a temporary directory.
+   */
+  @BeforeEach
+  void setUp() {
+    databaseFile = directory.resolve("erezeptdb.mv.db");
+    when(maintenanceService.databaseFile()).thenReturn(databaseFile);
+    lenient().when(maintenanceService.minFreeDiskBytes()).thenReturn(0L);
+    indicator = new H2FileHealthIndicator(jdbcTemplate, maintenanceService);
+  }
+
+  /**
+   * The indicator stays down until the database file has been created.
+   */
+  @Test
+  void health_isDownUntilFileExists() {
+    assertThat(indicator.health().getStatus()).isEqualTo(Status.DOWN);
+  }
+
+  /**
+   * An opened database with enough disk space and a successful checkpoint is up.
+   */
+  @Test
+  void health_isUpWhenDatabaseIsUsable() throws IOException {
+    Files.createFile(databaseFile);
+    when(maintenanceService.lastCheckpoint())
+        .thenReturn(new CheckpointResult(OffsetDateTime.now(), null));
+
+    var health = indicator.health();
+
+    assertThat(health.getStatus()).isEqualTo(Status.UP);
+    assertThat(health.getDetails()).containsKeys("usableBytes", "lastCheckpointAt");
+  }
+
+  /**
+   * A database that does not answer queries is down.
+   */
+  @Test
+  void health_isDownWhenQueryFails() throws IOException {
+    Files.createFile(databaseFile);
+    when(jdbcTemplate.queryForObject("SELECT 1", Integer.class))
+        .thenThrow(new DataAccessResourceFailureException("database closed"));
+
+    assertThat(indicator.health().getStatus()).isEqualTo(Status.DOWN);
+  }
+
+  /**
+   * The indicator turns down when the file system runs out of space.
+   */
+  @Test
+  void health_isDownWhenDiskSpaceIsLow() throws IOException {
+    Files.createFile(databaseFile);
+    when(maintenanceService.minFreeDiskBytes()).thenReturn(Long.MAX_VALUE);
+
+    var health = indicator.health();
+
+    assertThat(health.getStatus()).isEqualTo(Status.DOWN);
+    assertThat(health.getDetails()).containsKey("reason");
+  }
+
+  /**
+   * The indicator turns down when the last checkpoint could not be written.
+   */
+  @Test
+  void health_isDownWhenLastCheckpointFailed() throws IOException {
+    Files.createFile(databaseFile);
+    when(maintenanceService.lastCheckpoint())
+        .thenReturn(new CheckpointResult(OffsetDateTime.now(), "No space left on device"));
+
+    var health = indicator.health();
+
+    assertThat(health.getStatus()).isEqualTo(Status.DOWN);
+    assertThat(health.getDetails()).containsEntry("lastCheckpointError", "No space left on device");
+  }
+}
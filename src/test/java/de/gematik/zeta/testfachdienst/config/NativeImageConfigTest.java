@@ -0,0 +1,94 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.gematik.zeta.testfachdienst.logging.MeteredAsyncAppender;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.service.ErezeptImportService;
+import de.gematik.zeta.testfachdienst.ws.ErezeptWsController;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.annotation.ReflectiveRuntimeHintsRegistrar;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+/**
+ * Unit tests for the native image hints of {@link NativeImageConfig}.
+ */
+class NativeImageConfigTest {
+
+  /**
+   * JobRunr jobs are invokable by name and the class files of their declaring classes are
+   * readable.
+   */
+  @Test
+  void registersJobRunrJobs() {
+    RuntimeHints hints = hints();
+
+    assertThat(RuntimeHintsPredicates.reflection().onMethod(ErezeptImportService.class, "runImport")).accepts(hints);
+    assertThat(RuntimeHintsPredicates.resource().forResource(
+        ErezeptImportService.class.getName().replace('.', '/') + ".class")).accepts(hints);
+    assertThat(NativeImageConfig.JOB_CLASSES)
+        .allSatisfy(job -> assertThat(RuntimeHintsPredicates.reflection().onType(job)
+            .withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS)).accepts(hints));
+  }
+
+  /**
+   * Springwolf can scan and introspect the STOMP controller, Logback can create the appender and
+   * the key store is bundled.
+   */
+  @Test
+  void registersSpringwolfLoggingAndTlsResources() {
+    RuntimeHints hints = hints();
+
+    assertThat(RuntimeHintsPredicates.resource().forResource(
+        ErezeptWsController.class.getName().replace('.', '/') + ".class")).accepts(hints);
+    assertThat(RuntimeHintsPredicates.reflection().onType(ErezeptWsController.class)
+        .withMemberCategory(MemberCategory.INTROSPECT_DECLARED_METHODS)).accepts(hints);
+    assertThat(RuntimeHintsPredicates.reflection().onType(MeteredAsyncAppender.class)
+        .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+    assertThat(RuntimeHintsPredicates.resource().forResource("tls/keystore.p12")).accepts(hints);
+  }
+
+  /**
+   * The model is registered for Jackson binding.
+   */
+  @Test
+  void registersModelForBinding() {
+    var hints = new RuntimeHints();
+    new ReflectiveRuntimeHintsRegistrar().registerRuntimeHints(hints, NativeImageConfig.class);
+
+    assertThat(RuntimeHintsPredicates.reflection().onMethod(Erezept.class, "getPrescriptionId")).accepts(hints);
+    assertThat(RuntimeHintsPredicates.reflection().onType(ErezeptImportService.Format.class)).accepts(hints);
+  }
+
+  private static RuntimeHints hints() {
+    var hints = new RuntimeHints();
+    new NativeImageConfig.Hints().registerHints(hints, NativeImageConfigTest.class.getClassLoader());
+    return hints;
+  }
+}
@@ -0,0 +1,85 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.env.MockEnvironment;
+
+/**
+ * Unit tests for {@link PerformanceSettingsReport}.
+ */
+class PerformanceSettingsReportTest {
+
+  private final EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+  private final MockEnvironment environment = new MockEnvironment()
+      .withProperty("erezept.jdbc.statementCacheSize", "128");
+
+  /**
+   * Reports the pool and Hibernate values that are actually in effect.
+   */
+  @Test
+  void reportsEffectiveValues() {
+    environment.setActiveProfiles("h2-file", "throughput");
+    when(entityManagerFactory.getProperties()).thenReturn(Map.of("hibernate.jdbc.batch_size", "100"));
+    try (var pool = new HikariDataSource()) {
+      pool.setPoolName("erezept-primary");
+      pool.setMaximumPoolSize(8);
+
+      var settings = new PerformanceSettingsReport(pool, entityManagerFactory, environment).settings();
+
+      assertThat(settings)
+          .containsEntry("profile", "throughput")
+          .containsEntry("hikari.maximum-pool-size", 8)
+          .containsEntry("hibernate.jdbc.batch_size", "100")
+          .containsEntry("hibernate.jdbc.fetch_size", "default")
+          .containsEntry("hibernate.jdbc.batched-statements", "updates and deletes")
+          .containsEntry("h2.query-cache-size", "128");
+    }
+  }
+
+  /**
+   * Falls back to the default profile and tolerates data sources without Hikari pool.
+   */
+  @Test
+  void reportsDefaultsWithoutPool() {
+    when(entityManagerFactory.getProperties()).thenReturn(Map.of());
+
+    var settings = new PerformanceSettingsReport(new DriverManagerDataSource(), entityManagerFactory, environment)
+        .settings();
+
+    assertThat(settings)
+        .containsEntry("profile", "default")
+        .containsEntry("hikari", "not in use")
+        .containsEntry("hibernate.jdbc.batched-statements", "none");
+  }
+}
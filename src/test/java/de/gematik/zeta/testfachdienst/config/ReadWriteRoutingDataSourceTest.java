@@ -0,0 +1,113 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tests for {@link ReadWriteRoutingDataSource} with two embedded H2 databases standing in for the
+ * primary and its replica.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+  private JdbcTemplate primary;
+  private JdbcTemplate replica;
+  private JdbcTemplate routed;
+  private TransactionTemplate readWrite;
+  private TransactionTemplate readOnly;
+
+  @BeforeEach
+  void setUp() {
+    String name = UUID.randomUUID().toString();
+    DataSource primaryDataSource = new DriverManagerDataSource("jdbc:h2:mem:primary-" + name + ";DB_CLOSE_DELAY=-1");
+    DataSource replicaDataSource = new DriverManagerDataSource("jdbc:h2:mem:replica-" + name + ";DB_CLOSE_DELAY=-1");
+    primary = new JdbcTemplate(primaryDataSource);
+    replica = new JdbcTemplate(replicaDataSource);
+    primary.execute("create table erezept (prescription_id varchar(64) primary key)");
+    replica.execute("create table erezept (prescription_id varchar(64) primary key)");
+
+    DataSource dataSource = new LazyConnectionDataSourceProxy(
+        new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource));
+    routed = new JdbcTemplate(dataSource);
+    var transactionManager = new DataSourceTransactionManager(dataSource);
+    readWrite = new TransactionTemplate(transactionManager);
+    readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+  }
+
+  /**
+   * Writes reach the primary only; read-only transactions see them once replicated.
+   */
+  @Test
+  void readOnlyTransactionsUseReplica() {
+    readWrite.executeWithoutResult(status -> routed.update("insert into erezept values ('RX-1')"));
+
+    assertThat(prescriptionIds(primary)).containsExactly("RX-1");
+    assertThat(prescriptionIds(replica)).isEmpty();
+    assertThat(prescriptionIdsIn(readOnly)).isEmpty();
+
+    replicate();
+
+    assertThat(prescriptionIdsIn(readOnly)).containsExactly("RX-1");
+  }
+
+  /**
+   * Reads inside read-write transactions and without transaction stay on the primary.
+   */
+  @Test
+  void otherAccessUsesPrimary() {
+    primary.update("insert into erezept values ('RX-2')");
+
+    assertThat(prescriptionIdsIn(readWrite)).containsExactly("RX-2");
+    assertThat(prescriptionIds(routed)).containsExactly("RX-2");
+  }
+
+  /**
+   * Replication shim copying the primary table to the replica.
+   */
+  private void replicate() {
+    replica.update("delete from erezept");
+    prescriptionIds(primary).forEach(id -> replica.update("insert into erezept values (?)", id));
+  }
+
+  private List<String> prescriptionIdsIn(TransactionTemplate transaction) {
+    return transaction.execute(status -> prescriptionIds(routed));
+  }
+
+  private static List<String> prescriptionIds(JdbcTemplate jdbcTemplate) {
+    return jdbcTemplate.queryForList("select prescription_id from erezept order by prescription_id", String.class);
+  }
+}
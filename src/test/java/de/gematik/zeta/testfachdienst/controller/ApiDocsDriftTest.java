@@ -0,0 +1,122 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.core.util.DefaultIndenter;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.core.util.Separators;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Fails when the documents in {@code docs/} no longer match what springdoc and Springwolf generate.
+ *
+ * <p>The {@code static-api-docs} profile serves these documents in production, so they have to
+ * follow every API change. On drift the generated documents are written to
+ * {@code build/api-docs}; {@code ./gradlew updateApiDocs} copies them to {@code docs/}.</p>
+ */
+@SpringBootTest(properties = {
+    "jobrunr.background-job-server.enabled=false",
+    "jobrunr.dashboard.enabled=false"
+})
+@AutoConfigureMockMvc
+class ApiDocsDriftTest {
+
+  private static final Path DOCS = Path.of("docs");
+  private static final Path GENERATED = Path.of("build", "api-docs");
+  private static final boolean UPDATE = Boolean.getBoolean("apiDocs.update");
+  private static final ObjectMapper JSON = new ObjectMapper();
+  private static final YAMLMapper YAML = new YAMLMapper();
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  /**
+   * The OpenAPI document matches {@code docs/swagger-api-docs.json}.
+   *
+   * @throws Exception if the document cannot be generated or read
+   */
+  @Test
+  void openApiMatchesDocs() throws Exception {
+    JsonNode generated = JSON.readTree(fetch("/v3/api-docs"));
+    var printer = new DefaultPrettyPrinter()
+        .withSeparators(Separators.createDefaultInstance().withObjectFieldValueSpacing(Separators.Spacing.AFTER))
+        .withObjectIndenter(new DefaultIndenter("  ", "\n"));
+    printer.indentArraysWith(new DefaultIndenter("  ", "\n"));
+    String content = JSON.writer(printer).writeValueAsString(generated) + "\n";
+
+    compare("swagger-api-docs.json", content, JSON.readTree(Files.readString(DOCS.resolve("swagger-api-docs.json"))),
+        generated);
+  }
+
+  /**
+   * The AsyncAPI document matches {@code docs/async-api-docs.yml}.
+   *
+   * @throws Exception if the document cannot be generated or read
+   */
+  @Test
+  void asyncApiMatchesDocs() throws Exception {
+    String content = fetch("/springwolf/docs.yaml");
+
+    compare("async-api-docs.yml", content, YAML.readTree(Files.readString(DOCS.resolve("async-api-docs.yml"))),
+        YAML.readTree(content));
+  }
+
+  private String fetch(String path) throws Exception {
+    return mockMvc.perform(get(path))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+  }
+
+  private static void compare(String file, String content, JsonNode committed, JsonNode generated) throws IOException {
+    if (committed.equals(generated)) {
+      return;
+    }
+    Files.createDirectories(GENERATED);
+    Files.writeString(GENERATED.resolve(file), content);
+    if (UPDATE) {
+      Files.writeString(DOCS.resolve(file), content);
+      return;
+    }
+    assertThat(generated)
+        .withFailMessage("docs/%s is out of date, the generated document is in %s; run ./gradlew updateApiDocs",
+            file, GENERATED.resolve(file))
+        .isEqualTo(committed);
+  }
+}
@@ -30,6 +30,8 @@ import static org.mockito.Mockito.when;
 
 import de.gematik.zeta.testfachdienst.model.Erezept;
 import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import de.gematik.zeta.testfachdienst.service.DuplicateErezeptException;
+import de.gematik.zeta.testfachdienst.service.ErezeptArchivedException;
 import de.gematik.zeta.testfachdienst.service.ErezeptService;
 import java.net.URI;
 import java.time.OffsetDateTime;
@@ -225,4 +227,18 @@ class ErezeptControllerTest {
 
     assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
   }
+
+  /**
+   * Ensures conflicts raised by the service are reported as 409 with their reason.
+   */
+  @Test
+  void conflict_returnsConflictWithReason() {
+    var archived = controller.conflict(new ErezeptArchivedException(42L));
+    var duplicate = controller.conflict(DuplicateErezeptException.forPrescriptionId("RX-0042"));
+
+    assertThat(archived.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    assertThat(archived.getBody()).isEqualTo("ERezept with id=42 is archived");
+    assertThat(duplicate.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    assertThat(duplicate.getBody()).isEqualTo("ERezept with prescriptionId=RX-0042 already exists");
+  }
 }
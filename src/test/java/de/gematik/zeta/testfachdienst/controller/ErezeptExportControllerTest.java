@@ -0,0 +1,151 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import de.gematik.zeta.testfachdienst.model.ErezeptExportStatus;
+import de.gematik.zeta.testfachdienst.model.ErezeptExportStatus.State;
+import de.gematik.zeta.testfachdienst.service.ErezeptExportService;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Unit tests for {@link ErezeptExportController}.
+ */
+@ExtendWith(MockitoExtension.class)
+class ErezeptExportControllerTest {
+
+  private static final UUID EXPORT_ID = UUID.fromString("5c1f0f5a-8d55-4f5e-9f0a-3e2b7c9d1a22");
+
+  @Mock
+  private ErezeptExportService service;
+  @TempDir
+  private Path exportDirectory;
+
+  private ErezeptExportController controller;
+
+  /**
+   * Create the controller below a servlet context path.
+   */
+  @BeforeEach
+  void setUp() {
+    controller = new ErezeptExportController(service, "/achelos_testfachdienst");
+  }
+
+  /**
+   * Verifies that an export is accepted with a location for polling its status.
+   */
+  @Test
+  void export_returnsAcceptedWithStatusLocation() {
+    var queued = ErezeptExportStatus.builder().exportId(EXPORT_ID).state(State.QUEUED).build();
+    when(service.isAvailable()).thenReturn(true);
+    when(service.submit()).thenReturn(queued);
+
+    var response = controller.export();
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+    assertThat(response.getHeaders().getLocation())
+        .isEqualTo(URI.create("/achelos_testfachdienst/api/erezept/export/" + EXPORT_ID));
+    assertThat(response.getBody()).isSameAs(queued);
+  }
+
+  /**
+   * Ensures exports are rejected with 409 when the store is not backed by the table.
+   */
+  @Test
+  void export_rejectsStoreWithoutTable() {
+    when(service.isAvailable()).thenReturn(false);
+
+    assertThatThrownBy(() -> controller.export())
+        .isInstanceOfSatisfying(ResponseStatusException.class,
+            ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+    verify(service, never()).submit();
+  }
+
+  /**
+   * Verifies that known exports report their status and unknown ones yield 404.
+   */
+  @Test
+  void status_returnsStatusOrNotFound() {
+    var running = ErezeptExportStatus.builder().exportId(EXPORT_ID).state(State.RUNNING).build();
+    when(service.findStatus(EXPORT_ID)).thenReturn(Optional.of(running));
+    UUID unknown = UUID.randomUUID();
+    when(service.findStatus(unknown)).thenReturn(Optional.empty());
+
+    var found = controller.status(EXPORT_ID);
+
+    assertThat(found.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(found.getBody()).isSameAs(running);
+    assertThat(controller.status(unknown).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+  }
+
+  /**
+   * Verifies that a finished snapshot is streamed from disk as gzip attachment.
+   */
+  @Test
+  void download_streamsSnapshotFile() throws IOException {
+    Path file = Files.write(exportDirectory.resolve("erezept-" + EXPORT_ID + ".ndjson.gz"), new byte[] {31, -117});
+    when(service.findSnapshot(EXPORT_ID)).thenReturn(Optional.of(file));
+
+    var response = controller.download(EXPORT_ID);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.parseMediaType("application/gzip"));
+    assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION))
+        .isEqualTo("attachment; filename=\"erezept-" + EXPORT_ID + ".ndjson.gz\"");
+    assertThat(response.getBody()).isInstanceOfSatisfying(FileSystemResource.class,
+        resource -> assertThat(resource.getFile().toPath()).isEqualTo(file));
+  }
+
+  /**
+   * Confirms that a download without finished snapshot yields 404.
+   */
+  @Test
+  void download_returnsNotFoundWithoutSnapshot() {
+    when(service.findSnapshot(EXPORT_ID)).thenReturn(Optional.empty());
+
+    assertThat(controller.download(EXPORT_ID).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+  }
+}
@@ -0,0 +1,122 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.jfr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.gematik.zeta.testfachdienst.config.FlightRecorderProperties;
+import java.nio.file.Path;
+import java.util.Map;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+/**
+ * Unit tests for {@link FlightRecordingEndpoint}.
+ */
+class FlightRecordingEndpointTest {
+
+  @TempDir
+  Path directory;
+
+  private FlightRecordingEndpoint endpoint;
+
+  @AfterEach
+  void tearDown() {
+    if (endpoint != null) {
+      endpoint.shutdown();
+    }
+  }
+
+  /**
+   * A recording can be started, downloaded while running, stopped and downloaded again.
+   *
+   * @throws Exception if the recording cannot be written or read
+   */
+  @Test
+  void startDownloadAndStop() throws Exception {
+    endpoint = new FlightRecordingEndpoint(properties());
+
+    var started = endpoint.start(60L, 10L, "default");
+    assertThat(started.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+    assertThat(started.getBody()).containsEntry("state", "RUNNING").containsEntry("durationSeconds", 60L);
+    final String file = (String) started.getBody().get("file");
+
+    assertThat(endpoint.start(null, null, null).getStatus()).isEqualTo(409);
+
+    var event = new BroadcastEvent();
+    event.begin();
+    event.destination = "/topic/erezept";
+    event.id = 42;
+    event.prescriptionId = "RX-42";
+    event.commit();
+
+    WebEndpointResponse<Resource> snapshot = endpoint.download(file);
+    assertThat(snapshot.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+    assertThat(RecordingFile.readAllEvents(snapshot.getBody().getFile().toPath()))
+        .filteredOn(recorded -> recorded.getEventType().getName().equals("de.gematik.zeta.testfachdienst.Broadcast"))
+        .extracting(recorded -> recorded.getString("prescriptionId"))
+        .containsExactly("RX-42");
+
+    Map<String, Object> stopped = endpoint.stop().getBody();
+    assertThat(stopped).containsEntry("state", "STOPPED");
+    assertThat(endpoint.download(file).getBody().getFile()).isEqualTo(directory.resolve(file).toFile());
+    assertThat(endpoint.download("other.jfr").getStatus()).isEqualTo(WebEndpointResponse.STATUS_NOT_FOUND);
+  }
+
+  /**
+   * Requested durations and sizes are capped by the configured maximum values.
+   */
+  @Test
+  void capsRequestedLimits() throws Exception {
+    endpoint = new FlightRecordingEndpoint(properties());
+
+    Map<String, Object> status = endpoint.start(86_400L, 4_096L, "default").getBody();
+
+    assertThat(status).containsEntry("durationSeconds", 120L).containsEntry("maxSizeMb", 16L);
+  }
+
+  /**
+   * Unknown JFR settings are rejected without starting a recording.
+   */
+  @Test
+  void rejectsUnknownSettings() throws Exception {
+    endpoint = new FlightRecordingEndpoint(properties());
+
+    assertThat(endpoint.start(null, null, "unknown").getStatus()).isEqualTo(WebEndpointResponse.STATUS_BAD_REQUEST);
+    assertThat(endpoint.status()).containsEntry("state", "NONE");
+  }
+
+  private FlightRecorderProperties properties() {
+    var properties = new FlightRecorderProperties();
+    properties.setDirectory(directory.toString());
+    properties.setMaxDurationSeconds(120);
+    properties.setMaxSizeMb(16);
+    return properties;
+  }
+}
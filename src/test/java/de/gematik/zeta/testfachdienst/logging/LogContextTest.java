@@ -0,0 +1,68 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link LogContext}.
+ */
+class LogContextTest {
+
+  /**
+   * The trace id of a valid {@code traceparent} header is used; malformed or all-zero ids are not.
+   */
+  @Test
+  void extractsTraceIdFromTraceparent() {
+    assertThat(LogContext.traceId("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01"))
+        .isEqualTo("4bf92f3577b34da6a3ce929d0e0e4736");
+    assertThat(LogContext.traceId("00-00000000000000000000000000000000-00f067aa0ba902b7-01")).isNull();
+    assertThat(LogContext.traceId("not-a-traceparent")).isNull();
+    assertThat(LogContext.traceId((String) null)).isNull();
+  }
+
+  /**
+   * Generated and message based trace ids are 32 lower case hex digits.
+   */
+  @Test
+  void formatsTraceIds() {
+    assertThat(LogContext.newTraceId()).matches("[0-9a-f]{32}");
+    assertThat(LogContext.traceId(UUID.fromString("4bf92f35-77b3-4da6-a3ce-929d0e0e4736")))
+        .isEqualTo("4bf92f3577b34da6a3ce929d0e0e4736");
+  }
+
+  /**
+   * The prescription id is the first numeric segment of a STOMP destination.
+   */
+  @Test
+  void findsErezeptIdInDestination() {
+    assertThat(LogContext.erezeptId("/achelos_testfachdienst/app/erezept.read.42")).isEqualTo("42");
+    assertThat(LogContext.erezeptId("/app/erezept.create")).isNull();
+    assertThat(LogContext.erezeptId(null)).isNull();
+  }
+}
@@ -0,0 +1,104 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link MeteredAsyncAppender}.
+ */
+class MeteredAsyncAppenderTest {
+
+  /**
+   * With a stalled worker, INFO events below the threshold are discarded and WARN events are
+   * rejected once the queue is full, without blocking the caller; both are counted.
+   *
+   * @throws Exception if the worker does not pick up the first event
+   */
+  @Test
+  void countsDiscardedAndRejectedEvents() throws Exception {
+    var context = new LoggerContext();
+    context.setMDCAdapter(new LogbackMDCAdapter());
+    var release = new CountDownLatch(1);
+    var written = new AtomicInteger();
+    AppenderBase<ILoggingEvent> stalled = new AppenderBase<>() {
+      @Override
+      protected void append(ILoggingEvent event) {
+        try {
+          release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+        written.incrementAndGet();
+      }
+    };
+    stalled.setContext(context);
+    stalled.start();
+
+    var appender = new MeteredAsyncAppender();
+    appender.setContext(context);
+    appender.setQueueSize(10);
+    appender.setDiscardingThreshold(2);
+    appender.setNeverBlock(true);
+    appender.addAppender(stalled);
+    appender.start();
+    try {
+      appender.doAppend(event(context, Level.WARN));
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (appender.getNumberOfElementsInQueue() > 0 && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+      for (int i = 0; i < 10; i++) {
+        appender.doAppend(event(context, Level.WARN));
+      }
+      appender.doAppend(event(context, Level.WARN));
+      appender.doAppend(event(context, Level.INFO));
+
+      assertThat(appender.getNumberOfElementsInQueue()).isEqualTo(10);
+      assertThat(appender.getRejectedCount()).isEqualTo(1);
+      assertThat(appender.getDiscardedCount()).isEqualTo(1);
+    } finally {
+      release.countDown();
+      appender.stop();
+    }
+    assertThat(written).hasValue(11);
+  }
+
+  private static ILoggingEvent event(LoggerContext context, Level level) {
+    return new LoggingEvent(MeteredAsyncAppenderTest.class.getName(), context.getLogger("test"), level,
+        "message", null, null);
+  }
+}
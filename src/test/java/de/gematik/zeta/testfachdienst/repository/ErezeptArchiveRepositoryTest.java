@@ -0,0 +1,113 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import java.time.OffsetDateTime;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+/**
+ * Persistence tests for {@link ErezeptArchiveRepository} together with the archival queries of
+ * {@link ErezeptRepository}.
+ */
+@DataJpaTest
+class ErezeptArchiveRepositoryTest {
+
+  private static final List<ErezeptStatus> TERMINAL =
+      List.of(ErezeptStatus.DISPENSED, ErezeptStatus.CANCELLED, ErezeptStatus.EXPIRED);
+
+  @Autowired
+  private ErezeptRepository repository;
+
+  @Autowired
+  private ErezeptArchiveRepository archiveRepository;
+
+  /**
+   * Verifies that terminal prescriptions are moved from the hot table into the archive.
+   */
+  @Test
+  @DisplayName("terminal prescriptions are copied to the archive and removed from the hot table")
+  void copyFromHotAndDeleteArchived_movesTerminalRows() {
+    var dispensed = repository.save(prescription("RX-A1", ErezeptStatus.DISPENSED));
+    var signed = repository.save(prescription("RX-A2", ErezeptStatus.SIGNED));
+
+    var ids = repository.findArchivableIds(TERMINAL, OffsetDateTime.now(), PageRequest.of(0, 10));
+    assertThat(ids).containsExactly(dispensed.getId());
+
+    assertThat(archiveRepository.copyFromHot(ids, TERMINAL, OffsetDateTime.now())).isEqualTo(1);
+    assertThat(repository.deleteArchived(ids)).isEqualTo(1);
+
+    assertThat(repository.findById(dispensed.getId())).isEmpty();
+    assertThat(repository.findById(signed.getId())).isPresent();
+    assertThat(archiveRepository.findByPrescriptionId("RX-A1"))
+        .hasValueSatisfying(archived -> {
+          assertThat(archived.getId()).isEqualTo(dispensed.getId());
+          assertThat(archived.getStatus()).isEqualTo(ErezeptStatus.DISPENSED);
+          assertThat(archived.getArchivedAt()).isNotNull();
+        });
+    assertThat(archiveRepository.existsByPrescriptionId("RX-A2")).isFalse();
+  }
+
+  /**
+   * Verifies that the JPA store reports archived ids, so that writes to them can be rejected.
+   */
+  @Test
+  @DisplayName("archived prescriptions are readable but reported as archived")
+  void jpaStore_reportsArchivedIds() {
+    var store = new JpaErezeptStore(repository, archiveRepository);
+    var dispensed = repository.save(prescription("RX-A3", ErezeptStatus.DISPENSED));
+    final var signed = repository.save(prescription("RX-A4", ErezeptStatus.SIGNED));
+    var ids = List.of(dispensed.getId());
+    archiveRepository.copyFromHot(ids, TERMINAL, OffsetDateTime.now());
+    repository.deleteArchived(ids);
+
+    assertThat(store.findById(dispensed.getId())).isPresent();
+    assertThat(store.existsById(dispensed.getId())).isFalse();
+    assertThat(store.isArchived(dispensed.getId())).isTrue();
+    assertThat(store.isArchived(signed.getId())).isFalse();
+    assertThat(store.isArchived(Long.MAX_VALUE)).isFalse();
+  }
+
+  private static Erezept prescription(String prescriptionId, ErezeptStatus status) {
+    return Erezept.builder()
+        .prescriptionId(prescriptionId)
+        .patientId("PT-1")
+        .practitionerId("PR-1")
+        .medicationName("Ibuprofen")
+        .dosage("200mg")
+        .issuedAt(OffsetDateTime.now().minusDays(60))
+        .expiresAt(OffsetDateTime.now().plusDays(10))
+        .status(status)
+        .build();
+  }
+}
@@ -29,19 +29,25 @@ import static org.assertj.core.api.Assertions.assertThat;
 import de.gematik.zeta.testfachdienst.model.Erezept;
 import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
 import java.time.OffsetDateTime;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 
 /**
  * Persistence tests for {@link ErezeptRepository}.
  */
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class ErezeptRepositoryTest {
 
   @Autowired
   private ErezeptRepository repository;
+  @Autowired
+  private TestEntityManager entityManager;
 
   /**
    * Verifies that the repository retrieves a persisted entity by its prescriptionId.
@@ -83,5 +89,39 @@ class ErezeptRepositoryTest {
     assertThat(repository.existsByPrescriptionId("RX-002")).isTrue();
     assertThat(repository.existsByPrescriptionId("RX-unknown")).isFalse();
   }
-}
 
+  /**
+   * Ensures the detached read queries return copies without loading managed entities.
+   */
+  @Test
+  @DisplayName("detached queries bypass the persistence context")
+  void detachedQueries_loadNoEntities() {
+    final var saved = repository.save(Erezept.builder()
+        .prescriptionId("RX-003")
+        .patientId("PT-3")
+        .practitionerId("PR-3")
+        .medicationName("Metformin")
+        .dosage("850mg")
+        .issuedAt(OffsetDateTime.now().minusDays(1))
+        .status(ErezeptStatus.SIGNED)
+        .build());
+    entityManager.flush();
+    entityManager.clear();
+    Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+        .unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    var byId = repository.findDetachedById(saved.getId()).orElseThrow();
+    var byPrescriptionId = repository.findDetachedByPrescriptionId("RX-003").orElseThrow();
+    var all = repository.findAllDetached();
+    var page = repository.findPageDetached(PageRequest.of(0, 10));
+
+    assertThat(byId.getPrescriptionId()).isEqualTo("RX-003");
+    assertThat(byPrescriptionId.getStatus()).isEqualTo(ErezeptStatus.SIGNED);
+    assertThat(all).extracting(Erezept::getId).containsExactly(saved.getId());
+    assertThat(page).extracting(Erezept::getMedicationName).containsExactly("Metformin");
+    assertThat(entityManager.getEntityManager().contains(byId)).isFalse();
+    assertThat(statistics.getEntityLoadCount()).isZero();
+    assertThat(statistics.getQueryExecutionCount()).isEqualTo(4);
+  }
+}
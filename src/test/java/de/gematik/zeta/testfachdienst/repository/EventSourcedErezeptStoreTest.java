@@ -0,0 +1,208 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import de.gematik.zeta.testfachdienst.config.EventLogProperties;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Unit tests for {@link EventSourcedErezeptStore}.
+ */
+class EventSourcedErezeptStoreTest {
+
+  @TempDir
+  Path directory;
+
+  private final EventLogProperties properties = new EventLogProperties();
+  private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  /**
+   * Point the journal at a temporary directory.
+   */
+  @BeforeEach
+  void setUp() {
+    properties.setDirectory(directory.toString());
+    properties.setRetainedSnapshots(1);
+  }
+
+  /**
+   * Verifies that the state is rebuilt from the journal after a restart.
+   */
+  @Test
+  void reopen_replaysJournal() throws IOException {
+    var store = open();
+    var first = store.create(sample("RX-1")).orElseThrow();
+    var second = store.create(sample("RX-2")).orElseThrow();
+    store.update(first.getId(), existing -> existing.setStatus(ErezeptStatus.SIGNED));
+    store.deleteById(second.getId());
+    store.close();
+
+    var reopened = open();
+
+    assertThat(reopened.findAll()).extracting(Erezept::getPrescriptionId).containsExactly("RX-1");
+    assertThat(reopened.findById(first.getId())).map(Erezept::getStatus).contains(ErezeptStatus.SIGNED);
+    assertThat(reopened.create(sample("RX-3")).orElseThrow().getId()).isGreaterThan(second.getId());
+    assertThat(meterRegistry.get("erezept.journal.appends").counter().count()).isEqualTo(5.0);
+    reopened.close();
+  }
+
+  /**
+   * Ensures a snapshot replaces the covered journal segments and is combined with the tail.
+   */
+  @Test
+  void snapshot_compactsJournal() throws IOException {
+    var store = open();
+    for (int i = 0; i < 10; i++) {
+      store.create(sample("RX-" + i));
+    }
+    store.snapshot();
+    store.create(sample("RX-TAIL"));
+    store.close();
+
+    try (Stream<Path> files = Files.list(directory)) {
+      assertThat(files.map(file -> file.getFileName().toString()))
+          .filteredOn(name -> name.startsWith("journal-"))
+          .containsExactly("journal-00000000000000000011.ndjson");
+    }
+    var reopened = open();
+    assertThat(reopened.findAll()).hasSize(11);
+    assertThat(reopened.existsByPrescriptionId("RX-TAIL")).isTrue();
+    reopened.close();
+  }
+
+  /**
+   * Confirms an incomplete last journal line left by a crash is discarded.
+   */
+  @Test
+  void reopen_discardsIncompleteTail() throws IOException {
+    var store = open();
+    store.create(sample("RX-1"));
+    store.close();
+    try (Stream<Path> files = Files.list(directory)) {
+      Path segment = files.filter(file -> file.getFileName().toString().startsWith("journal-"))
+          .sorted().findFirst().orElseThrow();
+      Files.writeString(segment, "{\"sequence\":2,\"type\":\"CRE", StandardOpenOption.APPEND);
+    }
+
+    var reopened = open();
+    reopened.create(sample("RX-2"));
+    reopened.close();
+
+    assertThat(open().findAll()).extracting(Erezept::getPrescriptionId).containsExactly("RX-1", "RX-2");
+  }
+
+  /**
+   * Ensures writes that cannot be journaled never become visible to readers.
+   */
+  @Test
+  void failedAppend_leavesProjectionUnchanged() throws IOException {
+    var store = open();
+    Erezept existing = store.create(sample("RX-1")).orElseThrow();
+    store.close();
+
+    assertThatThrownBy(() -> store.create(sample("RX-2"))).isInstanceOf(UncheckedIOException.class);
+    assertThatThrownBy(() -> store.update(existing.getId(), erezept -> erezept.setStatus(ErezeptStatus.SIGNED)))
+        .isInstanceOf(UncheckedIOException.class);
+    assertThatThrownBy(() -> store.deleteById(existing.getId())).isInstanceOf(UncheckedIOException.class);
+
+    assertThat(store.findByPrescriptionId("RX-2")).isEmpty();
+    assertThat(store.existsByPrescriptionId("RX-2")).isFalse();
+    assertThat(store.findAll()).extracting(Erezept::getPrescriptionId).containsExactly("RX-1");
+    assertThat(store.findById(existing.getId())).map(Erezept::getStatus).contains(existing.getStatus());
+    assertThat(open().findAll()).extracting(Erezept::getPrescriptionId).containsExactly("RX-1");
+  }
+
+  /**
+   * Ensures the bytes of an append that fails part-way are cut off, so later events replay.
+   */
+  @Test
+  void partialAppend_isCutOff() throws IOException {
+    var store = open();
+    store.create(sample("RX-1")).orElseThrow();
+    segmentOf(store).failWriteAfter(10);
+
+    assertThatThrownBy(() -> store.create(sample("RX-2"))).isInstanceOf(UncheckedIOException.class);
+    store.create(sample("RX-3")).orElseThrow();
+    store.close();
+
+    assertThat(open().findAll()).extracting(Erezept::getPrescriptionId).containsExactly("RX-1", "RX-3");
+  }
+
+  /**
+   * Ensures events whose fsync failed are cut off the journal, so they are not replayed after a
+   * restart, and that the store keeps accepting writes afterwards.
+   */
+  @Test
+  void failedFsync_discardsUnsyncedEvents() throws IOException {
+    var store = open();
+    store.create(sample("RX-1")).orElseThrow();
+    segmentOf(store).failNextForce();
+
+    assertThatThrownBy(() -> store.create(sample("RX-2"))).isInstanceOf(UncheckedIOException.class);
+    assertThat(store.existsByPrescriptionId("RX-2")).isFalse();
+    store.create(sample("RX-3")).orElseThrow();
+    store.close();
+
+    assertThat(open().findAll()).extracting(Erezept::getPrescriptionId).containsExactly("RX-1", "RX-3");
+  }
+
+  private static FailingFileChannel segmentOf(EventSourcedErezeptStore store) {
+    return FailingFileChannel.install((ErezeptJournal) ReflectionTestUtils.getField(store, "journal"));
+  }
+
+  private EventSourcedErezeptStore open() throws IOException {
+    return new EventSourcedErezeptStore(properties, objectMapper, meterRegistry);
+  }
+
+  private static Erezept sample(String prescriptionId) {
+    return Erezept.builder()
+        .prescriptionId(prescriptionId)
+        .patientId("PT-1")
+        .practitionerId("PR-1")
+        .medicationName("Ibuprofen")
+        .dosage("200mg")
+        .issuedAt(OffsetDateTime.now())
+        .build();
+  }
+}
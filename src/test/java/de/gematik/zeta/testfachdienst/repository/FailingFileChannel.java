@@ -0,0 +1,180 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * {@link FileChannel} that delegates to a real segment and fails a write part-way or a force on
+ * request, to simulate a full or failing disk under an {@link ErezeptJournal}.
+ */
+class FailingFileChannel extends FileChannel {
+
+  private final FileChannel delegate;
+  private long bytesBeforeFailure = -1;
+  private boolean failForce;
+
+  private FailingFileChannel(FileChannel delegate) {
+    this.delegate = delegate;
+  }
+
+  /**
+   * Wrap the current segment of a journal; later segments are not affected.
+   *
+   * @param journal journal whose segment is wrapped
+   * @return the installed channel
+   */
+  static FailingFileChannel install(ErezeptJournal journal) {
+    var channel = new FailingFileChannel((FileChannel) ReflectionTestUtils.getField(journal, "segment"));
+    ReflectionTestUtils.setField(journal, "segment", channel);
+    return channel;
+  }
+
+  /**
+   * Let the next writes store the given number of bytes and fail after that.
+   *
+   * @param bytes bytes written before the failure
+   */
+  void failWriteAfter(long bytes) {
+    bytesBeforeFailure = bytes;
+  }
+
+  /**
+   * Fail the next force.
+   */
+  void failNextForce() {
+    failForce = true;
+  }
+
+  @Override
+  public int write(ByteBuffer src) throws IOException {
+    if (bytesBeforeFailure < 0) {
+      return delegate.write(src);
+    }
+    if (bytesBeforeFailure == 0) {
+      bytesBeforeFailure = -1;
+      throw new IOException("No space left on device");
+    }
+    ByteBuffer part = src.slice();
+    part.limit((int) Math.min(part.remaining(), bytesBeforeFailure));
+    int written = delegate.write(part);
+    src.position(src.position() + written);
+    bytesBeforeFailure -= written;
+    return written;
+  }
+
+  @Override
+  public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+    return delegate.write(srcs, offset, length);
+  }
+
+  @Override
+  public int write(ByteBuffer src, long position) throws IOException {
+    return delegate.write(src, position);
+  }
+
+  @Override
+  public void force(boolean metaData) throws IOException {
+    if (failForce) {
+      failForce = false;
+      throw new IOException("Input/output error");
+    }
+    delegate.force(metaData);
+  }
+
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    return delegate.read(dst);
+  }
+
+  @Override
+  public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+    return delegate.read(dsts, offset, length);
+  }
+
+  @Override
+  public int read(ByteBuffer dst, long position) throws IOException {
+    return delegate.read(dst, position);
+  }
+
+  @Override
+  public long position() throws IOException {
+    return delegate.position();
+  }
+
+  @Override
+  public FileChannel position(long newPosition) throws IOException {
+    delegate.position(newPosition);
+    return this;
+  }
+
+  @Override
+  public long size() throws IOException {
+    return delegate.size();
+  }
+
+  @Override
+  public FileChannel truncate(long size) throws IOException {
+    delegate.truncate(size);
+    return this;
+  }
+
+  @Override
+  public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+    return delegate.transferTo(position, count, target);
+  }
+
+  @Override
+  public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+    return delegate.transferFrom(src, position, count);
+  }
+
+  @Override
+  public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+    return delegate.map(mode, position, size);
+  }
+
+  @Override
+  public FileLock lock(long position, long size, boolean shared) throws IOException {
+    return delegate.lock(position, size, shared);
+  }
+
+  @Override
+  public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+    return delegate.tryLock(position, size, shared);
+  }
+
+  @Override
+  protected void implCloseChannel() throws IOException {
+    delegate.close();
+  }
+}
@@ -0,0 +1,145 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Unit tests for {@link InMemoryErezeptStore}.
+ */
+class InMemoryErezeptStoreTest {
+
+  private final InMemoryErezeptStore store = new InMemoryErezeptStore();
+
+  /**
+   * Verifies that created prescriptions get an id and are found through both indexes.
+   */
+  @Test
+  void create_assignsIdAndIndexesPrescriptionId() {
+    var created = store.create(sample("RX-1")).orElseThrow();
+
+    assertThat(created.getId()).isNotNull();
+    assertThat(store.findById(created.getId())).map(Erezept::getPrescriptionId).contains("RX-1");
+    assertThat(store.findByPrescriptionId("RX-1")).map(Erezept::getId).contains(created.getId());
+    assertThat(store.create(sample("RX-1"))).isEmpty();
+  }
+
+  /**
+   * Ensures only one of many concurrent creates with the same business identifier succeeds.
+   */
+  @Test
+  void create_enforcesUniquenessUnderConcurrency() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Callable<Optional<Erezept>>> tasks = new ArrayList<>();
+      for (int i = 0; i < 64; i++) {
+        tasks.add(() -> store.create(sample("RX-RACE")));
+      }
+      long created = 0;
+      for (Future<Optional<Erezept>> result : executor.invokeAll(tasks)) {
+        if (result.get().isPresent()) {
+          created++;
+        }
+      }
+      assertThat(created).isEqualTo(1);
+      assertThat(store.findAll()).hasSize(1);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Confirms returned prescriptions are copies that do not change the stored state.
+   */
+  @Test
+  void findById_returnsDefensiveCopy() {
+    var created = store.create(sample("RX-2")).orElseThrow();
+
+    created.setStatus(ErezeptStatus.CANCELLED);
+
+    assertThat(store.findById(created.getId())).map(Erezept::getStatus).contains(ErezeptStatus.CREATED);
+  }
+
+  /**
+   * Verifies that updates keep the identifiers and saves move the business identifier index.
+   */
+  @Test
+  void updateAndSave_maintainSecondaryIndex() {
+    var created = store.create(sample("RX-3")).orElseThrow();
+
+    store.update(created.getId(), existing -> {
+      existing.setStatus(ErezeptStatus.SIGNED);
+      existing.setPrescriptionId("RX-IGNORED");
+    });
+    assertThat(store.findByPrescriptionId("RX-3")).map(Erezept::getStatus).contains(ErezeptStatus.SIGNED);
+
+    store.save(created.toBuilder().prescriptionId("RX-4").build());
+    assertThat(store.existsByPrescriptionId("RX-3")).isFalse();
+    assertThat(store.findByPrescriptionId("RX-4")).map(Erezept::getId).contains(created.getId());
+
+    store.create(sample("RX-5"));
+    assertThatThrownBy(() -> store.save(created.toBuilder().prescriptionId("RX-5").build()))
+        .isInstanceOf(DataIntegrityViolationException.class);
+  }
+
+  /**
+   * Ensures a deleted prescription releases its business identifier.
+   */
+  @Test
+  void deleteById_releasesPrescriptionId() {
+    var created = store.create(sample("RX-6")).orElseThrow();
+
+    assertThat(store.deleteById(created.getId())).isTrue();
+    assertThat(store.deleteById(created.getId())).isFalse();
+    assertThat(store.existsByPrescriptionId("RX-6")).isFalse();
+    assertThat(store.create(sample("RX-6"))).isPresent();
+  }
+
+  private static Erezept sample(String prescriptionId) {
+    return Erezept.builder()
+        .prescriptionId(prescriptionId)
+        .patientId("PT-1")
+        .practitionerId("PR-1")
+        .medicationName("Ibuprofen")
+        .dosage("200mg")
+        .issuedAt(OffsetDateTime.now())
+        .expiresAt(OffsetDateTime.now().plusDays(30))
+        .build();
+  }
+}
@@ -0,0 +1,198 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import de.gematik.zeta.testfachdienst.config.MappedStoreProperties;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Unit tests for {@link MappedErezeptStore}.
+ */
+class MappedErezeptStoreTest {
+
+  @TempDir
+  Path directory;
+
+  private final MappedStoreProperties properties = new MappedStoreProperties();
+
+  /**
+   * Use small chunks and a small index so growth is exercised.
+   */
+  @BeforeEach
+  void setUp() {
+    properties.setDirectory(directory.toString());
+    properties.setChunkSizeMb(1);
+    properties.setInitialIndexCapacity(1024);
+  }
+
+  /**
+   * Verifies that a prescription round-trips through its slot with all fields intact.
+   */
+  @Test
+  void create_roundTripsAllFields() throws IOException {
+    var store = open();
+    var prescription = sample("RX-1");
+
+    var created = store.create(prescription).orElseThrow();
+
+    var found = store.findByPrescriptionId("RX-1").orElseThrow();
+    assertThat(found.getId()).isEqualTo(created.getId());
+    assertThat(found.getIssuedAt()).isEqualTo(prescription.getIssuedAt());
+    assertThat(found.getExpiresAt()).isNull();
+    assertThat(found.getDosage()).isEqualTo("1 tablet, 3× daily");
+    assertThat(found.getStatus()).isEqualTo(ErezeptStatus.CREATED);
+    assertThat(store.create(sample("RX-1"))).isEmpty();
+    store.close();
+  }
+
+  /**
+   * Ensures prescriptions and the index survive a clean restart and are rebuilt after a crash.
+   */
+  @Test
+  void reopen_restoresPrescriptionsAndIndex() throws IOException {
+    var store = open();
+    for (int i = 0; i < 3000; i++) {
+      store.create(sample("RX-" + i));
+    }
+    store.deleteById(1L);
+    store.close();
+
+    var reopened = open();
+    assertThat(reopened.findAll()).hasSize(2999);
+    assertThat(reopened.findByPrescriptionId("RX-2999")).isPresent();
+    assertThat(reopened.existsByPrescriptionId("RX-0")).isFalse();
+
+    var recovered = open();
+    assertThat(recovered.findByPrescriptionId("RX-1500")).map(Erezept::getId).contains(1501L);
+    recovered.close();
+  }
+
+  /**
+   * Verifies updates keep identifiers while saves move the business identifier.
+   */
+  @Test
+  void updateAndSave_maintainIndex() throws IOException {
+    var store = open();
+    var created = store.create(sample("RX-A")).orElseThrow();
+    store.create(sample("RX-B"));
+
+    store.update(created.getId(), existing -> existing.setStatus(ErezeptStatus.SIGNED));
+    store.save(created.toBuilder().prescriptionId("RX-C").build());
+
+    assertThat(store.findByPrescriptionId("RX-C")).map(Erezept::getId).contains(created.getId());
+    assertThat(store.existsByPrescriptionId("RX-A")).isFalse();
+    assertThatThrownBy(() -> store.save(created.toBuilder().prescriptionId("RX-B").build()))
+        .isInstanceOf(DataIntegrityViolationException.class);
+    store.close();
+  }
+
+  /**
+   * Confirms a prescription larger than a slot is rejected.
+   */
+  @Test
+  void create_rejectsOversizedPrescription() throws IOException {
+    var store = open();
+
+    assertThatThrownBy(() -> store.create(sample("RX-BIG").toBuilder().dosage("x".repeat(2000)).build()))
+        .isInstanceOf(DataIntegrityViolationException.class);
+    assertThat(store.existsByPrescriptionId("RX-BIG")).isFalse();
+    store.close();
+  }
+
+  /**
+   * Verifies that a prescription using the maximum field lengths with 3-byte UTF-8 characters
+   * fits into its slot.
+   */
+  @Test
+  void create_storesMaximumLengthMultibyteFields() throws IOException {
+    var store = open();
+    String prescriptionId = "€".repeat(Erezept.IDENTIFIER_LENGTH);
+    var prescription = sample(prescriptionId).toBuilder()
+        .medicationName("€".repeat(Erezept.MEDICATION_NAME_LENGTH))
+        .dosage("€".repeat(Erezept.DOSAGE_LENGTH))
+        .patientId("€".repeat(Erezept.IDENTIFIER_LENGTH))
+        .practitionerId("€".repeat(Erezept.IDENTIFIER_LENGTH))
+        .expiresAt(OffsetDateTime.of(2025, 12, 31, 23, 59, 59, 0, ZoneOffset.UTC))
+        .build();
+
+    var created = store.create(prescription).orElseThrow();
+    store.create(sample("RX-NEXT"));
+
+    var found = store.findByPrescriptionId(prescriptionId).orElseThrow();
+    assertThat(found.getId()).isEqualTo(created.getId());
+    assertThat(found.getMedicationName()).isEqualTo(prescription.getMedicationName());
+    assertThat(found.getDosage()).isEqualTo(prescription.getDosage());
+    assertThat(found.getPractitionerId()).isEqualTo(prescription.getPractitionerId());
+    assertThat(store.findByPrescriptionId("RX-NEXT")).isPresent();
+    store.close();
+  }
+
+  /**
+   * Ensures pages are cut from the live slots in id order, skipping deleted slots.
+   */
+  @Test
+  void findPage_skipsDeletedSlots() throws IOException {
+    var store = open();
+    for (int i = 1; i <= 10; i++) {
+      store.create(sample("RX-" + i));
+    }
+    store.deleteById(2L);
+    store.deleteById(5L);
+
+    assertThat(store.findPage(0, 3)).extracting(Erezept::getId).containsExactly(1L, 3L, 4L);
+    assertThat(store.findPage(1, 3)).extracting(Erezept::getId).containsExactly(6L, 7L, 8L);
+    assertThat(store.findPage(2, 3)).extracting(Erezept::getId).containsExactly(9L, 10L);
+    assertThat(store.findPage(3, 3)).isEmpty();
+    store.close();
+  }
+
+  private MappedErezeptStore open() throws IOException {
+    return new MappedErezeptStore(properties, new SimpleMeterRegistry());
+  }
+
+  private static Erezept sample(String prescriptionId) {
+    return Erezept.builder()
+        .prescriptionId(prescriptionId)
+        .patientId("PT-1")
+        .practitionerId("PR-1")
+        .medicationName("Ibuprofen")
+        .dosage("1 tablet, 3× daily")
+        .issuedAt(OffsetDateTime.of(2025, 9, 22, 10, 30, 0, 123_000_000, ZoneOffset.ofHours(2)))
+        .build();
+  }
+}
@@ -0,0 +1,209 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.gematik.zeta.testfachdienst.config.ShardingProperties;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Tests for {@link ShardedErezeptStore} against embedded H2 shards.
+ */
+class ShardedErezeptStoreTest {
+
+  private final ShardingProperties properties = new ShardingProperties();
+  private ShardedErezeptStore store;
+
+  @BeforeEach
+  void setUp() {
+    properties.setShardCount(3);
+    properties.setUrlTemplate("jdbc:h2:mem:shard-" + UUID.randomUUID() + "-%d;DB_CLOSE_DELAY=-1");
+    store = new ShardedErezeptStore(properties);
+  }
+
+  @AfterEach
+  void tearDown() {
+    store.close();
+  }
+
+  /**
+   * Created prescriptions are found by id and business identifier, duplicates are rejected.
+   */
+  @Test
+  void createAndFind() {
+    Erezept created = store.create(prescription("RX-1")).orElseThrow();
+
+    assertThat(store.findById(created.getId())).get()
+        .extracting(Erezept::getPrescriptionId, Erezept::getStatus)
+        .containsExactly("RX-1", ErezeptStatus.CREATED);
+    assertThat(store.findByPrescriptionId("RX-1")).get().extracting(Erezept::getId).isEqualTo(created.getId());
+    assertThat(store.existsByPrescriptionId("RX-1")).isTrue();
+    assertThat(store.create(prescription("RX-1"))).isEmpty();
+  }
+
+  /**
+   * Listing merges all shards in id order, paging cuts the merged order.
+   */
+  @Test
+  void listMergesShardsInIdOrder() {
+    List<Long> ids = IntStream.range(0, 20)
+        .mapToObj(i -> store.create(prescription("RX-" + i)).orElseThrow().getId())
+        .sorted()
+        .toList();
+
+    assertThat(store.findAll()).extracting(Erezept::getId).containsExactlyElementsOf(ids);
+    assertThat(store.findPage(1, 7)).extracting(Erezept::getId).containsExactlyElementsOf(ids.subList(7, 14));
+    assertThat(store.findPage(2, 7)).extracting(Erezept::getId).containsExactlyElementsOf(ids.subList(14, 20));
+  }
+
+  /**
+   * Ids encode the shard chosen by the business identifier, so prescriptions spread over shards.
+   */
+  @Test
+  void distributesByPrescriptionId() {
+    List<Long> shards = IntStream.range(0, 30)
+        .mapToObj(i -> store.create(prescription("RX-" + i)).orElseThrow().getId() % 3)
+        .distinct()
+        .toList();
+
+    assertThat(shards).hasSize(3);
+  }
+
+  /**
+   * Renaming a prescription into another shard keeps its id and survives a restart.
+   */
+  @Test
+  void renameMovesPrescriptionAcrossShards() {
+    Erezept created = store.create(prescription("RX-A")).orElseThrow();
+    String renamed = IntStream.range(0, 100)
+        .mapToObj(i -> "RX-B" + i)
+        .filter(candidate -> Math.floorMod(candidate.hashCode(), 3) != created.getId() % 3)
+        .findFirst()
+        .orElseThrow();
+
+    store.save(created.toBuilder().prescriptionId(renamed).status(ErezeptStatus.DISPENSED).build());
+
+    assertThat(store.findById(created.getId())).get()
+        .extracting(Erezept::getPrescriptionId, Erezept::getStatus)
+        .containsExactly(renamed, ErezeptStatus.DISPENSED);
+    assertThat(store.existsByPrescriptionId("RX-A")).isFalse();
+
+    store.close();
+    store = new ShardedErezeptStore(properties);
+
+    assertThat(store.findById(created.getId())).get().extracting(Erezept::getPrescriptionId).isEqualTo(renamed);
+    assertThat(store.create(prescription("RX-C")).orElseThrow().getId()).isGreaterThan(created.getId());
+    assertThat(store.deleteById(created.getId())).isTrue();
+    assertThat(store.existsById(created.getId())).isFalse();
+  }
+
+  /**
+   * A move whose delete in the source shard fails hides the stale copy and removes it on restart.
+   */
+  @Test
+  void moveWithFailedDeleteIsFinishedOnRestart() {
+    Erezept created = store.create(prescription("RX-A")).orElseThrow();
+    int source = (int) (created.getId() % 3);
+    String renamed = IntStream.range(0, 100)
+        .mapToObj(i -> "RX-B" + i)
+        .filter(candidate -> Math.floorMod(candidate.hashCode(), 3) != source)
+        .findFirst()
+        .orElseThrow();
+    var sourceShard = new JdbcTemplate(new DriverManagerDataSource(
+        properties.getUrlTemplate().formatted(source), properties.getUsername(), properties.getPassword()));
+    sourceShard.execute("create table pin (erezept_id bigint references erezept (id))");
+    sourceShard.update("insert into pin values (?)", created.getId());
+
+    store.save(created.toBuilder().prescriptionId(renamed).build());
+
+    assertThat(count(sourceShard, created.getId())).isEqualTo(1);
+    assertThat(store.findById(created.getId())).get().extracting(Erezept::getPrescriptionId).isEqualTo(renamed);
+    assertThat(store.findByPrescriptionId("RX-A")).isEmpty();
+    assertThat(store.findAll()).extracting(Erezept::getId).containsExactly(created.getId());
+
+    sourceShard.execute("drop table pin");
+    store.close();
+    store = new ShardedErezeptStore(properties);
+
+    assertThat(count(sourceShard, created.getId())).isZero();
+    assertThat(store.findById(created.getId())).get().extracting(Erezept::getPrescriptionId).isEqualTo(renamed);
+    assertThat(store.findAll()).extracting(Erezept::getId).containsExactly(created.getId());
+  }
+
+  /**
+   * Updates keep the business identifier and leave unknown ids untouched.
+   */
+  @Test
+  void updateAppliesChanges() {
+    Erezept created = store.create(prescription("RX-U")).orElseThrow();
+
+    assertThat(store.update(created.getId(), e -> e.setStatus(ErezeptStatus.CANCELLED))).get()
+        .extracting(Erezept::getStatus).isEqualTo(ErezeptStatus.CANCELLED);
+    assertThat(store.findByPrescriptionId("RX-U")).get()
+        .extracting(Erezept::getStatus).isEqualTo(ErezeptStatus.CANCELLED);
+    assertThat(store.update(created.getId() + 1000, e -> e.setStatus(ErezeptStatus.CANCELLED))).isEmpty();
+  }
+
+  /**
+   * An update whose row is deleted after it was read reports the prescription as missing.
+   */
+  @Test
+  void updateOfConcurrentlyDeletedRowIsEmpty() {
+    Erezept created = store.create(prescription("RX-D")).orElseThrow();
+
+    assertThat(store.update(created.getId(), e -> {
+      store.deleteById(created.getId());
+      e.setStatus(ErezeptStatus.CANCELLED);
+    })).isEmpty();
+    assertThat(store.existsById(created.getId())).isFalse();
+  }
+
+  private static long count(JdbcTemplate shard, long id) {
+    return shard.queryForObject("select count(*) from erezept where id = ?", Long.class, id);
+  }
+
+  private static Erezept prescription(String prescriptionId) {
+    return Erezept.builder()
+        .prescriptionId(prescriptionId)
+        .patientId("PT-1")
+        .practitionerId("PR-1")
+        .medicationName("Ibuprofen")
+        .dosage("200mg")
+        .issuedAt(OffsetDateTime.now().minusDays(1))
+        .status(ErezeptStatus.CREATED)
+        .build();
+  }
+}
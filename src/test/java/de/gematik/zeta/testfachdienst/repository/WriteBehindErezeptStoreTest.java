@@ -0,0 +1,239 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import de.gematik.zeta.testfachdienst.config.WriteBehindProperties;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Unit tests for {@link WriteBehindErezeptStore}.
+ */
+@ExtendWith(MockitoExtension.class)
+class WriteBehindErezeptStoreTest {
+
+  @TempDir
+  Path directory;
+
+  @Mock
+  private JpaErezeptStore delegate;
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+  @Mock
+  private PlatformTransactionManager transactionManager;
+  @Captor
+  private ArgumentCaptor<List<Erezept>> flushed;
+  @Captor
+  private ArgumentCaptor<ParameterizedPreparedStatementSetter<Erezept>> setter;
+
+  private final WriteBehindProperties properties = new WriteBehindProperties();
+  private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final Erezept stored = Erezept.builder()
+      .id(7L)
+      .prescriptionId("RX-7")
+      .patientId("PT-7")
+      .practitionerId("PR-7")
+      .medicationName("Ibuprofen")
+      .dosage("200mg")
+      .issuedAt(OffsetDateTime.now().minusDays(1))
+      .status(ErezeptStatus.CREATED)
+      .build();
+
+  /**
+   * Keep the background flusher out of the way so flushes are triggered by the tests.
+   */
+  @BeforeEach
+  void setUp() {
+    properties.setWalDirectory(directory.toString());
+    properties.setFlushIntervalMillis(3_600_000);
+  }
+
+  /**
+   * Verifies that updates are visible immediately, coalesced per id and flushed once.
+   */
+  @Test
+  void update_isBufferedCoalescedAndFlushed() throws IOException {
+    when(delegate.existsById(7L)).thenReturn(true);
+    when(delegate.findById(7L)).thenReturn(Optional.of(stored));
+    var store = open();
+
+    store.update(7L, existing -> existing.setStatus(ErezeptStatus.SIGNED));
+    store.update(7L, existing -> existing.setStatus(ErezeptStatus.DISPENSED));
+
+    assertThat(store.findById(7L)).map(Erezept::getStatus).contains(ErezeptStatus.DISPENSED);
+    verify(delegate, never()).save(any());
+    verify(jdbcTemplate, never()).batchUpdate(anyString(), any(), anyInt(), anySetter());
+
+    store.flush();
+
+    verify(jdbcTemplate).batchUpdate(anyString(), flushed.capture(), eq(500), anySetter());
+    assertThat(flushed.getValue()).singleElement()
+        .extracting(Erezept::getStatus).isEqualTo(ErezeptStatus.DISPENSED);
+    assertThat(meterRegistry.get("erezept.write-behind.coalesced").counter().count()).isEqualTo(1.0);
+    assertThat(meterRegistry.get("erezept.write-behind.pending").gauge().value()).isZero();
+    store.close();
+  }
+
+  /**
+   * Ensures updates that were acknowledged but not flushed are written after a restart.
+   */
+  @Test
+  void open_recoversUnflushedUpdates() throws IOException {
+    when(delegate.existsById(7L)).thenReturn(true);
+    when(delegate.findById(7L)).thenReturn(Optional.of(stored));
+    open().update(7L, existing -> existing.setStatus(ErezeptStatus.SIGNED));
+
+    open();
+
+    verify(jdbcTemplate).batchUpdate(anyString(), flushed.capture(), eq(500), anySetter());
+    assertThat(flushed.getValue()).singleElement()
+        .extracting(Erezept::getStatus).isEqualTo(ErezeptStatus.SIGNED);
+  }
+
+  /**
+   * Confirms a change of the business identifier is written synchronously.
+   */
+  @Test
+  void save_writesIdentifierChangeSynchronously() throws IOException {
+    when(delegate.existsById(7L)).thenReturn(true);
+    when(delegate.findById(7L)).thenReturn(Optional.of(stored));
+    var store = open();
+    var renamed = stored.toBuilder().prescriptionId("RX-8").build();
+    when(delegate.save(any())).thenReturn(renamed);
+
+    assertThat(store.save(renamed).getPrescriptionId()).isEqualTo("RX-8");
+    verify(delegate).save(any());
+    store.close();
+  }
+
+  /**
+   * Ensures a buffered update does not overwrite a row the sweeper expired before the flush.
+   */
+  @Test
+  void flush_dropsUpdateOfRowChangedBySweeper() throws IOException, SQLException {
+    var expired = stored.toBuilder().status(ErezeptStatus.EXPIRED).build();
+    when(delegate.existsById(7L)).thenReturn(true);
+    when(delegate.findById(7L)).thenReturn(Optional.of(stored), Optional.of(expired));
+    when(jdbcTemplate.batchUpdate(anyString(), flushed.capture(), anyInt(), setter.capture()))
+        .thenReturn(new int[][] {{0}});
+    var store = open();
+
+    store.update(7L, existing -> existing.setStatus(ErezeptStatus.SIGNED));
+    store.flush();
+
+    PreparedStatement statement = mock(PreparedStatement.class);
+    setter.getValue().setValues(statement, flushed.getValue().get(0));
+    verify(statement).setString(9 + ErezeptStatus.CREATED.ordinal(), "CREATED");
+    verify(statement).setNull(9 + ErezeptStatus.EXPIRED.ordinal(), Types.VARCHAR);
+    assertThat(store.findById(7L)).map(Erezept::getStatus).contains(ErezeptStatus.EXPIRED);
+    assertThat(meterRegistry.get("erezept.write-behind.conflicts").counter().count()).isEqualTo(1.0);
+    assertThat(meterRegistry.get("erezept.write-behind.flushed").counter().count()).isZero();
+    assertThat(meterRegistry.get("erezept.write-behind.pending").gauge().value()).isZero();
+  }
+
+  /**
+   * Verifies that a delete is logged, so buffered updates of the prescription are not replayed.
+   */
+  @Test
+  void open_skipsUpdatesOfDeletedPrescriptions() throws IOException {
+    when(delegate.existsById(7L)).thenReturn(true);
+    when(delegate.findById(7L)).thenReturn(Optional.of(stored));
+    when(delegate.deleteById(7L)).thenReturn(true);
+    var store = open();
+    store.update(7L, existing -> existing.setStatus(ErezeptStatus.SIGNED));
+
+    assertThat(store.deleteById(7L)).isTrue();
+    open();
+
+    verify(jdbcTemplate, never()).batchUpdate(anyString(), any(), anyInt(), anySetter());
+  }
+
+  /**
+   * Ensures an update whose log entry cannot be forced is dropped: the prescription falls back
+   * to the last durable update, which is also all a restart recovers.
+   */
+  @Test
+  void failedFsync_fallsBackToDurableUpdate() throws IOException {
+    when(delegate.existsById(7L)).thenReturn(true);
+    when(delegate.findById(7L)).thenReturn(Optional.of(stored));
+    var store = open();
+    store.update(7L, existing -> existing.setStatus(ErezeptStatus.SIGNED));
+    FailingFileChannel.install((ErezeptJournal) ReflectionTestUtils.getField(store, "wal")).failNextForce();
+
+    assertThatThrownBy(() -> store.update(7L, existing -> existing.setStatus(ErezeptStatus.DISPENSED)))
+        .isInstanceOf(UncheckedIOException.class);
+    assertThat(store.findById(7L)).map(Erezept::getStatus).contains(ErezeptStatus.SIGNED);
+    open();
+
+    verify(jdbcTemplate).batchUpdate(anyString(), flushed.capture(), eq(500), anySetter());
+    assertThat(flushed.getValue()).singleElement()
+        .extracting(Erezept::getStatus).isEqualTo(ErezeptStatus.SIGNED);
+  }
+
+  private WriteBehindErezeptStore open() throws IOException {
+    return new WriteBehindErezeptStore(
+        delegate, jdbcTemplate, transactionManager, objectMapper, properties, meterRegistry);
+  }
+
+  private static ParameterizedPreparedStatementSetter<Erezept> anySetter() {
+    return any();
+  }
+}
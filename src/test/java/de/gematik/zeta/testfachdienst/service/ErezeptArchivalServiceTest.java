@@ -0,0 +1,162 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import de.gematik.zeta.testfachdienst.config.ErezeptArchiveProperties;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptArchive;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import de.gematik.zeta.testfachdienst.repository.ErezeptArchiveRepository;
+import de.gematik.zeta.testfachdienst.repository.ErezeptRepository;
+import de.gematik.zeta.testfachdienst.repository.ErezeptStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.OffsetDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Unit tests for {@link ErezeptArchivalService}.
+ */
+@ExtendWith(MockitoExtension.class)
+class ErezeptArchivalServiceTest {
+
+  @Mock
+  private ErezeptRepository repository;
+  @Mock
+  private ErezeptStore store;
+  @Mock
+  private ErezeptArchiveRepository archiveRepository;
+  @Mock
+  private ErezeptStatsService stats;
+  @Mock
+  private PlatformTransactionManager transactionManager;
+  @Captor
+  private ArgumentCaptor<Erezept> removed;
+
+  private final ErezeptArchiveProperties properties = new ErezeptArchiveProperties();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final OffsetDateTime cutoff = OffsetDateTime.now();
+
+  private ErezeptArchivalService service;
+
+  /**
+   * Create the service with a small batch size so batching is observable.
+   */
+  @BeforeEach
+  void setUp() {
+    properties.setBatchSize(2);
+    properties.setMaxRowsPerRun(10);
+    service = new ErezeptArchivalService(
+        repository, store, archiveRepository, stats, properties, transactionManager, meterRegistry);
+  }
+
+  /**
+   * Verifies that terminal rows are moved batch by batch and removed from the stats.
+   */
+  @Test
+  void archiveIssuedBefore_movesBatchesAndRemovesThemFromStats() {
+    when(repository.findArchivableIds(ErezeptArchivalService.TERMINAL_STATUSES, cutoff, PageRequest.of(0, 2)))
+        .thenReturn(List.of(1L, 2L), List.of(3L), List.of());
+    when(archiveRepository.copyFromHot(any(), eq(ErezeptArchivalService.TERMINAL_STATUSES), any()))
+        .thenReturn(2, 1);
+    when(repository.deleteArchived(List.of(1L, 2L))).thenReturn(2);
+    when(repository.deleteArchived(List.of(3L))).thenReturn(1);
+    when(archiveRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(archived(1L), archived(2L)));
+    when(archiveRepository.findAllById(List.of(3L))).thenReturn(List.of(archived(3L)));
+
+    int processed = service.archiveIssuedBefore(cutoff);
+
+    assertThat(processed).isEqualTo(3);
+    verify(stats, times(3)).deleted(removed.capture());
+    assertThat(removed.getAllValues())
+        .extracting(Erezept::getId, Erezept::getStatus)
+        .containsExactly(
+            tuple(1L, ErezeptStatus.DISPENSED),
+            tuple(2L, ErezeptStatus.DISPENSED),
+            tuple(3L, ErezeptStatus.DISPENSED));
+    assertThat(meterRegistry.get("erezept.archive.moved").counter().count()).isEqualTo(3.0);
+  }
+
+  /**
+   * Ensures nothing is deleted or removed from the stats when no row could be copied.
+   */
+  @Test
+  void archiveIssuedBefore_skipsDeleteWhenNothingCopied() {
+    when(repository.findArchivableIds(any(), any(), any())).thenReturn(List.of(1L));
+    when(archiveRepository.copyFromHot(any(), any(), any())).thenReturn(0);
+
+    int processed = service.archiveIssuedBefore(cutoff);
+
+    assertThat(processed).isZero();
+    verify(repository, never()).deleteArchived(any());
+    verifyNoInteractions(stats);
+  }
+
+  /**
+   * Confirms the archival job stays idle when the active store does not use the {@code erezept}
+   * table.
+   */
+  @Test
+  void archiveTerminal_doesNothingWhenStoreIsNotJpaBacked() {
+    when(store.isJpaBacked()).thenReturn(false);
+
+    service.archiveTerminal();
+
+    assertThat(service.isEnabled()).isFalse();
+    verifyNoInteractions(repository, archiveRepository, stats);
+  }
+
+  private static ErezeptArchive archived(Long id) {
+    return ErezeptArchive.builder()
+        .id(id)
+        .prescriptionId("RX-" + id)
+        .patientId("PT-" + id)
+        .practitionerId("PR-" + id)
+        .medicationName("Ibuprofen")
+        .dosage("200mg")
+        .issuedAt(OffsetDateTime.now().minusDays(400))
+        .status(ErezeptStatus.DISPENSED)
+        .archivedAt(OffsetDateTime.now())
+        .build();
+  }
+}
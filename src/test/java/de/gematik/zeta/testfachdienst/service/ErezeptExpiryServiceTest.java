@@ -0,0 +1,218 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import de.gematik.zeta.testfachdienst.config.ErezeptExpiryProperties;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import de.gematik.zeta.testfachdienst.repository.ErezeptRepository;
+import de.gematik.zeta.testfachdienst.repository.ErezeptStore;
+import de.gematik.zeta.testfachdienst.ws.ErezeptBroadcaster;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.OffsetDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Unit tests for {@link ErezeptExpiryService}.
+ */
+@ExtendWith(MockitoExtension.class)
+class ErezeptExpiryServiceTest {
+
+  @Mock
+  private ErezeptRepository repository;
+  @Mock
+  private ErezeptStore store;
+  @Mock
+  private ErezeptBroadcaster broadcaster;
+  @Mock
+  private ErezeptStatsService stats;
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private final ErezeptExpiryProperties properties = new ErezeptExpiryProperties();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final OffsetDateTime cutoff = OffsetDateTime.now();
+
+  private ErezeptExpiryService service;
+
+  /**
+   * Create the service with a small batch size so batching is observable.
+   */
+  @BeforeEach
+  void setUp() {
+    properties.setBatchSize(2);
+    properties.setMaxRowsPerRun(10);
+    service = new ErezeptExpiryService(
+        repository, store, broadcaster, stats, properties, transactionManager, meterRegistry);
+  }
+
+  /**
+   * Verifies that expired rows are transitioned batch by batch, broadcast afterwards and moved
+   * between the stats buckets.
+   */
+  @Test
+  void expireBefore_transitionsInBatchesAndBroadcasts() {
+    var first = expired(1L);
+    var second = expired(2L);
+    var third = expired(3L);
+    var firstBefore = first.toBuilder().status(ErezeptStatus.CREATED).build();
+    var secondBefore = second.toBuilder().status(ErezeptStatus.SIGNED).build();
+    var thirdBefore = third.toBuilder().status(ErezeptStatus.CREATED).build();
+    when(repository.findExpiredIds(ErezeptExpiryService.EXPIRABLE_STATUSES, cutoff, PageRequest.of(0, 2)))
+        .thenReturn(List.of(1L, 2L), List.of(3L), List.of());
+    when(repository.transitionStatus(anyList(), eq(ErezeptExpiryService.EXPIRABLE_STATUSES),
+        eq(cutoff), eq(ErezeptStatus.EXPIRED)))
+        .thenReturn(2, 1);
+    when(repository.findAllById(List.of(1L, 2L)))
+        .thenReturn(List.of(firstBefore, secondBefore), List.of(first, second));
+    when(repository.findAllById(List.of(3L))).thenReturn(List.of(thirdBefore), List.of(third));
+
+    int processed = service.expireBefore(cutoff);
+
+    assertThat(processed).isEqualTo(3);
+    verify(broadcaster).broadcast(first);
+    verify(broadcaster).broadcast(second);
+    verify(broadcaster).broadcast(third);
+    verify(stats).changed(firstBefore, first);
+    verify(stats).changed(secondBefore, second);
+    verify(stats).changed(thirdBefore, third);
+    assertThat(meterRegistry.get("erezept.expiry.transitions").counter().count()).isEqualTo(3.0);
+    assertThat(meterRegistry.get("erezept.expiry.batch.size").gauge().value()).isEqualTo(2.0);
+  }
+
+  /**
+   * Ensures a run stops once the configured maximum number of rows has been processed.
+   */
+  @Test
+  void expireBefore_respectsMaxRowsPerRun() {
+    properties.setMaxRowsPerRun(2);
+    when(repository.findExpiredIds(ErezeptExpiryService.EXPIRABLE_STATUSES, cutoff, PageRequest.of(0, 2)))
+        .thenReturn(List.of(1L, 2L));
+    when(repository.transitionStatus(anyList(), any(), any(), any())).thenReturn(2);
+    when(repository.findAllById(List.of(1L, 2L))).thenReturn(
+        List.of(signed(1L), signed(2L)), List.of(expired(1L), expired(2L)));
+
+    int processed = service.expireBefore(cutoff);
+
+    assertThat(processed).isEqualTo(2);
+    verify(repository).findExpiredIds(any(), any(), any());
+  }
+
+  /**
+   * Confirms nothing is updated or broadcast when no prescription has expired.
+   */
+  @Test
+  void expireBefore_skipsUpdateWhenNothingExpired() {
+    when(repository.findExpiredIds(any(), any(), any())).thenReturn(List.of());
+
+    int processed = service.expireBefore(cutoff);
+
+    assertThat(processed).isZero();
+    verify(repository, never()).transitionStatus(any(), any(), any(), any());
+    verifyNoInteractions(broadcaster, stats);
+  }
+
+  /**
+   * Ensures rows that were already expired by a concurrent run are neither broadcast nor counted
+   * again.
+   */
+  @Test
+  void expireBefore_ignoresRowsExpiredConcurrently() {
+    var first = expired(1L);
+    var firstBefore = signed(1L);
+    when(repository.findExpiredIds(ErezeptExpiryService.EXPIRABLE_STATUSES, cutoff, PageRequest.of(0, 2)))
+        .thenReturn(List.of(1L, 2L), List.of());
+    when(repository.transitionStatus(anyList(), any(), any(), any())).thenReturn(1);
+    when(repository.findAllById(List.of(1L, 2L)))
+        .thenReturn(List.of(firstBefore, expired(2L)), List.of(first, expired(2L)));
+
+    int processed = service.expireBefore(cutoff);
+
+    assertThat(processed).isEqualTo(1);
+    verify(broadcaster).broadcast(first);
+    verify(stats).changed(firstBefore, first);
+    verifyNoMoreInteractions(broadcaster, stats);
+  }
+
+  /**
+   * Confirms a disabled sweeper does not touch the repository.
+   */
+  @Test
+  void sweepExpired_doesNothingWhenDisabled() {
+    properties.setEnabled(false);
+
+    service.sweepExpired();
+
+    verifyNoInteractions(repository, broadcaster);
+  }
+
+  /**
+   * Confirms the sweeper stays idle when the active store does not use the {@code erezept} table.
+   */
+  @Test
+  void sweepExpired_doesNothingWhenStoreIsNotJpaBacked() {
+    when(store.isJpaBacked()).thenReturn(false);
+
+    service.sweepExpired();
+
+    assertThat(service.isEnabled()).isFalse();
+    verifyNoInteractions(repository, broadcaster);
+  }
+
+  private static Erezept signed(Long id) {
+    return expired(id).toBuilder().status(ErezeptStatus.SIGNED).build();
+  }
+
+  private static Erezept expired(Long id) {
+    return Erezept.builder()
+        .id(id)
+        .prescriptionId("RX-" + id)
+        .patientId("PT-" + id)
+        .practitionerId("PR-" + id)
+        .medicationName("Ibuprofen")
+        .dosage("200mg")
+        .issuedAt(OffsetDateTime.now().minusDays(30))
+        .expiresAt(OffsetDateTime.now().minusDays(1))
+        .status(ErezeptStatus.EXPIRED)
+        .build();
+  }
+}
@@ -0,0 +1,233 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.gematik.zeta.testfachdienst.config.ErezeptExportProperties;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptExportStatus;
+import de.gematik.zeta.testfachdienst.model.ErezeptExportStatus.State;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import de.gematik.zeta.testfachdienst.repository.ErezeptRepository;
+import de.gematik.zeta.testfachdienst.repository.ErezeptStore;
+import jakarta.persistence.EntityManager;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import org.jobrunr.jobs.context.JobContext;
+import org.jobrunr.scheduling.JobScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Unit tests for {@link ErezeptExportService}.
+ */
+@ExtendWith(MockitoExtension.class)
+class ErezeptExportServiceTest {
+
+  @Mock
+  private JobScheduler jobScheduler;
+  @Mock
+  private ErezeptRepository repository;
+  @Mock
+  private ErezeptStore store;
+  @Mock
+  private EntityManager entityManager;
+  @Mock
+  private PlatformTransactionManager transactionManager;
+  @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+  private JobContext jobContext;
+  @TempDir
+  private Path exportDirectory;
+
+  private final ErezeptExportProperties properties = new ErezeptExportProperties();
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+  private ErezeptExportService service;
+
+  /**
+   * Create the service writing to a temporary export directory.
+   */
+  @BeforeEach
+  void setUp() {
+    properties.setDirectory(exportDirectory.toString());
+    service = new ErezeptExportService(jobScheduler, repository, store, entityManager, objectMapper,
+        properties, transactionManager);
+  }
+
+  /**
+   * Verifies that a queued export writes all prescriptions as gzip NDJSON, renames the partial
+   * file and reports the row count and size.
+   */
+  @Test
+  void runExport_writesCompressedSnapshot() throws IOException {
+    var first = prescription("RX-1");
+    var second = prescription("RX-2");
+    when(repository.count()).thenReturn(2L);
+    when(repository.streamAll()).thenReturn(Stream.of(first, second));
+    var queued = service.submit();
+    assertThat(queued.getState()).isEqualTo(State.QUEUED);
+
+    service.runExport(queued.getExportId(), jobContext);
+
+    Path file = service.findSnapshot(queued.getExportId()).orElseThrow();
+    assertThat(service.findStatus(queued.getExportId())).get()
+        .extracting(ErezeptExportStatus::getState, ErezeptExportStatus::getRowCount, ErezeptExportStatus::getSizeBytes)
+        .containsExactly(State.SUCCEEDED, 2L, Files.size(file));
+    assertThat(file.getFileName()).hasToString(queued.getFileName());
+    assertThat(filesIn(exportDirectory)).containsExactly(queued.getFileName());
+    assertThat(readSnapshot(file)).extracting(Erezept::getPrescriptionId).containsExactly("RX-1", "RX-2");
+    verify(entityManager).detach(first);
+    verify(entityManager).detach(second);
+  }
+
+  /**
+   * Ensures a failing export is marked failed and leaves neither a partial nor a final file.
+   */
+  @Test
+  void runExport_marksExportFailedAndRemovesPartialFile() {
+    when(repository.count()).thenReturn(1L);
+    when(repository.streamAll()).thenThrow(new IllegalStateException("cursor closed"));
+    var queued = service.submit();
+
+    assertThatThrownBy(() -> service.runExport(queued.getExportId(), jobContext))
+        .isInstanceOf(IllegalStateException.class);
+
+    assertThat(service.findStatus(queued.getExportId())).get()
+        .satisfies(status -> {
+          assertThat(status.getState()).isEqualTo(State.FAILED);
+          assertThat(status.getFinishedAt()).isNotNull();
+        });
+    assertThat(service.findSnapshot(queued.getExportId())).isEmpty();
+    assertThat(filesIn(exportDirectory)).isEmpty();
+  }
+
+  /**
+   * Verifies that only the newest snapshots are kept and exports whose file was removed are
+   * forgotten.
+   */
+  @Test
+  void runExport_prunesOldSnapshotsAndTheirStatuses() throws IOException {
+    properties.setRetainedSnapshots(1);
+    when(repository.streamAll()).thenAnswer(invocation -> Stream.of(prescription("RX-1")));
+    var older = service.submit();
+    service.runExport(older.getExportId(), jobContext);
+    Files.setLastModifiedTime(exportDirectory.resolve(older.getFileName()), FileTime.fromMillis(0));
+    var newer = service.submit();
+
+    service.runExport(newer.getExportId(), jobContext);
+
+    assertThat(filesIn(exportDirectory)).containsExactly(newer.getFileName());
+    assertThat(service.findStatus(older.getExportId())).isEmpty();
+    assertThat(service.findSnapshot(newer.getExportId())).isPresent();
+  }
+
+  /**
+   * Verifies that finished exports beyond the configured maximum are forgotten, oldest first,
+   * while queued exports are kept.
+   */
+  @Test
+  void submit_evictsOldestFinishedStatuses() throws IOException {
+    properties.setMaxRetainedStatuses(2);
+    when(repository.streamAll()).thenAnswer(invocation -> Stream.of(prescription("RX-1")));
+    var first = service.submit();
+    service.runExport(first.getExportId(), jobContext);
+    var second = service.submit();
+
+    var third = service.submit();
+
+    assertThat(service.findStatus(first.getExportId())).isEmpty();
+    assertThat(service.findStatus(second.getExportId())).isPresent();
+    assertThat(service.findStatus(third.getExportId())).isPresent();
+  }
+
+  /**
+   * Ensures finished exports are forgotten once the retention has passed.
+   */
+  @Test
+  void submit_evictsExpiredStatuses() throws IOException {
+    properties.setStatusRetentionMinutes(-1);
+    when(repository.streamAll()).thenAnswer(invocation -> Stream.of(prescription("RX-1")));
+    var finished = service.submit();
+    service.runExport(finished.getExportId(), jobContext);
+
+    var queued = service.submit();
+
+    assertThat(service.findStatus(finished.getExportId())).isEmpty();
+    assertThat(service.findStatus(queued.getExportId())).isPresent();
+  }
+
+  private List<Erezept> readSnapshot(Path file) throws IOException {
+    try (var reader = new BufferedReader(new InputStreamReader(
+        new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+      return reader.lines().map(line -> {
+        try {
+          return objectMapper.readValue(line, Erezept.class);
+        } catch (IOException ex) {
+          throw new IllegalStateException(ex);
+        }
+      }).toList();
+    }
+  }
+
+  private static List<String> filesIn(Path directory) {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.map(file -> file.getFileName().toString()).toList();
+    } catch (IOException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private static Erezept prescription(String prescriptionId) {
+    return Erezept.builder()
+        .prescriptionId(prescriptionId)
+        .patientId("PT-1")
+        .practitionerId("PR-1")
+        .medicationName("Ibuprofen")
+        .dosage("200mg")
+        .issuedAt(OffsetDateTime.parse("2025-09-22T10:30:00Z"))
+        .status(ErezeptStatus.CREATED)
+        .build();
+  }
+}
@@ -0,0 +1,267 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.gematik.zeta.testfachdienst.config.ErezeptImportProperties;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptImportStatus;
+import de.gematik.zeta.testfachdienst.model.ErezeptImportStatus.LineError;
+import de.gematik.zeta.testfachdienst.model.ErezeptImportStatus.State;
+import de.gematik.zeta.testfachdienst.repository.ErezeptArchiveRepository;
+import de.gematik.zeta.testfachdienst.repository.ErezeptRepository;
+import de.gematik.zeta.testfachdienst.repository.ErezeptStore;
+import de.gematik.zeta.testfachdienst.service.ErezeptImportService.Format;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import org.jobrunr.jobs.context.JobContext;
+import org.jobrunr.scheduling.JobScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Unit tests for {@link ErezeptImportService}.
+ */
+@ExtendWith(MockitoExtension.class)
+class ErezeptImportServiceTest {
+
+  @Mock
+  private JobScheduler jobScheduler;
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+  @Mock
+  private PlatformTransactionManager transactionManager;
+  @Mock
+  private ErezeptRepository repository;
+  @Mock
+  private ErezeptStore store;
+  @Mock
+  private ErezeptArchiveRepository archiveRepository;
+  @Mock
+  private ErezeptStatsService stats;
+  @Mock
+  private ObjectProvider<Validator> validator;
+  @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+  private JobContext jobContext;
+  @Captor
+  private ArgumentCaptor<Collection<Erezept>> inserted;
+  @TempDir
+  private Path spoolDirectory;
+
+  private final ErezeptImportProperties properties = new ErezeptImportProperties();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private ErezeptImportService service;
+
+  /**
+   * Create the service with a small batch size so batching is observable.
+   */
+  @BeforeEach
+  void setUp() {
+    properties.setSpoolDirectory(spoolDirectory.toString());
+    properties.setBatchSize(2);
+    service = new ErezeptImportService(jobScheduler, jdbcTemplate, transactionManager, repository,
+        store, archiveRepository, stats, new ObjectMapper().findAndRegisterModules(), validator,
+        properties, meterRegistry);
+  }
+
+  /**
+   * Ensures quoted CSV fields keep embedded separators and escaped quotes.
+   */
+  @Test
+  void splitCsv_handlesQuotedFields() {
+    var fields = ErezeptImportService.splitCsv("RX-1,\"1 tablet, 3x daily\",\"say \"\"hi\"\"\",");
+
+    assertThat(fields).containsExactly("RX-1", "1 tablet, 3x daily", "say \"hi\"", "");
+  }
+
+  /**
+   * Verifies that upload formats are resolved from the request content type.
+   */
+  @Test
+  void format_isResolvedFromContentType() {
+    assertThat(Format.fromContentType(MediaType.parseMediaType("application/x-ndjson")))
+        .contains(Format.NDJSON);
+    assertThat(Format.fromContentType(MediaType.parseMediaType("text/csv;charset=UTF-8")))
+        .contains(Format.CSV);
+    assertThat(Format.fromContentType(MediaType.APPLICATION_JSON)).isEmpty();
+  }
+
+  /**
+   * Verifies that accepted lines are inserted in batches and counted in the stats while malformed,
+   * invalid and duplicate lines are reported with their line numbers.
+   */
+  @Test
+  void runImport_insertsBatchesAndReportsRejectedLines() throws IOException {
+    when(repository.findExistingPrescriptionIds(any()))
+        .thenReturn(List.of(), List.of("RX-1", "RX-3"));
+    var status = submit(Format.NDJSON,
+        json("RX-1"),
+        json("RX-2"),
+        "{not json",
+        json("RX-1"),
+        json("RX-3"),
+        json("RX-4").replace("\"medicationName\":\"Ibuprofen\",", ""));
+    assertThat(status.getState()).isEqualTo(State.QUEUED);
+
+    service.runImport(status.getImportId(), Format.NDJSON, spoolFile(status, Format.NDJSON), jobContext);
+
+    verify(jdbcTemplate).batchUpdate(anyString(), inserted.capture(), anyInt(), any());
+    assertThat(inserted.getValue()).extracting(Erezept::getPrescriptionId)
+        .containsExactly("RX-1", "RX-2");
+    inserted.getValue().forEach(prescription -> verify(stats).created(prescription));
+    verifyNoMoreInteractions(stats);
+    var finished = service.findStatus(status.getImportId()).orElseThrow();
+    assertThat(finished.getState()).isEqualTo(State.SUCCEEDED);
+    assertThat(finished.getTotalLines()).isEqualTo(6);
+    assertThat(finished.getProcessedLines()).isEqualTo(6);
+    assertThat(finished.getImportedCount()).isEqualTo(2);
+    assertThat(finished.getFailedCount()).isEqualTo(4);
+    assertThat(finished.getErrors()).extracting(LineError::line).containsExactly(3L, 4L, 5L, 6L);
+    assertThat(finished.getErrors().get(3).message()).contains("medicationName");
+    assertThat(finished.getFinishedAt()).isNotNull();
+    assertThat(meterRegistry.get("erezept.import.rows").tag("result", "rejected").counter().count())
+        .isEqualTo(4.0);
+  }
+
+  /**
+   * Verifies that CSV uploads are mapped through their header line.
+   */
+  @Test
+  void runImport_mapsCsvColumnsByHeader() throws IOException {
+    var status = submit(Format.CSV,
+        "prescriptionId,patientId,practitionerId,medicationName,dosage,issuedAt,status",
+        "RX-9,PT-1,PR-1,Ibuprofen,\"200mg, twice daily\",2025-09-22T10:30:00Z,SIGNED");
+
+    service.runImport(status.getImportId(), Format.CSV, spoolFile(status, Format.CSV), jobContext);
+
+    verify(jdbcTemplate).batchUpdate(anyString(), inserted.capture(), anyInt(), any());
+    assertThat(inserted.getValue()).singleElement().satisfies(prescription -> {
+      assertThat(prescription.getPrescriptionId()).isEqualTo("RX-9");
+      assertThat(prescription.getDosage()).isEqualTo("200mg, twice daily");
+    });
+    assertThat(service.findStatus(status.getImportId()).orElseThrow().getImportedCount()).isEqualTo(1);
+  }
+
+  /**
+   * Ensures a failing batch marks the import as failed, is not counted in the stats and still
+   * removes the spooled upload.
+   */
+  @Test
+  void runImport_marksImportFailedWhenBatchFails() throws IOException {
+    when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any()))
+        .thenThrow(new DataIntegrityViolationException("value too long"));
+    var status = submit(Format.NDJSON, json("RX-1"));
+    String spoolFile = spoolFile(status, Format.NDJSON);
+
+    assertThatThrownBy(() -> service.runImport(status.getImportId(), Format.NDJSON, spoolFile, jobContext))
+        .isInstanceOf(DataIntegrityViolationException.class);
+
+    var failed = service.findStatus(status.getImportId()).orElseThrow();
+    assertThat(failed.getState()).isEqualTo(State.FAILED);
+    assertThat(failed.getFinishedAt()).isNotNull();
+    assertThat(Path.of(spoolFile)).doesNotExist();
+    verifyNoInteractions(stats);
+  }
+
+  /**
+   * Ensures uploads above the configured size are rejected and not left in the spool directory.
+   */
+  @Test
+  void submit_rejectsOversizedUpload() throws IOException {
+    properties.setMaxUploadBytes(16);
+
+    assertThatThrownBy(() -> submit(Format.NDJSON, json("RX-1")))
+        .isInstanceOfSatisfying(ResponseStatusException.class,
+            ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE));
+    try (var files = Files.list(spoolDirectory)) {
+      assertThat(files).isEmpty();
+    }
+    verifyNoInteractions(jobScheduler);
+  }
+
+  /**
+   * Verifies that finished imports beyond the configured maximum are forgotten, oldest first.
+   */
+  @Test
+  void submit_evictsOldestFinishedStatuses() throws IOException {
+    properties.setMaxRetainedStatuses(2);
+    var first = submit(Format.NDJSON, json("RX-1"));
+    service.runImport(first.getImportId(), Format.NDJSON, spoolFile(first, Format.NDJSON), jobContext);
+    var second = submit(Format.NDJSON, json("RX-2"));
+
+    var third = submit(Format.NDJSON, json("RX-3"));
+
+    assertThat(service.findStatus(first.getImportId())).isEmpty();
+    assertThat(service.findStatus(second.getImportId())).isPresent();
+    assertThat(service.findStatus(third.getImportId())).isPresent();
+  }
+
+  private ErezeptImportStatus submit(Format format, String... lines) throws IOException {
+    byte[] body = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+    return service.submit(new ByteArrayInputStream(body), format);
+  }
+
+  private String spoolFile(ErezeptImportStatus status, Format format) {
+    return spoolDirectory.resolve(status.getImportId() + "." + format.getExtension()).toString();
+  }
+
+  private static String json(String prescriptionId) {
+    return ("{\"prescriptionId\":\"%s\",\"patientId\":\"PT-1\",\"practitionerId\":\"PR-1\","
+        + "\"medicationName\":\"Ibuprofen\",\"dosage\":\"200mg\","
+        + "\"issuedAt\":\"2025-09-22T10:30:00Z\"}").formatted(prescriptionId);
+  }
+}
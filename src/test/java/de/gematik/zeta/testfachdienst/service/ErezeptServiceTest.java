@@ -0,0 +1,201 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import de.gematik.zeta.testfachdienst.repository.ErezeptStore;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Unit tests for {@link ErezeptService}.
+ */
+@ExtendWith(MockitoExtension.class)
+class ErezeptServiceTest {
+
+  @Mock
+  private ErezeptStore store;
+  @Mock
+  private ErezeptStatsService stats;
+
+  /**
+   * Ensures an update of an archived prescription is rejected before the store is touched.
+   */
+  @Test
+  void update_rejectsArchivedPrescription() {
+    var service = new ErezeptService(store, stats);
+    when(store.isArchived(7L)).thenReturn(true);
+
+    assertThatThrownBy(() -> service.update(7L, prescription(7L)))
+        .isInstanceOf(ErezeptArchivedException.class)
+        .hasMessage("ERezept with id=7 is archived");
+    verify(store, never()).update(anyLong(), any());
+    verifyNoInteractions(stats);
+  }
+
+  /**
+   * Ensures saving a prescription under an archived id does not re-insert it into the hot store.
+   */
+  @Test
+  void save_rejectsArchivedPrescription() {
+    var service = new ErezeptService(store, stats);
+    when(store.isArchived(7L)).thenReturn(true);
+
+    assertThatThrownBy(() -> service.save(prescription(7L)))
+        .isInstanceOf(ErezeptArchivedException.class);
+    verify(store, never()).save(any());
+  }
+
+  /**
+   * Ensures a delete of an archived prescription is reported as conflict instead of not found.
+   */
+  @Test
+  void deleteIfExists_rejectsArchivedPrescription() {
+    var service = new ErezeptService(store, stats);
+    when(store.isArchived(7L)).thenReturn(true);
+
+    assertThatThrownBy(() -> service.deleteIfExists(7L))
+        .isInstanceOf(ErezeptArchivedException.class);
+    verify(store, never()).deleteById(anyLong());
+  }
+
+  /**
+   * Confirms that a missing, non-archived prescription is still reported as absent.
+   */
+  @Test
+  void deleteIfExists_returnsFalseForUnknownId() {
+    var service = new ErezeptService(store, stats);
+    when(store.deleteById(8L)).thenReturn(false);
+
+    assertThat(service.deleteIfExists(8L)).isFalse();
+    verifyNoInteractions(stats);
+  }
+
+  /**
+   * Ensures text fields longer than their column are rejected with 400 before reaching the store.
+   */
+  @Test
+  void create_rejectsOversizedFields() {
+    var service = new ErezeptService(store, stats);
+    var prescription = prescription(null).toBuilder()
+        .medicationName("€".repeat(Erezept.MEDICATION_NAME_LENGTH + 1))
+        .build();
+
+    assertThatThrownBy(() -> service.create(prescription))
+        .isInstanceOfSatisfying(ResponseStatusException.class, ex -> {
+          assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+          assertThat(ex.getReason()).contains("medicationName");
+        });
+    verifyNoInteractions(store, stats);
+  }
+
+  /**
+   * Verifies that a create request is stored in status CREATED and duplicates are rejected.
+   */
+  @Test
+  void createUnique_createsOrRejectsDuplicates() {
+    var service = new ErezeptService(store, stats);
+    var request = prescription(null);
+    when(store.create(any()))
+        .thenAnswer(invocation -> Optional.of(invocation.<Erezept>getArgument(0).toBuilder().id(1L).build()))
+        .thenReturn(Optional.empty());
+
+    assertThat(service.createUnique(request)).extracting(Erezept::getId, Erezept::getStatus)
+        .containsExactly(1L, ErezeptStatus.CREATED);
+    assertThatThrownBy(() -> service.createUnique(request))
+        .isInstanceOf(DuplicateErezeptException.class)
+        .hasMessage("ERezept with prescriptionId=RX-null already exists");
+    verify(stats).created(any());
+  }
+
+  /**
+   * Ensures a create request naming an existing id is rejected without writing.
+   */
+  @Test
+  void createUnique_rejectsExistingId() {
+    var service = new ErezeptService(store, stats);
+    when(store.existsById(7L)).thenReturn(true);
+
+    assertThatThrownBy(() -> service.createUnique(prescription(7L)))
+        .isInstanceOf(DuplicateErezeptException.class)
+        .hasMessage("ERezept with id=7 already exists");
+    verify(store, never()).create(any());
+  }
+
+  /**
+   * Verifies that a replacement keeps the issue date and status and rejects a taken business id.
+   */
+  @Test
+  void replace_keepsIssueDateAndChecksPrescriptionId() {
+    var service = new ErezeptService(store, stats);
+    var existing = prescription(7L);
+    when(store.findById(7L)).thenReturn(Optional.of(existing));
+    when(store.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(store.existsByPrescriptionId("RX-taken")).thenReturn(true);
+    var request = prescription(null).toBuilder()
+        .prescriptionId(existing.getPrescriptionId())
+        .dosage("400mg")
+        .issuedAt(OffsetDateTime.now())
+        .status(null)
+        .build();
+
+    assertThat(service.replace(7L, request)).get()
+        .extracting(Erezept::getId, Erezept::getDosage, Erezept::getIssuedAt, Erezept::getStatus)
+        .containsExactly(7L, "400mg", existing.getIssuedAt(), existing.getStatus());
+    assertThatThrownBy(() -> service.replace(7L, request.toBuilder().prescriptionId("RX-taken").build()))
+        .isInstanceOf(DuplicateErezeptException.class)
+        .hasMessage("ERezept with prescriptionId=RX-taken already exists");
+    verify(store).save(any());
+  }
+
+  private static Erezept prescription(Long id) {
+    return Erezept.builder()
+        .id(id)
+        .prescriptionId("RX-" + id)
+        .patientId("PT-1")
+        .practitionerId("PR-1")
+        .medicationName("Ibuprofen")
+        .dosage("200mg")
+        .issuedAt(OffsetDateTime.now().minusDays(60))
+        .status(ErezeptStatus.DISPENSED)
+        .build();
+  }
+}
@@ -0,0 +1,133 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.gematik.zeta.testfachdienst.config.ErezeptStatsProperties;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.model.ErezeptStatus;
+import de.gematik.zeta.testfachdienst.repository.InMemoryErezeptStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ErezeptStatsService} together with {@link ErezeptService}.
+ */
+class ErezeptStatsServiceTest {
+
+  private static final OffsetDateTime ISSUED_AT = OffsetDateTime.of(2025, 9, 22, 10, 30, 0, 0, ZoneOffset.UTC);
+
+  private final InMemoryErezeptStore store = new InMemoryErezeptStore();
+  private final ErezeptStatsService stats =
+      new ErezeptStatsService(store, new ErezeptStatsProperties(), new SimpleMeterRegistry());
+  private final ErezeptService service = new ErezeptService(store, stats);
+
+  /**
+   * Creates, updates and deletes through the service are reflected in the counts.
+   */
+  @Test
+  void serviceWritesUpdateCounts() {
+    Erezept first = service.create(prescription("RX-1", "PR-1")).orElseThrow();
+    service.create(prescription("RX-2", "PR-1"));
+    service.create(prescription("RX-3", "PR-2"));
+    service.update(first.getId(), first.toBuilder().status(ErezeptStatus.SIGNED).build());
+    service.deleteIfExists(first.getId());
+
+    var current = stats.current();
+
+    assertThat(current.getTotal()).isEqualTo(2);
+    assertThat(current.getByStatus()).isEqualTo(Map.of(ErezeptStatus.CREATED, 2L));
+    assertThat(current.getByPractitioner()).isEqualTo(Map.of("PR-1", 1L, "PR-2", 1L));
+    assertThat(current.getByDay()).isEqualTo(Map.of(LocalDate.of(2025, 9, 22), 2L));
+  }
+
+  /**
+   * Reconciliation replaces counts that drifted from writes bypassing the service.
+   */
+  @Test
+  void reconcileCorrectsDrift() {
+    service.create(prescription("RX-1", "PR-1"));
+    store.create(prescription("RX-2", "PR-2"));
+
+    assertThat(stats.current().getTotal()).isEqualTo(1);
+
+    stats.reconcile();
+
+    var current = stats.current();
+    assertThat(current.getTotal()).isEqualTo(2);
+    assertThat(current.getByPractitioner()).isEqualTo(Map.of("PR-1", 1L, "PR-2", 1L));
+    assertThat(current.getReconciledAt()).isNotNull();
+  }
+
+  /**
+   * Reconciliation reads the store in batches and bounds the practitioner and day buckets.
+   */
+  @Test
+  void reconcileBoundsBuckets() {
+    var properties = new ErezeptStatsProperties();
+    properties.setReconcileBatchSize(2);
+    properties.setMaxPractitioners(2);
+    properties.setDayRetentionDays(30);
+    final var bounded = new ErezeptStatsService(store, properties, new SimpleMeterRegistry());
+    OffsetDateTime today = OffsetDateTime.now(ZoneOffset.UTC);
+    store.create(prescription("RX-1", "PR-1").toBuilder().issuedAt(today).build());
+    store.create(prescription("RX-2", "PR-1").toBuilder().issuedAt(today).build());
+    store.create(prescription("RX-3", "PR-1").toBuilder().issuedAt(today).build());
+    store.create(prescription("RX-4", "PR-2").toBuilder().issuedAt(today).build());
+    store.create(prescription("RX-5", "PR-2"));
+    store.create(prescription("RX-6", "PR-3"));
+    Erezept deleted = store.create(prescription("RX-7", "PR-3")).orElseThrow();
+    store.deleteById(deleted.getId());
+
+    bounded.reconcile();
+
+    var current = bounded.current();
+    assertThat(current.getTotal()).isEqualTo(6);
+    assertThat(current.getByStatus()).isEqualTo(Map.of(ErezeptStatus.CREATED, 6L));
+    assertThat(current.getByPractitioner()).isEqualTo(Map.of("PR-1", 3L, "PR-2", 2L));
+    assertThat(current.getByDay()).isEqualTo(Map.of(today.toLocalDate(), 4L));
+
+    bounded.created(prescription("RX-9", "PR-5"));
+
+    assertThat(bounded.current().getByPractitioner()).doesNotContainKey("PR-5");
+  }
+
+  private static Erezept prescription(String prescriptionId, String practitionerId) {
+    return Erezept.builder()
+        .prescriptionId(prescriptionId)
+        .patientId("PT-1")
+        .practitionerId(practitionerId)
+        .medicationName("Ibuprofen")
+        .dosage("200mg")
+        .issuedAt(ISSUED_AT)
+        .status(ErezeptStatus.CREATED)
+        .build();
+  }
+}
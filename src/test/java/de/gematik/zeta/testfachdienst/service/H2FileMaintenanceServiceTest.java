@@ -0,0 +1,126 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+import de.gematik.zeta.testfachdienst.config.H2FileProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.jobrunr.scheduling.JobScheduler;
+import org.jobrunr.scheduling.RecurringJobBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Unit tests for {@link H2FileMaintenanceService}.
+ */
+@ExtendWith(MockitoExtension.class)
+class H2FileMaintenanceServiceTest {
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+  @Mock
+  private JobScheduler jobScheduler;
+  @TempDir
+  private Path directory;
+
+  private final H2FileProperties properties = new H2FileProperties();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private H2FileMaintenanceService service;
+
+  /**
+   * Create the service for a database below a temporary directory.
+   */
+  @BeforeEach
+  void setUp() {
+    properties.setPath(directory.resolve("erezeptdb").toString());
+    service = new H2FileMaintenanceService(jdbcTemplate, properties, jobScheduler, meterRegistry);
+  }
+
+  /**
+   * The maintenance job is registered as a recurring job.
+   */
+  @Test
+  void constructor_schedulesRecurringCheckpoint() {
+    verify(jobScheduler).createRecurrently(any(RecurringJobBuilder.class));
+  }
+
+  /**
+   * The database file is derived from the configured path and reported as missing before it exists.
+   */
+  @Test
+  void databaseFileSize_reflectsTheMvStoreFile() throws IOException {
+    assertThat(service.databaseFile()).isEqualTo(directory.resolve("erezeptdb.mv.db"));
+    assertThat(service.databaseFileSize()).isEqualTo(-1);
+
+    Files.write(service.databaseFile(), new byte[42]);
+
+    assertThat(service.databaseFileSize()).isEqualTo(42);
+    assertThat(meterRegistry.get("erezept.h2.file.size").gauge().value()).isEqualTo(42.0);
+  }
+
+  /**
+   * A successful checkpoint is recorded for the health indicator.
+   */
+  @Test
+  void checkpoint_recordsSuccess() {
+    assertThat(service.lastCheckpoint()).isNull();
+
+    service.checkpoint();
+
+    verify(jdbcTemplate).execute("CHECKPOINT SYNC");
+    assertThat(service.lastCheckpoint()).isNotNull();
+    assertThat(service.lastCheckpoint().failed()).isFalse();
+  }
+
+  /**
+   * A failing checkpoint is recorded, counted and rethrown so the job is reported as failed.
+   */
+  @Test
+  void checkpoint_recordsAndRethrowsFailure() {
+    doThrow(new DataAccessResourceFailureException("No space left on device"))
+        .when(jdbcTemplate).execute("CHECKPOINT SYNC");
+
+    assertThatThrownBy(service::checkpoint).isInstanceOf(DataAccessResourceFailureException.class);
+
+    assertThat(service.lastCheckpoint().failed()).isTrue();
+    assertThat(service.lastCheckpoint().error()).isEqualTo("No space left on device");
+    assertThat(meterRegistry.get("erezept.h2.checkpoint.failures").counter().count()).isEqualTo(1.0);
+  }
+}
@@ -25,6 +25,8 @@
 package de.gematik.zeta.testfachdienst.service;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.never;
@@ -139,4 +141,38 @@ class SelfDisclosureExportServiceTest {
 
     verifyNoInteractions(exporterFactory, logRecordExporter, selfDisclosureService);
   }
+
+  /**
+   * Ensures the exporter can be created ahead of the first export without exporting anything.
+   */
+  @Test
+  void initializesExporterWithoutExporting() {
+    when(config.isGrpcExportEnabled()).thenReturn(false);
+    when(config.isHttpExportEnabled()).thenReturn(true);
+    when(config.getHttpHost()).thenReturn("telemetry:4318");
+    when(exporterFactory.createHttpExporter("http://telemetry:4318")).thenReturn(logRecordExporter);
+
+    SelfDisclosureExportService service =
+        new SelfDisclosureExportService(selfDisclosureService, config, exporterFactory);
+
+    assertTrue(service.initializeExporter());
+    assertTrue(service.initializeExporter());
+    verify(exporterFactory).createHttpExporter("http://telemetry:4318");
+    verifyNoInteractions(logRecordExporter, selfDisclosureService);
+  }
+
+  /**
+   * Confirms no exporter is created ahead of time when OTLP export is disabled.
+   */
+  @Test
+  void skipsExporterInitializationWhenNoExporterEnabled() {
+    when(config.isGrpcExportEnabled()).thenReturn(false);
+    when(config.isHttpExportEnabled()).thenReturn(false);
+
+    SelfDisclosureExportService service =
+        new SelfDisclosureExportService(selfDisclosureService, config, exporterFactory);
+
+    assertFalse(service.initializeExporter());
+    verifyNoInteractions(exporterFactory);
+  }
 }
@@ -0,0 +1,71 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.warmup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationPredicate;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Unit tests for {@link WarmupMetricsConfig}.
+ */
+class WarmupMetricsConfigTest {
+
+  private final ObservationPredicate predicate = new WarmupMetricsConfig().warmupRequestsNotObserved();
+
+  /**
+   * Requests carrying the warm-up token are not observed.
+   */
+  @Test
+  void skipsWarmupRequests() {
+    var request = new MockHttpServletRequest("POST", "/api/erezept");
+    request.addHeader(WarmupTraffic.HEADER, WarmupTraffic.TOKEN);
+
+    assertThat(predicate.test("http.server.requests", context(request))).isFalse();
+  }
+
+  /**
+   * Client requests are observed, also when they send the header with another value.
+   */
+  @Test
+  void observesClientRequests() {
+    var request = new MockHttpServletRequest("POST", "/api/erezept");
+    var guessed = new MockHttpServletRequest("POST", "/api/erezept");
+    guessed.addHeader(WarmupTraffic.HEADER, "guessed");
+
+    assertThat(predicate.test("http.server.requests", context(request))).isTrue();
+    assertThat(predicate.test("http.server.requests", context(guessed))).isTrue();
+    assertThat(predicate.test("jdbc.query", new Observation.Context())).isTrue();
+  }
+
+  private static ServerRequestObservationContext context(MockHttpServletRequest request) {
+    return new ServerRequestObservationContext(request, new MockHttpServletResponse());
+  }
+}
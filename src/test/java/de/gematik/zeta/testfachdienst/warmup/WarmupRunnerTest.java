@@ -0,0 +1,195 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.warmup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import de.gematik.zeta.testfachdienst.config.WarmupProperties;
+import de.gematik.zeta.testfachdienst.model.Erezept;
+import de.gematik.zeta.testfachdienst.service.ErezeptService;
+import de.gematik.zeta.testfachdienst.service.SelfDisclosureExportService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Unit tests for {@link WarmupRunner}.
+ */
+@ExtendWith(MockitoExtension.class)
+class WarmupRunnerTest {
+
+  @Mock
+  private ErezeptService service;
+  @Mock
+  private SelfDisclosureExportService exportService;
+  @Mock
+  private RestWarmup rest;
+  @Mock
+  private StompWarmup stomp;
+  @Mock
+  private ApplicationEventPublisher publisher;
+
+  private final WarmupProperties properties = new WarmupProperties();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final DefaultApplicationArguments args = new DefaultApplicationArguments();
+
+  private WarmupRunner runner;
+
+  /**
+   * Create the runner with few iterations.
+   */
+  @BeforeEach
+  void setUp() {
+    properties.setEnabled(true);
+    properties.setIterations(5);
+    runner = new WarmupRunner(properties, service, exportService, rest, stomp, publisher, meterRegistry);
+  }
+
+  /**
+   * Preloads the stored rows, initializes the exporter, sends the requests for the preloaded rows
+   * and refuses traffic meanwhile.
+   */
+  @Test
+  void warmsUpPreloadedRowsWhileRefusingTraffic() throws Exception {
+    when(service.findPage(0, 100)).thenReturn(List.of(erezept(1L, "RX-1"), erezept(2L, "RX-2")));
+    final HotRows hot = new HotRows(List.of(1L, 2L), List.of("RX-1", "RX-2"));
+
+    runner.run(args);
+
+    verify(service).findById(1L);
+    verify(service).findByPrescriptionId("RX-2");
+    verify(exportService).initializeExporter();
+    verify(rest).run(hot, 5);
+    verify(stomp).run(hot, 5);
+    ArgumentCaptor<ApplicationEvent> event = ArgumentCaptor.forClass(ApplicationEvent.class);
+    verify(publisher).publishEvent(event.capture());
+    assertThat(event.getValue()).isInstanceOfSatisfying(AvailabilityChangeEvent.class,
+        change -> assertThat(change.getState()).isEqualTo(ReadinessState.REFUSING_TRAFFIC));
+    assertThat(outcomes("completed")).isEqualTo(1);
+  }
+
+  /**
+   * Stops preloading once the configured number of rows has been read.
+   */
+  @Test
+  void preloadsAtMostConfiguredRows() throws Exception {
+    properties.setPreloadRows(1);
+    when(service.findPage(0, 100)).thenReturn(List.of(erezept(1L, "RX-1"), erezept(2L, "RX-2")));
+
+    runner.run(args);
+
+    verify(service).findById(1L);
+    verify(service, never()).findById(2L);
+    verify(stomp).run(new HotRows(List.of(1L), List.of("RX-1")), 5);
+  }
+
+  /**
+   * Interrupts a warm-up that exceeds the timeout and lets the startup continue.
+   */
+  @Test
+  void interruptsWarmupAfterTimeout() throws Exception {
+    properties.setTimeoutSeconds(1);
+    when(service.findPage(0, 100)).thenReturn(List.of());
+    doAnswer(invocation -> {
+      Thread.sleep(60_000);
+      return null;
+    }).when(stomp).run(any(), anyInt());
+
+    long startedAt = System.nanoTime();
+    runner.run(args);
+
+    assertThat(System.nanoTime() - startedAt).isLessThan(10_000_000_000L);
+    assertThat(outcomes("timeout")).isEqualTo(1);
+  }
+
+  /**
+   * A failing warm-up is recorded but does not fail the startup.
+   */
+  @Test
+  void continuesStartupWhenWarmupFails() throws Exception {
+    when(service.findPage(0, 100)).thenThrow(new IllegalStateException("database unavailable"));
+
+    runner.run(args);
+
+    verify(stomp, never()).run(any(), anyInt());
+    assertThat(outcomes("failed")).isEqualTo(1);
+  }
+
+  /**
+   * Failing loopback requests, e.g. because the server demands client certificates, do not skip
+   * the STOMP warm-up.
+   */
+  @Test
+  void continuesWithStompWhenRestFails() throws Exception {
+    when(service.findPage(0, 100)).thenReturn(List.of());
+    when(rest.run(any(), anyInt())).thenThrow(new ResourceAccessException("handshake failed"));
+
+    runner.run(args);
+
+    verify(service, never()).findById(anyLong());
+    verify(stomp).run(new HotRows(List.of(), List.of()), 5);
+    assertThat(outcomes("completed")).isEqualTo(1);
+  }
+
+  /**
+   * Does nothing unless enabled, so that the readiness state is left to Spring Boot.
+   */
+  @Test
+  void skipsWarmupWhenDisabled() throws Exception {
+    properties.setEnabled(false);
+
+    runner.run(args);
+
+    verifyNoInteractions(service, exportService, rest, stomp, publisher);
+    assertThat(meterRegistry.find("erezept.warmup.duration").timer()).isNull();
+  }
+
+  private long outcomes(String outcome) {
+    return meterRegistry.get("erezept.warmup.duration").tag("outcome", outcome).timer().count();
+  }
+
+  private static Erezept erezept(Long id, String prescriptionId) {
+    return Erezept.builder().id(id).prescriptionId(prescriptionId).build();
+  }
+}
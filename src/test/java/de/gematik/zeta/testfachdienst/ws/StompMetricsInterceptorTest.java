@@ -0,0 +1,216 @@
+/*-
+ * #%L
+ * ZETA Testfachdienst
+ * %%
+ * (C) achelos GmbH, 2025, licensed for gematik GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * *******
+ *
+ * For additional notes and disclaimer from gematik and in case of changes by gematik find details in the "Readme" file.
+ * #L%
+ */
+
+package de.gematik.zeta.testfachdienst.ws;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import de.gematik.zeta.testfachdienst.service.ErezeptArchivedException;
+import de.gematik.zeta.testfachdienst.warmup.WarmupTraffic;
+import de.gematik.zeta.testfachdienst.ws.StompMetricsInterceptor.Direction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.annotation.support.SimpAnnotationMethodMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Unit tests for {@link StompMetricsInterceptor}.
+ */
+class StompMetricsInterceptorTest {
+
+  private static final String CONTEXT_PATH = "/achelos_testfachdienst";
+  private static final List<String> MAPPINGS = List.of("/erezept.create", "/erezept.read.{id}", "/erezept.update.{id}");
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final StompMetricsInterceptor inbound =
+      new StompMetricsInterceptor(registry, Direction.INBOUND, CONTEXT_PATH, () -> MAPPINGS);
+  private final MessageChannel channel = new ExecutorSubscribableChannel();
+  private final SimpAnnotationMethodMessageHandler handler = mock(SimpAnnotationMethodMessageHandler.class);
+
+  /**
+   * Handler durations and payload sizes are tagged with the normalized destination.
+   */
+  @Test
+  void recordsHandlerDurationPerNormalizedDestination() {
+    Message<byte[]> read = frame(StompCommand.SEND, CONTEXT_PATH + "/app/erezept.read.42", "{}");
+
+    inbound.preSend(read, channel);
+    inbound.beforeHandle(read, channel, handler);
+    inbound.afterMessageHandled(read, channel, handler, null);
+
+    assertThat(registry.get("erezept.stomp.handler")
+        .tags("destination", "erezept.read.{id}", "outcome", "SUCCESS", "status", "200")
+        .timer().count()).isEqualTo(1);
+    assertThat(registry.get("erezept.stomp.messages")
+        .tags("direction", "inbound", "destination", "erezept.read.{id}")
+        .summary().totalAmount()).isEqualTo(2);
+    assertThat(registry.find("erezept.stomp.errors").counter()).isNull();
+  }
+
+  /**
+   * Errors answered by {@link WebSocketExceptionHandler} are counted with their status.
+   */
+  @Test
+  void countsErrorResponses() {
+    Message<byte[]> update = frame(StompCommand.SEND, CONTEXT_PATH + "/app/erezept.update.7", "{}");
+
+    inbound.beforeHandle(update, channel, handler);
+    new WebSocketExceptionHandler().handleException(new ResponseStatusException(HttpStatus.NOT_FOUND, "missing"));
+    inbound.afterMessageHandled(update, channel, handler, null);
+
+    assertThat(registry.get("erezept.stomp.handler")
+        .tags("destination", "erezept.update.{id}", "outcome", "CLIENT_ERROR", "status", "404")
+        .timer().count()).isEqualTo(1);
+    assertThat(registry.get("erezept.stomp.errors")
+        .tags("destination", "erezept.update.{id}", "status", "404")
+        .counter().count()).isEqualTo(1);
+  }
+
+  /**
+   * Conflicts raised by the service are answered and counted as 409.
+   */
+  @Test
+  void countsConflictsAs409() {
+    Message<byte[]> update = frame(StompCommand.SEND, CONTEXT_PATH + "/app/erezept.update.7", "{}");
+
+    inbound.beforeHandle(update, channel, handler);
+    var response = new WebSocketExceptionHandler().handleException(new ErezeptArchivedException(7L));
+    inbound.afterMessageHandled(update, channel, handler, null);
+
+    assertThat(response.getStatus()).isEqualTo(409);
+    assertThat(response.getMessage()).isEqualTo("ERezept with id=7 is archived");
+    assertThat(registry.get("erezept.stomp.errors")
+        .tags("destination", "erezept.update.{id}", "status", "409")
+        .counter().count()).isEqualTo(1);
+  }
+
+  /**
+   * Destinations without a matching {@code @MessageMapping} are reported as {@code other}.
+   */
+  @Test
+  void reportsUnmappedDestinationsAsOther() {
+    Message<byte[]> unknown = frame(StompCommand.SEND, CONTEXT_PATH + "/app/erezept.purge.7f3a9c", "{}");
+    Message<byte[]> broker = frame(StompCommand.SEND, CONTEXT_PATH + "/topic/client-chosen-4711", "{}");
+
+    inbound.preSend(unknown, channel);
+    inbound.beforeHandle(unknown, channel, handler);
+    inbound.afterMessageHandled(unknown, channel, handler, null);
+    inbound.preSend(broker, channel);
+
+    assertThat(registry.get("erezept.stomp.handler").tags("destination", "other").timer().count()).isEqualTo(1);
+    assertThat(registry.get("erezept.stomp.messages").tags("destination", "other").summary().count()).isEqualTo(2);
+    assertThat(registry.find("erezept.stomp.messages").summaries()).hasSize(1);
+  }
+
+  /**
+   * Frames of the warm-up session are not recorded.
+   */
+  @Test
+  void skipsWarmupSession() {
+    StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SEND);
+    accessor.setDestination(CONTEXT_PATH + "/app/erezept.create");
+    accessor.setSessionId(WarmupTraffic.STOMP_SESSION_ID);
+    Message<byte[]> create = MessageBuilder.createMessage("{}".getBytes(StandardCharsets.UTF_8), accessor.getMessageHeaders());
+
+    inbound.preSend(create, channel);
+    inbound.beforeHandle(create, channel, handler);
+    StompMetricsInterceptor.failed(HttpStatus.BAD_REQUEST.value());
+    inbound.afterMessageHandled(create, channel, handler, null);
+
+    assertThat(registry.find("erezept.stomp.messages").summaries()).isEmpty();
+    assertThat(registry.find("erezept.stomp.handler").timers()).isEmpty();
+    assertThat(registry.find("erezept.stomp.errors").counters()).isEmpty();
+  }
+
+  /**
+   * Sessions and subscriptions follow CONNECT, SUBSCRIBE, UNSUBSCRIBE and DISCONNECT frames.
+   */
+  @Test
+  void tracksSessionsAndSubscriptions() {
+    inbound.preSend(frame(StompCommand.CONNECT, null, ""), channel);
+    inbound.preSend(subscribe("sub-0", CONTEXT_PATH + "/topic/erezept"), channel);
+    inbound.preSend(subscribe("sub-1", CONTEXT_PATH + "/user/queue/erezept"), channel);
+
+    assertThat(registry.get("erezept.stomp.sessions").gauge().value()).isEqualTo(1);
+    assertThat(registry.get("erezept.stomp.subscriptions").gauge().value()).isEqualTo(2);
+
+    var unsubscribe = StompHeaderAccessor.create(StompCommand.UNSUBSCRIBE);
+    unsubscribe.setSessionId("session-1");
+    unsubscribe.setSubscriptionId("sub-0");
+    inbound.preSend(MessageBuilder.createMessage(new byte[0], unsubscribe.getMessageHeaders()), channel);
+
+    assertThat(registry.get("erezept.stomp.subscriptions").gauge().value()).isEqualTo(1);
+
+    inbound.preSend(frame(StompCommand.DISCONNECT, null, ""), channel);
+
+    assertThat(registry.get("erezept.stomp.sessions").gauge().value()).isZero();
+    assertThat(registry.get("erezept.stomp.subscriptions").gauge().value()).isZero();
+  }
+
+  /**
+   * Resolved user destinations are reported under the destination the client subscribed to.
+   */
+  @Test
+  void normalizesOutboundUserDestinations() {
+    final var outbound = new StompMetricsInterceptor(registry, Direction.OUTBOUND, CONTEXT_PATH, () -> MAPPINGS);
+    var accessor = StompHeaderAccessor.create(StompCommand.MESSAGE);
+    accessor.setSessionId("session-1");
+    accessor.setDestination("/queue/erezept-usersession-1");
+    accessor.setHeader("simpOrigDestination", CONTEXT_PATH + "/user/queue/erezept");
+
+    outbound.preSend(MessageBuilder.createMessage("{\"id\":1}".getBytes(StandardCharsets.UTF_8),
+        accessor.getMessageHeaders()), channel);
+
+    assertThat(registry.get("erezept.stomp.messages")
+        .tags("direction", "outbound", "destination", "/user/queue/erezept")
+        .summary().count()).isEqualTo(1);
+  }
+
+  private static Message<byte[]> frame(StompCommand command, String destination, String payload) {
+    var accessor = StompHeaderAccessor.create(command);
+    accessor.setSessionId("session-1");
+    if (destination != null) {
+      accessor.setDestination(destination);
+    }
+    return MessageBuilder.createMessage(payload.getBytes(StandardCharsets.UTF_8), accessor.getMessageHeaders());
+  }
+
+  private static Message<byte[]> subscribe(String subscriptionId, String destination) {
+    var accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+    accessor.setSessionId("session-1");
+    accessor.setSubscriptionId(subscriptionId);
+    accessor.setDestination(destination);
+    return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+  }
+}